@@ -0,0 +1,221 @@
+package gms.dataacquisition.cd11.rsdf.processor;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import gms.shared.frameworks.osd.coi.channel.soh.AcquiredChannelEnvironmentIssue;
+import gms.shared.frameworks.osd.coi.channel.soh.AcquiredChannelEnvironmentIssue.AcquiredChannelEnvironmentIssueType;
+import gms.shared.frameworks.osd.coi.channel.soh.AcquiredChannelEnvironmentIssueBoolean;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Coalesces the boolean {@link AcquiredChannelEnvironmentIssue}s parsed from consecutive frames
+ * into runs, one per channel and type, so that a status repeated frame after frame is published
+ * as a single ACEI spanning all of them rather than one per frame.
+ * <p>
+ * The first ACEI of a run is published as soon as it is seen, so status changes are not delayed.
+ * The run is then extended by each following ACEI of the same status that starts no later than
+ * the contiguity tolerance after it ends, and is published again, covering its whole span, once
+ * it is broken by a status change or a gap, or once it reaches the maximum span. Both
+ * publications of a run share its start time and so its
+ * {@link AcquiredChannelEnvironmentIssue#getId() id}. Analog ACEIs are passed through unchanged.
+ * <p>
+ * Runs are expired by data time rather than wall clock, so that frames processed late, such as
+ * after an outage, coalesce as they would have on time: a run is ended by {@link #expire()} once
+ * its channel has ACEIs ending more than the contiguity tolerance after it without having extended
+ * it. A channel that stops sending never moves past its runs, so {@link #expire()} also ends the
+ * runs of a channel none of whose ACEIs has been coalesced for the idle timeout, by wall clock.
+ * Open runs are only held in memory, so {@link #flush()} ends them all before the coalescer is
+ * discarded.
+ */
+final class BooleanAceiRunCoalescer {
+
+  // Subframes of a channel are contiguous but not overlapping, with one sample period between the
+  // end of one and the start of the next
+  static final Duration CONTIGUITY_TOLERANCE = Duration.ofSeconds(1);
+
+  private final Duration maxSpan;
+  private final Duration idleTimeout;
+  private final Clock clock;
+  private final Map<String, ChannelRuns> runsByChannel;
+
+  private BooleanAceiRunCoalescer(Duration maxSpan, Duration idleTimeout, Clock clock) {
+    this.maxSpan = maxSpan;
+    this.idleTimeout = idleTimeout;
+    this.clock = clock;
+    this.runsByChannel = new HashMap<>();
+  }
+
+  /**
+   * @param maxSpan Longest span of a run before it is published and a new run is started
+   * @param idleTimeout How long the runs of a channel stay open without any of its ACEIs being
+   * coalesced
+   * @return A coalescer without any open runs
+   */
+  static BooleanAceiRunCoalescer create(Duration maxSpan, Duration idleTimeout) {
+    return create(maxSpan, idleTimeout, Clock.systemUTC());
+  }
+
+  static BooleanAceiRunCoalescer create(Duration maxSpan, Duration idleTimeout, Clock clock) {
+    checkArgument(!maxSpan.isNegative(), "Maximum ACEI run span cannot be negative");
+    checkArgument(!idleTimeout.isNegative(), "ACEI run idle timeout cannot be negative");
+    return new BooleanAceiRunCoalescer(maxSpan, idleTimeout, clock);
+  }
+
+  /**
+   * Adds the ACEIs parsed from a frame to their runs
+   *
+   * @param aceis ACEIs parsed from a frame
+   * @return The ACEIs to publish: analog ACEIs, the first ACEI of each run started, and each run
+   * ended by the frame
+   */
+  synchronized List<AcquiredChannelEnvironmentIssue<?>> coalesce(
+      List<AcquiredChannelEnvironmentIssue<?>> aceis) {
+    List<AcquiredChannelEnvironmentIssue<?>> published = new ArrayList<>();
+    Instant now = clock.instant();
+    for (AcquiredChannelEnvironmentIssue<?> acei : aceis) {
+      ChannelRuns channelRuns = runsByChannel
+          .computeIfAbsent(acei.getChannelName(), channelName -> new ChannelRuns());
+      channelRuns.advance(acei.getEndTime(), now);
+      if (acei instanceof AcquiredChannelEnvironmentIssueBoolean) {
+        coalesce((AcquiredChannelEnvironmentIssueBoolean) acei, channelRuns.runs, published);
+      } else {
+        published.add(acei);
+      }
+    }
+    return published;
+  }
+
+  private void coalesce(AcquiredChannelEnvironmentIssueBoolean acei,
+      Map<AcquiredChannelEnvironmentIssueType, Run> runs,
+      List<AcquiredChannelEnvironmentIssue<?>> published) {
+    Run run = runs.get(acei.getType());
+
+    if (run != null && acei.getStartTime().isBefore(run.start.getStartTime())) {
+      // Late data from before the run is published on its own
+      published.add(acei);
+    } else if (run != null && run.extendableBy(acei)) {
+      run.extend(acei.getEndTime());
+    } else {
+      if (run != null) {
+        run.end().ifPresent(published::add);
+      }
+      runs.put(acei.getType(), new Run(acei));
+      published.add(acei);
+    }
+  }
+
+  /**
+   * Ends the runs that their channel's data has moved past without extending, such as those of a
+   * type no longer reported for the channel, and the runs of channels idle for the idle timeout
+   *
+   * @return The ended runs to publish
+   */
+  synchronized List<AcquiredChannelEnvironmentIssue<?>> expire() {
+    List<AcquiredChannelEnvironmentIssue<?>> published = new ArrayList<>();
+    Instant idleSince = clock.instant().minus(idleTimeout);
+    for (ChannelRuns channelRuns : runsByChannel.values()) {
+      // Every run of an idle channel ends before the latest end time of its ACEIs
+      Instant expiry = channelRuns.lastCoalesced.isBefore(idleSince) ? Instant.MAX
+          : channelRuns.latestEndTime.minus(CONTIGUITY_TOLERANCE);
+      Iterator<Run> iterator = channelRuns.runs.values().iterator();
+      while (iterator.hasNext()) {
+        Run run = iterator.next();
+        if (run.endTime.isBefore(expiry)) {
+          run.end().ifPresent(published::add);
+          iterator.remove();
+        }
+      }
+    }
+    runsByChannel.values().removeIf(channelRuns -> channelRuns.runs.isEmpty());
+    return published;
+  }
+
+  /**
+   * @return Whether {@link #expire()} would end the runs of an idle channel
+   */
+  synchronized boolean hasIdleRuns() {
+    Instant idleSince = clock.instant().minus(idleTimeout);
+    return runsByChannel.values().stream().anyMatch(channelRuns ->
+        !channelRuns.runs.isEmpty() && channelRuns.lastCoalesced.isBefore(idleSince));
+  }
+
+  /**
+   * Ends every open run, such as when the coalescer is about to be discarded
+   *
+   * @return The ended runs to publish
+   */
+  synchronized List<AcquiredChannelEnvironmentIssue<?>> flush() {
+    List<AcquiredChannelEnvironmentIssue<?>> published = new ArrayList<>();
+    for (ChannelRuns channelRuns : runsByChannel.values()) {
+      channelRuns.runs.values().forEach(run -> run.end().ifPresent(published::add));
+    }
+    runsByChannel.clear();
+    return published;
+  }
+
+  /**
+   * The open runs of a channel, the latest end time of its ACEIs and when one was last coalesced
+   */
+  private static final class ChannelRuns {
+
+    private final Map<AcquiredChannelEnvironmentIssueType, Run> runs =
+        new EnumMap<>(AcquiredChannelEnvironmentIssueType.class);
+    private Instant latestEndTime = Instant.MIN;
+    private Instant lastCoalesced = Instant.MIN;
+
+    private void advance(Instant endTime, Instant now) {
+      if (endTime.isAfter(latestEndTime)) {
+        latestEndTime = endTime;
+      }
+      lastCoalesced = now;
+    }
+  }
+
+  /**
+   * A run of a single status, starting with an ACEI that has already been published
+   */
+  private final class Run {
+
+    private final AcquiredChannelEnvironmentIssueBoolean start;
+    private Instant endTime;
+
+    private Run(AcquiredChannelEnvironmentIssueBoolean start) {
+      this.start = start;
+      this.endTime = start.getEndTime();
+    }
+
+    private boolean extendableBy(AcquiredChannelEnvironmentIssueBoolean acei) {
+      return acei.getStatus().equals(start.getStatus())
+          && !acei.getStartTime().isAfter(endTime.plus(CONTIGUITY_TOLERANCE))
+          && Duration.between(start.getStartTime(), acei.getEndTime()).compareTo(maxSpan) <= 0;
+    }
+
+    private void extend(Instant aceiEndTime) {
+      if (aceiEndTime.isAfter(endTime)) {
+        endTime = aceiEndTime;
+      }
+    }
+
+    /**
+     * @return The ACEI covering the whole run, unless the run was never extended past its already
+     * published first ACEI
+     */
+    private Optional<AcquiredChannelEnvironmentIssueBoolean> end() {
+      if (endTime.equals(start.getEndTime())) {
+        return Optional.empty();
+      }
+      return Optional.of(AcquiredChannelEnvironmentIssueBoolean.from(
+          start.getChannelName(), start.getType(), start.getStartTime(), endTime,
+          start.getStatus()));
+    }
+  }
+}
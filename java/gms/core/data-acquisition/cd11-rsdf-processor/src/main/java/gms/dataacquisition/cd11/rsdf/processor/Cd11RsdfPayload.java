@@ -0,0 +1,72 @@
+package gms.dataacquisition.cd11.rsdf.processor;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import gms.dataacquisition.stationreceiver.cd11.common.Cd11FrameReader;
+import gms.dataacquisition.stationreceiver.cd11.common.Cd11OrMalformedFrame;
+import gms.dataacquisition.stationreceiver.cd11.common.enums.FrameType;
+import gms.dataacquisition.stationreceiver.cd11.common.frames.Cd11ChannelSubframe;
+import gms.dataacquisition.stationreceiver.cd11.common.frames.Cd11Data;
+import gms.dataacquisition.stationreceiver.cd11.common.frames.Cd11Frame;
+import gms.shared.frameworks.osd.coi.waveforms.RawStationDataFrame;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * A {@link RawStationDataFrame} along with its CD 1.1 data frame payload, decoded once so that
+ * the State-of-Health and the waveforms of the frame can each be parsed from it without reading
+ * the raw payload again.
+ */
+final class Cd11RsdfPayload {
+
+  private final RawStationDataFrame rsdf;
+  private final Cd11Data cd11Data;
+
+  private Cd11RsdfPayload(RawStationDataFrame rsdf, Cd11Data cd11Data) {
+    this.rsdf = rsdf;
+    this.cd11Data = cd11Data;
+  }
+
+  /**
+   * Decodes the raw payload of a {@link RawStationDataFrame}
+   *
+   * @param rsdf The data frame to decode
+   * @return The data frame with its decoded payload
+   * @throws IOException If there were errors in reading the data frame
+   * @throws IllegalArgumentException If the payload is not a DATA or CD_ONE_ENCAPSULATION frame
+   */
+  static Cd11RsdfPayload decode(RawStationDataFrame rsdf) throws IOException {
+    checkNotNull(rsdf, "Cannot decode null RawStationDataFrame");
+
+    Cd11OrMalformedFrame cd11OrMalformed = Cd11FrameReader
+        .readFrame(ByteBuffer.wrap(rsdf.getRawPayload()));
+    if (Cd11OrMalformedFrame.Kind.MALFORMED.equals(cd11OrMalformed.getKind())) {
+      throw new IOException("Error reading Rsdf Payload", cd11OrMalformed.malformed().getCause());
+    }
+
+    Cd11Frame cd11Frame = cd11OrMalformed.cd11();
+    if (!(cd11Frame.getType().equals(FrameType.DATA) ||
+        cd11Frame.getType().equals(FrameType.CD_ONE_ENCAPSULATION))) {
+      throw new IllegalArgumentException("Rsdf Payload is of unexpected type " + cd11Frame.getType()
+          + ", must be DATA or CD_ONE_ENCAPSULATION");
+    }
+
+    return new Cd11RsdfPayload(rsdf, (Cd11Data) cd11Frame.getPayload());
+  }
+
+  RawStationDataFrame getRsdf() {
+    return rsdf;
+  }
+
+  String getStationName() {
+    return rsdf.getMetadata().getStationName();
+  }
+
+  /**
+   * @return The channel subframes of the payload, one per channel
+   */
+  List<Cd11ChannelSubframe> getChannelSubframes() {
+    return cd11Data.getChannelSubframes();
+  }
+}
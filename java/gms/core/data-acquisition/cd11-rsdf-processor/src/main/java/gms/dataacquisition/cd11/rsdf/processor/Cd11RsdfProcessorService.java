@@ -37,7 +37,11 @@ public class Cd11RsdfProcessorService {
             systemConfig);
 
     return new Cd11RsdfProcessorService(
-        ReactorCd11RsdfProcessor.create(kafkaConfiguration, dataFrameReceiverConfiguration));
+        ReactorCd11RsdfProcessor.create(kafkaConfiguration, dataFrameReceiverConfiguration,
+            systemConfig.getValueAsInt("buffer-size"),
+            systemConfig.getValueAsDuration("buffer-timeout"),
+            systemConfig.getValueAsDuration("acei-max-span"),
+            systemConfig.getValueAsDuration("acei-idle-timeout")));
   }
 
   public Cd11RsdfProcessor getCd11RsdfProcessor() {
@@ -3,19 +3,17 @@ package gms.dataacquisition.cd11.rsdf.processor;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import gms.core.dataacquisition.receiver.DataFrameReceiverConfiguration;
-import gms.dataacquisition.stationreceiver.cd11.common.Cd11FrameReader;
-import gms.dataacquisition.stationreceiver.cd11.common.Cd11OrMalformedFrame;
-import gms.dataacquisition.stationreceiver.cd11.common.enums.FrameType;
 import gms.dataacquisition.stationreceiver.cd11.common.frames.Cd11ChannelSubframe;
-import gms.dataacquisition.stationreceiver.cd11.common.frames.Cd11Data;
-import gms.dataacquisition.stationreceiver.cd11.common.frames.Cd11Frame;
+import gms.dataacquisition.stationreceiver.cd11.common.frames.Cd11ChannelTable;
 import gms.shared.frameworks.osd.coi.channel.soh.AcquiredChannelEnvironmentIssue;
 import gms.shared.frameworks.osd.coi.soh.AcquiredStationSohExtract;
 import gms.shared.frameworks.osd.coi.waveforms.RawStationDataFrame;
 import java.io.IOException;
-import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -24,10 +22,12 @@ class Cd11StationSohExtractParser {
   private static final Logger logger = LoggerFactory.getLogger(Cd11StationSohExtractParser.class);
 
   private DataFrameReceiverConfiguration dataFrameReceiverConfiguration;
+  private final Map<String, Cd11ChannelTable<String>> channelNamesByStation;
 
   private Cd11StationSohExtractParser(
       DataFrameReceiverConfiguration dataFrameReceiverConfiguration) {
     this.dataFrameReceiverConfiguration = dataFrameReceiverConfiguration;
+    this.channelNamesByStation = new ConcurrentHashMap<>();
   }
 
   public static Cd11StationSohExtractParser create(
@@ -48,45 +48,58 @@ class Cd11StationSohExtractParser {
   public AcquiredStationSohExtract parseStationSohExtract(RawStationDataFrame rsdf)
       throws IOException {
     checkNotNull(rsdf, "Cannot parse null RawStationDataFrame");
+    return parseStationSohExtract(Cd11RsdfPayload.decode(rsdf));
+  }
+
+  /**
+   * Builds up a collection of data frame metadata and State-of-Health from an already decoded
+   * {@link RawStationDataFrame}
+   *
+   * @param payload The decoded data frame to parse
+   * @return {@link AcquiredStationSohExtract} representing State-of-Health data and data frame
+   * metadata
+   */
+  AcquiredStationSohExtract parseStationSohExtract(Cd11RsdfPayload payload) {
+    checkNotNull(payload, "Cannot parse null Cd11RsdfPayload");
+    RawStationDataFrame rsdf = payload.getRsdf();
     logger.info("Parsing StationSohExtract for RawStationDataFrame {}:{}",
-        rsdf.getMetadata().getStationName(),
+        payload.getStationName(),
         rsdf.getId());
 
-    Cd11OrMalformedFrame cd11OrMalformed = Cd11FrameReader
-        .readFrame(ByteBuffer.wrap(rsdf.getRawPayload()));
-    if (Cd11OrMalformedFrame.Kind.MALFORMED.equals(cd11OrMalformed.getKind())) {
-      throw new IOException("Error reading Rsdf Payload", cd11OrMalformed.malformed().getCause());
-    }
-
-    Cd11Frame cd11Frame = cd11OrMalformed.cd11();
-    if (!(cd11Frame.getType().equals(FrameType.DATA) ||
-        cd11Frame.getType().equals(FrameType.CD_ONE_ENCAPSULATION))) {
-      throw new IllegalArgumentException("Rsdf Payload is of unexpected type " + cd11Frame.getType()
-          + ", must be DATA or CD_ONE_ENCAPSULATION");
-    }
-    Cd11Data cd11Data = (Cd11Data) cd11Frame.getPayload();
-
     //Parse each subframe (1 subframe = 1 channel)
     //Resolve channel name from config, if not present, skip.
     // Parse the channel status bits and then save to the OSD.
     List<AcquiredChannelEnvironmentIssue<?>> statesOfHealth = new ArrayList<>();
-    for (Cd11ChannelSubframe subframe : cd11Data.getChannelSubframes()) {
-      String subFrameName = String
-          .format("%s.%s.%s", rsdf.getMetadata().getStationName(), subframe.siteName,
-              subframe.channelName);
-      dataFrameReceiverConfiguration
-          .getChannelName(subFrameName)
-          .ifPresentOrElse(
+    Cd11ChannelTable<String> channelNames = channelNamesByStation
+        .computeIfAbsent(payload.getStationName(), this::createChannelNameTable);
+    for (Cd11ChannelSubframe subframe : payload.getChannelSubframes()) {
+      channelNames.resolve(subframe)
+          .ifPresent(
               channelName -> statesOfHealth.addAll(Cd11AcquiredChannelEnvironmentIssuesParser
                   .parseAcquiredChannelSoh(subframe.channelStatusData, channelName,
-                      subframe.timeStamp, subframe.endTime)),
-              () -> logger.warn(
-                  "Channel name for subframe with name {} not found in configuration. "
-                      + "Skipping channel subframe.",
-                  subFrameName));
+                      subframe.timeStamp, subframe.endTime)));
     }
 
     return AcquiredStationSohExtract.create(List.of(rsdf.getMetadata()),
         statesOfHealth);
   }
+
+  /**
+   * Creates the table resolving a station's channel subframes to their configured channel names.
+   * Subframes without a configured channel name are logged when first seen.
+   *
+   * @param stationName Name of the station
+   * @return The station's channel name table
+   */
+  private Cd11ChannelTable<String> createChannelNameTable(String stationName) {
+    return Cd11ChannelTable.create((siteName, channelName, locationName) -> {
+      String subFrameName = String.format("%s.%s.%s", stationName, siteName, channelName);
+      Optional<String> configuredName = dataFrameReceiverConfiguration.getChannelName(subFrameName);
+      if (configuredName.isEmpty()) {
+        logger.warn("Channel name for subframe with name {} not found in configuration. "
+            + "Skipping channel subframes.", subFrameName);
+      }
+      return configuredName;
+    });
+  }
 }
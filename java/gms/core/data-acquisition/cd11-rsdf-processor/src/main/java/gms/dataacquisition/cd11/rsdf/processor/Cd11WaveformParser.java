@@ -3,20 +3,14 @@ package gms.dataacquisition.cd11.rsdf.processor;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import static java.lang.String.format;
-import static java.util.function.Function.identity;
 import static java.util.stream.Collectors.toList;
-import static java.util.stream.Collectors.toMap;
 import static java.util.stream.Collectors.toSet;
 
 import com.google.common.collect.Sets;
 import gms.core.dataacquisition.receiver.DataFrameReceiverConfiguration;
-import gms.dataacquisition.stationreceiver.cd11.common.Cd11FrameReader;
-import gms.dataacquisition.stationreceiver.cd11.common.Cd11OrMalformedFrame;
 import gms.dataacquisition.stationreceiver.cd11.common.enums.CompressionFormat;
-import gms.dataacquisition.stationreceiver.cd11.common.enums.FrameType;
 import gms.dataacquisition.stationreceiver.cd11.common.frames.Cd11ChannelSubframe;
-import gms.dataacquisition.stationreceiver.cd11.common.frames.Cd11Data;
-import gms.dataacquisition.stationreceiver.cd11.common.frames.Cd11Frame;
+import gms.dataacquisition.stationreceiver.cd11.common.frames.Cd11ChannelTable;
 import gms.shared.frameworks.osd.api.channel.ChannelRepositoryInterface;
 import gms.shared.frameworks.osd.coi.channel.Channel;
 import gms.shared.frameworks.osd.coi.channel.ChannelSegment;
@@ -24,9 +18,7 @@ import gms.shared.frameworks.osd.coi.channel.ChannelSegment.Type;
 import gms.shared.frameworks.osd.coi.waveforms.RawStationDataFrame;
 import gms.shared.frameworks.osd.coi.waveforms.Waveform;
 import gms.utilities.waveformreader.WaveformReader;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.security.InvalidParameterException;
 import java.util.ArrayList;
@@ -37,6 +29,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -44,7 +37,8 @@ class Cd11WaveformParser {
 
   private final DataFrameReceiverConfiguration configuration;
   private final ChannelRepositoryInterface channelRepository;
-  private Map<String, Channel> channelsByName;
+  private final Map<String, Channel> channelsByName;
+  private final Map<String, Cd11ChannelTable<Channel>> channelsByStation;
 
   private static Logger logger = LoggerFactory.getLogger(Cd11WaveformParser.class);
 
@@ -52,7 +46,8 @@ class Cd11WaveformParser {
       ChannelRepositoryInterface channelRepository) {
     this.configuration = configuration;
     this.channelRepository = channelRepository;
-    this.channelsByName = Map.of();
+    this.channelsByName = new ConcurrentHashMap<>();
+    this.channelsByStation = new ConcurrentHashMap<>();
   }
 
   public static Cd11WaveformParser create(DataFrameReceiverConfiguration receiverConfiguration,
@@ -65,21 +60,55 @@ class Cd11WaveformParser {
 
   /**
    * Retrieves {@link Channel}s via the {@link ChannelRepositoryInterface} and caches them for use
-   * in processing.
+   * in processing. Only the configured channels that are not already cached are retrieved, and
+   * cached channels that are no longer configured are removed, so the cache can be refreshed
+   * whenever the configuration changes without reloading every channel.
    *
    * @throws IllegalStateException If {@link Channel}s were not found for every one found in
    * configuration.
    */
   public void updateChannelCache() {
-    List<String> channelNames = configuration.channelNames().collect(toList());
-    List<Channel> channels = channelRepository.retrieveChannels(channelNames);
+    List<String> configuredNames = configuration.channelNames().collect(toList());
+    List<String> channelNames = configuredNames.stream()
+        .filter(channelName -> !channelsByName.containsKey(channelName))
+        .collect(toList());
+    List<Channel> channels = channelNames.isEmpty() ? List.of()
+        : channelRepository.retrieveChannels(channelNames);
 
     checkState(channelNames.size() == channels.size(),
-        "Not all channels retrieved, missing channels:%s", channelNames.size(),
+        "Not all channels retrieved, missing channels:%s",
         findMissingChannels(channelNames, channels));
 
-    channelsByName = channels.stream()
-        .collect(toMap(Channel::getName, identity()));
+    upsertChannels(channels);
+    Set<String> configuredNameSet = new HashSet<>(configuredNames);
+    removeChannels(channelsByName.keySet().stream()
+        .filter(channelName -> !configuredNameSet.contains(channelName))
+        .collect(toList()));
+  }
+
+  /**
+   * Adds {@link Channel}s to the cache, replacing any cached versions of them
+   *
+   * @param channels Added channels
+   */
+  private void upsertChannels(Collection<Channel> channels) {
+    if (!channels.isEmpty()) {
+      channels.forEach(channel -> channelsByName.put(channel.getName(), channel));
+      // Subframes resolved against the previous cache must be resolved again
+      channelsByStation.clear();
+    }
+  }
+
+  /**
+   * Removes {@link Channel}s from the cache
+   *
+   * @param channelNames Names of the removed channels
+   */
+  private void removeChannels(Collection<String> channelNames) {
+    if (!channelNames.isEmpty()) {
+      channelsByName.keySet().removeAll(channelNames);
+      channelsByStation.clear();
+    }
   }
 
   /**
@@ -112,64 +141,78 @@ class Cd11WaveformParser {
    */
   public List<ChannelSegment<Waveform>> parseWaveform(RawStationDataFrame rsdf) throws IOException {
     Objects.requireNonNull(rsdf, "Cannot parse null RawStationDataframe");
+    return parseWaveform(Cd11RsdfPayload.decode(rsdf));
+  }
 
-    List<ChannelSegment<Waveform>> channelSegments = new ArrayList<>();
-    Cd11OrMalformedFrame cd11OrMalformed = Cd11FrameReader
-        .readFrame(ByteBuffer.wrap(rsdf.getRawPayload()));
-    if (Cd11OrMalformedFrame.Kind.MALFORMED.equals(cd11OrMalformed.getKind())) {
-      throw new IOException("Error reading Rsdf Payload", cd11OrMalformed.malformed().getCause());
-    }
-
-    Cd11Frame cd11Frame = cd11OrMalformed.cd11();
-    if (!(cd11Frame.getType().equals(FrameType.DATA) ||
-        cd11Frame.getType().equals(FrameType.CD_ONE_ENCAPSULATION))) {
-      throw new IllegalArgumentException("Rsdf Payload is of unexpected type " + cd11Frame.getType()
-          + ", must be DATA or CD_ONE_ENCAPSULATION");
-    }
-    Cd11Data cd11Data = (Cd11Data) cd11Frame.getPayload();
+  /**
+   * Parses an already decoded {@link RawStationDataFrame} into waveforms
+   *
+   * @param payload The decoded CD11 RawStationDataFrame to parse
+   * @return ChannelSegments of the waveforms of each configured channel in the frame
+   * @throws IOException When there is some issue reading the samples of a subframe
+   * @throws IllegalStateException if there are discrepancies in configuration or the channel cache
+   */
+  List<ChannelSegment<Waveform>> parseWaveform(Cd11RsdfPayload payload) throws IOException {
+    Objects.requireNonNull(payload, "Cannot parse null Cd11RsdfPayload");
 
+    List<ChannelSegment<Waveform>> channelSegments = new ArrayList<>();
     //Parse each subframe (1 subframe = 1 channel)
-    for (Cd11ChannelSubframe subframe : cd11Data.getChannelSubframes()) {
+    Cd11ChannelTable<Channel> channels = channelsByStation
+        .computeIfAbsent(payload.getStationName(), this::createChannelTable);
+    for (Cd11ChannelSubframe subframe : payload.getChannelSubframes()) {
+      Optional<Channel> channel = channels.resolve(subframe);
+      if (channel.isPresent()) {
+        channelSegments.add(parseWaveform(subframe, channel.get()));
+      }
+    }
+    return channelSegments;
+  }
 
+  /**
+   * Creates the table resolving a station's channel subframes to the cached {@link Channel}s of
+   * their configured channel names. Subframes without a configured channel name are logged when
+   * first seen.
+   *
+   * @param stationName Name of the station
+   * @return The station's channel table
+   * @throws IllegalStateException when resolving a configured channel that is not in the cache
+   */
+  private Cd11ChannelTable<Channel> createChannelTable(String stationName) {
+    return Cd11ChannelTable.create((siteName, channelName, locationName) -> {
       //Resolve channel name from config
-      Optional<String> channelName = configuration.getChannelName(String.format("%s.%s.%s",
-          rsdf.getMetadata().getStationName(), subframe.siteName, subframe.channelName));
-
-      if (channelName.isPresent()) {
-        //Get the corresponding channel
-        Channel channel = Optional.ofNullable(channelsByName.get(channelName.get()))
-            .orElseThrow(() -> new IllegalStateException(
-                format("No channel matching name %s found in waveform cache", channelName)));
-        ChannelSegment<Waveform> channelSegment = parseWaveform(subframe, channel);
-        channelSegments.add(channelSegment);
-      } else {
-        //log warning and move on...
-        String subFrameName = format("%s.%s.%s",
-            rsdf.getMetadata().getStationName(), subframe.siteName, subframe.channelName);
+      String subFrameName = format("%s.%s.%s", stationName, siteName, channelName);
+      Optional<String> configuredName = configuration.getChannelName(subFrameName);
 
+      if (configuredName.isEmpty()) {
+        //log warning and move on...
         logger.warn(
             "Channel name for subframe name {} not found in configuration. "
-                + "Skipping channel subframe.",
+                + "Skipping channel subframes.",
             subFrameName);
+        return Optional.empty();
       }
-    }
-    return channelSegments;
+
+      //Get the corresponding channel
+      return Optional.of(Optional.ofNullable(channelsByName.get(configuredName.get()))
+          .orElseThrow(() -> new IllegalStateException(
+              format("No channel matching name %s found in waveform cache", configuredName))));
+    });
   }
 
   private ChannelSegment<Waveform> parseWaveform(Cd11ChannelSubframe subframe, Channel channel)
       throws IOException {
-    //Grab channel data, call waveform reader, which returns and int[] so convert it to double[]
-    InputStream waveformData = new ByteArrayInputStream(subframe.channelData);
-    double[] waveformValues;
+    //Grab channel data, call waveform reader to decode it in place into the waveform's samples
+    ByteBuffer waveformData = ByteBuffer.wrap(subframe.channelData);
+    double[] waveformValues = new double[subframe.samples];
     //No Compression, use what is in data type field
     if (subframe.compressionFormat == CompressionFormat.NONE) {
-      waveformValues = WaveformReader
-          .readSamples(waveformData, subframe.cd11DataFormat.toString(), subframe.samples, 0);
+      WaveformReader.readSamples(waveformData, subframe.cd11DataFormat.toString(),
+          subframe.samples, 0, waveformValues, 0, 1.0);
     }
     //Canadian Compression, ignore data type field
     else if (subframe.compressionFormat == CompressionFormat.CANADIAN_BEFORE_SIGNATURE
         || subframe.compressionFormat == CompressionFormat.CANADIAN_AFTER_SIGNATURE) {
-      waveformValues = WaveformReader.readSamples(waveformData, "cc", subframe.samples, 0);
+      WaveformReader.readSamples(waveformData, "cc", subframe.samples, 0, waveformValues, 0, 1.0);
     } else {
       throw new InvalidParameterException(
           "Unsupported compression format: " + subframe.compressionFormat);
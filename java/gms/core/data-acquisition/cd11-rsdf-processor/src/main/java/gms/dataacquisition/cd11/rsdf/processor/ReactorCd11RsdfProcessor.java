@@ -9,18 +9,33 @@ import gms.shared.frameworks.osd.coi.soh.AcquiredStationSohExtract;
 import gms.shared.frameworks.osd.coi.waveforms.RawStationDataFrame;
 import gms.shared.utilities.kafka.KafkaConfiguration;
 import gms.shared.utilities.kafka.reactor.ReactorKafkaFactory;
+import gms.shared.utilities.kafka.serde.RawStationDataFrameDeserializer;
 import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
 import reactor.core.Exceptions;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 import reactor.kafka.receiver.KafkaReceiver;
+import reactor.kafka.receiver.ReceiverRecord;
 import reactor.kafka.sender.KafkaSender;
 import reactor.kafka.sender.SenderRecord;
 import reactor.kafka.sender.SenderResult;
@@ -34,22 +49,60 @@ public class ReactorCd11RsdfProcessor implements Cd11RsdfProcessor {
 
   private static final Logger logger = LoggerFactory.getLogger(ReactorCd11RsdfProcessor.class);
   private static final ObjectMapper mapper = CoiObjectMapperFactory.getJsonObjectMapper();
+  private static final RawStationDataFrameDeserializer rsdfDeserializer =
+      new RawStationDataFrameDeserializer();
+
+  static final int DEFAULT_TRANSACTION_MAX_RECORDS = 500;
+  static final Duration DEFAULT_TRANSACTION_MAX_LATENCY = Duration.ofSeconds(1);
+  static final Duration DEFAULT_ACEI_MAX_SPAN = Duration.ofMinutes(10);
+  static final Duration DEFAULT_ACEI_IDLE_TIMEOUT = Duration.ofMinutes(1);
+  private static final Duration ACEI_FLUSH_TIMEOUT = Duration.ofSeconds(30);
 
   private final KafkaConfiguration kafkaConfiguration;
   private final Cd11StationSohExtractParser sohParser;
+  private final BooleanAceiRunCoalescer aceiCoalescer;
+  private final int transactionMaxRecords;
+  private final Duration transactionMaxLatency;
 
   private final KafkaSender<String, String> recordSender;
-  private final KafkaReceiver<String, String> receiver;
+  private final KafkaReceiver<String, byte[]> receiver;
   private final TransactionManager transactionManager;
 
   public ReactorCd11RsdfProcessor(KafkaConfiguration kafkaConfiguration,
       DataFrameReceiverConfiguration receiverConfiguration) {
+    this(kafkaConfiguration, receiverConfiguration, DEFAULT_TRANSACTION_MAX_RECORDS,
+        DEFAULT_TRANSACTION_MAX_LATENCY, DEFAULT_ACEI_MAX_SPAN, DEFAULT_ACEI_IDLE_TIMEOUT);
+  }
+
+  public ReactorCd11RsdfProcessor(KafkaConfiguration kafkaConfiguration,
+      DataFrameReceiverConfiguration receiverConfiguration, int transactionMaxRecords,
+      Duration transactionMaxLatency, Duration aceiMaxSpan, Duration aceiIdleTimeout) {
+    this(kafkaConfiguration, receiverConfiguration, new ReactorKafkaFactory(kafkaConfiguration),
+        transactionMaxRecords, transactionMaxLatency, aceiMaxSpan, aceiIdleTimeout);
+  }
+
+  private ReactorCd11RsdfProcessor(KafkaConfiguration kafkaConfiguration,
+      DataFrameReceiverConfiguration receiverConfiguration, ReactorKafkaFactory reactorKafkaFactory,
+      int transactionMaxRecords, Duration transactionMaxLatency, Duration aceiMaxSpan,
+      Duration aceiIdleTimeout) {
+    this(kafkaConfiguration, receiverConfiguration,
+        reactorKafkaFactory.createSender(kafkaConfiguration.getApplicationId()),
+        reactorKafkaFactory.createReceiver(new ByteArrayDeserializer()),
+        transactionMaxRecords, transactionMaxLatency, aceiMaxSpan, aceiIdleTimeout);
+  }
+
+  ReactorCd11RsdfProcessor(KafkaConfiguration kafkaConfiguration,
+      DataFrameReceiverConfiguration receiverConfiguration, KafkaSender<String, String> recordSender,
+      KafkaReceiver<String, byte[]> receiver, int transactionMaxRecords,
+      Duration transactionMaxLatency, Duration aceiMaxSpan, Duration aceiIdleTimeout) {
     this.kafkaConfiguration = kafkaConfiguration;
-    ReactorKafkaFactory reactorKafkaFactory = new ReactorKafkaFactory(kafkaConfiguration);
+    this.transactionMaxRecords = transactionMaxRecords;
+    this.transactionMaxLatency = transactionMaxLatency;
     sohParser = Cd11StationSohExtractParser.create(receiverConfiguration);
+    aceiCoalescer = BooleanAceiRunCoalescer.create(aceiMaxSpan, aceiIdleTimeout);
 
-    recordSender = reactorKafkaFactory.createSender(kafkaConfiguration.getApplicationId());
-    receiver = reactorKafkaFactory.createReceiver();
+    this.recordSender = recordSender;
+    this.receiver = receiver;
     transactionManager = recordSender.transactionManager();
   }
 
@@ -68,29 +121,98 @@ public class ReactorCd11RsdfProcessor implements Cd11RsdfProcessor {
     return new ReactorCd11RsdfProcessor(kafkaConfiguration, dataFrameReceiverConfiguration);
   }
 
+  /**
+   * Factory method for creating the processor with tuned transaction batching
+   *
+   * @param kafkaConfiguration             Reactor kafka configuration retrieved from System config
+   * @param dataFrameReceiverConfiguration Receiver configuration responsible for mapping packet
+   *                                       information and channel information
+   * @param transactionMaxRecords          Most rsdf records processed in one transaction
+   * @param transactionMaxLatency          Longest a received rsdf record waits for its
+   *                                       transaction to fill before it is processed
+   * @param aceiMaxSpan                    Longest span of a run of boolean ACEIs coalesced into
+   *                                       one
+   * @param aceiIdleTimeout                Longest a run of boolean ACEIs stays open while its
+   *                                       channel sends nothing
+   * @return The processor
+   */
+  public static ReactorCd11RsdfProcessor create(
+      KafkaConfiguration kafkaConfiguration,
+      DataFrameReceiverConfiguration dataFrameReceiverConfiguration,
+      int transactionMaxRecords, Duration transactionMaxLatency, Duration aceiMaxSpan,
+      Duration aceiIdleTimeout) {
+
+    return new ReactorCd11RsdfProcessor(kafkaConfiguration, dataFrameReceiverConfiguration,
+        transactionMaxRecords, transactionMaxLatency, aceiMaxSpan, aceiIdleTimeout);
+  }
+
   @Override
   public void run() {
     this.executeRsdfFlux();
   }
 
+  /**
+   * Publishes the open runs of boolean ACEIs, which are only held in memory, then closes the
+   * sender
+   */
   public void close() {
-    if (recordSender != null) {
-      recordSender.close();
+    if (recordSender == null) {
+      return;
+    }
+
+    if (Schedulers.isInNonBlockingThread()) {
+      // Such as when closing on an error signalled on the transaction scheduler
+      flushAceiRuns().doFinally(signal -> recordSender.close()).subscribe();
+    } else {
+      try {
+        flushAceiRuns().block(ACEI_FLUSH_TIMEOUT);
+      } finally {
+        recordSender.close();
+      }
     }
   }
 
+  /**
+   * Publishes every open run of boolean ACEIs in a transaction of its own. The offsets of the
+   * frames the runs were coalesced from have already been committed, so runs that fail to publish
+   * here are lost.
+   *
+   * @return Mono completing once the runs are published, or have failed to be
+   */
+  private Mono<Void> flushAceiRuns() {
+    return Mono.defer(() -> {
+      List<AcquiredChannelEnvironmentIssue<?>> runs = aceiCoalescer.flush();
+      if (runs.isEmpty()) {
+        return Mono.empty();
+      }
+
+      logger.info("Publishing {} open ACEI runs", runs.size());
+      return transactionManager.begin()
+          .thenMany(recordSender.send(aceiRecords(runs, "flushed")))
+          .then(transactionManager.<Void>commit())
+          .onErrorResume(e -> {
+            logger.error("Error publishing {} open ACEI runs, they will be lost", runs.size(), e);
+            return transactionManager.abort();
+          });
+    });
+  }
+
   /**
    * Generates the appropriate Flux that performs exactly-once reads from the rsdf topic, parses the
    * messages and generates SenderRecords, and transactionally sends out the groups of parsed
    * messages such that each collection of messages parsed for an individual rsdf are sent out
-   * together.
+   * together. Received records are batched into transactions of up to the configured number of
+   * records or latency, so the commit overhead of each transaction is shared by many records.
    */
   public void executeRsdfFlux() {
-    flux()
+    Disposable processing = flux()
         .subscribe(
             this::handleSenderResult,
             this::handleError,
             this::shutdown);
+    // Cancelling the flux closes the processor, publishing its open ACEI runs
+    Runtime.getRuntime()
+        .addShutdownHook(new Thread(processing::dispose, "cd11-rsdf-processor-shutdown"));
   }
 
   private void handleSenderResult(SenderResult<String> result) {
@@ -108,26 +230,83 @@ public class ReactorCd11RsdfProcessor implements Cd11RsdfProcessor {
    * Helper method for building up the processing flux
    * @return The processing flux
    */
-  private Flux<SenderResult<String>> flux() {
-    return receiver.receiveExactlyOnce(transactionManager)
-        .publishOn(Schedulers.boundedElastic())
-        .map(this::records)
-        .publishOn(transactionManager.scheduler())
-        .concatMap(this::sendAndCommit)
+  Flux<SenderResult<String>> flux() {
+    return batches()
+        .publishOn(transactionManager.scheduler(), 1)
+        .concatMap(this::sendAndCommit, 1)
         .onErrorResume(this::abortTransaction)
         .doOnCancel(this::close);
   }
 
-  private Flux<SenderResult<String>> sendAndCommit(
-      Flux<SenderRecord<String, String, String>> senderRecordFlux) {
-    logger.debug("Sending and committing batch");
-    return recordSender.send(senderRecordFlux)
+  /**
+   * Batches received records into transactions of up to the maximum number of records, closing a
+   * partial batch each time the maximum latency elapses. Batches are only filled as they are
+   * requested, so while a transaction is in progress the receiver is paused rather than having its
+   * records buffered without bound. bufferTimeout fails when its timer fires without demand, so it
+   * can't be used here without an unbounded buffer after it. A tick with no records still closes
+   * an empty batch while the coalescer holds runs of idle channels, so that they are expired even
+   * while no records are received.
+   *
+   * @return Flux of batches of received records
+   */
+  private Flux<List<ReceiverRecord<String, byte[]>>> batches() {
+    Flux<Optional<ReceiverRecord<String, byte[]>>> latencyTicks = Flux.interval(transactionMaxLatency)
+        .onBackpressureDrop()
+        .map(tick -> Optional.empty());
+
+    return Flux.defer(() -> {
+      AtomicInteger batchSize = new AtomicInteger(0);
+      return Flux.merge(transactionMaxRecords, receiver.receive().map(Optional::of), latencyTicks)
+          .bufferUntil(rsdfRecord -> {
+            if (rsdfRecord.isEmpty() || batchSize.incrementAndGet() == transactionMaxRecords) {
+              batchSize.set(0);
+              return true;
+            }
+            return false;
+          })
+          .map(batch -> batch.stream()
+              .flatMap(Optional::stream)
+              .collect(Collectors.toList()))
+          .filter(batch -> !batch.isEmpty() || aceiCoalescer.hasIdleRuns());
+    });
+  }
+
+  /**
+   * Processes a batch of received records in a single transaction, committing their input offsets
+   * along with the records parsed from them
+   *
+   * @param batch Received rsdf records
+   * @return Flux of the results of sending the parsed records
+   */
+  private Flux<SenderResult<String>> sendAndCommit(List<ReceiverRecord<String, byte[]>> batch) {
+    logger.debug("Sending and committing batch of {} rsdf records", batch.size());
+    return transactionManager.begin()
+        .thenMany(recordSender.send(records(batch).concatWith(expiredAceiRecords())))
+        .concatWith(batch.isEmpty() ? Mono.empty()
+            : transactionManager.sendOffsets(offsets(batch), kafkaConfiguration.getApplicationId()))
         .concatWith(transactionManager.commit());
   }
 
+  /**
+   * @param batch Received records
+   * @return The offsets to commit for the batch, just past its last record from each partition
+   */
+  static Map<TopicPartition, OffsetAndMetadata> offsets(
+      List<? extends ConsumerRecord<?, ?>> batch) {
+    Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+    for (ConsumerRecord<?, ?> consumerRecord : batch) {
+      offsets.merge(new TopicPartition(consumerRecord.topic(), consumerRecord.partition()),
+          new OffsetAndMetadata(consumerRecord.offset() + 1),
+          (first, second) -> first.offset() > second.offset() ? first : second);
+    }
+    return offsets;
+  }
+
   private <V> Mono<V> abortTransaction(Throwable e) {
     logger.warn("Aborting transaction due to error", e);
-    return transactionManager.abort().then(Mono.error(e));
+    return transactionManager.abort()
+        .then(flushAceiRuns())
+        .then(Mono.error(e));
   }
 
   private void handleError(Throwable e) {
@@ -141,34 +320,58 @@ public class ReactorCd11RsdfProcessor implements Cd11RsdfProcessor {
     System.exit(1);
   }
 
+  /**
+   * Parses a batch of rsdf records into sender records. The records of each partition are parsed
+   * in order, with the partitions of the batch parsed in parallel.
+   *
+   * @param batch Received rsdf records
+   * @return Flux of parsed sender records
+   */
   protected Flux<SenderRecord<String, String, String>> records(
-      Flux<ConsumerRecord<String, String>> rsdfRecordFlux) {
+      List<? extends ConsumerRecord<String, byte[]>> batch) {
     logger.debug("Parsing rsdf batch into sender records");
-    return rsdfRecordFlux
-        .publishOn(Schedulers.boundedElastic())
-        .flatMap(this::parseRsdf)
+    Map<TopicPartition, List<ConsumerRecord<String, byte[]>>> recordsByPartition =
+        new LinkedHashMap<>();
+    for (ConsumerRecord<String, byte[]> rsdfRecord : batch) {
+      recordsByPartition.computeIfAbsent(
+          new TopicPartition(rsdfRecord.topic(), rsdfRecord.partition()),
+          partition -> new ArrayList<>()).add(rsdfRecord);
+    }
+
+    return Flux.fromIterable(recordsByPartition.values())
+        .flatMap(partitionRecords -> Flux.fromIterable(partitionRecords)
+            .publishOn(Schedulers.boundedElastic())
+            .concatMap(this::parseRsdf))
         .onErrorContinue((e, o) -> logger.warn("Dropping rsdf frame, cause:{}", e.getMessage()));
   }
 
   /**
    * Higher-level method for creating {@link AcquiredStationSohExtract} and {@link
    * AcquiredChannelEnvironmentIssue} kafka sender records from an input {@link RawStationDataFrame}
-   * consumer record.
+   * consumer record. Frames are decoded here rather than by the receiver so that a malformed
+   * frame only drops its own record, and their payloads are decoded once, with the extract and
+   * its ACEIs all derived from that single decoding.
    *
    * @param rsdfRecord Consumer record to parse
    * @return Flux of parsed sender records
    */
   private Flux<SenderRecord<String, String, String>> parseRsdf(
-      ConsumerRecord<String, String> rsdfRecord) {
+      ConsumerRecord<String, byte[]> rsdfRecord) {
     try {
-      RawStationDataFrame rsdf = mapper.readValue(rsdfRecord.value(), RawStationDataFrame.class);
-      AcquiredStationSohExtract extract = sohParser.parseStationSohExtract(rsdf);
+      RawStationDataFrame rsdf = rsdfDeserializer
+          .deserialize(rsdfRecord.topic(), rsdfRecord.value());
+      Cd11RsdfPayload payload = Cd11RsdfPayload.decode(rsdf);
+      AcquiredStationSohExtract extract = sohParser.parseStationSohExtract(payload);
 
-      String stationName = rsdf.getMetadata().getStationName();
+      String stationName = payload.getStationName();
 
-      return sohExtractRecord(stationName, extract, rsdfRecord.offset())
-          .concatWith(aceiRecords(extract, rsdfRecord.offset()));
-    } catch (IOException | IllegalArgumentException e) {
+      String readPosition = String.join("-", Integer.toString(rsdfRecord.partition()),
+          Long.toString(rsdfRecord.offset()));
+      return sohExtractRecord(stationName, extract, readPosition)
+          .concatWith(aceiRecords(
+              aceiCoalescer.coalesce(extract.getAcquiredChannelEnvironmentIssues()),
+              readPosition));
+    } catch (IOException | SerializationException | IllegalArgumentException e) {
       logger.error("Error parsing rsdf record partition:{}, offset:{}", rsdfRecord.partition(),
           rsdfRecord.offset());
       throw Exceptions.propagate(e);
@@ -183,35 +386,46 @@ public class ReactorCd11RsdfProcessor implements Cd11RsdfProcessor {
    * @return Kafka record to send
    */
   private Flux<SenderRecord<String, String, String>> sohExtractRecord(
-      String stationName, AcquiredStationSohExtract stationSohExtract, long readOffset) {
+      String stationName, AcquiredStationSohExtract stationSohExtract, String readPosition) {
     AtomicInteger extractCounter = new AtomicInteger(0);
 
     return writeJson(stationSohExtract)
         .flatMapMany(extractJson -> Flux.just(SenderRecord
             .create(new ProducerRecord<>(kafkaConfiguration.getOutputStationSohInputTopic(),
                     stationName, extractJson),
-                String.join("-", Long.toString(readOffset), "extract",
+                String.join("-", readPosition, "extract",
                     Integer.toString(extractCounter.getAndIncrement())))));
   }
 
   /**
-   * Builds a flux of {@link AcquiredChannelEnvironmentIssue} {@link SenderRecord}s from the input
-   * {@link AcquiredStationSohExtract}
+   * Builds a flux of {@link AcquiredChannelEnvironmentIssue} {@link SenderRecord}s from the ACEIs
+   * of an {@link AcquiredStationSohExtract}, after coalescing boolean ACEIs into runs
    *
-   * @param stationSohExtract Input soh extract
-   * @param readOffset Kafka offset from the input topic related to this parsed ACEI
-   * @return Flux of all sender records for this soh extract
+   * @param aceis ACEIs to publish
+   * @param readPosition Kafka partition and offset from the input topic related to these ACEIs
+   * @return Flux of all sender records for these ACEIs
    */
   private Flux<SenderRecord<String, String, String>> aceiRecords(
-      AcquiredStationSohExtract stationSohExtract, long readOffset) {
+      List<AcquiredChannelEnvironmentIssue<?>> aceis, String readPosition) {
     AtomicInteger aceiCounter = new AtomicInteger(0);
 
-    return Flux.fromIterable(stationSohExtract.getAcquiredChannelEnvironmentIssues())
+    return Flux.fromIterable(aceis)
         .flatMap(acei -> aceiRecord(acei.getChannelName(), acei,
-            String.join("-", Long.toString(readOffset), "acei",
+            String.join("-", readPosition, "acei",
                 Integer.toString(aceiCounter.getAndIncrement()))));
   }
 
+  /**
+   * Builds a flux of {@link SenderRecord}s for the runs of boolean ACEIs that the data of their
+   * channels has moved past or that are idle, so that they are published along with the current
+   * batch
+   *
+   * @return Flux of the sender records for the expired runs
+   */
+  private Flux<SenderRecord<String, String, String>> expiredAceiRecords() {
+    return Flux.defer(() -> aceiRecords(aceiCoalescer.expire(), "expired"));
+  }
+
   /**
    * Creates a Kafka {@link SenderRecord} for an ACEI, serializing it to JSON and assigning it to
    * the appropriate topic
@@ -0,0 +1,238 @@
+package gms.dataacquisition.cd11.rsdf.processor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import gms.shared.frameworks.osd.coi.channel.soh.AcquiredChannelEnvironmentIssue;
+import gms.shared.frameworks.osd.coi.channel.soh.AcquiredChannelEnvironmentIssue.AcquiredChannelEnvironmentIssueType;
+import gms.shared.frameworks.osd.coi.channel.soh.AcquiredChannelEnvironmentIssueAnalog;
+import gms.shared.frameworks.osd.coi.channel.soh.AcquiredChannelEnvironmentIssueBoolean;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BooleanAceiRunCoalescerTest {
+
+  private static final String CHANNEL_NAME = "LBTB.LBTB1.SHZ";
+  private static final Instant START_TIME = Instant.parse("2019-06-06T17:26:00Z");
+  private static final Duration FRAME_LENGTH = Duration.ofSeconds(10);
+  private static final Duration SAMPLE_PERIOD = Duration.ofMillis(25);
+  private static final Duration IDLE_TIMEOUT = Duration.ofMinutes(1);
+
+  private Instant wallClockTime;
+  private final Clock wallClock = new Clock() {
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Instant instant() {
+      return wallClockTime;
+    }
+  };
+
+  private BooleanAceiRunCoalescer coalescer;
+
+  @BeforeEach
+  void setUp() {
+    wallClockTime = Instant.parse("2021-03-01T00:00:00Z");
+    coalescer = BooleanAceiRunCoalescer.create(Duration.ofMinutes(1), IDLE_TIMEOUT, wallClock);
+  }
+
+  @Test
+  void testCreateNegativeSpanThrows() {
+    Duration negative = Duration.ofSeconds(-1);
+    assertThrows(IllegalArgumentException.class,
+        () -> BooleanAceiRunCoalescer.create(negative, IDLE_TIMEOUT));
+    assertThrows(IllegalArgumentException.class,
+        () -> BooleanAceiRunCoalescer.create(Duration.ofMinutes(1), negative));
+  }
+
+  @Test
+  void testRepeatedStatusCoalescedUntilChange() {
+    AcquiredChannelEnvironmentIssueBoolean first = frameAcei(0, false);
+    assertEquals(List.of(first), coalescer.coalesce(List.of(first)));
+
+    for (int frame = 1; frame < 4; frame++) {
+      assertTrue(coalescer.coalesce(List.of(frameAcei(frame, false))).isEmpty());
+    }
+
+    AcquiredChannelEnvironmentIssueBoolean change = frameAcei(4, true);
+    assertEquals(List.of(run(0, 4, false), change), coalescer.coalesce(List.of(change)));
+  }
+
+  @Test
+  void testRunEndedAtMaxSpan() {
+    coalescer.coalesce(List.of(frameAcei(0, true)));
+    for (int frame = 1; frame < 6; frame++) {
+      assertTrue(coalescer.coalesce(List.of(frameAcei(frame, true))).isEmpty());
+    }
+
+    // A seventh frame would take the run past one minute
+    AcquiredChannelEnvironmentIssueBoolean next = frameAcei(6, true);
+    assertEquals(List.of(run(0, 6, true), next), coalescer.coalesce(List.of(next)));
+  }
+
+  @Test
+  void testGapEndsRun() {
+    coalescer.coalesce(List.of(frameAcei(0, false)));
+    coalescer.coalesce(List.of(frameAcei(1, false)));
+
+    AcquiredChannelEnvironmentIssueBoolean afterGap = frameAcei(3, false);
+    assertEquals(List.of(run(0, 2, false), afterGap), coalescer.coalesce(List.of(afterGap)));
+  }
+
+  @Test
+  void testSingleFrameRunNotPublishedTwice() {
+    coalescer.coalesce(List.of(frameAcei(0, false)));
+
+    AcquiredChannelEnvironmentIssueBoolean change = frameAcei(1, true);
+    assertEquals(List.of(change), coalescer.coalesce(List.of(change)));
+  }
+
+  @Test
+  void testRunsKeptPerChannelAndType() {
+    AcquiredChannelEnvironmentIssueBoolean otherType = AcquiredChannelEnvironmentIssueBoolean
+        .from(CHANNEL_NAME, AcquiredChannelEnvironmentIssueType.CLIPPED, START_TIME,
+            START_TIME.plus(FRAME_LENGTH).minus(SAMPLE_PERIOD), true);
+    AcquiredChannelEnvironmentIssueBoolean otherChannel = AcquiredChannelEnvironmentIssueBoolean
+        .from("LBTB.LBTBB.BHZ", AcquiredChannelEnvironmentIssueType.ZEROED_DATA, START_TIME,
+            START_TIME.plus(FRAME_LENGTH).minus(SAMPLE_PERIOD), true);
+
+    List<AcquiredChannelEnvironmentIssue<?>> aceis = List.of(frameAcei(0, false), otherType,
+        otherChannel);
+    assertEquals(aceis, coalescer.coalesce(aceis));
+    assertTrue(coalescer.coalesce(List.of(frameAcei(1, false))).isEmpty());
+  }
+
+  @Test
+  void testAnalogAndLateAceisPassedThrough() {
+    coalescer.coalesce(List.of(frameAcei(1, false)));
+    coalescer.coalesce(List.of(frameAcei(2, false)));
+
+    AcquiredChannelEnvironmentIssueAnalog analog = AcquiredChannelEnvironmentIssueAnalog
+        .from(CHANNEL_NAME,
+            AcquiredChannelEnvironmentIssueType.CLOCK_DIFFERENTIAL_IN_MICROSECONDS, START_TIME,
+            START_TIME.plus(FRAME_LENGTH).minus(SAMPLE_PERIOD), 0);
+    AcquiredChannelEnvironmentIssueBoolean late = frameAcei(0, false);
+    assertEquals(List.of(analog, late), coalescer.coalesce(List.of(analog, late)));
+
+    // The run was not disturbed by the late ACEI
+    AcquiredChannelEnvironmentIssueBoolean change = frameAcei(3, true);
+    assertEquals(List.of(run(1, 3, false), change), coalescer.coalesce(List.of(change)));
+  }
+
+  @Test
+  void testExpireEndsRunsTheirChannelHasMovedPast() {
+    coalescer.coalesce(List.of(frameAcei(0, false)));
+    coalescer.coalesce(List.of(frameAcei(1, false)));
+
+    // Data of the channel ending within the contiguity tolerance of the run does not end it
+    Instant runEnd = START_TIME.plus(FRAME_LENGTH.multipliedBy(2)).minus(SAMPLE_PERIOD);
+    coalescer.coalesce(
+        List.of(analog(runEnd.plus(BooleanAceiRunCoalescer.CONTIGUITY_TOLERANCE))));
+    assertTrue(coalescer.expire().isEmpty());
+
+    // The channel's next frame no longer reports the run's type
+    coalescer.coalesce(List.of(analog(runEnd.plus(FRAME_LENGTH))));
+    assertEquals(List.of(run(0, 2, false)), coalescer.expire());
+
+    // The expired run is not extended
+    AcquiredChannelEnvironmentIssueBoolean next = frameAcei(2, false);
+    assertEquals(List.of(next), coalescer.coalesce(List.of(next)));
+  }
+
+  @Test
+  void testExpireIgnoresWallClock() {
+    coalescer.coalesce(List.of(frameAcei(0, false)));
+    coalescer.coalesce(List.of(frameAcei(1, false)));
+
+    // The data is years old, but the channel has not moved past the run
+    assertTrue(coalescer.expire().isEmpty());
+    assertTrue(coalescer.coalesce(List.of(frameAcei(2, false))).isEmpty());
+
+    AcquiredChannelEnvironmentIssueBoolean change = frameAcei(3, true);
+    assertEquals(List.of(run(0, 3, false), change), coalescer.coalesce(List.of(change)));
+  }
+
+  @Test
+  void testExpireEndsRunsOfIdleChannels() {
+    coalescer.coalesce(List.of(frameAcei(0, false)));
+    coalescer.coalesce(List.of(frameAcei(1, false)));
+
+    // Another channel keeps sending, but this channel stops
+    wallClockTime = wallClockTime.plus(IDLE_TIMEOUT);
+    AcquiredChannelEnvironmentIssueBoolean otherChannel = AcquiredChannelEnvironmentIssueBoolean
+        .from("LBTB.LBTBB.BHZ", AcquiredChannelEnvironmentIssueType.ZEROED_DATA, START_TIME,
+            START_TIME.plus(FRAME_LENGTH).minus(SAMPLE_PERIOD), true);
+    coalescer.coalesce(List.of(otherChannel));
+    assertFalse(coalescer.hasIdleRuns());
+    assertTrue(coalescer.expire().isEmpty());
+
+    wallClockTime = wallClockTime.plusMillis(1);
+    assertTrue(coalescer.hasIdleRuns());
+    assertEquals(List.of(run(0, 2, false)), coalescer.expire());
+    assertFalse(coalescer.hasIdleRuns());
+
+    // The expired run is not extended once the channel resumes
+    AcquiredChannelEnvironmentIssueBoolean next = frameAcei(2, false);
+    assertEquals(List.of(next), coalescer.coalesce(List.of(next)));
+  }
+
+  @Test
+  void testFlushEndsEveryRun() {
+    coalescer.coalesce(List.of(frameAcei(0, false)));
+    coalescer.coalesce(List.of(frameAcei(1, false)));
+    coalescer.coalesce(List.of(frameAcei(2, false)));
+    coalescer.coalesce(List.of(AcquiredChannelEnvironmentIssueBoolean
+        .from(CHANNEL_NAME, AcquiredChannelEnvironmentIssueType.CLIPPED, START_TIME,
+            START_TIME.plus(FRAME_LENGTH).minus(SAMPLE_PERIOD), true)));
+
+    // The single ACEI run of the other type has already been published
+    assertEquals(List.of(run(0, 3, false)), coalescer.flush());
+    assertTrue(coalescer.flush().isEmpty());
+
+    AcquiredChannelEnvironmentIssueBoolean next = frameAcei(3, false);
+    assertEquals(List.of(next), coalescer.coalesce(List.of(next)));
+  }
+
+  /**
+   * @return An analog ACEI of the channel, ending at the given time
+   */
+  private static AcquiredChannelEnvironmentIssueAnalog analog(Instant endTime) {
+    return AcquiredChannelEnvironmentIssueAnalog.from(CHANNEL_NAME,
+        AcquiredChannelEnvironmentIssueType.CLOCK_DIFFERENTIAL_IN_MICROSECONDS,
+        endTime.minus(FRAME_LENGTH).plus(SAMPLE_PERIOD), endTime, 0);
+  }
+
+  /**
+   * @return The ACEI of the given 10 second frame after the start time
+   */
+  private static AcquiredChannelEnvironmentIssueBoolean frameAcei(int frame, boolean status) {
+    return run(frame, frame + 1, status);
+  }
+
+  /**
+   * @return The ACEI covering the frames from the first up to the end
+   */
+  private static AcquiredChannelEnvironmentIssueBoolean run(int firstFrame, int endFrame,
+      boolean status) {
+    return AcquiredChannelEnvironmentIssueBoolean.from(CHANNEL_NAME,
+        AcquiredChannelEnvironmentIssueType.ZEROED_DATA,
+        START_TIME.plus(FRAME_LENGTH.multipliedBy(firstFrame)),
+        START_TIME.plus(FRAME_LENGTH.multipliedBy(endFrame)).minus(SAMPLE_PERIOD), status);
+  }
+}
@@ -12,6 +12,8 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.willReturn;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 
 import gms.core.dataacquisition.receiver.DataFrameReceiverConfiguration;
 import gms.dataacquisition.cd11.rsdf.util.GmsObjectUtility;
@@ -104,6 +106,34 @@ class Cd11WaveformParserTest {
     assertTrue(actualException.getMessage().contains(mockLbtb1Z.getName()));
   }
 
+  @Test
+  void updateCacheRetrievesOnlyNewChannelsAndRemovesUnconfigured() {
+    Channel mockLbtb1Z = mockChannel("LBTB.LBTB1.SHZ");
+    Channel mockLbtbbZ = mockChannel("LBTB.LBTBB.BHZ");
+
+    given(mockReceiverConfiguration.channelNames())
+        .willReturn(Stream.of("LBTB.LBTB1.SHZ"),
+            Stream.of("LBTB.LBTB1.SHZ", "LBTB.LBTBB.BHZ"),
+            Stream.of("LBTB.LBTBB.BHZ"));
+    configureMockRepository(mockChannelRepository, mockLbtb1Z);
+    configureMockRepository(mockChannelRepository, mockLbtbbZ);
+
+    parser.updateChannelCache();
+    parser.updateChannelCache();
+    parser.updateChannelCache();
+
+    verify(mockChannelRepository).retrieveChannels(List.of(mockLbtb1Z.getName()));
+    verify(mockChannelRepository).retrieveChannels(List.of(mockLbtbbZ.getName()));
+    verifyNoMoreInteractions(mockChannelRepository);
+
+    // The removed channel is configured again, but no longer cached
+    given(mockReceiverConfiguration.getChannelName("LBTB.LBTB1.SHZ"))
+        .willReturn(Optional.of("LBTB.LBTB1.SHZ"));
+    IllegalStateException actual = assertThrows(IllegalStateException.class,
+        () -> parser.parseWaveform(testFrame));
+    assertTrue(actual.getMessage().contains("No channel matching name"));
+  }
+
   @Test
   void parseWaveformMissingChannelNameProducesNoWaveforms() {
     assertEquals(0, assertDoesNotThrow(() -> parser.parseWaveform(testFrame)).size());
@@ -143,6 +173,25 @@ class Cd11WaveformParserTest {
         .containsAll(Set.of(mockLbtb1Z, mockLbtbbZ, mockLbtbbN, mockLbtbbE)));
   }
 
+  @Test
+  void parseWaveformFromDecodedPayloadMatchesRsdf() throws IOException {
+    Channel mockLbtb1Z = mockChannel("LBTB.LBTB1.SHZ");
+    Channel mockLbtbbZ = mockChannel("LBTB.LBTBB.BHZ");
+
+    configureMockConfiguration(mockReceiverConfiguration, mockLbtb1Z, mockLbtbbZ);
+    configureMockRepository(mockChannelRepository, mockLbtb1Z, mockLbtbbZ);
+
+    parser.updateChannelCache();
+
+    Cd11RsdfPayload payload = Cd11RsdfPayload.decode(testFrame);
+    assertEquals("LBTB", payload.getStationName());
+    assertEquals(
+        parser.parseWaveform(testFrame).stream().map(ChannelSegment::getTimeseries)
+            .collect(toList()),
+        parser.parseWaveform(payload).stream().map(ChannelSegment::getTimeseries)
+            .collect(toList()));
+  }
+
   private static void configureMockConfiguration(DataFrameReceiverConfiguration configuration,
       Channel... mockChannels) {
     for (Channel mockChannel : mockChannels) {
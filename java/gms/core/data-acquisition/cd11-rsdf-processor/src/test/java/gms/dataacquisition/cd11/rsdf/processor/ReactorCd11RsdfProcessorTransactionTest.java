@@ -0,0 +1,215 @@
+package gms.dataacquisition.cd11.rsdf.processor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willReturn;
+
+import gms.core.dataacquisition.receiver.DataFrameReceiverConfiguration;
+import gms.shared.utilities.kafka.KafkaConfiguration;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.kafka.receiver.KafkaReceiver;
+import reactor.kafka.receiver.ReceiverRecord;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderRecord;
+import reactor.kafka.sender.TransactionManager;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class ReactorCd11RsdfProcessorTransactionTest {
+
+  private static final String RSDF_TOPIC = "soh.rsdf";
+  private static final String APPLICATION_ID = "cd11-rsdf-processor";
+  private static final Path RSDF_PATH = Path.of("src/test/resources/gms/data/PLCA-RSDF.json");
+
+  @Mock
+  private DataFrameReceiverConfiguration mockReceiverConfiguration;
+
+  @Mock
+  private KafkaSender<String, String> mockSender;
+
+  @Mock
+  private KafkaReceiver<String, byte[]> mockReceiver;
+
+  @Mock
+  private TransactionManager mockTransactionManager;
+
+  private final List<String> transactionEvents = Collections.synchronizedList(new ArrayList<>());
+
+  @Test
+  void testOffsetsArePastLastRecordOfEachPartition() {
+    List<ConsumerRecord<String, byte[]>> batch = List.of(
+        consumerRecord(0, 4, new byte[0]),
+        consumerRecord(1, 9, new byte[0]),
+        consumerRecord(0, 6, new byte[0]),
+        consumerRecord(0, 5, new byte[0]));
+
+    assertEquals(Map.of(
+        new TopicPartition(RSDF_TOPIC, 0), new OffsetAndMetadata(7),
+        new TopicPartition(RSDF_TOPIC, 1), new OffsetAndMetadata(10)),
+        ReactorCd11RsdfProcessor.offsets(batch));
+  }
+
+  @Test
+  void testRecordsParsedInOrderWithinEachPartition() throws IOException {
+    initMockReceiverConfig();
+    byte[] rsdf = Files.readAllBytes(RSDF_PATH);
+    List<ConsumerRecord<String, byte[]>> batch = List.of(
+        consumerRecord(0, 0, rsdf),
+        consumerRecord(1, 0, rsdf),
+        consumerRecord(0, 1, rsdf),
+        consumerRecord(1, 1, rsdf),
+        consumerRecord(0, 2, rsdf));
+
+    List<String> extractPositions = processor(10, Duration.ofSeconds(1)).records(batch)
+        .map(SenderRecord::correlationMetadata)
+        .filter(correlationMetadata -> correlationMetadata.contains("extract"))
+        .collectList()
+        .block();
+
+    assertEquals(List.of("0-0-extract-0", "0-1-extract-0", "0-2-extract-0"),
+        extractsOfPartition(extractPositions, 0));
+    assertEquals(List.of("1-0-extract-0", "1-1-extract-0"),
+        extractsOfPartition(extractPositions, 1));
+  }
+
+  @Test
+  void testBatchesSentAndCommittedInTransactions() {
+    givenTransactionSucceeds();
+    given(mockReceiver.receive()).willReturn(Flux.just(
+        receiverRecord(0, 0), receiverRecord(0, 1), receiverRecord(1, 0)));
+
+    // the first two records fill a transaction, the third is committed once the latency elapses
+    StepVerifier.create(processor(2, Duration.ofMillis(100)).flux())
+        .expectSubscription()
+        .expectNoEvent(Duration.ofMillis(500))
+        .thenCancel()
+        .verify();
+
+    assertEquals(List.of(
+        "begin",
+        "send",
+        "offsets " + Map.of(new TopicPartition(RSDF_TOPIC, 0), new OffsetAndMetadata(2)),
+        "commit",
+        "begin",
+        "send",
+        "offsets " + Map.of(new TopicPartition(RSDF_TOPIC, 1), new OffsetAndMetadata(1)),
+        "commit"),
+        transactionEvents);
+  }
+
+  @Test
+  void testTransactionAbortedWhenSendFails() {
+    IllegalStateException sendFailure = new IllegalStateException("send failed");
+    given(mockTransactionManager.scheduler()).willReturn(Schedulers.immediate());
+    given(mockTransactionManager.begin()).willAnswer(invocation -> event("begin"));
+    given(mockTransactionManager.abort()).willAnswer(invocation -> event("abort"));
+    given(mockSender.send(any())).willReturn(Flux.error(sendFailure));
+    given(mockReceiver.receive()).willReturn(Flux.just(receiverRecord(0, 0)));
+
+    StepVerifier.create(processor(1, Duration.ofSeconds(1)).flux())
+        .expectErrorMatches(sendFailure::equals)
+        .verify(Duration.ofSeconds(5));
+
+    // the commit is never subscribed to
+    assertEquals(List.of("begin", "abort"), transactionEvents);
+  }
+
+  private void givenTransactionSucceeds() {
+    given(mockTransactionManager.scheduler()).willReturn(Schedulers.immediate());
+    given(mockTransactionManager.begin()).willAnswer(invocation -> event("begin"));
+    given(mockTransactionManager.sendOffsets(any(), any())).willAnswer(invocation -> {
+      assertEquals(APPLICATION_ID, invocation.getArgument(1));
+      return event("offsets " + invocation.getArgument(0));
+    });
+    given(mockTransactionManager.commit()).willAnswer(invocation -> event("commit"));
+    given(mockSender.send(any())).willAnswer(invocation ->
+        Flux.from(invocation.<Publisher<SenderRecord<String, String, String>>>getArgument(0))
+            .then(event("send"))
+            .thenMany(Flux.empty()));
+  }
+
+  private Mono<Void> event(String event) {
+    return Mono.fromRunnable(() -> transactionEvents.add(event));
+  }
+
+  private ReactorCd11RsdfProcessor processor(int transactionMaxRecords,
+      Duration transactionMaxLatency) {
+    given(mockSender.transactionManager()).willReturn(mockTransactionManager);
+    return new ReactorCd11RsdfProcessor(kafkaConfiguration(), mockReceiverConfiguration,
+        mockSender, mockReceiver, transactionMaxRecords, transactionMaxLatency,
+        Duration.ofMinutes(10), Duration.ofMinutes(1));
+  }
+
+  private static List<String> extractsOfPartition(List<String> extractPositions, int partition) {
+    return extractPositions.stream()
+        .filter(position -> position.startsWith(partition + "-"))
+        .collect(Collectors.toList());
+  }
+
+  private static ConsumerRecord<String, byte[]> consumerRecord(int partition, long offset,
+      byte[] value) {
+    return new ConsumerRecord<>(RSDF_TOPIC, partition, offset, null, value);
+  }
+
+  private static ReceiverRecord<String, byte[]> receiverRecord(int partition, long offset) {
+    // malformed frames are dropped, but still have their offsets committed
+    return new ReceiverRecord<>(consumerRecord(partition, offset, new byte[0]), null);
+  }
+
+  private static KafkaConfiguration kafkaConfiguration() {
+    return KafkaConfiguration.builder()
+        .setApplicationId(APPLICATION_ID)
+        .setBootstrapServers("localhost:9092")
+        .setInputRsdfTopic(RSDF_TOPIC)
+        .setMalformedFrameTopic("malformed.frame")
+        .setOutputAcquiredChannelSohTopic("soh.acei")
+        .setOutputStationSohInputTopic("soh.extract")
+        .setKeySerializer("org.apache.kafka.common.serialization.Serdes$StringSerde")
+        .setValueSerializer("org.apache.kafka.common.serialization.Serdes$StringSerde")
+        .setNumberOfVerificationAttempts(1)
+        .setStreamsCloseTimeoutMs(120000)
+        .setConnectionRetryCount(10)
+        .setRetryBackoffMs(1000L)
+        .setSessionTimeout(60000)
+        .setMaxPollInterval(2500)
+        .setMaxPollRecords(2000)
+        .setAutoCommit(false)
+        .setHeartbeatInterval(3000)
+        .setTransactionTimeout(30000)
+        .setAcks("all")
+        .setDeliveryTimeout(120000)
+        .build();
+  }
+
+  private void initMockReceiverConfig() {
+    willReturn(Optional.of("PLCA.PLCA1.SHZ"))
+        .given(mockReceiverConfiguration).getChannelName("PLCA.PLCA1.SHZ");
+    willReturn(Optional.of("PLCA.PLCAB.BHZ"))
+        .given(mockReceiverConfiguration).getChannelName("PLCA.PLCAB.BHZ");
+    willReturn(Optional.of("PLCA.PLCAB.BHN"))
+        .given(mockReceiverConfiguration).getChannelName("PLCA.PLCAB.BHN");
+    willReturn(Optional.of("PLCA.PLCAB.BHE"))
+        .given(mockReceiverConfiguration).getChannelName("PLCA.PLCAB.BHE");
+  }
+}
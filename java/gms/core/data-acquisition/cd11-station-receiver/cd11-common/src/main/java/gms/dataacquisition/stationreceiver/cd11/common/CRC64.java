@@ -8,6 +8,14 @@
 
 package gms.dataacquisition.stationreceiver.cd11.common;
 
+import static com.google.common.base.Preconditions.checkPositionIndexes;
+
+import io.netty.buffer.ByteBuf;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
 /**
  * This class was derived from a C module CRC64.c given to us by James BlinkHorn of the Canadian
  * data center.  Below are comments from the original source: <p> Defined to be the 64 bit Cyclic
@@ -16,6 +24,12 @@ package gms.dataacquisition.stationreceiver.cd11.common;
  * "T" vector. T[i] is the remainder of dividing i*x64 by the polynomial.n For more information on
  * CRC see D.V. Sarwate, "Computation of cyclic redundancy via table look-up," Comm. ACM 31(8), Aug.
  * 1988, p. 1008-1013.
+ * <p>
+ * Besides the static helpers, an instance accumulates a CRC incrementally over byte arrays, NIO
+ * buffers and Netty buffers (including direct and composite ones), so a frame can be checked where
+ * it was received without first being copied into a single heap array. Whole 8-byte words are
+ * processed per step using "slicing-by-8" tables; results are identical to the byte at a time
+ * computation.
  *
  * @author davidketchum
  */
@@ -24,8 +38,16 @@ public final class CRC64 {
   // This contains the pre-computed coefficients for each of the possible 256 values.
   private static long[] tvec;
 
-  private CRC64() {
-  }
+  // Slicing-by-8 tables: slices[k][i] is the remainder of dividing i*x^(64+8k) by the polynomial,
+  // i.e. the contribution of byte value i once it has been shifted k further bytes. slices[0] is
+  // tvec. Folding an entire 8-byte word into the CRC then takes one lookup per byte of the old CRC
+  // instead of eight dependent single byte steps.
+  private static final long[][] slices = new long[8][256];
+
+  private static final VarHandle BIG_ENDIAN_LONGS = MethodHandles
+      .byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+  private long crc;
 
   static {
     // compute the 256 CRC elements the first time
@@ -39,6 +61,22 @@ public final class CRC64 {
         }
       }
     }
+
+    slices[0] = tvec;
+    for (int k = 1; k < 8; k++) {
+      for (int i = 0; i < 256; i++) {
+        long previous = slices[k - 1][i];
+        slices[k][i] = tvec[(int) ((previous >>> 56) & 0xffL)] ^ (previous << 8);
+      }
+    }
+  }
+
+  /**
+   * Creates an incremental CRC computation, initially over zero bytes. Feed it with the update
+   * methods and read the result with {@link #getValue()}.
+   */
+  public CRC64() {
+    this.crc = 0L;
   }
 
   /**
@@ -59,11 +97,7 @@ public final class CRC64 {
    * @return CRC value.
    */
   public static long compute(byte[] b, int len) {
-    long crc = 0L;
-    for (int i = 0; i < len; i++) {
-      crc = tvec[(int) ((crc >> 56) & 0xffL)] ^ (crc << 8 | (((long) (b[i])) & 0xffL));
-    }
-    return crc;
+    return update(0L, b, 0, len);
   }
 
   /**
@@ -77,4 +111,128 @@ public final class CRC64 {
   public static boolean isValidCrc(byte[] b, int len, long expectedCrcValue) {
     return (compute(b, len) == expectedCrcValue);
   }
+
+  /**
+   * Updates the CRC with len bytes of the array b, starting at off.
+   *
+   * @return this CRC64, for chaining
+   */
+  public CRC64 update(byte[] b, int off, int len) {
+    checkPositionIndexes(off, off + len, b.length);
+    crc = update(crc, b, off, len);
+    return this;
+  }
+
+  /**
+   * Updates the CRC with the remaining bytes of the buffer, which may be direct. Upon return the
+   * buffer's position is equal to its limit, matching {@link java.util.zip.Checksum}.
+   *
+   * @return this CRC64, for chaining
+   */
+  public CRC64 update(ByteBuffer buffer) {
+    int position = buffer.position();
+    int length = buffer.remaining();
+    if (buffer.hasArray()) {
+      crc = update(crc, buffer.array(), buffer.arrayOffset() + position, length);
+    } else {
+      boolean bigEndian = buffer.order() == ByteOrder.BIG_ENDIAN;
+      int index = position;
+      int wordsEnd = position + (length & ~7);
+      for (; index < wordsEnd; index += Long.BYTES) {
+        long word = buffer.getLong(index);
+        crc = fold(crc, bigEndian ? word : Long.reverseBytes(word));
+      }
+      for (int end = position + length; index < end; index++) {
+        crc = step(crc, buffer.get(index));
+      }
+    }
+    buffer.position(position + length);
+    return this;
+  }
+
+  /**
+   * Updates the CRC with the readable bytes of the buffer, without modifying its reader index.
+   * Composite buffers are walked component by component rather than being copied.
+   *
+   * @return this CRC64, for chaining
+   */
+  public CRC64 update(ByteBuf buffer) {
+    return update(buffer, buffer.readerIndex(), buffer.readableBytes());
+  }
+
+  /**
+   * Updates the CRC with length bytes of the buffer starting at the absolute index, without
+   * modifying the buffer's indexes.
+   *
+   * @return this CRC64, for chaining
+   */
+  public CRC64 update(ByteBuf buffer, int index, int length) {
+    if (buffer.hasArray()) {
+      checkPositionIndexes(index, index + length, buffer.capacity());
+      crc = update(crc, buffer.array(), buffer.arrayOffset() + index, length);
+    } else if (buffer.nioBufferCount() > 0) {
+      for (ByteBuffer component : buffer.nioBuffers(index, length)) {
+        update(component);
+      }
+    } else {
+      int wordsEnd = index + (length & ~7);
+      int i = index;
+      for (; i < wordsEnd; i += Long.BYTES) {
+        crc = fold(crc, buffer.getLong(i));
+      }
+      for (int end = index + length; i < end; i++) {
+        crc = step(crc, buffer.getByte(i));
+      }
+    }
+    return this;
+  }
+
+  /**
+   * @return The CRC of all bytes passed to the update methods since creation or the last {@link
+   * #reset()}
+   */
+  public long getValue() {
+    return crc;
+  }
+
+  /**
+   * Resets the CRC to its initial value, so the instance can be reused for another computation.
+   */
+  public void reset() {
+    crc = 0L;
+  }
+
+  private static long update(long crc, byte[] b, int off, int len) {
+    int i = off;
+    int wordsEnd = off + (len & ~7);
+    for (; i < wordsEnd; i += Long.BYTES) {
+      crc = fold(crc, (long) BIG_ENDIAN_LONGS.get(b, i));
+    }
+    for (int end = off + len; i < end; i++) {
+      crc = step(crc, b[i]);
+    }
+    return crc;
+  }
+
+  /**
+   * Advances the CRC over eight bytes at once: crc * x^64 + word, reduced by the polynomial.
+   */
+  private static long fold(long crc, long word) {
+    return word
+        ^ slices[7][(int) (crc >>> 56)]
+        ^ slices[6][(int) ((crc >>> 48) & 0xffL)]
+        ^ slices[5][(int) ((crc >>> 40) & 0xffL)]
+        ^ slices[4][(int) ((crc >>> 32) & 0xffL)]
+        ^ slices[3][(int) ((crc >>> 24) & 0xffL)]
+        ^ slices[2][(int) ((crc >>> 16) & 0xffL)]
+        ^ slices[1][(int) ((crc >>> 8) & 0xffL)]
+        ^ slices[0][(int) (crc & 0xffL)];
+  }
+
+  /**
+   * Advances the CRC over a single byte, as in the original byte at a time implementation.
+   */
+  private static long step(long crc, byte b) {
+    return tvec[(int) ((crc >> 56) & 0xffL)] ^ (crc << 8 | (((long) (b)) & 0xffL));
+  }
 }
@@ -1,5 +1,6 @@
 package gms.dataacquisition.stationreceiver.cd11.common;
 
+import gms.dataacquisition.stationreceiver.cd11.common.enums.FrameType;
 import gms.dataacquisition.stationreceiver.cd11.common.frames.Cd11Frame;
 import gms.dataacquisition.stationreceiver.cd11.common.frames.Cd11Header;
 import gms.dataacquisition.stationreceiver.cd11.common.frames.Cd11Payload;
@@ -7,6 +8,7 @@ import gms.dataacquisition.stationreceiver.cd11.common.frames.Cd11Trailer;
 import gms.dataacquisition.stationreceiver.cd11.common.frames.MalformedFrame;
 import gms.dataacquisition.stationreceiver.cd11.common.frames.PartialFrame;
 
+import io.netty.buffer.ByteBuf;
 import java.nio.BufferOverflowException;
 import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
@@ -22,6 +24,36 @@ public class Cd11FrameReader {
   //constants for size of header/body/trailer fields
   private static final int HEADER_SIZE = (Integer.BYTES * 3) + Long.BYTES + 8 + 8;
 
+  /**
+   * Reads a frame directly from the readable bytes of a (possibly pooled) {@link ByteBuf}, such as
+   * the slices emitted by {@link FrameParsingDecoder}, without first copying it to the heap.
+   * <p>
+   * Data frames have their CRC checked in place (see {@link Cd11Frame#hasInvalidCrc()}) so
+   * consumers of the frame need not check it again. Those with a valid CRC keep a retained slice of
+   * the buffer (see {@link Cd11Frame#getWireBytes()}) so they can be forwarded without being
+   * re-encoded or copied, and must have {@link Cd11Frame#releaseWireBytes()} called once they have
+   * been; the caller's reference to the buffer may still be released once this returns.
+   *
+   * @param frame Buffer whose readable bytes hold exactly one frame
+   * @return The parsed frame, or a malformed frame describing the read failure
+   */
+  public static Cd11OrMalformedFrame readFrame(ByteBuf frame) {
+    Cd11OrMalformedFrame read = readFrame(frame.nioBuffer());
+    if (read.getKind() == Cd11OrMalformedFrame.Kind.CD11 && isDataFrame(read.cd11())) {
+      boolean validCrc = FrameUtilities.isValidCRC(frame);
+      Cd11Frame.Builder dataFrame = read.cd11().toBuilder().setInvalidCrc(!validCrc);
+      if (validCrc) {
+        dataFrame.setWireBytes(frame.retainedSlice());
+      }
+      return Cd11OrMalformedFrame.ofCd11(dataFrame.build());
+    }
+    return read;
+  }
+
+  private static boolean isDataFrame(Cd11Frame frame) {
+    return frame.getType() == FrameType.DATA || frame.getType() == FrameType.CD_ONE_ENCAPSULATION;
+  }
+
   /**
    * Partially read enough information from the Frame bytes to allow further processing
    *
@@ -60,7 +92,7 @@ public class Cd11FrameReader {
           .setPartialFrame(partialBuilder.build())
           .setCause(e)
           .setReadPosition(buf.position())
-          .setBytes(buf.rewind().array())
+          .setBytes(copyAll(buf))
           .build());
     }
   }
@@ -79,15 +111,33 @@ public class Cd11FrameReader {
   static Cd11Payload tryReadBody(ByteBuffer buf, Cd11Header frameHeader) {
     //throws ParseCd11FromByteBufferException
     try {
-      byte[] bodyBytes;
       int requiredBodyBytes = frameHeader.getTrailerOffset() - HEADER_SIZE;
-      bodyBytes = FrameUtilities.readBytes(buf, requiredBodyBytes);
-      return Cd11PayloadReader.tryReadPayload(frameHeader.getFrameType(), ByteBuffer.wrap(bodyBytes));
+      if (requiredBodyBytes < 0 || requiredBodyBytes > buf.remaining()) {
+        throw new BufferUnderflowException();
+      }
+
+      // Parse the body in place rather than copying it out of the frame buffer
+      ByteBuffer bodyBytes = buf.slice();
+      bodyBytes.limit(requiredBodyBytes);
+      buf.position(buf.position() + requiredBodyBytes);
+      return Cd11PayloadReader.tryReadPayload(frameHeader.getFrameType(), bodyBytes);
     } catch (BufferOverflowException | BufferUnderflowException | NegativeArraySizeException e) {
       throw new ParseCd11FromByteBufferException(PARSING_ERROR_MESSAGE + "Cd11 Body Bytes", e);
     }
   }
 
+  /**
+   * Copies the full contents of the buffer, independent of its position, limit or whether it is
+   * backed by an accessible array.
+   */
+  private static byte[] copyAll(ByteBuffer buf) {
+    ByteBuffer whole = buf.duplicate();
+    whole.clear();
+    byte[] bytes = new byte[whole.remaining()];
+    whole.get(bytes);
+    return bytes;
+  }
+
   static Cd11Trailer tryReadTrailer(ByteBuffer buf) {
     //throws ParseCd11FromByteBufferException, IllegalArgumentException
 
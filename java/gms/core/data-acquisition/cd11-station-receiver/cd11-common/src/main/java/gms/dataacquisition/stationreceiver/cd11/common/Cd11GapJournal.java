@@ -0,0 +1,294 @@
+package gms.dataacquisition.stationreceiver.cd11.common;
+
+import gms.shared.utilities.logging.StructuredLoggingWrapper;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Durable, per-station gap list state kept as a compact binary snapshot plus an append-only journal
+ * of the mutations applied since the snapshot was taken.
+ * <p>
+ * Every mutation of a journaled {@link Cd11GapList} appends one small fixed size record, so the
+ * cost of persistence follows the rate of change rather than the size of the gap history. Records
+ * are buffered and written {@value #BATCH_RECORDS} at a time, and {@link #flush()} writes and
+ * forces any buffered records to the device, so a crash loses at most the changes since the last
+ * flush. {@link #compact(GapList)} folds the journal into a new snapshot (written to a temporary
+ * file and atomically moved into place) and truncates the journal. On
+ * {@link #open(Path, String, Supplier)} the snapshot is loaded and the journal replayed over it; a
+ * torn record at the end of the journal is discarded.
+ * <p>
+ * Journal methods are not synchronized: the journaled {@link Cd11GapList} serializes all calls.
+ */
+public final class Cd11GapJournal implements Closeable {
+
+  private static final StructuredLoggingWrapper logger = StructuredLoggingWrapper
+      .create(LoggerFactory.getLogger(Cd11GapJournal.class));
+
+  static final String SNAPSHOT_EXTENSION = ".gaps";
+  static final String JOURNAL_EXTENSION = ".gapjournal";
+
+  private static final int SNAPSHOT_MAGIC = 0x47415053; // "GAPS"
+  private static final byte SNAPSHOT_VERSION = 1;
+  private static final int SNAPSHOT_HEADER_LENGTH = Integer.BYTES + 2 + 2 * Long.BYTES
+      + Integer.BYTES;
+  private static final int SNAPSHOT_GAP_LENGTH = 3 * Long.BYTES + Integer.BYTES;
+
+  // Journal record: type, value, time (epoch seconds and nanos)
+  private static final byte SEQUENCE_NUMBER_RECORD = 1;
+  private static final byte EXPIRY_RECORD = 2;
+  static final int RECORD_LENGTH = 1 + 2 * Long.BYTES + Integer.BYTES;
+  static final int BATCH_RECORDS = 128;
+
+  private final Path snapshotPath;
+  private final Path journalPath;
+  private final ByteBuffer records = ByteBuffer.allocate(BATCH_RECORDS * RECORD_LENGTH);
+  private final Cd11GapList gapList;
+  private final boolean restored;
+  private final FileChannel journal;
+  // Whether records have been written since the journal was last forced
+  private boolean unforced;
+
+  private Cd11GapJournal(Path snapshotPath, Path journalPath, GapList initialState,
+      boolean restored) throws IOException {
+    this.snapshotPath = snapshotPath;
+    this.journalPath = journalPath;
+    this.gapList = new Cd11GapList(initialState, this);
+    this.restored = restored;
+    this.journal = openJournal();
+  }
+
+  /**
+   * Opens the journal for a station, restoring its gap list from the snapshot and journal in the
+   * directory. The restored state is immediately compacted.
+   *
+   * @param directory Directory holding gap state, created if missing
+   * @param stationName Name of the station
+   * @param initialState Supplies the gap list to start from when no persisted state exists
+   * @return The opened journal
+   * @throws IOException if the directory or persisted state cannot be read or written
+   */
+  public static Cd11GapJournal open(Path directory, String stationName,
+      Supplier<GapList> initialState) throws IOException {
+    Files.createDirectories(directory);
+    Path snapshotPath = directory.resolve(stationName + SNAPSHOT_EXTENSION);
+    Path journalPath = directory.resolve(stationName + JOURNAL_EXTENSION);
+
+    boolean restored = Files.exists(snapshotPath) || Files.exists(journalPath);
+    GapList state = restored ? replay(snapshotPath, journalPath) : initialState.get();
+
+    Cd11GapJournal gapJournal = new Cd11GapJournal(snapshotPath, journalPath, state, restored);
+    gapJournal.compact(state);
+    return gapJournal;
+  }
+
+  /**
+   * @return The journaled gap list; all of its mutations are recorded by this journal
+   */
+  public Cd11GapList getGapList() {
+    return gapList;
+  }
+
+  /**
+   * @return true if the gap list was restored from a snapshot or journal, false if it was created
+   * from the initial state supplier
+   */
+  public boolean isRestored() {
+    return restored;
+  }
+
+  void recordSequenceNumber(long sequenceNumber, Instant modifiedTime) {
+    append(SEQUENCE_NUMBER_RECORD, sequenceNumber, modifiedTime);
+  }
+
+  void recordExpiry(Instant expiration) {
+    append(EXPIRY_RECORD, 0L, expiration);
+  }
+
+  private void append(byte type, long value, Instant time) {
+    if (!journal.isOpen()) {
+      return;
+    }
+    if (records.remaining() < RECORD_LENGTH) {
+      try {
+        writeRecords();
+      } catch (IOException e) {
+        logger.warn("Failed to journal gap list changes to {}", journalPath, e);
+      }
+    }
+    records.put(type)
+        .putLong(value)
+        .putLong(time.getEpochSecond())
+        .putInt(time.getNano());
+  }
+
+  /**
+   * Writes any buffered records to the journal and forces them to the device.
+   *
+   * @throws IOException if the records cannot be written
+   */
+  void flush() throws IOException {
+    if (!journal.isOpen()) {
+      return;
+    }
+    writeRecords();
+    if (unforced) {
+      journal.force(false);
+      unforced = false;
+    }
+  }
+
+  private void writeRecords() throws IOException {
+    if (records.position() > 0) {
+      records.flip();
+      try {
+        writeFully(journal, records);
+        unforced = true;
+      } finally {
+        records.clear();
+      }
+    }
+  }
+
+  /**
+   * Writes the state of the gap list as the new snapshot and truncates the journal. Does nothing
+   * once the journal is closed.
+   *
+   * @param state Current state of the journaled gap list
+   * @throws IOException if the snapshot cannot be written
+   */
+  void compact(GapList state) throws IOException {
+    if (!journal.isOpen()) {
+      return;
+    }
+    Path temporaryPath = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+    try (FileChannel snapshot = FileChannel.open(temporaryPath, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      writeFully(snapshot, toSnapshot(state));
+      snapshot.force(true);
+    }
+    Files.move(temporaryPath, snapshotPath, StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+
+    // Records up to this point, including those still buffered, are now part of the snapshot
+    records.clear();
+    journal.truncate(0);
+    journal.force(true);
+    unforced = false;
+  }
+
+  private FileChannel openJournal() throws IOException {
+    return FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.APPEND);
+  }
+
+  /**
+   * Flushes any buffered records and closes the journal. Later changes to the gap list are not
+   * journaled.
+   *
+   * @throws IOException if the buffered records cannot be written
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      flush();
+    } finally {
+      journal.close();
+    }
+  }
+
+  private static ByteBuffer toSnapshot(GapList state) {
+    int totalGaps = state.getTotalGaps();
+    ByteBuffer buffer = ByteBuffer
+        .allocate(SNAPSHOT_HEADER_LENGTH + totalGaps * SNAPSHOT_GAP_LENGTH)
+        .putInt(SNAPSHOT_MAGIC)
+        .put(SNAPSHOT_VERSION)
+        .put((byte) (state.hasValues() ? 1 : 0))
+        .putLong(state.getMin())
+        .putLong(state.getMax())
+        .putInt(totalGaps);
+    for (Gap gap : state.gapsView()) {
+      buffer.putLong(gap.getStart())
+          .putLong(gap.getEnd())
+          .putLong(gap.getModifiedTime().getEpochSecond())
+          .putInt(gap.getModifiedTime().getNano());
+    }
+    return buffer.flip();
+  }
+
+  private static GapList replay(Path snapshotPath, Path journalPath) throws IOException {
+    GapList state = Files.exists(snapshotPath)
+        ? fromSnapshot(ByteBuffer.wrap(Files.readAllBytes(snapshotPath)))
+        : new GapList(0, -1);
+
+    if (!Files.exists(journalPath)) {
+      return state;
+    }
+
+    ByteBuffer records = ByteBuffer.wrap(Files.readAllBytes(journalPath));
+    int replayed = 0;
+    while (records.remaining() >= RECORD_LENGTH) {
+      byte type = records.get();
+      long value = records.getLong();
+      Instant time = Instant.ofEpochSecond(records.getLong(), records.getInt());
+      if (type == SEQUENCE_NUMBER_RECORD) {
+        state.addValue(value, time);
+      } else if (type == EXPIRY_RECORD) {
+        state.removeGapsModifiedBefore(time);
+      } else {
+        logger.warn("Stopping gap journal replay at unknown record type {} in {}", type,
+            journalPath);
+        break;
+      }
+      replayed++;
+    }
+    if (records.hasRemaining()) {
+      logger.warn("Discarding {} trailing bytes of incomplete gap journal records in {}",
+          records.remaining(), journalPath);
+    }
+    logger.info("Replayed {} gap journal records from {}", replayed, journalPath);
+    return state;
+  }
+
+  private static GapList fromSnapshot(ByteBuffer snapshot) throws IOException {
+    if (snapshot.remaining() < SNAPSHOT_HEADER_LENGTH || snapshot.getInt() != SNAPSHOT_MAGIC) {
+      throw new IOException("Gap snapshot is truncated or has an unrecognized format");
+    }
+    byte version = snapshot.get();
+    if (version != SNAPSHOT_VERSION) {
+      throw new IOException("Unsupported gap snapshot version " + version);
+    }
+
+    boolean hasValues = snapshot.get() != 0;
+    long min = snapshot.getLong();
+    long max = snapshot.getLong();
+    int totalGaps = snapshot.getInt();
+    if (totalGaps < 0 || snapshot.remaining() < (long) totalGaps * SNAPSHOT_GAP_LENGTH) {
+      throw new IOException("Gap snapshot is truncated");
+    }
+
+    List<Gap> gaps = new ArrayList<>(totalGaps);
+    for (int i = 0; i < totalGaps; i++) {
+      long start = snapshot.getLong();
+      long end = snapshot.getLong();
+      gaps.add(new Gap(start, end, Instant.ofEpochSecond(snapshot.getLong(), snapshot.getInt())));
+    }
+    return GapList.restore(min, max, hasValues, gaps, CoarseClock.utc());
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+}
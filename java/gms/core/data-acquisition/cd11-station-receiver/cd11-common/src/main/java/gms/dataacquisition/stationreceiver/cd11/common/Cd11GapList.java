@@ -8,6 +8,7 @@ import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
@@ -20,6 +21,8 @@ public class Cd11GapList {
 
   private static final StructuredLoggingWrapper logger = StructuredLoggingWrapper.create(LoggerFactory.getLogger(Cd11GapList.class));
   private GapList gapList;
+  // Records every change to the gap list when present
+  private final Cd11GapJournal journal;
 
   public Cd11GapList() {
     this(new GapList(0, -1));
@@ -28,10 +31,15 @@ public class Cd11GapList {
   @JsonCreator
   public Cd11GapList(
       @JsonProperty GapList gapList) {
+    this(gapList, null);
+  }
+
+  Cd11GapList(GapList gapList, Cd11GapJournal journal) {
     this.gapList = gapList;
+    this.journal = journal;
   }
 
-  public GapList getGapList() {
+  public synchronized GapList getGapList() {
     return gapList;
   }
 
@@ -42,7 +50,7 @@ public class Cd11GapList {
    *
    * @param acknackFrame CD 1.1 Acknack frame
    */
-  public void checkForReset(Cd11Acknack acknackFrame) {
+  public synchronized void checkForReset(Cd11Acknack acknackFrame) {
     // Ignore invalid input.
     if (Long.compareUnsigned(acknackFrame.getLowestSeqNum(), acknackFrame.getHighestSeqNum()) > 0) {
       logger.error(
@@ -58,28 +66,75 @@ public class Cd11GapList {
     }
   }
 
-  public void resetGapsList() {
+  public synchronized void resetGapsList() {
     logger.info("Gap list reset");
     this.gapList = new GapList(0, -1);
+    if (journal != null) {
+      try {
+        journal.compact(this.gapList);
+      } catch (IOException e) {
+        logger.warn("Failed to persist gap list reset", e);
+      }
+    }
   }
 
-  public void processSequenceNumber(long value) {
+  public synchronized void processSequenceNumber(long value) {
     // Add the new value.
     try {
       logger.debug("Adding sequence number {} to gap list", value);
-      this.gapList.addValue(value);
+      Instant modifiedTime = this.gapList.getClock().instant();
+      this.gapList.addValue(value, modifiedTime);
+      if (journal != null) {
+        journal.recordSequenceNumber(value, modifiedTime);
+      }
     } catch (Exception e) {
       logger.warn("Ignoring invalid sequence number: {}, Stack: {}", value,
         ExceptionUtils.getStackTrace(e));
     }
   }
 
+  /**
+   * Folds the journaled changes into a new snapshot of the gap list. Does nothing if the gap list
+   * is not journaled.
+   *
+   * @throws IOException if the snapshot cannot be written
+   */
+  public synchronized void compactJournal() throws IOException {
+    if (journal != null) {
+      journal.compact(this.gapList);
+    }
+  }
+
+  /**
+   * Writes the journaled changes not yet written and forces them to the device. Does nothing if
+   * the gap list is not journaled.
+   *
+   * @throws IOException if the changes cannot be written
+   */
+  public synchronized void flushJournal() throws IOException {
+    if (journal != null) {
+      journal.flush();
+    }
+  }
+
+  /**
+   * Flushes and closes the journal, after which changes to the gap list are no longer persisted.
+   * Does nothing if the gap list is not journaled.
+   *
+   * @throws IOException if the journal cannot be flushed
+   */
+  public synchronized void closeJournal() throws IOException {
+    if (journal != null) {
+      journal.close();
+    }
+  }
+
   /**
    * Returns the highest sequence number.
    *
    * @return highest sequence number
    */
-  public long getHighestSequenceNumber() {
+  public synchronized long getHighestSequenceNumber() {
     return this.gapList.getMax();
   }
 
@@ -88,10 +143,19 @@ public class Cd11GapList {
    *
    * @return lowest sequence number
    */
-  public long getLowestSequenceNumber() {
+  public synchronized long getLowestSequenceNumber() {
     return this.gapList.getMin();
   }
 
+  /**
+   * Returns the number of gaps currently in the gap list.
+   *
+   * @return number of gaps
+   */
+  public synchronized int getGapCount() {
+    return this.gapList.getTotalGaps();
+  }
+
   /**
    * Returns an array of gap ranges, as required to produce a CD 1.1 Acknack frame. Note: this
    * doesn't necessary truly reflect what's in the gap list, just what to report back to the
@@ -100,7 +164,7 @@ public class Cd11GapList {
    *
    * @return array of gap ranges
    */
-  public long[] getGaps() {
+  public synchronized long[] getGaps() {
     ArrayList<ImmutablePair<Long, Long>> gaps = this.gapList.getGaps(false, true);
 
     // Filter out gaps that go beyond the the max of the range. This scenario happens when we set our max
@@ -140,7 +204,11 @@ public class Cd11GapList {
    *
    * @param expirationPeriod Duration of time since wall clock to expire gaps for
    */
-  public void removeExpiredGaps(Duration expirationPeriod) {
-    this.gapList.removeGapsModifiedBefore(Instant.now().minus(expirationPeriod));
+  public synchronized void removeExpiredGaps(Duration expirationPeriod) {
+    Instant expiration = this.gapList.getClock().instant().minus(expirationPeriod);
+    this.gapList.removeGapsModifiedBefore(expiration);
+    if (journal != null) {
+      journal.recordExpiry(expiration);
+    }
   }
 }
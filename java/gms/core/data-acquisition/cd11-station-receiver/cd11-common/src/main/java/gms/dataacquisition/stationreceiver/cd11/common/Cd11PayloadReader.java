@@ -56,7 +56,7 @@ public class Cd11PayloadReader {
       case OPTION_RESPONSE:
         return tryReadOptionExchange(payloadBytes);
       case CUSTOM_RESET_FRAME:
-        return CustomReset.create(payloadBytes.array());
+        return CustomReset.create(FrameUtilities.readBytes(payloadBytes, payloadBytes.remaining()));
       default:
         throw new IllegalArgumentException(
           String.format("Frame type does not exist.%s", frameType));
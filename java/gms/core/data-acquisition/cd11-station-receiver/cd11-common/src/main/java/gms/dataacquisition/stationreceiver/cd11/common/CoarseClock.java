@@ -0,0 +1,89 @@
+package gms.dataacquisition.stationreceiver.cd11.common;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Clock that is cheap enough to read for every received frame. The system clock is read once per
+ * {@link #TICK} by a single daemon thread and cached, so reading this clock is a volatile read; in
+ * exchange, the instants it reports trail the system clock by up to a tick. Gap modification times
+ * are only compared against expiration periods of days, so the lag does not matter to them.
+ */
+final class CoarseClock extends Clock {
+
+  static final Duration TICK = Duration.ofMillis(10);
+
+  private static final CoarseClock UTC = new CoarseClock(ZoneOffset.UTC);
+
+  private static volatile Instant now = Instant.now();
+
+  private final ZoneId zone;
+
+  private CoarseClock(ZoneId zone) {
+    this.zone = zone;
+  }
+
+  /**
+   * @return The coarse clock in UTC, starting its ticking thread on first use
+   */
+  static Clock utc() {
+    Ticker.start();
+    return UTC;
+  }
+
+  @Override
+  public ZoneId getZone() {
+    return zone;
+  }
+
+  @Override
+  public Clock withZone(ZoneId zone) {
+    return zone.equals(this.zone) ? this : new CoarseClock(zone);
+  }
+
+  @Override
+  public Instant instant() {
+    return now;
+  }
+
+  @Override
+  public long millis() {
+    return now.toEpochMilli();
+  }
+
+  @Override
+  public String toString() {
+    return "CoarseClock[" + zone + "]";
+  }
+
+  /**
+   * Holder of the ticking thread, started once when its class is initialized.
+   */
+  private static final class Ticker {
+
+    private static final ScheduledExecutorService EXECUTOR = Executors
+        .newSingleThreadScheduledExecutor(runnable -> {
+          Thread thread = new Thread(runnable, "cd11-coarse-clock");
+          thread.setDaemon(true);
+          return thread;
+        });
+
+    static {
+      EXECUTOR.scheduleAtFixedRate(() -> now = Instant.now(), TICK.toMillis(), TICK.toMillis(),
+          TimeUnit.MILLISECONDS);
+    }
+
+    private Ticker() {
+    }
+
+    static void start() {
+      // Initializing the class starts the thread
+    }
+  }
+}
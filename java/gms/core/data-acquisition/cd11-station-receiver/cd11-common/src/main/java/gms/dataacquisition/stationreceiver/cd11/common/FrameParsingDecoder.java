@@ -11,6 +11,12 @@ import java.util.List;
 import org.slf4j.LoggerFactory;
 
 
+/**
+ * Splits the inbound tcp byte stream into whole CD 1.1 frames. Each frame is emitted as a retained
+ * slice of the cumulation buffer rather than a copy, so frames stay in the (pooled) buffer netty
+ * read them into until the downstream consumer releases them. Reclaiming consumed bytes of the
+ * cumulation buffer is left to {@link ByteToMessageDecoder}.
+ */
 public class FrameParsingDecoder extends ByteToMessageDecoder {
 
   private final StructuredLoggingWrapper logger = StructuredLoggingWrapper
@@ -26,46 +32,38 @@ public class FrameParsingDecoder extends ByteToMessageDecoder {
       return;
     }
 
+    int frameStart = in.readerIndex();
     try {
-      int frameTypeInt = in.getInt(0);
+      int frameTypeInt = in.getInt(frameStart);
       FrameType.fromInt(frameTypeInt);
-      int trailerOffset = in.getInt(Integer.BYTES);
+      int trailerOffset = in.getInt(frameStart + Integer.BYTES);
       checkArgument(trailerOffset >= HEADER_SIZE,
-          String.format(
-              "The offset of the frame trailer (%d) must be at least the size of the header (%d)",
-              trailerOffset, HEADER_SIZE));
+          "The offset of the frame trailer (%s) must be at least the size of the header (%s)",
+          trailerOffset, HEADER_SIZE);
 
       if (in.readableBytes() < trailerOffset + 2 * Integer.BYTES) {
         return;
       }
-      int trailerAuthSize = in.getInt(trailerOffset + Integer.BYTES);
+      int trailerAuthSize = in.getInt(frameStart + trailerOffset + Integer.BYTES);
       checkArgument(trailerAuthSize >= 0,
-          "The authentication size of the frame trailer must be greater than 0, was "
-              + trailerAuthSize);
+          "The authentication size of the frame trailer must be greater than 0, was %s",
+          trailerAuthSize);
       int paddedAuthValSize = FrameUtilities
           .calculatePaddedLength(trailerAuthSize, Integer.BYTES);
       checkArgument(paddedAuthValSize >= 0,
-          "The padded trailer authentication value size must be greater than 0, was "
-              + paddedAuthValSize);
+          "The padded trailer authentication value size must be greater than 0, was %s",
+          paddedAuthValSize);
 
       int totalSize = trailerOffset + 2 * Integer.BYTES + paddedAuthValSize + Long.BYTES;
       if (in.readableBytes() < totalSize) {
         return;
       }
 
-      byte[] send = new byte[totalSize];
-      in.readBytes(send);
-      in.discardReadBytes();
-      out.add(send);
+      out.add(in.readRetainedSlice(totalSize));
 
     } catch (IllegalArgumentException e) {
-
-      byte[] send = new byte[in.readableBytes()];
-      in.readBytes(send);
-      in.discardReadBytes();
-      out.add(send);
-    } catch (NegativeArraySizeException e) {
-      logger.warn("Encountered negative array size when decoding frame bytes", e.fillInStackTrace());
+      logger.debug("Forwarding remaining bytes as a single unparseable frame", e);
+      out.add(in.readRetainedSlice(in.readableBytes()));
     }
   }
 }
\ No newline at end of file
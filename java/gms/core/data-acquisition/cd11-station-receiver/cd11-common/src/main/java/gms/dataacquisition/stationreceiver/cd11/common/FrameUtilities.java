@@ -8,8 +8,10 @@ import gms.dataacquisition.stationreceiver.cd11.common.enums.FrameType;
 import gms.dataacquisition.stationreceiver.cd11.common.frames.Cd11Frame;
 import gms.dataacquisition.stationreceiver.cd11.common.frames.Cd11Payload;
 import gms.dataacquisition.stationreceiver.cd11.common.frames.Cd11Trailer;
+import io.netty.buffer.ByteBuf;
 import java.nio.ByteBuffer;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeParseException;
@@ -178,6 +180,44 @@ public class FrameUtilities {
     }
   }
 
+  /**
+   * Equivalent of {@link #jdToInstant(String)} that reads the 20 byte julian date directly from a
+   * buffer at the given absolute index, without allocating intermediate Strings.
+   *
+   * @param buf buffer containing the timestamp
+   * @param index absolute index of the first byte of the timestamp
+   * @return Instant object with UTC format
+   * @throws IllegalArgumentException Thrown when the bytes are not of the form yyyyddd
+   * hh:mm:ss.mmm
+   */
+  public static Instant jdToInstant(ByteBuf buf, int index) {
+    int year = readDigits(buf, index, 4);
+    int days = readDigits(buf, index + 4, 3) - 1;
+    int hours = readDigits(buf, index + 8, 2);
+    int minutes = readDigits(buf, index + 11, 2);
+    int seconds = readDigits(buf, index + 14, 2);
+    int millis = readDigits(buf, index + 17, 3);
+    checkArgument(buf.getByte(index + 7) == ' ' && buf.getByte(index + 10) == ':'
+            && buf.getByte(index + 13) == ':' && buf.getByte(index + 16) == '.',
+        "Julian Date is not of the form yyyyddd hh:mm:ss.mmm");
+    checkArgument(hours < 24 && minutes < 60 && seconds < 60,
+        "Julian Date time of day is out of range");
+
+    long epochDay = LocalDate.of(year, 1, 1).toEpochDay() + days;
+    return Instant.ofEpochSecond(epochDay * 86_400 + hours * 3600L + minutes * 60L + seconds,
+        millis * 1_000_000L);
+  }
+
+  private static int readDigits(ByteBuf buf, int index, int count) {
+    int value = 0;
+    for (int i = index; i < index + count; i++) {
+      int digit = buf.getByte(i) - '0';
+      checkArgument(digit >= 0 && digit <= 9, "Julian Date contains a non-digit character");
+      value = value * 10 + digit;
+    }
+    return value;
+  }
+
   /**
    * Creates a 'julian date' string (jd), given an instant.
    *
@@ -254,4 +294,28 @@ public class FrameUtilities {
       rawBytes, rawBytes.length,
       frameTrailer.getCommVerification());
   }
+
+  /**
+   * Calculate the CRC over an entire raw frame and compare with the CRC in its trailer, reading the
+   * frame in place. The frame must occupy exactly the readable bytes of the buffer, as emitted by
+   * {@link FrameParsingDecoder}; the buffer's indexes are not modified.
+   *
+   * @param frame Buffer holding the raw frame bytes
+   * @return TRUE if CRC is verified, otherwise FALSE (including if the buffer is too short to hold
+   * a CRC)
+   */
+  public static boolean isValidCRC(ByteBuf frame) {
+    int length = frame.readableBytes();
+    if (length < Long.BYTES) {
+      return false;
+    }
+
+    int crcIndex = frame.readerIndex() + length - Long.BYTES;
+    // The CRC is computed with the comm verification bytes replaced by zeros
+    long crc = new CRC64()
+        .update(frame, frame.readerIndex(), length - Long.BYTES)
+        .update(new byte[Long.BYTES], 0, Long.BYTES)
+        .getValue();
+    return crc == frame.getLong(crcIndex);
+  }
 }
@@ -2,25 +2,42 @@ package gms.dataacquisition.stationreceiver.cd11.common;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonSetter;
+import java.time.Clock;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.SortedSet;
+import java.util.TreeMap;
 import java.util.TreeSet;
 import org.apache.commons.lang3.Validate;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 
+/**
+ * Tracks the gaps in a range of (unsigned) sequence numbers. Gaps are indexed by their start value
+ * so the gap containing a sequence number is found with a floor lookup, keeping sequence number
+ * processing logarithmic in the number of outstanding gaps no matter how fragmented the range
+ * becomes.
+ */
 public class GapList {
 
+  private final Clock clock;
   private boolean firstSeqNum = true;
   private long min;
   private long max;
-  private SortedSet<Gap> gapsList = new TreeSet<>();
+  // Gaps keyed by their start value; gaps never overlap, so ordering by start orders the gaps.
+  private final NavigableMap<Long, Gap> gapIndex = new TreeMap<>(Long::compareUnsigned);
 
   /**
-   * Constructs the object, and sets the initial min and max range values.
+   * Constructs the object, and sets the initial min and max range values. Gap modification times
+   * are read from a {@link CoarseClock}, so processing a sequence number does not read the system
+   * clock.
    *
    * @param min initial minimum range value of sequence numbers from received frames
    * @param max initial maximum range value of sequence numbers from received frames
@@ -29,17 +46,48 @@ public class GapList {
   public GapList(
       @JsonProperty("min") long min,
       @JsonProperty("max") long max) {
+    this(min, max, CoarseClock.utc());
+  }
+
+  /**
+   * Constructs the object, and sets the initial min and max range values.
+   *
+   * @param min initial minimum range value of sequence numbers from received frames
+   * @param max initial maximum range value of sequence numbers from received frames
+   * @param clock source of the modification times recorded on gaps
+   */
+  GapList(long min, long max, Clock clock) {
     Validate.isTrue(
         Long.compareUnsigned(min, max) <= 0,
         "Minimum value must be less than or equal to the maximum value; min: "
             + min + ", max: " + max);
 
+    this.clock = clock;
+
     // Set the min and max values.
     this.min = min;
     this.max = max;
 
     // Create the first gap.
-    this.gapsList.add(new Gap(min, max));
+    this.gapIndex.put(min, new Gap(min, max, clock.instant()));
+  }
+
+  /**
+   * Restores a gap list from persisted state.
+   *
+   * @param min minimum range value
+   * @param max maximum range value
+   * @param hasValues whether any value has been added to the gap list
+   * @param gaps gaps in the range
+   * @param clock source of the modification times recorded on gaps
+   * @return the restored gap list
+   */
+  static GapList restore(long min, long max, boolean hasValues, Collection<Gap> gaps,
+      Clock clock) {
+    GapList gapList = new GapList(min, max, clock);
+    gapList.firstSeqNum = !hasValues;
+    gapList.setGapsList(gaps);
+    return gapList;
   }
 
   /**
@@ -48,8 +96,18 @@ public class GapList {
    * @param value Value to fill in.
    */
   synchronized void addValue(long value) {
+    addValue(value, clock.instant());
+  }
+
+  /**
+   * Fills in the gap list with the given value, recording modifiedTime on any gap it changes.
+   *
+   * @param value Value to fill in.
+   * @param modifiedTime Modification time of changed gaps
+   */
+  synchronized void addValue(long value, Instant modifiedTime) {
     // Check if there are no gaps.
-    if (this.gapsList.isEmpty()) {
+    if (this.gapIndex.isEmpty()) {
       return;
     }
 
@@ -67,28 +125,32 @@ public class GapList {
         this.max = value;
       }
     }
-    // Check if the value falls within a gap.
-    Optional<Gap> matchedGap = this.gapsList.stream().filter(x -> x.contains(value)).findFirst();
-
-    matchedGap.ifPresent(gap -> fillGap(gap, value));
+    // Check if the value falls within a gap; only the gap starting at or before it can contain it.
+    Map.Entry<Long, Gap> candidate = this.gapIndex.floorEntry(value);
+    if (candidate != null && candidate.getValue().contains(value)) {
+      fillGap(candidate.getValue(), value, modifiedTime);
+    }
   }
 
-  private void fillGap(Gap gap, long value) {
+  private void fillGap(Gap gap, long value, Instant now) {
 
     // SCENARIO 1: Check if the gap was simply eliminated.
     if ((Long.compareUnsigned(gap.getStart(), value) == 0) && (
         Long.compareUnsigned(gap.getEnd(), value)
             == 0)) {
-      // Remove the gap from the gapsList.
-      this.gapsList.remove(gap);
+      // Remove the gap from the gap index.
+      this.gapIndex.remove(gap.getStart());
     }
 
     // SCENARIO 2: Check if the gap's lower limit needs to be incremented.
     else if (Long.compareUnsigned(gap.getStart(), value) == 0) {
+      // The start value is the gap's key, so it must be re-indexed.
+      this.gapIndex.remove(gap.getStart());
       gap.setStart(gap.getStart() + 1);
+      this.gapIndex.put(gap.getStart(), gap);
 
       // Update the gap's "modified" time.
-      gap.setModifiedTime(Instant.now());
+      gap.setModifiedTime(now);
     }
 
     // SCENARIO 3: Check if the gap's upper limit needs to be decremented.
@@ -96,13 +158,11 @@ public class GapList {
       gap.setEnd(gap.getEnd() - 1);
 
       // Update the gap's "modified" time.
-      gap.setModifiedTime(Instant.now());
+      gap.setModifiedTime(now);
     }
 
     // SCENARIO 4: Check if the gap needs to be split into two gaps.
     else {
-      Instant now = Instant.now();
-
       // Store the current end value of the gap.
       long oldEnd = gap.getEnd();
 
@@ -113,7 +173,7 @@ public class GapList {
       gap.setModifiedTime(now);
 
       // Add a new gap to span the range of the upper split.
-      this.gapsList.add(new Gap(value + 1, oldEnd, now));
+      this.gapIndex.put(value + 1, new Gap(value + 1, oldEnd, now));
     }
   }
 
@@ -134,44 +194,39 @@ public class GapList {
         "End value must be less than or equal to the current maximum.");
 
     // Check if there are no gaps.
-    if (this.gapsList.isEmpty()) {
+    if (this.gapIndex.isEmpty()) {
       return;
     }
 
+    // Only the gap starting at or before startValue, and gaps starting within the range, can
+    // intersect the range.
+    Long fromKey = this.gapIndex.floorKey(startValue);
+    NavigableMap<Long, Gap> affected = (fromKey == null)
+        ? this.gapIndex.headMap(endValue, true)
+        : this.gapIndex.subMap(fromKey, true, endValue, true);
+
     // Modify or remove existing gaps that fall within the specified range.
-    Instant now = Instant.now();
-    List<Gap> removeList = new ArrayList<>();
+    Instant now = clock.instant();
     List<Gap> adjustList = new ArrayList<>();
-    for (Gap gap : this.gapsList) {
+    Iterator<Gap> gaps = affected.values().iterator();
+    while (gaps.hasNext()) {
+      Gap gap = gaps.next();
       if (Long.compareUnsigned(gap.getEnd(), startValue) < 0) {
-        // Leave these gaps along, since they occur before the specified range.
-      } else if (Long.compareUnsigned(gap.getStart(), endValue) > 0) {
-        // Skip all gaps past this point, since they will all occur after the specified range.
-        break;
-      } else if (Long.compareUnsigned(gap.getStart(), startValue) >= 0 &&
-          Long.compareUnsigned(gap.getEnd(), endValue) <= 0) {
-        // Remove these gaps entirely, since their full range fits inside the specified range.
-        removeList.add(gap);
-      } else if (Long.compareUnsigned(gap.getStart(), startValue) < 0 &&
-          Long.compareUnsigned(gap.getEnd(), endValue) > 0) {
-        // This gap spans both before the start and after end of the specified range. It must be split.
-        removeList.add(gap);
-        adjustList.add(new Gap(gap.getStart(), startValue - 1, now));
-        adjustList.add(new Gap(endValue + 1, gap.getEnd(), now));
-      } else if (Long.compareUnsigned(gap.getStart(), startValue) < 0 &&
-          Long.compareUnsigned(gap.getEnd(), endValue) <= 0) {
+        // Leave this gap alone, since it occurs before the specified range.
+        continue;
+      }
+
+      gaps.remove();
+      if (Long.compareUnsigned(gap.getStart(), startValue) < 0) {
         // This gap spans before the start of the specified range, and must be adjusted.
-        removeList.add(gap);
         adjustList.add(new Gap(gap.getStart(), startValue - 1, now));
-      } else if (Long.compareUnsigned(gap.getStart(), startValue) >= 0 &&
-          Long.compareUnsigned(gap.getEnd(), endValue) > 0) {
+      }
+      if (Long.compareUnsigned(gap.getEnd(), endValue) > 0) {
         // This gap spans after the end of the specified range, and must be adjusted.
-        removeList.add(gap);
         adjustList.add(new Gap(endValue + 1, gap.getEnd(), now));
       }
     }
-    removeList.forEach(this.gapsList::remove);
-    this.gapsList.addAll(adjustList);
+    adjustList.forEach(gap -> this.gapIndex.put(gap.getStart(), gap));
   }
 
   /**
@@ -192,8 +247,46 @@ public class GapList {
     return this.max;
   }
 
+  /**
+   * Returns a snapshot of the gaps, in order. Changes to the snapshot do not affect this gap list.
+   *
+   * @return ordered copy of the gaps
+   */
   public synchronized SortedSet<Gap> getGapsList() {
-    return this.gapsList;
+    TreeSet<Gap> snapshot = new TreeSet<>();
+    this.gapIndex.values().forEach(gap ->
+        snapshot.add(new Gap(gap.getStart(), gap.getEnd(), gap.getModifiedTime())));
+    return snapshot;
+  }
+
+  /**
+   * Returns whether any value has been added to the gap list.
+   *
+   * @return true once a value has been added
+   */
+  synchronized boolean hasValues() {
+    return !this.firstSeqNum;
+  }
+
+  /**
+   * Returns a live, read-only view of the gaps in order. Callers must hold a lock that excludes
+   * concurrent modification of the gap list while iterating.
+   *
+   * @return ordered view of the gaps
+   */
+  synchronized Collection<Gap> gapsView() {
+    return Collections.unmodifiableCollection(this.gapIndex.values());
+  }
+
+  /**
+   * Replaces the gaps, as when restoring a persisted gap list.
+   *
+   * @param gaps gaps to index
+   */
+  @JsonSetter("gapsList")
+  synchronized void setGapsList(Collection<Gap> gaps) {
+    this.gapIndex.clear();
+    gaps.forEach(gap -> this.gapIndex.put(gap.getStart(), gap));
   }
 
   /**
@@ -203,7 +296,7 @@ public class GapList {
    */
 
   synchronized int getTotalGaps() {
-    return this.gapsList.size();
+    return this.gapIndex.size();
   }
 
   /**
@@ -212,7 +305,7 @@ public class GapList {
    * @param expiration expiration time
    */
   synchronized void removeGapsModifiedBefore(Instant expiration) {
-    this.gapsList.removeIf(x ->
+    this.gapIndex.values().removeIf(x ->
         x.getModifiedTime().isBefore(expiration));
   }
 
@@ -235,7 +328,7 @@ public class GapList {
   synchronized ArrayList<ImmutablePair<Long, Long>> getGaps(
       boolean exclusiveStart, boolean exclusiveEnd) {
     ArrayList<ImmutablePair<Long, Long>> gapRanges = new ArrayList<>();
-    for (Gap gap : this.gapsList) {
+    for (Gap gap : this.gapIndex.values()) {
       long lower = (exclusiveStart) ? gap.getStart() - 1 : gap.getStart();
       long upper;
       //If upper is Max unsigned, leave it
@@ -258,6 +351,13 @@ public class GapList {
     return Long.compareUnsigned(-1, val) == 0;
   }
 
+  /**
+   * @return the clock used to time stamp gap modifications
+   */
+  Clock getClock() {
+    return this.clock;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -269,12 +369,12 @@ public class GapList {
     GapList gapList = (GapList) o;
     return min == gapList.min &&
         max == gapList.max &&
-        Objects.equals(gapsList, gapList.gapsList);
+        Objects.equals(new ArrayList<>(gapIndex.values()), new ArrayList<>(gapList.gapIndex.values()));
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(min, max, gapsList);
+    return Objects.hash(min, max, new ArrayList<>(gapIndex.values()));
   }
 
   @Override
@@ -282,7 +382,7 @@ public class GapList {
     return "GapList{" +
         "min=" + min +
         ", max=" + max +
-        ", gapsList=" + gapsList +
+        ", gapsList=" + gapIndex.values() +
         '}';
   }
 }
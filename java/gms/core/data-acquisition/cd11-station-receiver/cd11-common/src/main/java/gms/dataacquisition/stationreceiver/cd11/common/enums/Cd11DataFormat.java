@@ -12,6 +12,8 @@ public enum Cd11DataFormat {
   CD("CD", (byte) -1), // Per CD1.1 Spec, size is not applicable to CD-1 Encapsulated Data
   CA("ca", (byte) -1); // This is a compressed data format, so size is not applicable
 
+  private static final Cd11DataFormat[] VALUES = values();
+
   private final String dataFormatName;
   public final byte size;
 
@@ -27,6 +29,26 @@ public enum Cd11DataFormat {
         .orElseThrow(() -> new IllegalArgumentException(String.format("Unsupported CD1.1 Data Format: %s", s)));
   }
 
+  /**
+   * Resolves the data format from its two raw ASCII bytes without building an intermediate String.
+   *
+   * @param first first character of the data format name
+   * @param second second character of the data format name
+   * @return the matching data format
+   * @throws IllegalArgumentException if the bytes do not name a supported data format
+   */
+  public static Cd11DataFormat fromBytes(byte first, byte second) {
+    for (Cd11DataFormat format : VALUES) {
+      if (Character.toLowerCase(format.dataFormatName.charAt(0)) == Character.toLowerCase(first)
+          && Character.toLowerCase(format.dataFormatName.charAt(1)) == Character
+          .toLowerCase(second)) {
+        return format;
+      }
+    }
+    throw new IllegalArgumentException(String.format("Unsupported CD1.1 Data Format: %c%c",
+        (char) first, (char) second));
+  }
+
   @Override
   public String toString() {
     return dataFormatName;
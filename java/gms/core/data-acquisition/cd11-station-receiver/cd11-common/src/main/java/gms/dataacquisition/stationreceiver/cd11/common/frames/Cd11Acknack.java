@@ -75,11 +75,12 @@ public abstract class Cd11Acknack implements Cd11Payload {
   }
 
   public static Builder withGapList(Cd11GapList gapList) {
+    long[] gapRanges = gapList.getGaps();
     return builder()
       .setLowestSeqNum(gapList.getLowestSequenceNumber())
       .setHighestSeqNum(gapList.getHighestSequenceNumber())
-      .setGapCount(gapList.getGaps().length / 2)
-      .setGapRanges(gapList.getGaps());
+      .setGapCount(gapRanges.length / 2)
+      .setGapRanges(gapRanges);
   }
 
   @AutoValue.Builder
@@ -146,12 +146,12 @@ public class Cd11ChannelSubframe {
     validate();
   }
 
-  private double computeSampleRate(int samples, int subframeTimeLength) {
+  static double computeSampleRate(int samples, int subframeTimeLength) {
     // time length is in milis, need to convert to seconds
     return ((double) samples) / ((double) subframeTimeLength) * 1000.0;
   }
 
-  private Instant computeEndTime(Instant start, double sampleRate, int subframeTimeLength) {
+  static Instant computeEndTime(Instant start, double sampleRate, int subframeTimeLength) {
     checkArgument(start != null, "Channel Subframe start time cannot be null.");
 
     final int MILLION = 1_000_000;
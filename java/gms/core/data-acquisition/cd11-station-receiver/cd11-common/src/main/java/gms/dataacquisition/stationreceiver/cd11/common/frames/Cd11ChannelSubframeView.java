@@ -0,0 +1,270 @@
+package gms.dataacquisition.stationreceiver.cd11.common.frames;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import gms.dataacquisition.stationreceiver.cd11.common.FrameUtilities;
+import gms.dataacquisition.stationreceiver.cd11.common.enums.Cd11DataFormat;
+import gms.dataacquisition.stationreceiver.cd11.common.enums.CompressionFormat;
+import gms.dataacquisition.stationreceiver.cd11.common.enums.SensorType;
+import io.netty.buffer.ByteBuf;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Read-only flyweight view of a single CD 1.1 Channel Subframe, in place within the buffer the
+ * frame was received into. Unlike {@link Cd11ChannelSubframe}, which copies every field out of the
+ * frame, a view only records where the subframe and its variable length fields start and reads
+ * field values from the buffer on demand. A single view can be re-pointed at successive subframes
+ * with {@link #wrap(ByteBuf, int, int)}, so walking a data frame does not allocate per subframe.
+ * <p>
+ * A view is only valid while its buffer is neither released nor modified. Use {@link
+ * #toChannelSubframe()} to obtain an independent copy.
+ */
+public final class Cd11ChannelSubframeView {
+
+  // Offsets of the fixed position fields, relative to the start of the subframe
+  private static final int AUTH_OFFSET_INDEX = 4;
+  private static final int AUTHENTICATION_INDEX = 8;
+  private static final int TRANSFORMATION_INDEX = 9;
+  private static final int SENSOR_TYPE_INDEX = 10;
+  private static final int OPTION_FLAG_INDEX = 11;
+  private static final int SITE_NAME_INDEX = 12;
+  private static final int CHANNEL_NAME_INDEX = 17;
+  private static final int LOCATION_NAME_INDEX = 20;
+  private static final int DATA_FORMAT_INDEX = 22;
+  private static final int CALIBRATION_FACTOR_INDEX = 24;
+  private static final int CALIBRATION_PERIOD_INDEX = 28;
+  private static final int TIMESTAMP_INDEX = 32;
+  private static final int SUBFRAME_TIME_LENGTH_INDEX = 52;
+  private static final int SAMPLES_INDEX = 56;
+  private static final int CHANNEL_STATUS_SIZE_INDEX = 60;
+  private static final int CHANNEL_STATUS_INDEX = 64;
+
+  private ByteBuf buffer;
+  private int start;
+  private int channelStatusSize;
+  private int dataIndex;
+  private int dataSize;
+  private int subframeCountIndex;
+  private int authSize;
+  private int size;
+
+  /**
+   * Points this view at the channel subframe starting at the given index of the buffer.
+   *
+   * @param buffer Buffer containing the subframe
+   * @param index Absolute index of the first byte (the channel length field) of the subframe
+   * @param limit Absolute index the subframe may not extend past, typically the end of the frame
+   * body
+   * @return this view, for chaining
+   * @throws IllegalArgumentException if the subframe does not fit between index and limit, or any
+   * of its size fields are negative
+   */
+  public Cd11ChannelSubframeView wrap(ByteBuf buffer, int index, int limit) {
+    checkArgument(limit - index >= Cd11ChannelSubframe.MINIMUM_FRAME_LENGTH,
+        "ChannelSubframe minimum size is %s but byte buffer only contains %s bytes.",
+        Cd11ChannelSubframe.MINIMUM_FRAME_LENGTH, limit - index);
+
+    int inChannelStatusSize = buffer.getInt(index + CHANNEL_STATUS_SIZE_INDEX);
+    checkArgument(inChannelStatusSize >= 0,
+        "ChannelSubframe.ChannelStatusSize must be >= 0, but value is: %s", inChannelStatusSize);
+    int dataSizeIndex = index + CHANNEL_STATUS_INDEX
+        + FrameUtilities.calculatePaddedLength(inChannelStatusSize, Integer.BYTES);
+    checkFits(dataSizeIndex + Integer.BYTES, limit);
+
+    int inDataSize = buffer.getInt(dataSizeIndex);
+    checkArgument(inDataSize >= 0,
+        "ChannelSubframe.DataSize must be >= 0, but value is: %s", inDataSize);
+    int inSubframeCountIndex = dataSizeIndex + Integer.BYTES
+        + FrameUtilities.calculatePaddedLength(inDataSize, Integer.BYTES);
+    checkFits(inSubframeCountIndex + 3 * Integer.BYTES, limit);
+
+    int inAuthSize = buffer.getInt(inSubframeCountIndex + 2 * Integer.BYTES);
+    checkArgument(inAuthSize >= 0,
+        "ChannelSubframe.AuthSize must be >= 0, but value is: %s", inAuthSize);
+    int end = inSubframeCountIndex + 3 * Integer.BYTES
+        + FrameUtilities.calculatePaddedLength(inAuthSize, Integer.BYTES);
+    checkFits(end, limit);
+
+    this.buffer = buffer;
+    this.start = index;
+    this.channelStatusSize = inChannelStatusSize;
+    this.dataIndex = dataSizeIndex + Integer.BYTES;
+    this.dataSize = inDataSize;
+    this.subframeCountIndex = inSubframeCountIndex;
+    this.authSize = inAuthSize;
+    this.size = end - index;
+    return this;
+  }
+
+  private static void checkFits(int index, int limit) {
+    // index < 0 guards against size fields large enough to overflow the computed offsets
+    if (index < 0 || index > limit) {
+      throw new IllegalArgumentException(
+          "ChannelSubframe extends beyond the end of the available bytes");
+    }
+  }
+
+  /**
+   * @return Length in bytes of this Channel Subframe, not counting the channel length field itself
+   */
+  public int getChannelLength() {
+    return buffer.getInt(start);
+  }
+
+  public int getAuthOffset() {
+    return buffer.getInt(start + AUTH_OFFSET_INDEX);
+  }
+
+  public boolean isAuthenticationOn() {
+    return buffer.getByte(start + AUTHENTICATION_INDEX) == 1;
+  }
+
+  public CompressionFormat getCompressionFormat() {
+    return CompressionFormat.of(buffer.getByte(start + TRANSFORMATION_INDEX));
+  }
+
+  public SensorType getSensorType() {
+    return SensorType.of(buffer.getByte(start + SENSOR_TYPE_INDEX));
+  }
+
+  public boolean isCalib() {
+    return buffer.getByte(start + OPTION_FLAG_INDEX) == 1;
+  }
+
+  public String getSiteName() {
+    return readString(SITE_NAME_INDEX, 5);
+  }
+
+  public String getChannelName() {
+    return readString(CHANNEL_NAME_INDEX, 3);
+  }
+
+  public String getLocationName() {
+    return readString(LOCATION_NAME_INDEX, 2);
+  }
+
+  /**
+   * @return The site and channel names packed as a {@link Cd11ChannelTable} key
+   */
+  long getSiteAndChannelKey() {
+    long site = Cd11ChannelTable.pack(buffer, start + SITE_NAME_INDEX,
+        Cd11ChannelTable.SITE_NAME_LENGTH);
+    long channel = Cd11ChannelTable.pack(buffer, start + CHANNEL_NAME_INDEX,
+        Cd11ChannelTable.CHANNEL_NAME_LENGTH);
+    return site == Cd11ChannelTable.INVALID_KEY || channel == Cd11ChannelTable.INVALID_KEY
+        ? Cd11ChannelTable.INVALID_KEY
+        : site << (Byte.SIZE * Cd11ChannelTable.CHANNEL_NAME_LENGTH) | channel;
+  }
+
+  /**
+   * @return The location name packed as a {@link Cd11ChannelTable} key
+   */
+  int getLocationKey() {
+    return (int) Cd11ChannelTable.pack(buffer, start + LOCATION_NAME_INDEX,
+        Cd11ChannelTable.LOCATION_NAME_LENGTH);
+  }
+
+  private String readString(int offset, int length) {
+    return FrameUtilities.stripString(
+        buffer.toString(start + offset, length, StandardCharsets.US_ASCII));
+  }
+
+  public Cd11DataFormat getDataFormat() {
+    return Cd11DataFormat.fromBytes(buffer.getByte(start + DATA_FORMAT_INDEX),
+        buffer.getByte(start + DATA_FORMAT_INDEX + 1));
+  }
+
+  public float getCalibrationFactor() {
+    return buffer.getFloat(start + CALIBRATION_FACTOR_INDEX);
+  }
+
+  public float getCalibrationPeriod() {
+    return buffer.getFloat(start + CALIBRATION_PERIOD_INDEX);
+  }
+
+  /**
+   * @return UTC start time of the first sample of this channel
+   */
+  public Instant getTimeStamp() {
+    return FrameUtilities.jdToInstant(buffer, start + TIMESTAMP_INDEX);
+  }
+
+  /**
+   * @return Time in milliseconds spanned by this channel's data
+   */
+  public int getSubframeTimeLength() {
+    return buffer.getInt(start + SUBFRAME_TIME_LENGTH_INDEX);
+  }
+
+  public int getSamples() {
+    return buffer.getInt(start + SAMPLES_INDEX);
+  }
+
+  public double getSampleRate() {
+    return Cd11ChannelSubframe.computeSampleRate(getSamples(), getSubframeTimeLength());
+  }
+
+  public Instant getEndTime() {
+    return Cd11ChannelSubframe
+        .computeEndTime(getTimeStamp(), getSampleRate(), getSubframeTimeLength());
+  }
+
+  public int getChannelStatusSize() {
+    return channelStatusSize;
+  }
+
+  /**
+   * @return Read-only slice of the (unpadded) channel status bytes, sharing this view's buffer
+   */
+  public ByteBuf getChannelStatusData() {
+    return buffer.slice(start + CHANNEL_STATUS_INDEX, channelStatusSize).asReadOnly();
+  }
+
+  public int getDataSize() {
+    return dataSize;
+  }
+
+  /**
+   * @return Read-only slice of the (unpadded) channel data bytes, sharing this view's buffer
+   */
+  public ByteBuf getChannelData() {
+    return buffer.slice(dataIndex, dataSize).asReadOnly();
+  }
+
+  public int getSubframeCount() {
+    return buffer.getInt(subframeCountIndex);
+  }
+
+  public int getAuthKeyIdentifier() {
+    return buffer.getInt(subframeCountIndex + Integer.BYTES);
+  }
+
+  public int getAuthSize() {
+    return authSize;
+  }
+
+  /**
+   * @return Read-only slice of the (unpadded) authentication value, sharing this view's buffer
+   */
+  public ByteBuf getAuthValue() {
+    return buffer.slice(subframeCountIndex + 3 * Integer.BYTES, authSize).asReadOnly();
+  }
+
+  /**
+   * @return The size in bytes of the subframe, including all padding
+   */
+  public int getSize() {
+    return size;
+  }
+
+  /**
+   * Copies the viewed subframe out of its buffer.
+   *
+   * @return A {@link Cd11ChannelSubframe} that is independent of this view's buffer
+   * @throws IllegalArgumentException if the subframe fails {@link Cd11ChannelSubframe} validation
+   */
+  public Cd11ChannelSubframe toChannelSubframe() {
+    return new Cd11ChannelSubframe(buffer.nioBuffer(start, size));
+  }
+}
@@ -0,0 +1,319 @@
+package gms.dataacquisition.stationreceiver.cd11.common.frames;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import io.netty.buffer.ByteBuf;
+import java.util.Optional;
+
+/**
+ * Per-station table resolving the identifier of a CD 1.1 Channel Subframe (its site, channel and
+ * location names) to a value such as the channel's name or definition.
+ * <p>
+ * Identifiers are packed into a pair of primitive keys straight from the subframe's name fields, so
+ * a lookup neither formats identifier strings nor hashes them. The {@link Resolver} is consulted
+ * once for each distinct identifier, including identifiers that resolve to nothing, and its result
+ * is kept until {@link #invalidate()} is called, or resolved again by {@link #refresh()}, e.g.
+ * because the station's reference data changed.
+ * <p>
+ * Lookups are lock-free reads of an immutable snapshot of the table; resolving a new identifier
+ * copies the snapshot, which happens once per channel of the station.
+ *
+ * @param <T> Type of the resolved value
+ */
+public final class Cd11ChannelTable<T> {
+
+  static final int SITE_NAME_LENGTH = 5;
+  static final int CHANNEL_NAME_LENGTH = 3;
+  static final int LOCATION_NAME_LENGTH = 2;
+
+  // Keys hold the name bytes with the site in the upper five bytes and the channel in the lower
+  // three, and the location in the lower two bytes of an int; unused bytes are zero, which cannot
+  // occur within a stripped name. Names that cannot be packed use the invalid key.
+  static final int INVALID_KEY = -1;
+
+  /**
+   * Resolves a subframe identifier that is not yet in the table.
+   *
+   * @param <T> Type of the resolved value
+   */
+  @FunctionalInterface
+  public interface Resolver<T> {
+
+    /**
+     * @param siteName Site name of the subframe, as read by {@link Cd11ChannelSubframe}
+     * @param channelName Channel name of the subframe
+     * @param locationName Location name of the subframe
+     * @return The resolved value, or empty if the identifier is unknown
+     */
+    Optional<T> resolve(String siteName, String channelName, String locationName);
+  }
+
+  private final Resolver<T> resolver;
+  private volatile Snapshot<T> snapshot = Snapshot.empty();
+
+  private Cd11ChannelTable(Resolver<T> resolver) {
+    this.resolver = resolver;
+  }
+
+  public static <T> Cd11ChannelTable<T> create(Resolver<T> resolver) {
+    checkNotNull(resolver, "Cannot create a channel table without a resolver");
+    return new Cd11ChannelTable<>(resolver);
+  }
+
+  /**
+   * Resolves the identifier of a parsed channel subframe.
+   *
+   * @param subframe Subframe to resolve
+   * @return The resolved value, or empty if the identifier is unknown
+   */
+  public Optional<T> resolve(Cd11ChannelSubframe subframe) {
+    return resolve(subframe.siteName, subframe.channelName, subframe.locationName);
+  }
+
+  /**
+   * Resolves the identifier of a channel subframe view, reading the key from the view's buffer.
+   *
+   * @param subframe Subframe to resolve
+   * @return The resolved value, or empty if the identifier is unknown
+   */
+  public Optional<T> resolve(Cd11ChannelSubframeView subframe) {
+    long siteAndChannel = subframe.getSiteAndChannelKey();
+    int location = subframe.getLocationKey();
+    if (siteAndChannel == INVALID_KEY || location == INVALID_KEY) {
+      return resolver.resolve(subframe.getSiteName(), subframe.getChannelName(),
+          subframe.getLocationName());
+    }
+
+    Optional<T> value = snapshot.get(siteAndChannel, location);
+    return value != null ? value : resolveAndAdd(siteAndChannel, location,
+        subframe.getSiteName(), subframe.getChannelName(), subframe.getLocationName());
+  }
+
+  /**
+   * Resolves a subframe identifier given as the (stripped) names read from the subframe.
+   *
+   * @param siteName Site name of the subframe
+   * @param channelName Channel name of the subframe
+   * @param locationName Location name of the subframe
+   * @return The resolved value, or empty if the identifier is unknown
+   */
+  public Optional<T> resolve(String siteName, String channelName, String locationName) {
+    long siteAndChannel = packSiteAndChannel(siteName, channelName);
+    int location = packLocation(locationName);
+    if (siteAndChannel == INVALID_KEY || location == INVALID_KEY) {
+      // Not a name that can be read from a subframe, so not worth remembering
+      return resolver.resolve(siteName, channelName, locationName);
+    }
+
+    Optional<T> value = snapshot.get(siteAndChannel, location);
+    return value != null ? value
+        : resolveAndAdd(siteAndChannel, location, siteName, channelName, locationName);
+  }
+
+  /**
+   * Forgets every resolved identifier, so that each is resolved again on its next lookup.
+   */
+  public synchronized void invalidate() {
+    snapshot = Snapshot.empty();
+  }
+
+  /**
+   * Resolves every identifier in the table again, against the resolver's current reference data,
+   * and replaces the table with the result in a single step. Lookups keep reading the previous
+   * table until then, so the identifiers already seen from the station are never resolved on the
+   * frame path; identifiers not yet seen are resolved on their first lookup, as before.
+   */
+  public synchronized void refresh() {
+    snapshot = snapshot.resolveAgain(resolver);
+  }
+
+  /**
+   * @return The number of identifiers currently resolved, including unknown identifiers
+   */
+  public int size() {
+    return snapshot.size;
+  }
+
+  private synchronized Optional<T> resolveAndAdd(long siteAndChannel, int location,
+      String siteName, String channelName, String locationName) {
+    Optional<T> value = snapshot.get(siteAndChannel, location);
+    if (value == null) {
+      value = checkNotNull(resolver.resolve(siteName, channelName, locationName),
+          "Channel table resolver returned null for %s.%s.%s", siteName, channelName,
+          locationName);
+      snapshot = snapshot.with(siteAndChannel, location, value);
+    }
+    return value;
+  }
+
+  static long packSiteAndChannel(String siteName, String channelName) {
+    long site = pack(siteName, SITE_NAME_LENGTH);
+    long channel = pack(channelName, CHANNEL_NAME_LENGTH);
+    return site == INVALID_KEY || channel == INVALID_KEY ? INVALID_KEY
+        : site << (Byte.SIZE * CHANNEL_NAME_LENGTH) | channel;
+  }
+
+  static int packLocation(String locationName) {
+    return (int) pack(locationName, LOCATION_NAME_LENGTH);
+  }
+
+  private static String unpack(long key, int length) {
+    StringBuilder name = new StringBuilder(length);
+    for (int shift = Byte.SIZE * (length - 1); shift >= 0; shift -= Byte.SIZE) {
+      char c = (char) (key >>> shift & 0xFF);
+      if (c != 0) {
+        name.append(c);
+      }
+    }
+    return name.toString();
+  }
+
+  private static long pack(String name, int length) {
+    if (name == null || name.length() > length) {
+      return INVALID_KEY;
+    }
+    long key = 0;
+    for (int i = 0; i < name.length(); i++) {
+      char c = name.charAt(i);
+      if (c == 0 || c > Byte.MAX_VALUE) {
+        return INVALID_KEY;
+      }
+      key = key << Byte.SIZE | c;
+    }
+    return key << (Byte.SIZE * (length - name.length()));
+  }
+
+  /**
+   * Packs a fixed length name field as {@link #pack(String, int)} would pack the field once read
+   * and stripped of nulls and surrounding whitespace (see
+   * {@link gms.dataacquisition.stationreceiver.cd11.common.FrameUtilities#stripString(String)}).
+   */
+  static long pack(ByteBuf buffer, int index, int length) {
+    int first = index;
+    int last = index + length - 1;
+    while (first <= last && isStripped(buffer.getByte(first))) {
+      first++;
+    }
+    while (last >= first && isStripped(buffer.getByte(last))) {
+      last--;
+    }
+
+    long key = 0;
+    int packed = 0;
+    for (int i = first; i <= last; i++) {
+      byte b = buffer.getByte(i);
+      if (b < 0) {
+        return INVALID_KEY;
+      }
+      if (b != 0) {
+        key = key << Byte.SIZE | b;
+        packed++;
+      }
+    }
+    return key << (Byte.SIZE * (length - packed));
+  }
+
+  private static boolean isStripped(byte b) {
+    return b >= 0 && b <= ' ';
+  }
+
+  /**
+   * Immutable open addressing hash table of resolved identifiers.
+   */
+  private static final class Snapshot<T> {
+
+    private static final Snapshot<?> EMPTY = new Snapshot<>(new long[0], new int[0],
+        new Optional<?>[0], 0);
+
+    private final long[] siteAndChannelKeys;
+    private final int[] locationKeys;
+    private final Optional<?>[] values;
+    private final int size;
+
+    private Snapshot(long[] siteAndChannelKeys, int[] locationKeys, Optional<?>[] values,
+        int size) {
+      this.siteAndChannelKeys = siteAndChannelKeys;
+      this.locationKeys = locationKeys;
+      this.values = values;
+      this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> Snapshot<T> empty() {
+      return (Snapshot<T>) EMPTY;
+    }
+
+    /**
+     * @return The resolved value, or null if the identifier has not been resolved
+     */
+    @SuppressWarnings("unchecked")
+    Optional<T> get(long siteAndChannel, int location) {
+      if (size == 0) {
+        return null;
+      }
+      int mask = values.length - 1;
+      for (int i = slot(siteAndChannel, location, mask); values[i] != null; i = (i + 1) & mask) {
+        if (siteAndChannelKeys[i] == siteAndChannel && locationKeys[i] == location) {
+          return (Optional<T>) values[i];
+        }
+      }
+      return null;
+    }
+
+    Snapshot<T> with(long siteAndChannel, int location, Optional<T> value) {
+      // Keep the table at most half full
+      int capacity = Math.max(8, Integer.highestOneBit(size + 1) << 2);
+      long[] newSiteAndChannelKeys = new long[capacity];
+      int[] newLocationKeys = new int[capacity];
+      Optional<?>[] newValues = new Optional<?>[capacity];
+      for (int i = 0; i < values.length; i++) {
+        if (values[i] != null) {
+          put(newSiteAndChannelKeys, newLocationKeys, newValues, siteAndChannelKeys[i],
+              locationKeys[i], values[i]);
+        }
+      }
+      put(newSiteAndChannelKeys, newLocationKeys, newValues, siteAndChannel, location, value);
+      return new Snapshot<>(newSiteAndChannelKeys, newLocationKeys, newValues, size + 1);
+    }
+
+    /**
+     * @return A snapshot of the same identifiers, each resolved again by the resolver
+     */
+    Snapshot<T> resolveAgain(Resolver<T> resolver) {
+      if (size == 0) {
+        return this;
+      }
+      Optional<?>[] newValues = new Optional<?>[values.length];
+      for (int i = 0; i < values.length; i++) {
+        if (values[i] != null) {
+          String siteName = unpack(siteAndChannelKeys[i] >>> (Byte.SIZE * CHANNEL_NAME_LENGTH),
+              SITE_NAME_LENGTH);
+          String channelName = unpack(siteAndChannelKeys[i], CHANNEL_NAME_LENGTH);
+          String locationName = unpack(locationKeys[i], LOCATION_NAME_LENGTH);
+          newValues[i] = checkNotNull(resolver.resolve(siteName, channelName, locationName),
+              "Channel table resolver returned null for %s.%s.%s", siteName, channelName,
+              locationName);
+        }
+      }
+      // The keys are unchanged, so they keep their slots and their arrays can be shared
+      return new Snapshot<>(siteAndChannelKeys, locationKeys, newValues, size);
+    }
+
+    private static void put(long[] siteAndChannelKeys, int[] locationKeys, Optional<?>[] values,
+        long siteAndChannel, int location, Optional<?> value) {
+      int mask = values.length - 1;
+      int i = slot(siteAndChannel, location, mask);
+      while (values[i] != null) {
+        i = (i + 1) & mask;
+      }
+      siteAndChannelKeys[i] = siteAndChannel;
+      locationKeys[i] = location;
+      values[i] = value;
+    }
+
+    private static int slot(long siteAndChannel, int location, int mask) {
+      long hash = (siteAndChannel ^ location) * 0x9E3779B97F4A7C15L;
+      return (int) (hash >>> 32) & mask;
+    }
+  }
+}
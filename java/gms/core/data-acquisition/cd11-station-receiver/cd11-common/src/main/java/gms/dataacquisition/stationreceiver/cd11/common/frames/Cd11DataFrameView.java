@@ -0,0 +1,188 @@
+package gms.dataacquisition.stationreceiver.cd11.common.frames;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import gms.dataacquisition.stationreceiver.cd11.common.FrameUtilities;
+import gms.dataacquisition.stationreceiver.cd11.common.enums.FrameType;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.function.Consumer;
+
+/**
+ * Read-only flyweight view of a complete CD 1.1 Data (or CD-1 Encapsulation) frame, as emitted by
+ * the frame decoder. Header and Channel Subframe Header fields are read from the buffer on demand,
+ * and the Channel Subframes are visited with {@link #forEachSubframe(Consumer)} through a single,
+ * reused {@link Cd11ChannelSubframeView}, so inspecting a frame allocates nothing per channel.
+ * <p>
+ * A view is only valid while its buffer is neither released nor modified.
+ */
+public final class Cd11DataFrameView {
+
+  // Offsets of the frame header fields, relative to the start of the frame
+  private static final int TRAILER_OFFSET_INDEX = 4;
+  private static final int FRAME_CREATOR_INDEX = 8;
+  private static final int SEQUENCE_NUMBER_INDEX = 24;
+  private static final int SERIES_INDEX = 32;
+
+  // Offsets of the channel subframe header fields, relative to the start of the frame
+  private static final int NUM_CHANNELS_INDEX = Cd11Header.FRAME_LENGTH;
+  private static final int FRAME_TIME_LENGTH_INDEX = NUM_CHANNELS_INDEX + Integer.BYTES;
+  private static final int NOMINAL_TIME_INDEX = FRAME_TIME_LENGTH_INDEX + Integer.BYTES;
+  private static final int CHANNEL_STRING_COUNT_INDEX =
+      NOMINAL_TIME_INDEX + Cd11ChannelSubframeHeader.NOMTIMELENGTH;
+  private static final int CHANNEL_STRING_INDEX = CHANNEL_STRING_COUNT_INDEX + Integer.BYTES;
+
+  private final Cd11ChannelSubframeView subframeView = new Cd11ChannelSubframeView();
+
+  private ByteBuf buffer;
+  private int start;
+  private int end;
+  private int trailerIndex;
+  private int firstSubframeIndex;
+
+  /**
+   * @param frame Buffer whose readable bytes hold exactly one frame
+   * @return Whether the frame header declares a Data or CD-1 Encapsulation frame
+   */
+  public static boolean isDataFrame(ByteBuf frame) {
+    if (frame.readableBytes() < Integer.BYTES) {
+      return false;
+    }
+    int frameType = frame.getInt(frame.readerIndex());
+    return frameType == FrameType.DATA.getValue()
+        || frameType == FrameType.CD_ONE_ENCAPSULATION.getValue();
+  }
+
+  /**
+   * Points this view at the frame held in the readable bytes of the given buffer.
+   *
+   * @param frame Buffer whose readable bytes hold exactly one Data frame
+   * @return this view, for chaining
+   * @throws IllegalArgumentException if the buffer does not hold a Data frame, or its header or
+   * channel subframe header is inconsistent
+   */
+  public Cd11DataFrameView wrap(ByteBuf frame) {
+    int index = frame.readerIndex();
+    int length = frame.readableBytes();
+    checkArgument(length >= CHANNEL_STRING_INDEX,
+        "Data frame minimum size is %s but byte buffer only contains %s bytes.",
+        CHANNEL_STRING_INDEX, length);
+
+    FrameType frameType = FrameType.fromInt(frame.getInt(index));
+    checkArgument(frameType == FrameType.DATA || frameType == FrameType.CD_ONE_ENCAPSULATION,
+        "Cannot view frame of type %s as a data frame", frameType);
+
+    int inTrailerOffset = frame.getInt(index + TRAILER_OFFSET_INDEX);
+    checkArgument(inTrailerOffset >= CHANNEL_STRING_INDEX && inTrailerOffset <= length,
+        "Trailer offset %s is outside of the %s byte frame", inTrailerOffset, length);
+
+    int numChannels = frame.getInt(index + NUM_CHANNELS_INDEX);
+    checkArgument(numChannels > 0,
+        "ChannelSubframeHeader.numOfChannels must be > 0, but value is: %s", numChannels);
+    int frameTimeLength = frame.getInt(index + FRAME_TIME_LENGTH_INDEX);
+    checkArgument(frameTimeLength > 0,
+        "ChannelSubframeHeader.frameTimeLength must be > 0, but value is: %s", frameTimeLength);
+    int channelStringCount = frame.getInt(index + CHANNEL_STRING_COUNT_INDEX);
+    checkArgument(channelStringCount >= 0 && channelStringCount <= inTrailerOffset,
+        "ChannelSubframeHeader.channelStringCount is invalid: %s", channelStringCount);
+
+    // Mirror Cd11ChannelSubframeHeader: stations with an odd number of channels do not always pad
+    // the channel string, in which case the "padding" is actually the upper half of the following
+    // channel length field and will not be zero.
+    int subframeIndex = index + CHANNEL_STRING_INDEX + channelStringCount;
+    int padding = FrameUtilities.calculateNeededPadding(channelStringCount, Integer.BYTES);
+    if (padding > 0 && subframeIndex + Integer.BYTES <= index + inTrailerOffset
+        && frame.getInt(subframeIndex) == 0) {
+      subframeIndex += padding;
+    }
+
+    this.buffer = frame;
+    this.start = index;
+    this.end = index + length;
+    this.trailerIndex = index + inTrailerOffset;
+    this.firstSubframeIndex = subframeIndex;
+    return this;
+  }
+
+  public FrameType getFrameType() {
+    return FrameType.fromInt(buffer.getInt(start));
+  }
+
+  /**
+   * @return Length in bytes of the complete frame, including its header and trailer
+   */
+  public int getFrameLength() {
+    return end - start;
+  }
+
+  /**
+   * @return Byte offset from the first byte of the frame to the beginning of the trailer
+   */
+  public int getTrailerOffset() {
+    return trailerIndex - start;
+  }
+
+  public String getFrameCreator() {
+    return buffer.toString(start + FRAME_CREATOR_INDEX, 8, StandardCharsets.US_ASCII)
+        .replace("\0", "");
+  }
+
+  public long getSequenceNumber() {
+    return buffer.getLong(start + SEQUENCE_NUMBER_INDEX);
+  }
+
+  public int getSeries() {
+    return buffer.getInt(start + SERIES_INDEX);
+  }
+
+  public int getNumOfChannels() {
+    return buffer.getInt(start + NUM_CHANNELS_INDEX);
+  }
+
+  /**
+   * @return Time in milliseconds this frame encompasses
+   */
+  public int getFrameTimeLength() {
+    return buffer.getInt(start + FRAME_TIME_LENGTH_INDEX);
+  }
+
+  public Instant getNominalTime() {
+    return FrameUtilities.jdToInstant(buffer, start + NOMINAL_TIME_INDEX);
+  }
+
+  /**
+   * @return The trailer's comm verification (CRC) value
+   */
+  public long getCommVerification() {
+    int authSize = buffer.getInt(trailerIndex + Integer.BYTES);
+    return buffer.getLong(trailerIndex + 2 * Integer.BYTES
+        + FrameUtilities.calculatePaddedLength(authSize, Integer.BYTES));
+  }
+
+  /**
+   * Copies the complete viewed frame out of its buffer, exactly as received.
+   *
+   * @return The bytes of the frame, independent of this view's buffer
+   */
+  public byte[] toBytes() {
+    return ByteBufUtil.getBytes(buffer, start, end - start);
+  }
+
+  /**
+   * Visits each Channel Subframe of the frame in order. The view passed to the consumer is reused
+   * for every subframe and must not be retained past the call.
+   *
+   * @param consumer Consumer of each subframe
+   * @throws IllegalArgumentException if a subframe extends beyond the frame body
+   */
+  public void forEachSubframe(Consumer<Cd11ChannelSubframeView> consumer) {
+    int index = firstSubframeIndex;
+    int numChannels = getNumOfChannels();
+    for (int i = 0; i < numChannels && index < trailerIndex; i++) {
+      consumer.accept(subframeView.wrap(buffer, index, trailerIndex));
+      index += subframeView.getSize();
+    }
+  }
+}
@@ -2,7 +2,9 @@ package gms.dataacquisition.stationreceiver.cd11.common.frames;
 
 import com.google.auto.value.AutoValue;
 import gms.dataacquisition.stationreceiver.cd11.common.enums.FrameType;
+import io.netty.buffer.ByteBuf;
 import java.nio.ByteBuffer;
+import java.util.Optional;
 
 /**
  * Base class for all CD 1.1 Frame classes.
@@ -10,6 +12,11 @@ import java.nio.ByteBuffer;
 @AutoValue
 public abstract class Cd11Frame {
 
+  // Not a property: frames with the same header, payload and trailer are equal however they were
+  // created, and frames derived through toBuilder() are re-encoded rather than forwarded as read.
+  private ByteBuf wireBytes;
+  private boolean invalidCrc;
+
   public abstract Cd11Header getHeader();
 
   public abstract Cd11Payload getPayload();
@@ -20,6 +27,42 @@ public abstract class Cd11Frame {
     return getHeader().getFrameType();
   }
 
+  /**
+   * Returns the bytes this frame was read from, when it was read off the wire with a valid CRC and
+   * has not been modified since. The returned buffer is a read-only view of the received bytes,
+   * which is only valid until {@link #releaseWireBytes()} is called.
+   *
+   * @return The frame's original encoding, or empty if the frame was constructed, modified, failed
+   * its CRC or has released it
+   */
+  public Optional<ByteBuffer> getWireBytes() {
+    return Optional.ofNullable(wireBytes)
+        .map(ByteBuf::nioBuffer)
+        .map(ByteBuffer::asReadOnlyBuffer);
+  }
+
+  /**
+   * Releases the received bytes this frame holds, if any, after which it has no wire bytes. A frame
+   * read with its wire bytes must have this called once it has been forwarded.
+   */
+  public void releaseWireBytes() {
+    if (wireBytes != null) {
+      wireBytes.release();
+      wireBytes = null;
+    }
+  }
+
+  /**
+   * Returns whether the CRC of the bytes this frame was read from did not match the comm
+   * verification in its trailer. Only frames that keep their wire bytes are checked as they are
+   * read; any other frame reports false.
+   *
+   * @return true if the frame was read off the wire with an invalid CRC
+   */
+  public boolean hasInvalidCrc() {
+    return invalidCrc;
+  }
+
   /**
    * Returns a byte array representing the entire CD 1.1 frame (header, body, and trailer). NOTE:
    * This method can only be called when a fully constructed frame trailer has been set.
@@ -48,15 +91,49 @@ public abstract class Cd11Frame {
   public abstract Builder toBuilder();
 
   @AutoValue.Builder
-  public interface Builder {
-
-    Builder setHeader(Cd11Header header);
-
-    Builder setPayload(Cd11Payload payload);
-
-    Builder setTrailer(Cd11Trailer trailer);
-
-    Cd11Frame build();
+  public abstract static class Builder {
+
+    private ByteBuf wireBytes;
+    private boolean invalidCrc;
+
+    public abstract Builder setHeader(Cd11Header header);
+
+    public abstract Builder setPayload(Cd11Payload payload);
+
+    public abstract Builder setTrailer(Cd11Trailer trailer);
+
+    /**
+     * Records the bytes the frame was read from, so the frame can be forwarded without re-encoding.
+     * The frame takes over the given reference to the buffer, which is released by
+     * {@link Cd11Frame#releaseWireBytes()}; its readable bytes must not be modified afterwards.
+     *
+     * @param wireBytes Buffer whose readable bytes are the complete frame exactly as received
+     * @return this builder
+     */
+    public Builder setWireBytes(ByteBuf wireBytes) {
+      this.wireBytes = wireBytes;
+      return this;
+    }
+
+    /**
+     * Records whether the CRC of the bytes the frame was read from did not match its trailer.
+     *
+     * @param invalidCrc true if the frame was read with an invalid CRC
+     * @return this builder
+     */
+    public Builder setInvalidCrc(boolean invalidCrc) {
+      this.invalidCrc = invalidCrc;
+      return this;
+    }
+
+    abstract Cd11Frame autoBuild();
+
+    public Cd11Frame build() {
+      Cd11Frame frame = autoBuild();
+      frame.wireBytes = wireBytes;
+      frame.invalidCrc = invalidCrc;
+      return frame;
+    }
   }
 
 }
@@ -86,9 +86,29 @@ public class Cd11Connection {
    * @return Flux of parsed Cd11Frames of all incoming types.
    */
   public Flux<Cd11OrMalformedFrame> receive() {
-    return inbound
-        .receive()
-        .asByteBuffer()
+    return parse(receiveFrames());
+  }
+
+  /**
+   * Receives packets from the tcp inbound without parsing them, so that frames can be read in
+   * place. Each packet is a buffer whose readable bytes hold exactly one frame, which is released
+   * once it has been emitted.
+   *
+   * @return Flux of the received frames' buffers
+   */
+  public Flux<ByteBuf> receiveFrames() {
+    return inbound.receive();
+  }
+
+  /**
+   * Parses frames received with {@link #receiveFrames()} into Cd11Frames, as {@link #receive()}
+   * does.
+   *
+   * @param frames Received frames' buffers
+   * @return Flux of parsed Cd11Frames
+   */
+  public Flux<Cd11OrMalformedFrame> parse(Flux<ByteBuf> frames) {
+    return frames
         .map(Cd11FrameReader::readFrame)
         .onErrorContinue((e, obj) -> logger.error(
             "Inbound frame construction failed. Handling here to avoid canceling subscription. Returned object: {}",
@@ -0,0 +1,111 @@
+package gms.dataacquisition.stationreceiver.cd11.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class CRC64Test {
+
+  private static final long[] REFERENCE_TABLE = new long[256];
+
+  private static byte[] bytes;
+
+  @BeforeAll
+  static void setUp() {
+    for (int i = 0; i < 256; i++) {
+      for (int j = 7; j >= 0; j--) {
+        if ((i & (1 << j)) != 0) {
+          REFERENCE_TABLE[i] ^= (0x1BL << j);
+        }
+      }
+    }
+
+    bytes = new byte[1031];
+    new Random(8675309L).nextBytes(bytes);
+  }
+
+  /**
+   * The original byte at a time computation, which all results must match bit for bit.
+   */
+  private static long referenceCrc(byte[] b, int off, int len) {
+    long crc = 0L;
+    for (int i = off; i < off + len; i++) {
+      crc = REFERENCE_TABLE[(int) ((crc >> 56) & 0xffL)] ^ (crc << 8 | (((long) (b[i])) & 0xffL));
+    }
+    return crc;
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {0, 1, 7, 8, 9, 15, 16, 63, 100, 1031})
+  void testComputeMatchesReference(int length) {
+    assertEquals(referenceCrc(bytes, 0, length), CRC64.compute(bytes, length));
+  }
+
+  @Test
+  void testUpdateArrayWithOffset() {
+    assertEquals(referenceCrc(bytes, 3, 500), new CRC64().update(bytes, 3, 500).getValue());
+  }
+
+  @Test
+  void testIncrementalUpdatesMatchSinglePass() {
+    CRC64 crc = new CRC64();
+    int index = 0;
+    for (int chunk : new int[]{1, 3, 8, 13, 64, 100}) {
+      crc.update(bytes, index, chunk);
+      index += chunk;
+    }
+    crc.update(bytes, index, bytes.length - index);
+
+    assertEquals(CRC64.compute(bytes), crc.getValue());
+  }
+
+  @Test
+  void testUpdateDirectByteBuffer() {
+    ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+    direct.put(bytes).flip();
+    direct.position(5);
+
+    assertEquals(referenceCrc(bytes, 5, bytes.length - 5), new CRC64().update(direct).getValue());
+    assertEquals(direct.limit(), direct.position());
+  }
+
+  @Test
+  void testUpdateLittleEndianByteBuffer() {
+    ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length).order(ByteOrder.LITTLE_ENDIAN);
+    direct.put(bytes).flip();
+
+    assertEquals(CRC64.compute(bytes), new CRC64().update(direct).getValue());
+  }
+
+  @Test
+  void testUpdateCompositeByteBuf() {
+    CompositeByteBuf composite = Unpooled.compositeBuffer()
+        .addComponent(true, Unpooled.wrappedBuffer(bytes, 0, 11))
+        .addComponent(true, Unpooled.directBuffer(500).writeBytes(bytes, 11, 500))
+        .addComponent(true, Unpooled.wrappedBuffer(bytes, 511, bytes.length - 511));
+    composite.readerIndex(2);
+
+    assertEquals(referenceCrc(bytes, 2, bytes.length - 2),
+        new CRC64().update(composite).getValue());
+    assertEquals(2, composite.readerIndex());
+    composite.release();
+  }
+
+  @Test
+  void testReset() {
+    CRC64 crc = new CRC64().update(bytes, 0, 10);
+    crc.reset();
+    ByteBuf heap = Unpooled.wrappedBuffer(bytes);
+
+    assertEquals(CRC64.compute(bytes), crc.update(heap).getValue());
+  }
+}
@@ -1,15 +1,20 @@
 package gms.dataacquisition.stationreceiver.cd11.common;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import gms.dataacquisition.stationreceiver.cd11.common.Cd11OrMalformedFrame.Kind;
 import gms.dataacquisition.stationreceiver.cd11.common.frames.Cd11Acknack;
 import gms.dataacquisition.stationreceiver.cd11.common.frames.Cd11Frame;
 import gms.dataacquisition.stationreceiver.cd11.common.frames.Cd11Header;
 import gms.dataacquisition.stationreceiver.cd11.common.frames.Cd11Payload;
+import gms.dataacquisition.stationreceiver.cd11.common.frames.Cd11PayloadFixtures;
 import gms.dataacquisition.stationreceiver.cd11.common.frames.Cd11Trailer;
 import gms.dataacquisition.stationreceiver.cd11.common.frames.FrameHeaderTestUtility;
 import gms.dataacquisition.stationreceiver.cd11.common.frames.FrameTrailerTestUtility;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import java.nio.ByteBuffer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -94,4 +99,49 @@ class Cd11FrameReaderTests {
     Cd11OrMalformedFrame frame = Cd11FrameReader.readFrame(failureFrame);
     assertEquals(Kind.MALFORMED, frame.getKind());
   }
-}
\ No newline at end of file
+
+  @Test
+  void testDataFrameKeepsWireBytes() {
+    Cd11Frame expectedFrame = Cd11FrameFactory.createDefault()
+        .wrap(Cd11PayloadFixtures.cd11Data(), 1);
+    byte[] frameBytes = expectedFrame.toBytes();
+    ByteBuf buffer = Unpooled.wrappedBuffer(frameBytes);
+
+    Cd11Frame cd11Frame = Cd11FrameReader.readFrame(buffer).cd11();
+    assertEquals(expectedFrame, cd11Frame);
+    assertEquals(ByteBuffer.wrap(frameBytes), cd11Frame.getWireBytes().orElseThrow());
+    assertFalse(cd11Frame.hasInvalidCrc());
+    assertEquals(0, buffer.readerIndex());
+
+    // Modified frames are re-encoded rather than forwarded as received
+    assertTrue(cd11Frame.toBuilder().build().getWireBytes().isEmpty());
+
+    // The wire bytes are a retained slice of the buffer, rather than a copy
+    buffer.release();
+    assertEquals(1, buffer.refCnt());
+    cd11Frame.releaseWireBytes();
+    assertEquals(0, buffer.refCnt());
+    assertTrue(cd11Frame.getWireBytes().isEmpty());
+  }
+
+  @Test
+  void testDataFrameWithInvalidCrcFlagged() {
+    byte[] frameBytes = Cd11FrameFactory.createDefault()
+        .wrap(Cd11PayloadFixtures.cd11Data(), 1).toBytes();
+    frameBytes[frameBytes.length - 1] ^= 1;
+
+    ByteBuf buffer = Unpooled.wrappedBuffer(frameBytes);
+
+    Cd11Frame cd11Frame = Cd11FrameReader.readFrame(buffer).cd11();
+    assertTrue(cd11Frame.hasInvalidCrc());
+    // Frames failing their CRC are not forwarded as received
+    assertTrue(cd11Frame.getWireBytes().isEmpty());
+    assertEquals(1, buffer.refCnt());
+  }
+
+  @Test
+  void testNonDataFrameDoesNotKeepWireBytes() {
+    Cd11Frame cd11Frame = Cd11FrameReader.readFrame(Unpooled.wrappedBuffer(frameBuffer)).cd11();
+    assertTrue(cd11Frame.getWireBytes().isEmpty());
+  }
+}
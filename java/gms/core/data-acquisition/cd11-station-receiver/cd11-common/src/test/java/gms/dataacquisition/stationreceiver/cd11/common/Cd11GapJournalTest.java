@@ -0,0 +1,155 @@
+package gms.dataacquisition.stationreceiver.cd11.common;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class Cd11GapJournalTest {
+
+  private static final String STATION = "TEST";
+
+  @TempDir
+  Path gapDirectory;
+
+  private Cd11GapJournal open() throws IOException {
+    return Cd11GapJournal.open(gapDirectory, STATION, () -> new GapList(0, -1));
+  }
+
+  private Path journalPath() {
+    return gapDirectory.resolve(STATION + Cd11GapJournal.JOURNAL_EXTENSION);
+  }
+
+  @Test
+  void testReplayWithoutCompaction() throws IOException {
+    Cd11GapJournal journal = open();
+    assertFalse(journal.isRestored());
+    Cd11GapList gapList = journal.getGapList();
+    for (long sequenceNumber : new long[]{10, 11, 14, 20, 12}) {
+      gapList.processSequenceNumber(sequenceNumber);
+    }
+    gapList.flushJournal();
+    assertEquals(5L * Cd11GapJournal.RECORD_LENGTH, Files.size(journalPath()));
+    // Simulate a crash: the journal is never compacted or closed cleanly
+
+    Cd11GapJournal restored = open();
+    assertTrue(restored.isRestored());
+    assertEquals(gapList.getGapList(), restored.getGapList().getGapList());
+    assertArrayEquals(gapList.getGaps(), restored.getGapList().getGaps());
+    assertEquals(0, Files.size(journalPath()));
+
+    // The restored gap list continues from where the original left off
+    restored.getGapList().processSequenceNumber(13);
+    assertArrayEquals(new long[]{15, 20}, restored.getGapList().getGaps());
+    journal.close();
+    restored.close();
+  }
+
+  @Test
+  void testRecordsWrittenInBatches() throws IOException {
+    Cd11GapJournal journal = open();
+    Cd11GapList gapList = journal.getGapList();
+    for (int i = 0; i < Cd11GapJournal.BATCH_RECORDS; i++) {
+      gapList.processSequenceNumber(i);
+    }
+    assertEquals(0, Files.size(journalPath()));
+
+    // The next record does not fit the batch, so the full batch is written
+    gapList.processSequenceNumber(Cd11GapJournal.BATCH_RECORDS);
+    assertEquals((long) Cd11GapJournal.BATCH_RECORDS * Cd11GapJournal.RECORD_LENGTH,
+        Files.size(journalPath()));
+
+    journal.close();
+    assertEquals((Cd11GapJournal.BATCH_RECORDS + 1L) * Cd11GapJournal.RECORD_LENGTH,
+        Files.size(journalPath()));
+  }
+
+  @Test
+  void testChangesAfterCloseNotJournaled() throws IOException {
+    Cd11GapJournal journal = open();
+    Cd11GapList gapList = journal.getGapList();
+    gapList.processSequenceNumber(1);
+    gapList.closeJournal();
+
+    gapList.processSequenceNumber(3);
+    gapList.flushJournal();
+    gapList.compactJournal();
+    assertEquals(Cd11GapJournal.RECORD_LENGTH, Files.size(journalPath()));
+
+    assertEquals(1, open().getGapList().getHighestSequenceNumber());
+  }
+
+  @Test
+  void testCompactionTruncatesJournal() throws IOException {
+    Cd11GapJournal journal = open();
+    Cd11GapList gapList = journal.getGapList();
+    gapList.processSequenceNumber(1);
+    gapList.processSequenceNumber(5);
+    gapList.compactJournal();
+    assertEquals(0, Files.size(journalPath()));
+
+    gapList.processSequenceNumber(7);
+    journal.close();
+
+    Cd11GapList restored = open().getGapList();
+    assertArrayEquals(new long[]{2, 5, 6, 7}, restored.getGaps());
+    assertEquals(1, restored.getLowestSequenceNumber());
+    assertEquals(7, restored.getHighestSequenceNumber());
+  }
+
+  @Test
+  void testIncompleteRecordIsDiscarded() throws IOException {
+    Cd11GapJournal journal = open();
+    journal.getGapList().processSequenceNumber(1);
+    journal.getGapList().processSequenceNumber(3);
+    journal.close();
+    Files.write(journalPath(), new byte[]{1, 0, 0}, StandardOpenOption.APPEND);
+
+    Cd11GapList restored = open().getGapList();
+    assertArrayEquals(new long[]{2, 3}, restored.getGaps());
+  }
+
+  @Test
+  void testResetAndExpiryArePersisted() throws IOException {
+    Cd11GapJournal journal = open();
+    Cd11GapList gapList = journal.getGapList();
+    gapList.processSequenceNumber(1);
+    gapList.processSequenceNumber(3);
+    gapList.removeExpiredGaps(Duration.ofDays(-1));
+    journal.close();
+
+    Cd11GapJournal afterExpiry = open();
+    assertArrayEquals(new long[0], afterExpiry.getGapList().getGaps());
+    assertEquals(3, afterExpiry.getGapList().getHighestSequenceNumber());
+
+    afterExpiry.getGapList().resetGapsList();
+    afterExpiry.close();
+
+    Cd11GapList afterReset = open().getGapList();
+    assertEquals(new GapList(0, -1), afterReset.getGapList());
+  }
+
+  @Test
+  void testInitialStateUsedOnlyWithoutPersistedState() throws IOException {
+    GapList legacy = new GapList(0, -1);
+    legacy.addValue(4);
+    legacy.addValue(6);
+    Cd11GapJournal journal = Cd11GapJournal.open(gapDirectory, STATION, () -> legacy);
+    assertArrayEquals(new long[]{5, 6}, journal.getGapList().getGaps());
+    journal.close();
+
+    Cd11GapJournal reopened = Cd11GapJournal.open(gapDirectory, STATION, () -> {
+      throw new AssertionError("Persisted state should be used");
+    });
+    assertArrayEquals(new long[]{5, 6}, reopened.getGapList().getGaps());
+    reopened.close();
+  }
+}
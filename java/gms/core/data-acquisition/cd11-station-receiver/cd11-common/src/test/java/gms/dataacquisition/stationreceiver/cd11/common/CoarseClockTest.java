@@ -0,0 +1,51 @@
+package gms.dataacquisition.stationreceiver.cd11.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import org.junit.jupiter.api.Test;
+
+class CoarseClockTest {
+
+  @Test
+  void testClockTrailsSystemClock() {
+    Clock clock = CoarseClock.utc();
+    Instant before = Instant.now();
+    Instant coarse = clock.instant();
+
+    assertFalse(coarse.isAfter(Instant.now()));
+    assertTrue(coarse.isAfter(before.minus(CoarseClock.TICK.multipliedBy(100))));
+  }
+
+  @Test
+  void testClockTicks() throws InterruptedException {
+    Clock clock = CoarseClock.utc();
+    Instant first = clock.instant();
+    Instant deadline = Instant.now().plus(Duration.ofSeconds(5));
+    while (!clock.instant().isAfter(first) && Instant.now().isBefore(deadline)) {
+      Thread.sleep(CoarseClock.TICK.toMillis());
+    }
+    assertTrue(clock.instant().isAfter(first));
+  }
+
+  @Test
+  void testWithZone() {
+    Clock clock = CoarseClock.utc();
+    assertSame(clock, clock.withZone(ZoneOffset.UTC));
+
+    ZoneId zone = ZoneId.of("America/Denver");
+    assertEquals(zone, clock.withZone(zone).getZone());
+  }
+
+  @Test
+  void testGapListDefaultsToCoarseClock() {
+    assertSame(CoarseClock.utc(), new GapList(0, 100).getClock());
+  }
+}
@@ -41,7 +41,9 @@ class FrameParsingDecoderTest {
     }
     int expectedSize = directBuffer.readableBytes();
     frameParsingDecoder.decode(channelHandlerContext,directBuffer,objectList);
-    Assertions.assertEquals(expectedSize,((byte[]) objectList.get(0)).length);
+    ByteBuf invalidFrame = (ByteBuf) objectList.get(0);
+    Assertions.assertEquals(expectedSize, invalidFrame.readableBytes());
+    invalidFrame.release();
 
 
     // set the frame type with a valid option
@@ -57,7 +59,9 @@ class FrameParsingDecoderTest {
     }
 
     frameParsingDecoder.decode(channelHandlerContext,directBuffer2,objectList);
-    Assertions.assertEquals(108,((byte[]) objectList.get(0)).length);
+    ByteBuf validFrame = (ByteBuf) objectList.get(0);
+    Assertions.assertEquals(108, validFrame.readableBytes());
+    validFrame.release();
 
   }
 
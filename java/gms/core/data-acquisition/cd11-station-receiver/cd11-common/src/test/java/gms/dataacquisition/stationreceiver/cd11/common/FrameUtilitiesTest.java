@@ -2,10 +2,15 @@ package gms.dataacquisition.stationreceiver.cd11.common;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import gms.dataacquisition.stationreceiver.cd11.common.enums.FrameType;
 import gms.dataacquisition.stationreceiver.cd11.common.frames.Cd11Alert;
+import gms.dataacquisition.stationreceiver.cd11.common.frames.Cd11Header;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import java.nio.ByteBuffer;
 import java.time.Instant;
 import java.time.LocalDateTime;
@@ -97,4 +102,16 @@ class FrameUtilitiesTest {
         () -> FrameUtilities.asPayloadType(frameToCast, FrameType.ACKNACK));
     assertDoesNotThrow(() -> FrameUtilities.asPayloadType(frameToCast, FrameType.ALERT));
   }
+
+  @Test
+  void testIsValidCrcFromByteBuf() {
+    byte[] frameBytes = Cd11FrameFactory.createDefault()
+        .wrap(Cd11Alert.create("crc check")).toBytes();
+    ByteBuf frame = Unpooled.directBuffer(frameBytes.length).writeBytes(frameBytes);
+    assertTrue(FrameUtilities.isValidCRC(frame));
+
+    frame.setByte(Cd11Header.FRAME_LENGTH, frame.getByte(Cd11Header.FRAME_LENGTH) ^ 1);
+    assertFalse(FrameUtilities.isValidCRC(frame));
+    frame.release();
+  }
 }
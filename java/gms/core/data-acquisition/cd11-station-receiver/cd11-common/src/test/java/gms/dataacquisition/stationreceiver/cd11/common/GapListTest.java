@@ -8,7 +8,9 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import java.io.File;
 import java.io.IOException;
+import java.time.Clock;
 import java.time.Instant;
+import java.time.ZoneOffset;
 import java.util.List;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.junit.jupiter.api.BeforeAll;
@@ -288,6 +290,40 @@ public class GapListTest {
     assertEquals(gp, deserialized);
   }
 
+  @Test
+  public void testFragmentedRange() {
+    GapList gp = new GapList(0, 10_000);
+
+    // Receive every other sequence number, leaving thousands of single value gaps.
+    for (long i = 0; i <= 10_000; i += 2) {
+      gp.addValue(i);
+    }
+    assertEquals(5_000, gp.getTotalGaps());
+
+    // Fill a single gap in the middle of the range.
+    gp.addValue(5_001);
+    assertEquals(4_999, gp.getTotalGaps());
+    assertTrue(gp.getGaps().stream().noneMatch(gap -> gap.getLeft() == 5_001));
+
+    // Fill a range spanning many gaps, starting and ending on received values.
+    gp.addValueRange(100, 200);
+    assertEquals(4_949, gp.getTotalGaps());
+    assertTrue(gp.getGaps().stream()
+        .noneMatch(gap -> gap.getLeft() >= 100 && gap.getRight() <= 200));
+  }
+
+  @Test
+  public void testModifiedTimeUsesClock() {
+    Instant now = Instant.parse("2021-01-01T00:00:00Z");
+    GapList gp = new GapList(0, 100, Clock.fixed(now, ZoneOffset.UTC));
+
+    gp.addValue(50);
+    assertTrue(gp.getGapsList().stream().allMatch(gap -> gap.getModifiedTime().equals(now)));
+
+    gp.removeGapsModifiedBefore(now.plusSeconds(1));
+    assertEquals(0, gp.getTotalGaps());
+  }
+
   @Test
   // this test passes -1 which as an unsigned long is larger than 100
   // -1 is the maximum unsigned long value
@@ -0,0 +1,128 @@
+package gms.dataacquisition.stationreceiver.cd11.common.frames;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class Cd11ChannelTableTest {
+
+  private List<String> resolved;
+  private Cd11ChannelTable<String> table;
+
+  @BeforeEach
+  void setUp() {
+    resolved = new ArrayList<>();
+    table = Cd11ChannelTable.create((siteName, channelName, locationName) -> {
+      String identifier = String.join(".", siteName, channelName, locationName);
+      resolved.add(identifier);
+      return "NONE".equals(siteName) ? Optional.empty() : Optional.of(identifier);
+    });
+  }
+
+  @Test
+  void testResolverCalledOncePerIdentifier() {
+    assertEquals(Optional.of("STA01.BHZ.00"), table.resolve("STA01", "BHZ", "00"));
+    assertEquals(Optional.of("STA01.BHZ.00"), table.resolve("STA01", "BHZ", "00"));
+    assertEquals(Optional.of("STA01.BHZ.10"), table.resolve("STA01", "BHZ", "10"));
+    assertEquals(Optional.of("STA.BH.0"), table.resolve("STA", "BH", "0"));
+    assertEquals(Optional.empty(), table.resolve("NONE", "BHZ", ""));
+    assertEquals(Optional.empty(), table.resolve("NONE", "BHZ", ""));
+
+    assertEquals(List.of("STA01.BHZ.00", "STA01.BHZ.10", "STA.BH.0", "NONE.BHZ."), resolved);
+    assertEquals(4, table.size());
+  }
+
+  @Test
+  void testInvalidate() {
+    table.resolve("STA01", "BHZ", "00");
+    table.invalidate();
+    assertEquals(0, table.size());
+
+    table.resolve("STA01", "BHZ", "00");
+    assertEquals(List.of("STA01.BHZ.00", "STA01.BHZ.00"), resolved);
+  }
+
+  @Test
+  void testRefresh() {
+    table.resolve("STA01", "BHZ", "00");
+    table.resolve("STA", "BH", "");
+    table.resolve("NONE", "BHZ", "");
+    table.refresh();
+    assertEquals(3, table.size());
+    assertEquals(Set.of("STA01.BHZ.00", "STA.BH.", "NONE.BHZ."),
+        Set.copyOf(resolved.subList(3, resolved.size())));
+
+    // Refreshed identifiers are looked up without being resolved again
+    assertEquals(Optional.of("STA01.BHZ.00"), table.resolve("STA01", "BHZ", "00"));
+    assertEquals(Optional.of("STA.BH."), table.resolve("STA", "BH", ""));
+    assertEquals(Optional.empty(), table.resolve("NONE", "BHZ", ""));
+    assertEquals(6, resolved.size());
+  }
+
+  @Test
+  void testManyIdentifiers() {
+    for (int i = 0; i < 100; i++) {
+      String site = String.format("S%04d", i);
+      assertEquals(Optional.of(site + ".BHZ."), table.resolve(site, "BHZ", ""));
+    }
+    for (int i = 0; i < 100; i++) {
+      String site = String.format("S%04d", i);
+      assertEquals(Optional.of(site + ".BHZ."), table.resolve(site, "BHZ", ""));
+    }
+    assertEquals(100, resolved.size());
+  }
+
+  @Test
+  void testNamesThatCannotBePackedAreNotKept() {
+    assertEquals(Optional.of("TOOLONG.BHZ."), table.resolve("TOOLONG", "BHZ", ""));
+    assertEquals(Optional.of("TOOLONG.BHZ."), table.resolve("TOOLONG", "BHZ", ""));
+    assertEquals(2, resolved.size());
+    assertEquals(0, table.size());
+  }
+
+  @Test
+  void testFieldKeysMatchStrippedNames() {
+    assertFieldKey("STA01", "STA01", 5);
+    assertFieldKey("STA", "STA\0\0", 5);
+    assertFieldKey("STA", " STA ", 5);
+    assertFieldKey("ST A", "ST\0 A", 5);
+    assertFieldKey("", "\0\0", 2);
+    assertFieldKey("0", " 0", 2);
+    assertNotEquals(pack("ST A", 5), pack("STA", 5));
+  }
+
+  @Test
+  void testViewResolvesToSameEntry() {
+    Cd11ChannelSubframe subframe = Cd11PayloadFixtures.cd11Data().getChannelSubframes().get(0);
+    ByteBuf buffer = Unpooled.wrappedBuffer(subframe.toBytes());
+    Cd11ChannelSubframeView view = new Cd11ChannelSubframeView()
+        .wrap(buffer, 0, buffer.writerIndex());
+
+    Optional<String> fromSubframe = table.resolve(subframe);
+    assertEquals(fromSubframe, table.resolve(view));
+    assertEquals(1, resolved.size());
+    assertEquals(1, table.size());
+    buffer.release();
+  }
+
+  private static void assertFieldKey(String stripped, String field, int length) {
+    ByteBuf buffer = Unpooled.copiedBuffer(field, StandardCharsets.US_ASCII);
+    assertEquals(pack(stripped, length), Cd11ChannelTable.pack(buffer, 0, length));
+    buffer.release();
+  }
+
+  private static long pack(String name, int length) {
+    return length == Cd11ChannelTable.LOCATION_NAME_LENGTH ? Cd11ChannelTable.packLocation(name)
+        : Cd11ChannelTable.packSiteAndChannel(name, "") >>> (Byte.SIZE
+            * Cd11ChannelTable.CHANNEL_NAME_LENGTH);
+  }
+}
@@ -0,0 +1,116 @@
+package gms.dataacquisition.stationreceiver.cd11.common.frames;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import gms.dataacquisition.stationreceiver.cd11.common.Cd11FrameFactory;
+import gms.dataacquisition.stationreceiver.cd11.common.enums.FrameType;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class Cd11DataFrameViewTest {
+
+  private static final long SEQUENCE_NUMBER = 11235813;
+
+  private Cd11Frame expectedFrame;
+  private ByteBuf frameBuffer;
+
+  @BeforeEach
+  void setUp() {
+    expectedFrame = Cd11FrameFactory.createDefault()
+        .wrap(Cd11PayloadFixtures.cd11Data(), SEQUENCE_NUMBER);
+    byte[] frameBytes = expectedFrame.toBytes();
+    // Offset the frame within a direct buffer, as it would be after the frame decoder slices it
+    frameBuffer = Unpooled.directBuffer(frameBytes.length + 8)
+        .writeZero(8)
+        .writeBytes(frameBytes)
+        .readerIndex(8);
+  }
+
+  @AfterEach
+  void tearDown() {
+    frameBuffer.release();
+  }
+
+  @Test
+  void testViewMatchesParsedFrame() {
+    Cd11DataFrameView view = new Cd11DataFrameView().wrap(frameBuffer);
+    Cd11Header expectedHeader = expectedFrame.getHeader();
+    Cd11ChannelSubframeHeader expectedSubframeHeader = ((Cd11Data) expectedFrame.getPayload())
+        .getChanSubframeHeader();
+
+    assertEquals(FrameType.DATA, view.getFrameType());
+    assertEquals(expectedHeader.getTrailerOffset(), view.getTrailerOffset());
+    assertEquals(expectedHeader.getFrameCreator(), view.getFrameCreator());
+    assertEquals(SEQUENCE_NUMBER, view.getSequenceNumber());
+    assertEquals(expectedHeader.getSeries(), view.getSeries());
+    assertEquals(expectedSubframeHeader.numOfChannels, view.getNumOfChannels());
+    assertEquals(expectedSubframeHeader.frameTimeLength, view.getFrameTimeLength());
+    assertEquals(expectedSubframeHeader.nominalTime, view.getNominalTime());
+    assertEquals(expectedFrame.getTrailer().getCommVerification(), view.getCommVerification());
+    assertEquals(expectedFrame.toBytes().length, view.getFrameLength());
+    assertArrayEquals(expectedFrame.toBytes(), view.toBytes());
+
+    List<Cd11ChannelSubframe> actualSubframes = new ArrayList<>();
+    view.forEachSubframe(subframe -> actualSubframes.add(subframe.toChannelSubframe()));
+    assertEquals(((Cd11Data) expectedFrame.getPayload()).getChannelSubframes(), actualSubframes);
+  }
+
+  @Test
+  void testSubframeViewFields() {
+    List<String> locations = new ArrayList<>();
+    new Cd11DataFrameView().wrap(frameBuffer).forEachSubframe(subframe -> {
+      assertEquals(Cd11PayloadFixtures.CHANNEL_LENGTH, subframe.getChannelLength());
+      assertEquals(Cd11PayloadFixtures.DATA_SUBFRAME_SIZE, subframe.getSize());
+      assertEquals(Cd11PayloadFixtures.CHANNEL_DESCRIPTION_SITE_NAME, subframe.getSiteName());
+      assertEquals(Cd11PayloadFixtures.CHANNEL_DESCRIPTION_CHANNEL_NAME, subframe.getChannelName());
+      assertEquals(Cd11PayloadFixtures.CHANNEL_DESCRIPTION_DATA_FORMAT, subframe.getDataFormat());
+      assertEquals(Cd11PayloadFixtures.CHANNEL_DESCRIPTION_TRANSFORMATION,
+          subframe.getCompressionFormat());
+      assertEquals(Cd11PayloadFixtures.CHANNEL_DESCRIPTION_SENSOR_TYPE, subframe.getSensorType());
+      assertEquals(Cd11PayloadFixtures.TIME_STAMP, subframe.getTimeStamp());
+      assertEquals(Cd11PayloadFixtures.SAMPLES, subframe.getSamples());
+      assertEquals(Cd11PayloadFixtures.DATA_SIZE, subframe.getChannelData().readableBytes());
+      assertEquals(Cd11PayloadFixtures.CHANNEL_STATUS_SIZE,
+          subframe.getChannelStatusData().readableBytes());
+      assertEquals(Cd11PayloadFixtures.AUTH_KEY, subframe.getAuthKeyIdentifier());
+      assertEquals(Unpooled.wrappedBuffer(Cd11PayloadFixtures.AUTH_VALUE), subframe.getAuthValue());
+      locations.add(subframe.getLocationName());
+    });
+
+    assertEquals(List.of(Cd11PayloadFixtures.CHANNEL_DESCRIPTION_LOCATION,
+        Cd11PayloadFixtures.CHANNEL_DESCRIPTION_LOCATION2), locations);
+  }
+
+  @Test
+  void testWrapRejectsNonDataFrame() {
+    byte[] alertBytes = Cd11FrameFactory.createDefault().wrap(Cd11Alert.create("alert")).toBytes();
+    ByteBuf alertBuffer = Unpooled.wrappedBuffer(alertBytes);
+    Cd11DataFrameView view = new Cd11DataFrameView();
+
+    assertFalse(Cd11DataFrameView.isDataFrame(alertBuffer));
+    assertTrue(Cd11DataFrameView.isDataFrame(frameBuffer));
+    assertThrows(IllegalArgumentException.class, () -> view.wrap(alertBuffer));
+  }
+
+  @Test
+  void testSubframeViewRejectsTruncatedSubframe() {
+    Cd11ChannelSubframeView view = new Cd11ChannelSubframeView();
+    int subframeStart = frameBuffer.readerIndex() + frameBuffer.readableBytes()
+        - Cd11PayloadFixtures.DATA_SUBFRAME_SIZE * 2;
+    int limit = frameBuffer.writerIndex();
+
+    assertThrows(IllegalArgumentException.class,
+        () -> view.wrap(frameBuffer, subframeStart, subframeStart + 40));
+    assertThrows(IllegalArgumentException.class,
+        () -> view.wrap(frameBuffer, frameBuffer.readerIndex(), limit));
+  }
+}
@@ -13,6 +13,7 @@ import gms.dataacquisition.stationreceiver.cd11.common.enums.FrameType;
 import gms.dataacquisition.stationreceiver.cd11.common.frames.Cd11ConnectionExchange;
 import gms.dataacquisition.stationreceiver.cd11.connman.configuration.Cd11ConnManConfig;
 import gms.shared.utilities.logging.StructuredLoggingWrapper;
+import io.netty.buffer.ByteBuf;
 import org.reactivestreams.Publisher;
 import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Mono;
@@ -37,6 +38,23 @@ public class Cd11ConnManNettyHandler {
   private static final int AUTHENTICATION_KEY_IDENTIFIER = 7;
   private static final String STATION = "station";
 
+  /**
+   * Parses a frame and validates its CRC against the raw received bytes. Validation has to happen
+   * here, while the inbound buffer is still available, rather than by re-serializing the parsed
+   * frame. Frames are not forwarded from here, so the frame is read from an NIO view of the buffer,
+   * which neither retains a slice of it nor checks the CRC a second time.
+   */
+  private static Cd11OrMalformedFrame readAndVerifyFrame(ByteBuf frameBytes) {
+    Cd11OrMalformedFrame frameOrMalformed = Cd11FrameReader.readFrame(frameBytes.nioBuffer());
+    if (frameOrMalformed.getKind() == Cd11OrMalformedFrame.Kind.CD11
+        && !FrameUtilities.isValidCRC(frameBytes)) {
+      logger.addKeyValueArgument(STATION, frameOrMalformed.cd11().getHeader().getFrameCreator());
+      logger.warn("CRC check failed for frame.");
+      logger.removeArgument(STATION);
+    }
+    return frameOrMalformed;
+  }
+
   public BiFunction<NettyInbound, NettyOutbound, Publisher<Void>> handleInboundOutbound(
       Cd11ConnManConfig cd11ConnManConfig,
       Function<String, Cd11Station> cd11StationLookup,
@@ -46,8 +64,7 @@ public class Cd11ConnManNettyHandler {
       nettyInbound.withConnection(x ->
         x.addHandlerFirst(new FrameParsingDecoder()))
         .receive()
-        .asByteBuffer()
-        .map(Cd11FrameReader::readFrame)
+        .map(Cd11ConnManNettyHandler::readAndVerifyFrame)
         .flatMap(frameOrMalformed -> {
           if (frameOrMalformed.getKind() == Cd11OrMalformedFrame.Kind.MALFORMED) {
             logger.warn("Dropping malformed frame due to read error", frameOrMalformed.malformed().getCause());
@@ -56,14 +73,6 @@ public class Cd11ConnManNettyHandler {
             return Mono.just(frameOrMalformed.cd11());
           }
         })
-        .doOnNext(cd11Frame -> {
-          // Validate CRC for frame.
-          if (!FrameUtilities.isValidCRC(cd11Frame.toBytes(), cd11Frame)) {
-            logger.addKeyValueArgument(STATION, cd11Frame.getHeader().getFrameCreator());
-            logger.warn("CRC check failed for frame.");
-            logger.removeArgument(STATION);
-          }
-        })
         .flatMap(cd11Frame -> {
           logger.info("A request to the Connection Manager was received, beginning to process the request.");
           Cd11FrameFactory cd11FrameFactory = createCd11FrameFactory(cd11ConnManConfig);
@@ -0,0 +1,64 @@
+package gms.dataacquisition.stationreceiver.cd11.dataprovider.configuration;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.auto.value.AutoValue;
+import java.util.List;
+import java.util.Optional;
+
+@AutoValue
+public abstract class Cd11LoadGeneratorConfig {
+
+  /**
+   * @return Directory of recorded RSDFs, laid out as for {@link FileRsdfSourceConfig}
+   */
+  public abstract String getDataLocation();
+
+  /**
+   * @return Names of the synthetic stations to replay as, which must be acquired by the receiver
+   */
+  public abstract List<String> getStationNames();
+
+  /**
+   * @return Multiple of real time to replay at
+   */
+  public abstract Optional<Double> getSpeedup();
+
+  public abstract long getDurationSeconds();
+
+  public abstract Optional<Long> getReportIntervalSeconds();
+
+  public abstract Optional<String> getConnManAddress();
+
+  public abstract Optional<Integer> getConnManPort();
+
+  /**
+   * @return Bootstrap servers to consume the receiver's published RSDFs from, to measure publish
+   * latency
+   */
+  public abstract Optional<String> getKafkaBootstrapServers();
+
+  public abstract Optional<String> getRsdfTopic();
+
+  /**
+   * @return JMX service URL of the receiver, to sample its heap and GC pressure
+   */
+  public abstract Optional<String> getReceiverJmxUrl();
+
+  @JsonCreator
+  public static Cd11LoadGeneratorConfig from(
+      @JsonProperty("dataLocation") String dataLocation,
+      @JsonProperty("stationNames") List<String> stationNames,
+      @JsonProperty("speedup") Optional<Double> speedup,
+      @JsonProperty("durationSeconds") long durationSeconds,
+      @JsonProperty("reportIntervalSeconds") Optional<Long> reportIntervalSeconds,
+      @JsonProperty("connManAddress") Optional<String> connManAddress,
+      @JsonProperty("connManPort") Optional<Integer> connManPort,
+      @JsonProperty("kafkaBootstrapServers") Optional<String> kafkaBootstrapServers,
+      @JsonProperty("rsdfTopic") Optional<String> rsdfTopic,
+      @JsonProperty("receiverJmxUrl") Optional<String> receiverJmxUrl) {
+    return new AutoValue_Cd11LoadGeneratorConfig(dataLocation, List.copyOf(stationNames), speedup,
+        durationSeconds, reportIntervalSeconds, connManAddress, connManPort, kafkaBootstrapServers,
+        rsdfTopic, receiverJmxUrl);
+  }
+}
@@ -0,0 +1,142 @@
+package gms.dataacquisition.stationreceiver.cd11.dataprovider.loadgen;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import gms.dataacquisition.stationreceiver.cd11.dataprovider.Cd11ClientFactory;
+import gms.dataacquisition.stationreceiver.cd11.dataprovider.Cd11FramePublisher;
+import gms.dataacquisition.stationreceiver.cd11.dataprovider.configuration.Cd11LoadGeneratorConfig;
+import gms.dataacquisition.stationreceiver.cd11.dataprovider.configuration.KafkaRsdfSourceConfig;
+import gms.dataacquisition.stationreceiver.cd11.dataprovider.rsdfsource.kafka.KafkaRsdfSource;
+import gms.shared.frameworks.configuration.RetryConfig;
+import gms.shared.frameworks.osd.coi.datatransferobjects.CoiObjectMapperFactory;
+import gms.shared.metrics.Log2Histogram;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.UUID;
+import javax.management.JMException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Capacity measurement tool replaying recorded CD 1.1 data frames from any number of synthetic
+ * stations, at a multiple of real time, into a receiver through its connection manager. It
+ * periodically reports the frames sent and published per second, the latency from sending a frame
+ * until the receiver publishes it to Kafka, and the heap and GC pressure of the receiver.
+ * <p>
+ * Run with the path of a JSON {@link Cd11LoadGeneratorConfig} as its only argument. Publication is
+ * only measured if Kafka bootstrap servers are configured, and the pressure of the receiver only
+ * if its JMX service URL is; otherwise that of the generator itself is reported.
+ */
+public class Cd11LoadGenerator {
+
+  private static final Logger logger = LoggerFactory.getLogger(Cd11LoadGenerator.class);
+  private static final ObjectMapper mapper = CoiObjectMapperFactory.getJsonObjectMapper();
+
+  private static final String DEFAULT_CONNMAN_ADDRESS = "localhost";
+  private static final int DEFAULT_CONNMAN_PORT = 8041;
+  private static final String DEFAULT_RSDF_TOPIC = "soh.rsdf";
+  private static final long DEFAULT_REPORT_INTERVAL_SECONDS = 10;
+  // A frame not published within this long is counted as lost
+  private static final Duration PUBLISH_EXPIRY = Duration.ofMinutes(2);
+
+  private final Cd11LoadGeneratorConfig config;
+  private final LoadStatistics statistics;
+  private final JvmPressureSampler pressureSampler;
+
+  private Cd11LoadGenerator(Cd11LoadGeneratorConfig config, LoadStatistics statistics,
+      JvmPressureSampler pressureSampler) {
+    this.config = config;
+    this.statistics = statistics;
+    this.pressureSampler = pressureSampler;
+  }
+
+  public static void main(String[] args) {
+    if (args.length != 1) {
+      logger.error("Usage: Cd11LoadGenerator <config path>");
+      System.exit(1);
+    }
+
+    try {
+      var config = mapper.readValue(Files.readString(Paths.get(args[0])),
+          Cd11LoadGeneratorConfig.class);
+      var reportInterval = Duration.ofSeconds(
+          config.getReportIntervalSeconds().orElse(DEFAULT_REPORT_INTERVAL_SECONDS));
+      var statistics = new LoadStatistics(reportInterval.dividedBy(2),
+          config.getKafkaBootstrapServers().isPresent(), System::nanoTime);
+      var pressureSampler = config.getReceiverJmxUrl().isPresent()
+          ? JvmPressureSampler.connect(config.getReceiverJmxUrl().get())
+          : JvmPressureSampler.local();
+
+      new Cd11LoadGenerator(config, statistics, pressureSampler).run(reportInterval);
+      System.exit(0);
+    } catch (IOException | JMException | RuntimeException e) {
+      logger.error("Load generation failed", e);
+      System.exit(1);
+    }
+  }
+
+  private void run(Duration reportInterval) throws IOException {
+    var recordings = Cd11ReplaySource.readRecordings(Paths.get(config.getDataLocation()));
+    var source = Cd11ReplaySource.create(recordings, config.getStationNames(),
+        config.getSpeedup().orElse(1.0), statistics, Schedulers.parallel());
+    logger.info("Replaying {} recorded stations as {} stations at {}x real time for {}s",
+        recordings.size(), config.getStationNames().size(), config.getSpeedup().orElse(1.0),
+        config.getDurationSeconds());
+
+    var publisher = Cd11FramePublisher.create(
+        config.getConnManAddress().orElse(DEFAULT_CONNMAN_ADDRESS),
+        config.getConnManPort().orElse(DEFAULT_CONNMAN_PORT),
+        Cd11ClientFactory.create("LOADGEN", "C0NNMAN"),
+        RetryConfig.create(1, Long.MAX_VALUE, ChronoUnit.SECONDS, 4));
+
+    Disposable.Composite running = Disposables.composite();
+    config.getKafkaBootstrapServers().ifPresent(servers -> running.add(
+        KafkaRsdfSource.create(KafkaRsdfSourceConfig.from("cd11-load-generator",
+            config.getRsdfTopic().orElse(DEFAULT_RSDF_TOPIC), Optional.of("latest")),
+            UUID.randomUUID().toString(), servers)
+            .getRsdfFlux()
+            .subscribe(rsdf -> statistics.recordPublished(rsdf.getMetadata().getStationName(),
+                Cd11ReplaySource.sequenceNumber(rsdf.getRawPayload())))));
+    running.add(publisher.publish(source).subscribe());
+
+    Flux.interval(reportInterval)
+        .take(Duration.ofSeconds(config.getDurationSeconds()))
+        .doOnNext(tick -> report("Interval"))
+        .blockLast();
+    running.dispose();
+    report("Final");
+  }
+
+  private void report(String kind) {
+    statistics.expireUnpublished(PUBLISH_EXPIRY);
+    Log2Histogram latency = statistics.getPublishLatencyMillis();
+    logger.info("{} report: sent {} frames ({} /s), published {} ({} /s), lost {}; "
+            + "publish latency ms p50 {} p90 {} p99 {} max {}",
+        kind, statistics.getSent(), format(statistics.getSentPerSecond()),
+        statistics.getPublished(), format(statistics.getPublishedPerSecond()),
+        statistics.getLost(), latency.getPercentile(50), latency.getPercentile(90),
+        latency.getPercentile(99), latency.getMax());
+
+    try {
+      var sample = pressureSampler.sample();
+      logger.info("{} report: heap {} of {} MiB, {} GCs taking {}% of the time, "
+              + "longest without ACKNACK {} ms",
+          kind, sample.getHeapUsedBytes() >> 20, sample.getHeapMaxBytes() >> 20,
+          sample.getGcCount(), format(sample.getGcTimeFraction() * 100),
+          sample.getMaxMillisSinceAcknack());
+    } catch (IOException | JMException e) {
+      logger.warn("Failed to sample heap and GC pressure", e);
+    }
+  }
+
+  private static String format(double value) {
+    return String.format("%.1f", value);
+  }
+}
@@ -0,0 +1,208 @@
+package gms.dataacquisition.stationreceiver.cd11.dataprovider.loadgen;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.stream.Collectors.toList;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import gms.dataacquisition.stationreceiver.cd11.common.CRC64;
+import gms.dataacquisition.stationreceiver.cd11.dataprovider.rsdfsource.ProviderUtils;
+import gms.dataacquisition.stationreceiver.cd11.dataprovider.rsdfsource.RsdfSource;
+import gms.shared.frameworks.osd.coi.datatransferobjects.CoiObjectMapperFactory;
+import gms.shared.frameworks.osd.coi.waveforms.RawStationDataFrame;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * {@link RsdfSource} replaying recorded data frames as any number of synthetic stations, looping
+ * indefinitely at a multiple of real time. Each synthetic station replays the recording of one
+ * recorded station, in turn, with the station name replaced and the sequence numbers advanced on
+ * every loop so the receiver sees a gapless, ever-increasing sequence. The stations' loops are
+ * staggered evenly so their frames do not all arrive at once.
+ * <p>
+ * The channel subframes, including their nominal times, are replayed as recorded.
+ */
+public class Cd11ReplaySource implements RsdfSource {
+
+  // Offset of the sequence number in the frame header, after the frame type, trailer offset,
+  // frame creator and frame destination
+  private static final int SEQUENCE_NUMBER_INDEX = 24;
+  private static final Duration SINGLE_FRAME_PERIOD = Duration.ofSeconds(10);
+
+  private static final ObjectMapper objectMapper = CoiObjectMapperFactory.getJsonObjectMapper();
+
+  private final List<StationReplay> replays;
+  private final double speedup;
+  private final LoadStatistics statistics;
+  private final Scheduler scheduler;
+
+  private Cd11ReplaySource(List<StationReplay> replays, double speedup, LoadStatistics statistics,
+      Scheduler scheduler) {
+    this.replays = replays;
+    this.speedup = speedup;
+    this.statistics = statistics;
+    this.scheduler = scheduler;
+  }
+
+  /**
+   * @param recordings Recorded frames of each recorded station
+   * @param stationNames Names of the synthetic stations
+   * @param speedup Multiple of real time to replay at
+   * @param statistics Statistics to record the frames sent in
+   * @param scheduler Scheduler pacing the replay
+   */
+  static Cd11ReplaySource create(List<List<RawStationDataFrame>> recordings,
+      List<String> stationNames, double speedup, LoadStatistics statistics, Scheduler scheduler) {
+    checkArgument(!recordings.isEmpty(), "Cannot replay without recorded frames");
+    checkArgument(speedup > 0, "Speedup must be positive, but was %s", speedup);
+
+    List<StationReplay> replays = IntStream.range(0, stationNames.size())
+        .mapToObj(i -> new StationReplay(stationNames.get(i),
+            recordings.get(i % recordings.size())))
+        .collect(toList());
+    return new Cd11ReplaySource(replays, speedup, statistics, scheduler);
+  }
+
+  /**
+   * Reads the recorded frames of each station from a directory laid out as for file mode, with
+   * one subdirectory of JSON RSDF lists per station.
+   */
+  static List<List<RawStationDataFrame>> readRecordings(Path dataLocation) throws IOException {
+    List<List<RawStationDataFrame>> recordings = new ArrayList<>();
+    try (Stream<Path> stationDirectories = Files.list(dataLocation)) {
+      for (Path stationDirectory : stationDirectories.filter(Files::isDirectory)
+          .sorted().collect(toList())) {
+        List<RawStationDataFrame> recording = readRecording(stationDirectory);
+        if (!recording.isEmpty()) {
+          recordings.add(recording);
+        }
+      }
+    }
+    return recordings;
+  }
+
+  private static List<RawStationDataFrame> readRecording(Path stationDirectory)
+      throws IOException {
+    try (Stream<Path> files = Files.list(stationDirectory)) {
+      return files
+          .filter(file -> file.getFileName().toString().toLowerCase(Locale.ENGLISH)
+              .endsWith(".json"))
+          .flatMap(file -> readRsdfs(file).stream())
+          .collect(toList());
+    }
+  }
+
+  private static List<RawStationDataFrame> readRsdfs(Path file) {
+    try {
+      return objectMapper.readValue(file.toFile(), objectMapper.getTypeFactory()
+          .constructCollectionType(List.class, RawStationDataFrame.class));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public Flux<RawStationDataFrame> getRsdfFlux() {
+    long startNanos = scheduler.now(TimeUnit.NANOSECONDS);
+    return Flux.range(0, replays.size())
+        .flatMap(i -> replay(replays.get(i), startNanos, i), replays.size());
+  }
+
+  private Flux<RawStationDataFrame> replay(StationReplay replay, long startNanos, int index) {
+    long staggerNanos = replay.periodNanos * index / replays.size();
+    return Flux.range(0, Integer.MAX_VALUE)
+        .concatMap(loop -> Flux.range(0, replay.frames.size())
+            .concatMap(frame -> {
+              long dueNanos = startNanos + (long) ((staggerNanos
+                  + loop * replay.periodNanos + replay.offsetsNanos[frame]) / speedup);
+              long delayNanos = Math.max(0, dueNanos - scheduler.now(TimeUnit.NANOSECONDS));
+              return Mono.delay(Duration.ofNanos(delayNanos), scheduler)
+                  .map(tick -> replay.frame(loop, frame));
+            }))
+        .doOnNext(rsdf -> statistics.recordSent(replay.stationName,
+            sequenceNumber(rsdf.getRawPayload())));
+  }
+
+  static long sequenceNumber(byte[] frame) {
+    return ByteBuffer.wrap(frame).getLong(SEQUENCE_NUMBER_INDEX);
+  }
+
+  /**
+   * Copies a frame, replacing its sequence number and recomputing its CRC
+   */
+  static byte[] withSequenceNumber(byte[] frame, long sequenceNumber) {
+    byte[] copy = frame.clone();
+    ByteBuffer buffer = ByteBuffer.wrap(copy);
+    buffer.putLong(SEQUENCE_NUMBER_INDEX, sequenceNumber);
+    // The CRC is computed with the comm verification bytes replaced by zeros
+    int crcIndex = copy.length - Long.BYTES;
+    buffer.putLong(crcIndex, 0);
+    buffer.putLong(crcIndex, CRC64.compute(copy));
+    return copy;
+  }
+
+  private static final class StationReplay {
+
+    private final String stationName;
+    private final List<RawStationDataFrame> frames;
+    private final long[] offsetsNanos;
+    private final long[] sequenceNumbers;
+    private final long sequenceSpan;
+    private final long periodNanos;
+
+    private StationReplay(String stationName, List<RawStationDataFrame> recording) {
+      this.stationName = stationName;
+      this.frames = recording.stream()
+          .sorted(Comparator.comparing(rsdf -> rsdf.getMetadata().getReceptionTime()))
+          .map(rsdf -> rsdf.toBuilder()
+              .setMetadata(rsdf.getMetadata().toBuilder().setStationName(stationName).build())
+              .build())
+          .collect(toList());
+
+      var firstReception = frames.get(0).getMetadata().getReceptionTime();
+      this.offsetsNanos = frames.stream()
+          .mapToLong(rsdf -> Duration.between(firstReception, rsdf.getMetadata().getReceptionTime())
+              .toNanos())
+          .toArray();
+      this.sequenceNumbers = frames.stream()
+          .mapToLong(ProviderUtils::getSequenceNumber)
+          .toArray();
+
+      long minSequenceNumber = Long.MAX_VALUE;
+      long maxSequenceNumber = Long.MIN_VALUE;
+      for (long sequenceNumber : sequenceNumbers) {
+        minSequenceNumber = Math.min(minSequenceNumber, sequenceNumber);
+        maxSequenceNumber = Math.max(maxSequenceNumber, sequenceNumber);
+      }
+      this.sequenceSpan = maxSequenceNumber - minSequenceNumber + 1;
+
+      // The next loop starts one average frame spacing after the last frame
+      long lastOffsetNanos = offsetsNanos[offsetsNanos.length - 1];
+      this.periodNanos = frames.size() == 1 || lastOffsetNanos == 0
+          ? SINGLE_FRAME_PERIOD.toNanos()
+          : lastOffsetNanos + lastOffsetNanos / (frames.size() - 1);
+    }
+
+    private RawStationDataFrame frame(long loop, int index) {
+      RawStationDataFrame rsdf = frames.get(index);
+      return rsdf.toBuilder()
+          .generatedId()
+          .setRawPayload(withSequenceNumber(rsdf.getRawPayload(),
+              sequenceNumbers[index] + loop * sequenceSpan))
+          .build();
+    }
+  }
+}
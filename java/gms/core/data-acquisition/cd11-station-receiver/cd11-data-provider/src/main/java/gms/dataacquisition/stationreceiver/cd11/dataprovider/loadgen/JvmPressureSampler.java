@@ -0,0 +1,140 @@
+package gms.dataacquisition.stationreceiver.cd11.dataprovider.loadgen;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import javax.management.JMException;
+import javax.management.MBeanServerConnection;
+import javax.management.ObjectName;
+import javax.management.remote.JMXConnectorFactory;
+import javax.management.remote.JMXServiceURL;
+
+/**
+ * Samples the heap and garbage collection pressure of a JVM, along with the ACKNACK cadence of the
+ * CD 1.1 stations it receives when it is a data manager, over JMX. Each sample reports the GC
+ * activity since the previous one.
+ */
+class JvmPressureSampler {
+
+  // The ingest metrics the data manager registers per station
+  private static final String STATION_METRICS_PATTERN = "cd11_dataman_station:type=Ingest,*";
+
+  private final MBeanServerConnection connection;
+  private final MemoryMXBean memory;
+  private final List<GarbageCollectorMXBean> collectors;
+
+  private long lastSampleMillis;
+  private long lastGcCount;
+  private long lastGcMillis;
+
+  private JvmPressureSampler(MBeanServerConnection connection) throws IOException,
+      JMException {
+    this.connection = connection;
+    this.memory = ManagementFactory.newPlatformMXBeanProxy(connection,
+        ManagementFactory.MEMORY_MXBEAN_NAME, MemoryMXBean.class);
+    this.collectors = new ArrayList<>();
+    Set<ObjectName> collectorNames = connection.queryNames(
+        new ObjectName(ManagementFactory.GARBAGE_COLLECTOR_MXBEAN_DOMAIN_TYPE + ",*"), null);
+    for (ObjectName name : collectorNames) {
+      collectors.add(ManagementFactory.newPlatformMXBeanProxy(connection, name.toString(),
+          GarbageCollectorMXBean.class));
+    }
+    sample();
+  }
+
+  /**
+   * Samples the JVM at the given JMX service URL, such as
+   * service:jmx:rmi:///jndi/rmi://localhost:9010/jmxrmi
+   */
+  static JvmPressureSampler connect(String serviceUrl) throws IOException, JMException {
+    return new JvmPressureSampler(JMXConnectorFactory.connect(new JMXServiceURL(serviceUrl))
+        .getMBeanServerConnection());
+  }
+
+  /**
+   * Samples this JVM
+   */
+  static JvmPressureSampler local() throws IOException, JMException {
+    return new JvmPressureSampler(ManagementFactory.getPlatformMBeanServer());
+  }
+
+  Sample sample() throws IOException, JMException {
+    long now = System.currentTimeMillis();
+    long gcCount = 0;
+    long gcMillis = 0;
+    for (GarbageCollectorMXBean collector : collectors) {
+      gcCount += Math.max(0, collector.getCollectionCount());
+      gcMillis += Math.max(0, collector.getCollectionTime());
+    }
+
+    long maxMillisSinceAcknack = -1;
+    for (ObjectName station : connection
+        .queryNames(new ObjectName(STATION_METRICS_PATTERN), null)) {
+      maxMillisSinceAcknack = Math.max(maxMillisSinceAcknack,
+          (Long) connection.getAttribute(station, "MillisSinceLastAcknack"));
+    }
+
+    MemoryUsage heap = memory.getHeapMemoryUsage();
+    Sample sample = new Sample(heap.getUsed(), heap.getMax(), gcCount - lastGcCount,
+        gcMillis - lastGcMillis, now - lastSampleMillis, maxMillisSinceAcknack);
+    lastSampleMillis = now;
+    lastGcCount = gcCount;
+    lastGcMillis = gcMillis;
+    return sample;
+  }
+
+  static final class Sample {
+
+    private final long heapUsedBytes;
+    private final long heapMaxBytes;
+    private final long gcCount;
+    private final long gcMillis;
+    private final long elapsedMillis;
+    private final long maxMillisSinceAcknack;
+
+    private Sample(long heapUsedBytes, long heapMaxBytes, long gcCount, long gcMillis,
+        long elapsedMillis, long maxMillisSinceAcknack) {
+      this.heapUsedBytes = heapUsedBytes;
+      this.heapMaxBytes = heapMaxBytes;
+      this.gcCount = gcCount;
+      this.gcMillis = gcMillis;
+      this.elapsedMillis = elapsedMillis;
+      this.maxMillisSinceAcknack = maxMillisSinceAcknack;
+    }
+
+    long getHeapUsedBytes() {
+      return heapUsedBytes;
+    }
+
+    long getHeapMaxBytes() {
+      return heapMaxBytes;
+    }
+
+    /**
+     * @return Number of collections since the previous sample
+     */
+    long getGcCount() {
+      return gcCount;
+    }
+
+    /**
+     * @return Fraction of the time since the previous sample spent collecting garbage
+     */
+    double getGcTimeFraction() {
+      return elapsedMillis > 0 ? (double) gcMillis / elapsedMillis : 0;
+    }
+
+    /**
+     * @return Longest time any station has gone without an ACKNACK, or -1 if the JVM is not a
+     * data manager receiving stations
+     */
+    long getMaxMillisSinceAcknack() {
+      return maxMillisSinceAcknack;
+    }
+  }
+}
@@ -0,0 +1,105 @@
+package gms.dataacquisition.stationreceiver.cd11.dataprovider.loadgen;
+
+import gms.shared.metrics.Log2Histogram;
+import gms.shared.metrics.RateCounter;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Throughput and publish latency of a load generation run. Frames are matched between sending and
+ * publication by station and sequence number; a frame not published within the expiry given to
+ * {@link #expireUnpublished(Duration)} is counted as lost.
+ */
+class LoadStatistics {
+
+  private final RateCounter sent;
+  private final RateCounter published;
+  private final Log2Histogram publishLatencyMillis = new Log2Histogram();
+  private final LongAdder lost = new LongAdder();
+  private final boolean trackingPublication;
+  private final LongSupplier nanoTime;
+
+  // Send times by station and sequence number, of frames not yet published
+  private final Map<String, Map<Long, Long>> unpublished = new ConcurrentHashMap<>();
+
+  /**
+   * @param rateWindow Minimum period over which the rates are measured
+   * @param trackingPublication Whether publication is observed, without which send times are not
+   * kept
+   * @param nanoTime Source of the current time
+   */
+  LoadStatistics(Duration rateWindow, boolean trackingPublication, LongSupplier nanoTime) {
+    this.sent = new RateCounter(rateWindow);
+    this.published = new RateCounter(rateWindow);
+    this.trackingPublication = trackingPublication;
+    this.nanoTime = nanoTime;
+  }
+
+  void recordSent(String stationName, long sequenceNumber) {
+    sent.increment();
+    if (trackingPublication) {
+      unpublished.computeIfAbsent(stationName, station -> new ConcurrentHashMap<>())
+          .put(sequenceNumber, nanoTime.getAsLong());
+    }
+  }
+
+  /**
+   * Records the publication of a frame; frames not sent by this run are ignored.
+   */
+  void recordPublished(String stationName, long sequenceNumber) {
+    Map<Long, Long> stationUnpublished = unpublished.get(stationName);
+    Long sentNanos = stationUnpublished == null ? null : stationUnpublished.remove(sequenceNumber);
+    if (sentNanos != null) {
+      published.increment();
+      publishLatencyMillis.record(Duration.ofNanos(nanoTime.getAsLong() - sentNanos).toMillis());
+    }
+  }
+
+  /**
+   * Counts frames sent longer ago than the given expiry and not yet published as lost, and stops
+   * waiting for them.
+   *
+   * @return The number of frames newly counted as lost
+   */
+  long expireUnpublished(Duration expiry) {
+    long cutoff = nanoTime.getAsLong() - expiry.toNanos();
+    long expired = 0;
+    for (Map<Long, Long> stationUnpublished : unpublished.values()) {
+      for (var entry : stationUnpublished.entrySet()) {
+        if (entry.getValue() - cutoff < 0
+            && stationUnpublished.remove(entry.getKey(), entry.getValue())) {
+          expired++;
+        }
+      }
+    }
+    lost.add(expired);
+    return expired;
+  }
+
+  long getSent() {
+    return sent.getCount();
+  }
+
+  double getSentPerSecond() {
+    return sent.getRatePerSecond();
+  }
+
+  long getPublished() {
+    return published.getCount();
+  }
+
+  double getPublishedPerSecond() {
+    return published.getRatePerSecond();
+  }
+
+  long getLost() {
+    return lost.sum();
+  }
+
+  Log2Histogram getPublishLatencyMillis() {
+    return publishLatencyMillis;
+  }
+}
@@ -1,16 +1,16 @@
 package gms.dataacquisition.stationreceiver.cd11.dataprovider.rsdfsource.kafka;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import gms.dataacquisition.stationreceiver.cd11.dataprovider.configuration.KafkaRsdfSourceConfig;
 import gms.dataacquisition.stationreceiver.cd11.dataprovider.rsdfsource.RsdfSource;
-import gms.shared.frameworks.osd.coi.datatransferobjects.CoiObjectMapperFactory;
 import gms.shared.frameworks.osd.coi.waveforms.RawStationDataFrame;
+import gms.shared.utilities.kafka.serde.RawStationDataFrameDeserializer;
 import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,11 +26,12 @@ public class KafkaRsdfSource implements RsdfSource {
 
   private static final Logger logger = LoggerFactory.getLogger(KafkaRsdfSource.class);
 
-  private static final ObjectMapper mapper = CoiObjectMapperFactory.getJsonObjectMapper();
+  private static final RawStationDataFrameDeserializer rsdfDeserializer =
+      new RawStationDataFrameDeserializer();
 
-  private final KafkaReceiver<String, String> receiver;
+  private final KafkaReceiver<String, byte[]> receiver;
 
-  protected KafkaRsdfSource(KafkaReceiver<String, String> kafkaReceiver) {
+  protected KafkaRsdfSource(KafkaReceiver<String, byte[]> kafkaReceiver) {
     this.receiver = kafkaReceiver;
   }
 
@@ -43,10 +44,10 @@ public class KafkaRsdfSource implements RsdfSource {
    */
   public static KafkaRsdfSource create(KafkaRsdfSourceConfig config, String consumerId,
       String bootstrapServers) {
-    final ReceiverOptions<String, String> receiverOptions = receiverOptions(
+    final ReceiverOptions<String, byte[]> receiverOptions = receiverOptions(
         String.format("%s-%s", config.getApplicationId(), consumerId), config.getSourceTopic(),
         bootstrapServers, config.getAutoOffsetResetConfig().orElse("earliest"));
-    final KafkaReceiver<String, String> kafkaReceiver = KafkaReceiver.create(receiverOptions);
+    final KafkaReceiver<String, byte[]> kafkaReceiver = KafkaReceiver.create(receiverOptions);
     return new KafkaRsdfSource(kafkaReceiver);
   }
 
@@ -63,27 +64,27 @@ public class KafkaRsdfSource implements RsdfSource {
         .doOnNext(r -> logger.debug("received data from kafka for station {}", r.getMetadata().getStationName()));
   }
 
-  Mono<RawStationDataFrame> readData(String content) {
+  Mono<RawStationDataFrame> readData(byte[] content) {
     try {
-      return Mono.just(mapper.readValue(content, RawStationDataFrame.class));
-    } catch (JsonProcessingException e) {
+      return Mono.just(rsdfDeserializer.deserialize(null, content));
+    } catch (SerializationException e) {
       return Mono.error(e);
     }
   }
 
-  static ReceiverOptions<String, String> receiverOptions(String applicationId,
+  static ReceiverOptions<String, byte[]> receiverOptions(String applicationId,
       String bootstrapServers) {
     Map<String, Object> props = new HashMap<>();
     props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
     props.put(ConsumerConfig.CLIENT_ID_CONFIG, applicationId);
     props.put(ConsumerConfig.GROUP_ID_CONFIG, applicationId);
     props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-    props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+    props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
     props.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
     return ReceiverOptions.create(props);
   }
 
-  static ReceiverOptions<String, String> receiverOptions(String applicationId, String topic,
+  static ReceiverOptions<String, byte[]> receiverOptions(String applicationId, String topic,
       String bootstrapServers, String autoOffsetResetConfig) {
     return receiverOptions(applicationId, bootstrapServers)
         .consumerProperty(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, autoOffsetResetConfig)
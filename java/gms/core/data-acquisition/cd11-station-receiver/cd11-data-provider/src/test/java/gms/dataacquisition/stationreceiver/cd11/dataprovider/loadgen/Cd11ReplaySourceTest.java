@@ -0,0 +1,113 @@
+package gms.dataacquisition.stationreceiver.cd11.dataprovider.loadgen;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import gms.dataacquisition.stationreceiver.cd11.common.FrameUtilities;
+import gms.dataacquisition.stationreceiver.cd11.dataprovider.rsdfsource.ProviderUtils;
+import gms.shared.frameworks.osd.coi.waveforms.RawStationDataFrame;
+import io.netty.buffer.Unpooled;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+class Cd11ReplaySourceTest {
+
+  // One station, BOSA, with six frames received ten seconds apart
+  private static final String DATA_SET_1_FOR_1 = "./src/test/resources/dataprovider/rsdfsource/file/1for1min";
+
+  private List<List<RawStationDataFrame>> recordings;
+  private long[] recordedSequenceNumbers;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    recordings = Cd11ReplaySource.readRecordings(Paths.get(DATA_SET_1_FOR_1));
+    recordedSequenceNumbers = recordings.get(0).stream()
+        .sorted((a, b) -> a.getMetadata().getReceptionTime()
+            .compareTo(b.getMetadata().getReceptionTime()))
+        .mapToLong(ProviderUtils::getSequenceNumber)
+        .toArray();
+  }
+
+  @Test
+  void testReadRecordings() {
+    assertEquals(1, recordings.size());
+    assertEquals(6, recordings.get(0).size());
+  }
+
+  @Test
+  void testWithSequenceNumberKeepsCrcValid() {
+    byte[] frame = recordings.get(0).get(0).getRawPayload();
+    byte[] replayed = Cd11ReplaySource.withSequenceNumber(frame, 123_456_789L);
+
+    assertEquals(123_456_789L, Cd11ReplaySource.sequenceNumber(replayed));
+    assertEquals(123_456_789L, ProviderUtils.getSequenceNumber(recordings.get(0).get(0).toBuilder()
+        .setRawPayload(replayed).build()));
+    assertTrue(FrameUtilities.isValidCRC(Unpooled.wrappedBuffer(replayed)));
+    assertEquals(ProviderUtils.getSequenceNumber(recordings.get(0).get(0)),
+        Cd11ReplaySource.sequenceNumber(frame));
+  }
+
+  @Test
+  void testReplaysStaggeredLoopsAtSpeedup() {
+    var scheduler = VirtualTimeScheduler.create();
+    var statistics = new LoadStatistics(Duration.ofSeconds(1), false, System::nanoTime);
+    var source = Cd11ReplaySource.create(recordings, List.of("STA1", "STA2"), 2, statistics,
+        scheduler);
+
+    List<RawStationDataFrame> replayed = new CopyOnWriteArrayList<>();
+    Disposable subscription = source.getRsdfFlux().subscribe(replayed::add);
+    try {
+      // The recording loops every 60s, so every 30s at double speed, and the second station's
+      // loop is staggered by half of that
+      scheduler.advanceTimeBy(Duration.ofSeconds(29));
+      assertEquals(6, frames(replayed, "STA1").size());
+      assertEquals(3, frames(replayed, "STA2").size());
+
+      scheduler.advanceTimeBy(Duration.ofSeconds(30));
+      assertEquals(12, frames(replayed, "STA1").size());
+      assertEquals(9, frames(replayed, "STA2").size());
+      assertEquals(21, statistics.getSent());
+
+      long span = recordedSequenceNumbers[recordedSequenceNumbers.length - 1]
+          - recordedSequenceNumbers[0] + 1;
+      long[] expected = new long[12];
+      for (int i = 0; i < 12; i++) {
+        expected[i] = recordedSequenceNumbers[i % 6] + (i / 6) * span;
+      }
+      assertArrayEquals(expected, frames(replayed, "STA1").stream()
+          .mapToLong(rsdf -> Cd11ReplaySource.sequenceNumber(rsdf.getRawPayload()))
+          .toArray());
+    } finally {
+      subscription.dispose();
+    }
+  }
+
+  @Test
+  void testCreateValidation() {
+    var statistics = new LoadStatistics(Duration.ofSeconds(1), false, System::nanoTime);
+    var scheduler = VirtualTimeScheduler.create();
+    List<String> stations = List.of("STA");
+
+    assertThrows(IllegalArgumentException.class,
+        () -> Cd11ReplaySource.create(List.of(), stations, 1, statistics, scheduler));
+    assertThrows(IllegalArgumentException.class,
+        () -> Cd11ReplaySource.create(recordings, stations, 0, statistics, scheduler));
+  }
+
+  private static List<RawStationDataFrame> frames(List<RawStationDataFrame> replayed,
+      String stationName) {
+    return replayed.stream()
+        .filter(rsdf -> stationName.equals(rsdf.getMetadata().getStationName()))
+        .collect(toList());
+  }
+}
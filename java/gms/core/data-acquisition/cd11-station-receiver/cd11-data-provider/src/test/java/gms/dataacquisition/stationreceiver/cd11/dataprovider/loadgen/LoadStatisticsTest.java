@@ -0,0 +1,53 @@
+package gms.dataacquisition.stationreceiver.cd11.dataprovider.loadgen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class LoadStatisticsTest {
+
+  private final AtomicLong nanos = new AtomicLong();
+
+  @Test
+  void testMatchesPublishedFramesToSent() {
+    var statistics = new LoadStatistics(Duration.ofSeconds(1), true, nanos::get);
+    statistics.recordSent("STA1", 1);
+    statistics.recordSent("STA2", 1);
+    nanos.addAndGet(Duration.ofMillis(300).toNanos());
+    statistics.recordPublished("STA1", 1);
+    // Published frames not sent by the run are ignored, as are duplicates
+    statistics.recordPublished("STA3", 1);
+    statistics.recordPublished("STA1", 1);
+
+    assertEquals(2, statistics.getSent());
+    assertEquals(1, statistics.getPublished());
+    assertEquals(300, statistics.getPublishLatencyMillis().getMax());
+  }
+
+  @Test
+  void testExpiresUnpublishedFramesAsLost() {
+    var statistics = new LoadStatistics(Duration.ofSeconds(1), true, nanos::get);
+    statistics.recordSent("STA1", 1);
+    nanos.addAndGet(Duration.ofSeconds(90).toNanos());
+    statistics.recordSent("STA1", 2);
+
+    assertEquals(1, statistics.expireUnpublished(Duration.ofMinutes(1)));
+    assertEquals(1, statistics.getLost());
+    statistics.recordPublished("STA1", 1);
+    statistics.recordPublished("STA1", 2);
+    assertEquals(1, statistics.getPublished());
+  }
+
+  @Test
+  void testSendTimesAreNotKeptWithoutPublicationTracking() {
+    var statistics = new LoadStatistics(Duration.ofSeconds(1), false, nanos::get);
+    statistics.recordSent("STA1", 1);
+    statistics.recordPublished("STA1", 1);
+
+    assertEquals(1, statistics.getSent());
+    assertEquals(0, statistics.getPublished());
+    assertEquals(0, statistics.expireUnpublished(Duration.ZERO));
+  }
+}
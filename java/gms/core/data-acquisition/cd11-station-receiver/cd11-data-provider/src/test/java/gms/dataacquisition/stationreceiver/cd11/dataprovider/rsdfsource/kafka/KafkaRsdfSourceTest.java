@@ -6,10 +6,11 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.params.provider.Arguments.arguments;
 import static org.mockito.Mockito.when;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import gms.shared.frameworks.osd.coi.datatransferobjects.CoiObjectMapperFactory;
 import gms.shared.frameworks.osd.coi.waveforms.RawStationDataFrame;
+import gms.shared.utilities.kafka.serde.RawStationDataFrameSerializer;
+import gms.shared.utilities.kafka.serde.RawStationDataFrameSerializer.Format;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -44,20 +45,20 @@ class KafkaRsdfSourceTest {
   private static Stream<Arguments> getSeedSetConstraints() {
 
     return Stream.of(
-        arguments(DATA_SET_BOSA),
-        arguments(DATA_SET_KMBO),
-        arguments(DATA_SET_PDAR),
-        arguments(DATA_SET_BOSA),
-        arguments(DATA_SET_KMBO),
-        arguments(DATA_SET_PDAR),
-        arguments(DATA_SET_BOSA),
-        arguments(DATA_SET_KMBO),
-        arguments(DATA_SET_PDAR)
+        arguments(DATA_SET_BOSA, Format.JSON),
+        arguments(DATA_SET_KMBO, Format.JSON),
+        arguments(DATA_SET_PDAR, Format.JSON),
+        arguments(DATA_SET_BOSA, Format.BINARY),
+        arguments(DATA_SET_KMBO, Format.BINARY),
+        arguments(DATA_SET_PDAR, Format.BINARY),
+        arguments(DATA_SET_BOSA, Format.JSON),
+        arguments(DATA_SET_KMBO, Format.BINARY),
+        arguments(DATA_SET_PDAR, Format.JSON)
     );
   }
 
   @Mock
-  private KafkaReceiver<String, String> kafkaReceiver;
+  private KafkaReceiver<String, byte[]> kafkaReceiver;
   private final ObjectMapper objectMapper = CoiObjectMapperFactory.getJsonObjectMapper();
 
   @BeforeEach
@@ -67,7 +68,7 @@ class KafkaRsdfSourceTest {
 
   @ParameterizedTest
   @MethodSource("getSeedSetConstraints")
-  void testGetRsdfFlux(final String dataFileLocation) throws IOException {
+  void testGetRsdfFlux(final String dataFileLocation, final Format format) throws IOException {
 
     final File seedDataFile = new File(dataFileLocation);
     final List<RawStationDataFrame> seedRsdfs = objectMapper
@@ -77,10 +78,11 @@ class KafkaRsdfSourceTest {
     partition = RandomUtils.nextInt();
     AtomicLong offset = new AtomicLong(0);
 
+    final var serializer = new RawStationDataFrameSerializer(format);
     final var consumerRecords = Flux.fromIterable(seedRsdfs)
-        .map(this::getSeedJson)
-        .map(seedJson -> new ConsumerRecord<>("some topic", partition, offset.getAndIncrement(),
-            UUID.randomUUID().toString(), seedJson));
+        .map(seedRsdf -> serializer.serialize("some topic", seedRsdf))
+        .map(seedBytes -> new ConsumerRecord<>("some topic", partition, offset.getAndIncrement(),
+            UUID.randomUUID().toString(), seedBytes));
 
     when(kafkaReceiver.receiveAtmostOnce()).thenReturn(consumerRecords);
 
@@ -121,14 +123,6 @@ class KafkaRsdfSourceTest {
     });
   }
 
-  private String getSeedJson(RawStationDataFrame seedRsdf) {
-    try {
-      return objectMapper.writeValueAsString(seedRsdf);
-    } catch (JsonProcessingException e) {
-      throw new RuntimeException("Failed to serialize data to JSON", e);
-    }
-  }
-
   private void verifyRsdf(RawStationDataFrame seedRsdf, RawStationDataFrame actualRsdf) {
     assertEquals(seedRsdf, actualRsdf);
     assertEquals(seedRsdf.getId(), actualRsdf.getId());
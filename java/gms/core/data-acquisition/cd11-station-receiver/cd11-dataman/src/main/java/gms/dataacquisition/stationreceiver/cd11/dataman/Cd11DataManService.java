@@ -10,6 +10,7 @@ import gms.shared.frameworks.control.ControlFactory;
 import gms.shared.frameworks.osd.coi.waveforms.AcquisitionProtocol;
 import gms.shared.frameworks.systemconfig.SystemConfig;
 import gms.shared.utilities.kafka.KafkaConfiguration;
+import gms.shared.utilities.kafka.serde.RawStationDataFrameSerializer.Format;
 import gms.shared.utilities.logging.StructuredLoggingWrapper;
 import javax.ws.rs.Path;
 import org.slf4j.LoggerFactory;
@@ -54,7 +55,11 @@ public class Cd11DataManService {
 
     logger.info("Initializing Cd11 Data Manager...");
     Cd11DataManager dataMan = Cd11DataManager
-        .create(dataManConfig, dataFrameReceiverConfiguration, kafkaConfiguration);
+        .create(dataManConfig, dataFrameReceiverConfiguration, kafkaConfiguration,
+            systemConfig.getValueAsInt("event-loop-shards"),
+            systemConfig.getValue("rsdf-compression-type"),
+            Format.valueOf(systemConfig.getValue("rsdf-format").toUpperCase()),
+            systemConfig.getValueAsBoolean("drop-invalid-crc-data-frames"));
 
     logger.info("Cd11 Data Manager Successfully Initialized");
     return new Cd11DataManService(dataMan);
@@ -8,6 +8,7 @@ import gms.dataacquisition.stationreceiver.cd11.dataman.handlers.ReactorCd11Fram
 import gms.shared.frameworks.osd.coi.waveforms.RawStationDataFrame;
 import gms.shared.utilities.kafka.KafkaConfiguration;
 import gms.shared.utilities.kafka.reactor.ReactorKafkaFactory;
+import gms.shared.utilities.kafka.serde.RawStationDataFrameSerializer.Format;
 import gms.shared.frameworks.osd.coi.datatransferobjects.CoiSerializer;
 import gms.shared.utilities.logging.StructuredLoggingWrapper;
 import org.apache.kafka.clients.producer.ProducerRecord;
@@ -22,9 +23,13 @@ import reactor.core.scheduler.Schedulers;
 import reactor.kafka.sender.KafkaSender;
 import reactor.kafka.sender.SenderRecord;
 import reactor.netty.Connection;
+import reactor.netty.resources.LoopResources;
 import reactor.netty.tcp.TcpServer;
 import reactor.util.retry.Retry;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
@@ -45,6 +50,18 @@ public class Cd11DataManager {
   public static final String STATION_LOGGING_KEY = "station";
   private static final int NUM_RETRIES_PORT_BIND = 100;
   private static final Duration INITIAL_WAIT = Duration.ofSeconds(1);
+  private static final Path RSDF_OVERFLOW_PATH = Paths.get("shared-volume", "rsdf-overflow");
+  private static final int RSDF_OVERFLOW_MEMORY_CAPACITY = 1000;
+  private static final long RSDF_OVERFLOW_SEGMENT_SIZE = 64L * 1024 * 1024;
+  private static final String DEFAULT_RSDF_COMPRESSION_TYPE = "lz4";
+  // RSDFs from all stations are published together, one transaction per batch bounded by frame
+  // count, payload bytes and time
+  private static final int RSDF_BATCH_MAX_FRAMES = 100;
+  private static final long RSDF_BATCH_MAX_BYTES = 4L * 1024 * 1024;
+  private static final Duration RSDF_BATCH_LINGER = Duration.ofMillis(500);
+  // A transaction's records are handed to the producer all at once and its commit waits on their
+  // acknowledgement, so the producer only lingers long enough to pack them into shared requests
+  private static final Duration RSDF_PRODUCER_LINGER = Duration.ofMillis(5);
 
   private final StructuredLoggingWrapper logger = StructuredLoggingWrapper
       .create(LoggerFactory.getLogger(Cd11DataManager.class));
@@ -52,6 +69,10 @@ public class Cd11DataManager {
   private final DataManConfig dataManConfig;
   private final DataFrameReceiverConfiguration receiverConfig;
   private final KafkaConfiguration kafkaConfiguration;
+  private final int eventLoopShardCount;
+  private final String rsdfCompressionType;
+  private final Format rsdfFormat;
+  private final boolean dropInvalidCrcFrames;
 
   // Collection of all the stations and the "server" that has been configured with the processing config
   // port that is unique for each station
@@ -63,6 +84,12 @@ public class Cd11DataManager {
   // a kafka sender for RSDFs that aren't fully processed
   private KafkaSender<String, MalformedFrame> malformedFrameSender;
 
+  // the event loops the station servers and connections are spread over
+  private Cd11EventLoopShards eventLoopShards;
+
+  // holds RSDFs while the kafka sender is behind, spilling them to disk once enough are held
+  private RsdfOverflowBuffer rsdfOverflowBuffer;
+
   // Temporary holder for RSDFs used during processing,
   // used to transport the data going from server to the processing flux
   private List<Sinks.Many<RawStationDataFrame>> rsdfSinks;
@@ -75,16 +102,43 @@ public class Cd11DataManager {
   private Cd11DataManager(
       DataManConfig dataManConfig,
       DataFrameReceiverConfiguration receiverConfig,
-      KafkaConfiguration kafkaConfiguration) {
+      KafkaConfiguration kafkaConfiguration,
+      int eventLoopShardCount,
+      String rsdfCompressionType,
+      Format rsdfFormat,
+      boolean dropInvalidCrcFrames) {
     this.dataManConfig = dataManConfig;
     this.receiverConfig = receiverConfig;
     this.kafkaConfiguration = kafkaConfiguration;
+    this.eventLoopShardCount = eventLoopShardCount;
+    this.rsdfCompressionType = rsdfCompressionType;
+    this.rsdfFormat = rsdfFormat;
+    this.dropInvalidCrcFrames = dropInvalidCrcFrames;
   }
 
   public static Cd11DataManager create(DataManConfig dataManConfig,
       DataFrameReceiverConfiguration dataFrameReceiverConfiguration,
       KafkaConfiguration kafkaConfiguration) {
-    return new Cd11DataManager(dataManConfig, dataFrameReceiverConfiguration, kafkaConfiguration);
+    return create(dataManConfig, dataFrameReceiverConfiguration, kafkaConfiguration, 0,
+        DEFAULT_RSDF_COMPRESSION_TYPE, Format.BINARY, false);
+  }
+
+  /**
+   * @param eventLoopShardCount Number of event loops the stations are spread over, or zero for
+   * one per available processor
+   * @param rsdfCompressionType Kafka compression type of the published RSDF batches, e.g. lz4 or
+   * zstd
+   * @param rsdfFormat Format of the published RSDF records, {@link Format#JSON} while consumers of
+   * the RSDF topic cannot yet read the binary format
+   * @param dropInvalidCrcFrames Whether DATA frames failing their CRC are dropped, rather than
+   * published like any other
+   */
+  public static Cd11DataManager create(DataManConfig dataManConfig,
+      DataFrameReceiverConfiguration dataFrameReceiverConfiguration,
+      KafkaConfiguration kafkaConfiguration, int eventLoopShardCount,
+      String rsdfCompressionType, Format rsdfFormat, boolean dropInvalidCrcFrames) {
+    return new Cd11DataManager(dataManConfig, dataFrameReceiverConfiguration, kafkaConfiguration,
+        eventLoopShardCount, rsdfCompressionType, rsdfFormat, dropInvalidCrcFrames);
   }
 
   /**
@@ -108,14 +162,15 @@ public class Cd11DataManager {
    */
   public void initialize() {
     var kafkaFactory = new ReactorKafkaFactory(kafkaConfiguration);
-    rsdfSender = kafkaFactory
-        .createSender(kafkaConfiguration.getApplicationId(), new CoiSerializer<>());
+    rsdfSender = kafkaFactory.createBatchingRsdfSender(kafkaConfiguration.getApplicationId(),
+        rsdfFormat, rsdfCompressionType, RSDF_PRODUCER_LINGER);
     malformedFrameSender = kafkaFactory
         .createSender(kafkaConfiguration.getApplicationId(), new CoiSerializer<>());
+    rsdfOverflowBuffer = openRsdfOverflowBuffer();
     rsdfSinks = new ArrayList<>();
     malformedFrameSinks = new ArrayList<>();
     handlers = new ArrayList<>();
-
+    eventLoopShards = Cd11EventLoopShards.create(eventLoopShardCount);
 
     serversByStation = dataManConfig.cd11DataConsumerParameters()
         .filter(Cd11DataConsumerParameters::isAcquired)
@@ -126,6 +181,17 @@ public class Cd11DataManager {
     initialized = true;
   }
 
+  private RsdfOverflowBuffer openRsdfOverflowBuffer() {
+    try {
+      return RsdfOverflowBuffer.open(RSDF_OVERFLOW_PATH, RSDF_OVERFLOW_MEMORY_CAPACITY,
+          RSDF_OVERFLOW_SEGMENT_SIZE);
+    } catch (IOException e) {
+      logger.error("Error opening RSDF overflow buffer, unpublished RSDFs will be held in memory",
+          e);
+      return null;
+    }
+  }
+
   private TcpServer initializeDataConsumerServer(Cd11DataConsumerParameters consumerParameters) {
     int stationPort = consumerParameters.getPort();
     String stationName = consumerParameters.getStationName();
@@ -136,25 +202,32 @@ public class Cd11DataManager {
     malformedFrameSinks.add(malformedFrameSink);
 
     var handler = ReactorCd11FrameHandler
-        .create(stationName, receiverConfig, rsdfSink, malformedFrameSink);
+        .create(stationName, receiverConfig, rsdfSink, malformedFrameSink, dropInvalidCrcFrames);
     handlers.add(handler);
 
+    var shard = eventLoopShards.assign(stationName);
+
     return TcpServer.create()
         .port(stationPort)
+        .runOn(shard.getLoopResources(), LoopResources.DEFAULT_NATIVE)
         .doOnBound(server -> {
           logger.addKeyValueArgument(STATION_LOGGING_KEY, stationName);
-          logger.info("Server bound successfully on port {}", server.port());
+          logger.info("Server bound successfully on port {} in event loop shard {}",
+              server.port(), shard.getIndex());
           logger.removeArgument(STATION_LOGGING_KEY);
         })
-        .doOnConnection(connection -> logConnection(connection, stationName, stationPort))
+        .doOnConnection(connection -> logConnection(connection, stationName, stationPort, shard))
         .handle(handler);
   }
 
-  private void logConnection(Connection connection, String stationName, int stationPort) {
+  private void logConnection(Connection connection, String stationName, int stationPort,
+      Cd11EventLoopShard shard) {
+    shard.connectionOpened();
     logger.addKeyValueArgument(STATION_LOGGING_KEY, stationName);
     logger.info("Data Manager connection established on port {}", stationPort);
     logger.removeArgument(STATION_LOGGING_KEY);
     connection.onDispose(() -> {
+      shard.connectionClosed();
       logger.addKeyValueArgument(STATION_LOGGING_KEY, stationName);
       logger.info("Data Manager connection closed on port {}", stationPort);
       logger.removeArgument(STATION_LOGGING_KEY);
@@ -166,7 +239,7 @@ public class Cd11DataManager {
    * connections to their ports, making them available for connection.
    */
   public void start() {
-    start(100, Duration.ofMillis(500), Duration.ofSeconds(30));
+    start(RSDF_BATCH_MAX_FRAMES, RSDF_BATCH_LINGER, Duration.ofSeconds(30));
   }
 
   void start(int maxBufferSize, Duration rsdfBufferedTimeoutDuration,
@@ -175,11 +248,16 @@ public class Cd11DataManager {
 
     logger.info("Establishing frame sending");
 
-    Flux.fromIterable(rsdfSinks)
-        .flatMap(sinks -> sinks.asFlux().publishOn(Schedulers.boundedElastic())
-            .map(this::createRsdfRecord), rsdfSinks.size())
-        .bufferTimeout(maxBufferSize, rsdfBufferedTimeoutDuration).map(Flux::fromIterable)
-        .onBackpressureBuffer()
+    Flux<List<RawStationDataFrame>> rsdfBatches = Flux.fromIterable(rsdfSinks)
+        .flatMap(sinks -> sinks.asFlux().publishOn(Schedulers.boundedElastic()), rsdfSinks.size())
+        .bufferTimeout(maxBufferSize, rsdfBufferedTimeoutDuration)
+        .concatMapIterable(batch -> splitBySize(batch, RSDF_BATCH_MAX_BYTES));
+
+    rsdfBatches = rsdfOverflowBuffer == null ? rsdfBatches.onBackpressureBuffer()
+        : rsdfBatches.transform(rsdfOverflowBuffer::buffer);
+
+    rsdfBatches
+        .map(batch -> Flux.fromIterable(batch).map(this::createRsdfRecord))
         .transform(rsdfSender::sendTransactionally)
         .onErrorContinue(RecordTooLargeException.class, (e, obj) -> logger
             .warn(
@@ -192,7 +270,7 @@ public class Cd11DataManager {
         .subscribe(
             result -> {
               logger.addKeyValueArgument(STATION_LOGGING_KEY, result.correlationMetadata());
-              logger.info("Published Data frame");
+              logger.debug("Published Data frame");
               logger.removeArgument(STATION_LOGGING_KEY);
             },
             e -> logger.error("Failed to publish Data frame", e));
@@ -222,6 +300,31 @@ public class Cd11DataManager {
     );
   }
 
+  /**
+   * Splits a batch of RSDFs, in order, into batches whose payloads total at most the given number
+   * of bytes. An RSDF larger than that on its own makes up a batch by itself.
+   */
+  static List<List<RawStationDataFrame>> splitBySize(List<RawStationDataFrame> batch,
+      long maxBytes) {
+    List<List<RawStationDataFrame>> batches = new ArrayList<>();
+    List<RawStationDataFrame> current = new ArrayList<>();
+    long currentBytes = 0;
+    for (RawStationDataFrame rsdf : batch) {
+      int bytes = rsdf.getRawPayload().length;
+      if (!current.isEmpty() && currentBytes + bytes > maxBytes) {
+        batches.add(current);
+        current = new ArrayList<>();
+        currentBytes = 0;
+      }
+      current.add(rsdf);
+      currentBytes += bytes;
+    }
+    if (!current.isEmpty()) {
+      batches.add(current);
+    }
+    return batches;
+  }
+
   private SenderRecord<String, RawStationDataFrame, String> createRsdfRecord(
     RawStationDataFrame rsdf) {
     // create reactor kafka sender record with the rsdf json string
@@ -257,8 +360,12 @@ public class Cd11DataManager {
     logger.info("Shutting Down DataMan...");
     handlers.forEach(ReactorCd11FrameHandler::shutdown);
     serverBindComposite.dispose();
+    eventLoopShards.dispose();
     rsdfSinks.forEach(Sinks.Many::tryEmitComplete);
     malformedFrameSinks.forEach(Sinks.Many::tryEmitComplete);
+    if (rsdfOverflowBuffer != null) {
+      rsdfOverflowBuffer.close();
+    }
     rsdfSender.close();
     malformedFrameSender.close();
   }
@@ -0,0 +1,90 @@
+package gms.dataacquisition.stationreceiver.cd11.dataman;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.SingleThreadEventExecutor;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * A single-threaded event loop on which the servers and connections of a subset of stations run,
+ * so that a busy station only delays the stations sharing its shard. Accepting and all I/O of a
+ * station's connection happen on the shard's one thread.
+ */
+public class Cd11EventLoopShard implements Cd11EventLoopShardMBean {
+
+  private final int index;
+  private final LoopResources loopResources;
+  private final List<String> stations = new CopyOnWriteArrayList<>();
+  private final AtomicInteger activeConnections = new AtomicInteger();
+  private final LongAdder connectionsAccepted = new LongAdder();
+
+  Cd11EventLoopShard(int index) {
+    this.index = index;
+    this.loopResources = LoopResources.create("cd11-dataman-shard-" + index, 1, true);
+  }
+
+  public int getIndex() {
+    return index;
+  }
+
+  public LoopResources getLoopResources() {
+    return loopResources;
+  }
+
+  void addStation(String stationName) {
+    stations.add(stationName);
+  }
+
+  public void connectionOpened() {
+    connectionsAccepted.increment();
+    activeConnections.incrementAndGet();
+  }
+
+  public void connectionClosed() {
+    activeConnections.decrementAndGet();
+  }
+
+  void dispose() {
+    loopResources.dispose();
+  }
+
+  @Override
+  public String[] getStations() {
+    return stations.toArray(String[]::new);
+  }
+
+  @Override
+  public int getStationCount() {
+    return stations.size();
+  }
+
+  @Override
+  public int getActiveConnections() {
+    return activeConnections.get();
+  }
+
+  @Override
+  public long getConnectionsAccepted() {
+    return connectionsAccepted.sum();
+  }
+
+  /**
+   * @return Number of tasks queued on the shard's event loop, i.e. work delayed behind the I/O
+   * currently being handled
+   */
+  @Override
+  public int getPendingTasks() {
+    EventLoopGroup group = loopResources.onServer(LoopResources.DEFAULT_NATIVE);
+    int pending = 0;
+    for (EventExecutor executor : group) {
+      if (executor instanceof SingleThreadEventExecutor) {
+        pending += ((SingleThreadEventExecutor) executor).pendingTasks();
+      }
+    }
+    return pending;
+  }
+}
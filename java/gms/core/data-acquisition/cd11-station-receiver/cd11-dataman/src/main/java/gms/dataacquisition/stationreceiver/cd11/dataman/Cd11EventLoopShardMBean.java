@@ -0,0 +1,17 @@
+package gms.dataacquisition.stationreceiver.cd11.dataman;
+
+/**
+ * JMX view of a single event loop shard of the data manager, see {@link Cd11EventLoopShard}.
+ */
+public interface Cd11EventLoopShardMBean {
+
+  String[] getStations();
+
+  int getStationCount();
+
+  int getActiveConnections();
+
+  long getConnectionsAccepted();
+
+  int getPendingTasks();
+}
@@ -0,0 +1,98 @@
+package gms.dataacquisition.stationreceiver.cd11.dataman;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import gms.shared.metrics.MetricRegister;
+import gms.shared.utilities.logging.StructuredLoggingWrapper;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Fixed set of {@link Cd11EventLoopShard}s over which the stations of the data manager are spread.
+ * A station is pinned to a shard by a stable hash of its name, so it lands on the same shard
+ * across restarts for as long as the number of shards is unchanged. Until the shards are disposed,
+ * the statistics of each shard are exported over JMX as {@value #OBJECT_NAME_PREFIX}&lt;index&gt;.
+ */
+public class Cd11EventLoopShards {
+
+  private static final StructuredLoggingWrapper logger = StructuredLoggingWrapper
+      .create(LoggerFactory.getLogger(Cd11EventLoopShards.class));
+
+  static final String OBJECT_NAME_PREFIX = "cd11_dataman_event_loop:type=Shard,shard=";
+
+  private final List<Cd11EventLoopShard> shards;
+
+  private Cd11EventLoopShards(List<Cd11EventLoopShard> shards) {
+    this.shards = shards;
+  }
+
+  /**
+   * Creates the shards and registers their statistics over JMX.
+   *
+   * @param shardCount Number of shards, or zero for one per available processor
+   * @return The shards
+   */
+  public static Cd11EventLoopShards create(int shardCount) {
+    checkArgument(shardCount >= 0, "Event loop shard count must not be negative, but was %s",
+        shardCount);
+    int count = shardCount == 0 ? Runtime.getRuntime().availableProcessors() : shardCount;
+
+    List<Cd11EventLoopShard> shards = IntStream.range(0, count)
+        .mapToObj(Cd11EventLoopShard::new)
+        .collect(Collectors.toList());
+    shards.forEach(Cd11EventLoopShards::register);
+    logger.info("Created {} event loop shards", count);
+    return new Cd11EventLoopShards(shards);
+  }
+
+  private static void register(Cd11EventLoopShard shard) {
+    try {
+      MetricRegister.register(shard, new ObjectName(OBJECT_NAME_PREFIX + shard.getIndex()));
+    } catch (JMException e) {
+      logger.warn("Statistics for event loop shard {} failed to register and will not be exported",
+          shard.getIndex(), e);
+    }
+  }
+
+  private static void unregister(Cd11EventLoopShard shard) {
+    try {
+      MetricRegister.unregister(new ObjectName(OBJECT_NAME_PREFIX + shard.getIndex()));
+    } catch (JMException e) {
+      logger.warn("Statistics for event loop shard {} failed to unregister", shard.getIndex(), e);
+    }
+  }
+
+  public int size() {
+    return shards.size();
+  }
+
+  /**
+   * Pins a station to its shard.
+   *
+   * @param stationName Name of the station
+   * @return The shard the station's server and connections are to run on
+   */
+  public Cd11EventLoopShard assign(String stationName) {
+    Cd11EventLoopShard shard = shards.get(shardIndex(stationName, shards.size()));
+    shard.addStation(stationName);
+    return shard;
+  }
+
+  // String.hashCode is specified by the language, so unlike an identity hash it is stable across
+  // JVMs
+  static int shardIndex(String stationName, int shardCount) {
+    return Math.floorMod(stationName.hashCode(), shardCount);
+  }
+
+  /**
+   * Disposes of the shards' event loops and unregisters their statistics.
+   */
+  public void dispose() {
+    shards.forEach(Cd11EventLoopShard::dispose);
+    shards.forEach(Cd11EventLoopShards::unregister);
+  }
+}
@@ -1,36 +1,32 @@
 package gms.dataacquisition.stationreceiver.cd11.dataman;
 
-import com.fasterxml.jackson.core.JsonGenerationException;
-import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import gms.dataacquisition.stationreceiver.cd11.common.Cd11GapJournal;
 import gms.dataacquisition.stationreceiver.cd11.common.Cd11GapList;
 import gms.dataacquisition.stationreceiver.cd11.common.GapList;
 import gms.shared.utilities.logging.StructuredLoggingWrapper;
-import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Loads per-station gap lists backed by a {@link Cd11GapJournal} under the shared gap storage
+ * directory. Gap state persisted as JSON by earlier versions is migrated on first load.
+ */
 public class Cd11GapListUtility {
 
   private static final StructuredLoggingWrapper logger = StructuredLoggingWrapper
           .create(LoggerFactory.getLogger(Cd11GapListUtility.class));
 
 
-  private static final String GAP_STORAGE_PATH = "shared-volume/gaps/";
-  private static final String FILE_EXTENSION = ".json";
+  private static final Path GAP_STORAGE_PATH = Paths.get("shared-volume", "gaps");
+  private static final String LEGACY_FILE_EXTENSION = ".json";
   private static final ObjectMapper objectMapper;
 
   static {
-    // Ensure that the fake gap storage path exists.
-    File gapsDir = new File(GAP_STORAGE_PATH);
-    if (!gapsDir.exists()) {
-      gapsDir.mkdirs();
-    }
-
     objectMapper = new ObjectMapper();
     objectMapper.findAndRegisterModules();
     objectMapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
@@ -40,49 +36,47 @@ public class Cd11GapListUtility {
 
   }
 
-  //GapList loaders/writers
+  /**
+   * Loads the gap list for a station, replaying its gap journal. If the journal cannot be opened
+   * the gap list is returned without persistence rather than failing the station.
+   *
+   * @param stationName Name of the station
+   * @return The station's gap list, journaled when possible
+   */
   public static Cd11GapList loadGapState(String stationName) {
-    Path path = Paths.get(GAP_STORAGE_PATH + stationName + FILE_EXTENSION);
-    if (Files.exists(path)) {
-      try {
-        String contents = new String(Files.readAllBytes(path));
-        return new Cd11GapList(objectMapper.readValue(contents, GapList.class));
-      } catch (IOException e) {
-        logger.error("Error deserializing GapList", e);
-        return new Cd11GapList();
-      }
-    } else {
-      return new Cd11GapList();
-    }
+    return loadGapState(GAP_STORAGE_PATH, stationName);
   }
 
-  public static void persistGapState(String stationName, GapList gapList) throws IOException {
-    String path = GAP_STORAGE_PATH + stationName + FILE_EXTENSION;
-
+  /**
+   * Loads the gap list for a station from the given gap storage directory.
+   *
+   * @param directory Directory holding gap state
+   * @param stationName Name of the station
+   * @return The station's gap list, journaled when possible
+   */
+  public static Cd11GapList loadGapState(Path directory, String stationName) {
+    Path legacyPath = directory.resolve(stationName + LEGACY_FILE_EXTENSION);
     try {
-      // Set file permissions.
-      File file = new File(path);
-      boolean permissionsSet = file.setReadable(true, false);
-      permissionsSet = permissionsSet && file.setWritable(true, false);
-      permissionsSet = permissionsSet && file.setExecutable(false, false);
-
-      if (!permissionsSet) {
-        logger.warn("Failed to set permissions on gaps file.");
-      }
-      objectMapper.writeValue(file, gapList);
-    } catch (JsonGenerationException | JsonMappingException e) {
-      logger.error("Failed to persist gap state:", e);
+      Cd11GapJournal journal = Cd11GapJournal.open(directory, stationName,
+          () -> loadLegacyGapState(legacyPath));
+      // The legacy state, if any, is now part of the journal's snapshot
+      Files.deleteIfExists(legacyPath);
+      return journal.getGapList();
+    } catch (IOException e) {
+      logger.error("Error opening gap journal, gaps for station {} will not be persisted",
+          stationName, e);
+      return new Cd11GapList();
     }
-
   }
 
-  public static void clearGapState(String stationName) {
-    Path path = Paths.get(GAP_STORAGE_PATH + stationName + FILE_EXTENSION);
-    try {
-      Files.delete(path);
-    } catch (IOException e) {
-      logger.error("Failed to clear gap state", e);
+  private static GapList loadLegacyGapState(Path path) {
+    if (Files.exists(path)) {
+      try {
+        return objectMapper.readValue(Files.readAllBytes(path), GapList.class);
+      } catch (IOException e) {
+        logger.error("Error deserializing GapList", e);
+      }
     }
+    return new GapList(0, -1);
   }
-
 }
@@ -0,0 +1,182 @@
+package gms.dataacquisition.stationreceiver.cd11.dataman;
+
+import gms.shared.metrics.Log2Histogram;
+import gms.shared.metrics.MetricRegister;
+import gms.shared.metrics.RateCounter;
+import gms.shared.utilities.logging.StructuredLoggingWrapper;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.LongUnaryOperator;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Ingest telemetry of a single CD 1.1 station, exported over JMX as
+ * {@value #OBJECT_NAME_PREFIX}&lt;station&gt;. Recording is lock-free and allocation-free, so it
+ * can be done for every frame received; rates and percentiles are only computed when read.
+ */
+public class Cd11StationMetrics implements Cd11StationMetricsMBean {
+
+  private static final StructuredLoggingWrapper logger = StructuredLoggingWrapper
+      .create(LoggerFactory.getLogger(Cd11StationMetrics.class));
+
+  static final String OBJECT_NAME_PREFIX = "cd11_dataman_station:type=Ingest,station=";
+  private static final Duration RATE_WINDOW = Duration.ofSeconds(10);
+
+  private final RateCounter frames = new RateCounter(RATE_WINDOW);
+  private final RateCounter bytes = new RateCounter(RATE_WINDOW);
+  private final Log2Histogram latencyMillis = new Log2Histogram();
+  private final LongAdder crcFailures = new LongAdder();
+  private final LongAdder malformedFrames = new LongAdder();
+  private final LongAdder acknacksSent = new LongAdder();
+  private final LongAdder acknacksReceived = new LongAdder();
+  private final AtomicLong lastAcknackMillis = new AtomicLong();
+  private volatile long lastAcknackIntervalMillis;
+
+  private final LongSupplier gapCount;
+  private final LongUnaryOperator millisSince;
+
+  Cd11StationMetrics(LongSupplier gapCount, LongUnaryOperator millisSince) {
+    this.gapCount = gapCount;
+    this.millisSince = millisSince;
+  }
+
+  /**
+   * Creates the metrics of a station and registers them over JMX, replacing any metrics already
+   * registered for the station. Failure to register is logged, leaving the metrics unexported.
+   *
+   * @param stationName Name of the station
+   * @param gapCount Supplier of the station's current number of gaps
+   * @return The station's metrics
+   */
+  public static Cd11StationMetrics create(String stationName, LongSupplier gapCount) {
+    var metrics = new Cd11StationMetrics(gapCount,
+        millis -> System.currentTimeMillis() - millis);
+    try {
+      MetricRegister.register(metrics, new ObjectName(OBJECT_NAME_PREFIX + stationName));
+    } catch (JMException e) {
+      logger.warn("Ingest metrics for station {} failed to register and will not be exported",
+          stationName, e);
+    }
+    return metrics;
+  }
+
+  /**
+   * Records a received data frame.
+   *
+   * @param frameBytes Length of the frame
+   * @param latencyMillis Time from the frame's nominal time until it was received
+   */
+  public void recordDataFrame(int frameBytes, long latencyMillis) {
+    frames.increment();
+    bytes.add(frameBytes);
+    this.latencyMillis.record(latencyMillis);
+  }
+
+  public void recordCrcFailure() {
+    crcFailures.increment();
+  }
+
+  public void recordMalformedFrame() {
+    malformedFrames.increment();
+  }
+
+  /**
+   * Records an ACKNACK sent to the station.
+   *
+   * @param timeMillis Time the ACKNACK was sent, in milliseconds since the epoch
+   */
+  public void recordAcknackSent(long timeMillis) {
+    acknacksSent.increment();
+    long previous = lastAcknackMillis.getAndSet(timeMillis);
+    if (previous > 0) {
+      lastAcknackIntervalMillis = timeMillis - previous;
+    }
+  }
+
+  public void recordAcknackReceived() {
+    acknacksReceived.increment();
+  }
+
+  @Override
+  public long getFramesReceived() {
+    return frames.getCount();
+  }
+
+  @Override
+  public double getFramesPerSecond() {
+    return frames.getRatePerSecond();
+  }
+
+  @Override
+  public long getBytesReceived() {
+    return bytes.getCount();
+  }
+
+  @Override
+  public double getBytesPerSecond() {
+    return bytes.getRatePerSecond();
+  }
+
+  @Override
+  public long getLatencyMillisP50() {
+    return latencyMillis.getPercentile(50);
+  }
+
+  @Override
+  public long getLatencyMillisP90() {
+    return latencyMillis.getPercentile(90);
+  }
+
+  @Override
+  public long getLatencyMillisP99() {
+    return latencyMillis.getPercentile(99);
+  }
+
+  @Override
+  public long getLatencyMillisMax() {
+    return latencyMillis.getMax();
+  }
+
+  @Override
+  public long getCrcFailures() {
+    return crcFailures.sum();
+  }
+
+  @Override
+  public long getMalformedFrames() {
+    return malformedFrames.sum();
+  }
+
+  @Override
+  public long getGapCount() {
+    return gapCount.getAsLong();
+  }
+
+  @Override
+  public long getAcknacksSent() {
+    return acknacksSent.sum();
+  }
+
+  @Override
+  public long getAcknacksReceived() {
+    return acknacksReceived.sum();
+  }
+
+  @Override
+  public long getLastAcknackIntervalMillis() {
+    return lastAcknackIntervalMillis;
+  }
+
+  /**
+   * @return Time since the last ACKNACK was sent, or -1 if none has been
+   */
+  @Override
+  public long getMillisSinceLastAcknack() {
+    long last = lastAcknackMillis.get();
+    return last > 0 ? millisSince.applyAsLong(last) : -1;
+  }
+}
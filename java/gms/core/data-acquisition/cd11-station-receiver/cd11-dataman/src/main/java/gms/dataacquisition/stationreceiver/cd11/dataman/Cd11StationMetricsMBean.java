@@ -0,0 +1,37 @@
+package gms.dataacquisition.stationreceiver.cd11.dataman;
+
+/**
+ * JMX view of the ingest telemetry of a single CD 1.1 station, see {@link Cd11StationMetrics}.
+ */
+public interface Cd11StationMetricsMBean {
+
+  long getFramesReceived();
+
+  double getFramesPerSecond();
+
+  long getBytesReceived();
+
+  double getBytesPerSecond();
+
+  long getLatencyMillisP50();
+
+  long getLatencyMillisP90();
+
+  long getLatencyMillisP99();
+
+  long getLatencyMillisMax();
+
+  long getCrcFailures();
+
+  long getMalformedFrames();
+
+  long getGapCount();
+
+  long getAcknacksSent();
+
+  long getAcknacksReceived();
+
+  long getLastAcknackIntervalMillis();
+
+  long getMillisSinceLastAcknack();
+}
@@ -0,0 +1,536 @@
+package gms.dataacquisition.stationreceiver.cd11.dataman;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import gms.shared.frameworks.osd.coi.waveforms.RawStationDataFrame;
+import gms.shared.metrics.CustomMetric;
+import gms.shared.utilities.kafka.serde.RawStationDataFrameDeserializer;
+import gms.shared.utilities.kafka.serde.RawStationDataFrameSerializer;
+import gms.shared.utilities.logging.StructuredLoggingWrapper;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.kafka.common.errors.SerializationException;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+/**
+ * Bounded buffer of {@link RawStationDataFrame} batches awaiting publication. Up to a fixed number
+ * of frames are held in memory; further batches are spilled to segment files on local disk, so a
+ * slow broker neither backs up into the station connections nor grows the heap.
+ * <p>
+ * Batches are always emitted in the order received: once a batch has been spilled, new batches are
+ * spilled behind it until every spilled batch has been drained, after which the buffer returns to
+ * memory. Drained segments are deleted. A batch that fails to spill is held in memory instead,
+ * behind the spilled batches, as are the batches after it until the spilled batches are drained.
+ * <p>
+ * Batches still buffered when the source completes or the buffer is closed are kept on disk, along
+ * with the read position within the oldest segment, and are emitted first by the next buffer opened
+ * on the directory; so are batches added after the buffer is closed. If the process dies instead,
+ * the partially read segment is emitted again from its start.
+ *
+ * <pre>
+ *   segment   sequence of batch records
+ *   batch     int length of the rest of the record, int frame count, followed by that many frames
+ *   frame     int length, followed by the frame as written by {@link RawStationDataFrameSerializer}
+ * </pre>
+ */
+public class RsdfOverflowBuffer {
+
+  private static final StructuredLoggingWrapper logger = StructuredLoggingWrapper
+      .create(LoggerFactory.getLogger(RsdfOverflowBuffer.class));
+
+  static final String SEGMENT_PREFIX = "rsdf-";
+  static final String SEGMENT_EXTENSION = ".seg";
+  static final String CHECKPOINT_FILE = "rsdf.checkpoint";
+
+  private static final CustomMetric<Long, Long> depthMetric = CustomMetric
+      .create(CustomMetric::updateTimingData, "cd11_dataman_rsdf_buffer_depth:type=Value", 0L);
+  private static final CustomMetric<Long, Long> spilledDepthMetric = CustomMetric
+      .create(CustomMetric::updateTimingData, "cd11_dataman_rsdf_buffer_spilled_depth:type=Value",
+          0L);
+  private static final CustomMetric<Long, Long> spilledFramesMetric = CustomMetric
+      .create(Long::sum, "cd11_dataman_rsdf_buffer_spilled_frames:type=Counter", 0L);
+
+  private final Path directory;
+  private final int memoryCapacity;
+  private final long segmentSize;
+  private final RawStationDataFrameSerializer serializer = new RawStationDataFrameSerializer();
+  private final RawStationDataFrameDeserializer deserializer =
+      new RawStationDataFrameDeserializer();
+  private final ByteBuffer lengthBuffer = ByteBuffer.allocate(Integer.BYTES);
+
+  private final Deque<List<RawStationDataFrame>> memoryBatches = new ArrayDeque<>();
+  // Batches that failed to spill behind spilled batches, emitted once those are drained
+  private final Deque<List<RawStationDataFrame>> unspilledBatches = new ArrayDeque<>();
+  private int memoryFrames;
+
+  // Indices of the segments holding spilled batches, the one being read first and the one being
+  // written last
+  private final Deque<Long> segments = new ArrayDeque<>();
+  private long nextSegment;
+  private FileChannel readChannel;
+  private long readPosition;
+  private FileChannel writeChannel;
+  private long spilledBatches;
+  private long spilledFrames;
+
+  private boolean draining;
+  private boolean closed;
+
+  private RsdfOverflowBuffer(Path directory, int memoryCapacity, long segmentSize) {
+    this.directory = directory;
+    this.memoryCapacity = memoryCapacity;
+    this.segmentSize = segmentSize;
+  }
+
+  /**
+   * Opens a buffer spilling to the given directory, restoring any batches kept there by a previous
+   * buffer. The directory is created once a batch has to be spilled.
+   *
+   * @param directory Directory holding the segment files
+   * @param memoryCapacity Number of frames held in memory before spilling
+   * @param segmentSize Size in bytes after which a new segment file is started
+   * @return The buffer
+   * @throws IOException if the kept batches cannot be read
+   */
+  public static RsdfOverflowBuffer open(Path directory, int memoryCapacity, long segmentSize)
+      throws IOException {
+    checkArgument(memoryCapacity > 0, "Memory capacity must be positive, was %s", memoryCapacity);
+    checkArgument(segmentSize > 0, "Segment size must be positive, was %s", segmentSize);
+
+    var buffer = new RsdfOverflowBuffer(directory, memoryCapacity, segmentSize);
+    buffer.restore();
+    return buffer;
+  }
+
+  /**
+   * Buffers the given batches, emitting them as requested downstream while requesting batches from
+   * the source without bound. Only one subscription to the returned flux is supported.
+   *
+   * @param batches Source of batches
+   * @return The buffered batches
+   */
+  public Flux<List<RawStationDataFrame>> buffer(Flux<List<RawStationDataFrame>> batches) {
+    return Flux.create(sink -> {
+      sink.onRequest(n -> drain(sink));
+      Disposable source = batches.subscribe(
+          batch -> {
+            add(batch);
+            drain(sink);
+          },
+          e -> {
+            close();
+            sink.error(e);
+          },
+          () -> {
+            close();
+            sink.complete();
+          });
+      sink.onDispose(() -> {
+        source.dispose();
+        close();
+      });
+    });
+  }
+
+  /**
+   * @return The number of frames buffered in memory and on disk
+   */
+  public synchronized long getDepth() {
+    return memoryFrames + spilledFrames;
+  }
+
+  /**
+   * @return The number of frames buffered on disk
+   */
+  public synchronized long getSpilledDepth() {
+    return spilledFrames;
+  }
+
+  private synchronized void add(List<RawStationDataFrame> batch) {
+    if (closed) {
+      // Too late to be emitted, so keep it for the next buffer behind the batches already kept
+      try {
+        keep(new ArrayDeque<>(List.of(batch)), nextSegment++);
+        spilledFrames += batch.size();
+      } catch (IOException e) {
+        logger.error("Error keeping unpublished frames, {} frames will be lost", batch.size(), e);
+      }
+      return;
+    }
+
+    if (!unspilledBatches.isEmpty()) {
+      unspilledBatches.add(batch);
+      memoryFrames += batch.size();
+      return;
+    }
+
+    if (spilledBatches == 0 && memoryFrames + batch.size() <= memoryCapacity) {
+      memoryBatches.add(batch);
+      memoryFrames += batch.size();
+      return;
+    }
+
+    if (spilledBatches == 0) {
+      logger.info("Publishing is behind with {} frames buffered in memory, spilling to {}",
+          memoryFrames, directory);
+    }
+    try {
+      spill(batch);
+    } catch (IOException e) {
+      closeQuietly(writeChannel);
+      writeChannel = null;
+      if (spilledBatches == 0) {
+        logger.error("Error spilling {} frames, keeping them in memory", batch.size(), e);
+        memoryBatches.add(batch);
+      } else {
+        // Emitting the batch from memory ahead of the spilled batches would reorder them
+        logger.error("Error spilling {} frames, keeping them in memory until {} spilled frames "
+            + "are drained", batch.size(), spilledFrames, e);
+        unspilledBatches.add(batch);
+      }
+      memoryFrames += batch.size();
+    }
+  }
+
+  private synchronized void drain(FluxSink<List<RawStationDataFrame>> sink) {
+    if (draining || closed) {
+      return;
+    }
+
+    draining = true;
+    try {
+      while (sink.requestedFromDownstream() > 0 && !sink.isCancelled()) {
+        List<RawStationDataFrame> batch = poll();
+        if (batch == null) {
+          break;
+        }
+        sink.next(batch);
+      }
+    } finally {
+      draining = false;
+      depthMetric.updateMetric(getDepth());
+      spilledDepthMetric.updateMetric(spilledFrames);
+    }
+  }
+
+  private List<RawStationDataFrame> poll() {
+    List<RawStationDataFrame> batch = memoryBatches.poll();
+    if (batch != null) {
+      memoryFrames -= batch.size();
+      return batch;
+    }
+
+    while (spilledBatches > 0) {
+      try {
+        batch = readBatch();
+        if (batch != null) {
+          spilledBatches--;
+          spilledFrames -= batch.size();
+          if (spilledBatches == 0) {
+            logger.info("Drained spilled frames, buffering in memory");
+            deleteSegments();
+          }
+          return batch;
+        }
+
+        nextReadSegment();
+      } catch (IOException e) {
+        logger.error("Error reading spilled frames, discarding {} frames", spilledFrames, e);
+        deleteSegments();
+      }
+    }
+
+    batch = unspilledBatches.poll();
+    if (batch != null) {
+      memoryFrames -= batch.size();
+    }
+    return batch;
+  }
+
+  private void spill(List<RawStationDataFrame> batch) throws IOException {
+    if (writeChannel == null) {
+      writeChannel = openSegment(nextSegment++);
+    }
+    write(writeChannel, batch);
+
+    spilledBatches++;
+    spilledFrames += batch.size();
+    spilledFramesMetric.updateMetric((long) batch.size());
+
+    if (writeChannel.position() >= segmentSize) {
+      writeChannel.close();
+      writeChannel = null;
+    }
+  }
+
+  private FileChannel openSegment(long segment) throws IOException {
+    Files.createDirectories(directory);
+    FileChannel channel = FileChannel.open(segmentPath(segment), StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    segments.addLast(segment);
+    return channel;
+  }
+
+  private void write(FileChannel channel, List<RawStationDataFrame> batch) throws IOException {
+    List<byte[]> frames = new ArrayList<>(batch.size());
+    int length = Integer.BYTES;
+    for (RawStationDataFrame frame : batch) {
+      byte[] bytes = serializer.serialize(null, frame);
+      frames.add(bytes);
+      length += Integer.BYTES + bytes.length;
+    }
+
+    ByteBuffer record = ByteBuffer.allocate(Integer.BYTES + length)
+        .putInt(length)
+        .putInt(frames.size());
+    frames.forEach(bytes -> record.putInt(bytes.length).put(bytes));
+    record.flip();
+    while (record.hasRemaining()) {
+      channel.write(record);
+    }
+  }
+
+  /**
+   * @return The next batch in the segment being read, or null if the segment holds no further
+   * complete batch
+   */
+  private List<RawStationDataFrame> readBatch() throws IOException {
+    if (readChannel == null) {
+      readChannel = FileChannel.open(segmentPath(segments.getFirst()), StandardOpenOption.READ);
+      readChannel.position(readPosition);
+    }
+
+    long remaining = readChannel.size() - readChannel.position();
+    if (remaining < Integer.BYTES) {
+      return null;
+    }
+    lengthBuffer.clear();
+    readFully(readChannel, lengthBuffer);
+    int length = lengthBuffer.getInt(0);
+    if (length < Integer.BYTES || length > remaining - Integer.BYTES) {
+      return null;
+    }
+
+    ByteBuffer record = ByteBuffer.allocate(length);
+    readFully(readChannel, record);
+    record.flip();
+
+    int frameCount = record.getInt();
+    List<RawStationDataFrame> batch = new ArrayList<>(frameCount);
+    for (int i = 0; i < frameCount; i++) {
+      byte[] frame = new byte[record.getInt()];
+      record.get(frame);
+      try {
+        batch.add(deserializer.deserialize(null, frame));
+      } catch (SerializationException e) {
+        logger.error("Discarding spilled frame that could not be read", e);
+      }
+    }
+    return batch;
+  }
+
+  private void nextReadSegment() throws IOException {
+    long segment = segments.removeFirst();
+    closeQuietly(readChannel);
+    readChannel = null;
+    readPosition = 0;
+    if (segments.isEmpty()) {
+      closeQuietly(writeChannel);
+      writeChannel = null;
+    }
+    Files.deleteIfExists(segmentPath(segment));
+
+    if (segments.isEmpty()) {
+      throw new IOException("Spilled frames missing from segment " + segment);
+    }
+  }
+
+  private void deleteSegments() {
+    closeQuietly(readChannel);
+    closeQuietly(writeChannel);
+    readChannel = null;
+    writeChannel = null;
+    for (long segment : segments) {
+      try {
+        Files.deleteIfExists(segmentPath(segment));
+      } catch (IOException e) {
+        logger.warn("Error deleting segment {}", segmentPath(segment), e);
+      }
+    }
+    segments.clear();
+    nextSegment = 0;
+    readPosition = 0;
+    spilledBatches = 0;
+    spilledFrames = 0;
+  }
+
+  /**
+   * Keeps the buffered batches on disk for the next buffer opened on the directory, and stops
+   * emitting them. Closing a closed buffer has no effect.
+   */
+  public synchronized void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+
+    try {
+      if (readChannel != null) {
+        readPosition = readChannel.position();
+      }
+      if (!segments.isEmpty() && readPosition > 0) {
+        Files.write(directory.resolve(CHECKPOINT_FILE), ByteBuffer.allocate(2 * Long.BYTES)
+            .putLong(segments.getFirst())
+            .putLong(readPosition)
+            .array());
+      }
+
+      spilledFrames += memoryFrames;
+      memoryFrames = 0;
+      if (!memoryBatches.isEmpty()) {
+        // Memory batches are older than any spilled batch, so go in a segment read before them
+        keep(memoryBatches, segments.isEmpty() ? nextSegment++ : segments.getFirst() - 1);
+      }
+      if (!unspilledBatches.isEmpty()) {
+        // Unspilled batches are newer than any spilled batch, so go in a segment read after them
+        keep(unspilledBatches, nextSegment++);
+      }
+
+      if (spilledFrames > 0) {
+        logger.info("Kept {} unpublished frames in {}", spilledFrames, directory);
+      }
+    } catch (IOException e) {
+      logger.error("Error keeping unpublished frames, {} frames will be lost",
+          memoryFrames + spilledFrames, e);
+    } finally {
+      closeQuietly(readChannel);
+      closeQuietly(writeChannel);
+    }
+  }
+
+  /**
+   * Writes the given batches to a segment of their own, removing them from the given queue
+   */
+  private void keep(Deque<List<RawStationDataFrame>> batches, long segment) throws IOException {
+    try (FileChannel channel = openSegment(segment)) {
+      List<RawStationDataFrame> batch;
+      while ((batch = batches.poll()) != null) {
+        write(channel, batch);
+      }
+    }
+  }
+
+  private void restore() throws IOException {
+    if (!Files.isDirectory(directory)) {
+      return;
+    }
+
+    long checkpointSegment = 0;
+    long checkpointPosition = 0;
+    Path checkpoint = directory.resolve(CHECKPOINT_FILE);
+    if (Files.exists(checkpoint)) {
+      ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(checkpoint));
+      if (buffer.remaining() == 2 * Long.BYTES) {
+        checkpointSegment = buffer.getLong();
+        checkpointPosition = buffer.getLong();
+      }
+      Files.delete(checkpoint);
+    }
+
+    List<Long> indices;
+    try (Stream<Path> files = Files.list(directory)) {
+      indices = files.map(path -> path.getFileName().toString())
+          .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_EXTENSION))
+          .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+              name.length() - SEGMENT_EXTENSION.length())))
+          .sorted()
+          .collect(Collectors.toList());
+    }
+
+    for (long segment : indices) {
+      long start = segment == checkpointSegment ? checkpointPosition : 0;
+      long batches = restoreSegment(segment, start);
+      if (batches == 0) {
+        Files.delete(segmentPath(segment));
+      } else {
+        if (segments.isEmpty()) {
+          readPosition = start;
+        }
+        segments.addLast(segment);
+        spilledBatches += batches;
+      }
+    }
+    nextSegment = segments.isEmpty() ? 0 : segments.getLast() + 1;
+
+    if (spilledFrames > 0) {
+      logger.info("Restored {} unpublished frames from {}", spilledFrames, directory);
+    }
+  }
+
+  /**
+   * Counts the complete batches of a segment from the given position, truncating any incomplete
+   * batch left at its end
+   */
+  private long restoreSegment(long segment, long start) throws IOException {
+    long batches = 0;
+    try (FileChannel channel = FileChannel.open(segmentPath(segment), StandardOpenOption.READ,
+        StandardOpenOption.WRITE)) {
+      long size = channel.size();
+      long position = start;
+      ByteBuffer header = ByteBuffer.allocate(2 * Integer.BYTES);
+      while (size - position >= header.capacity()) {
+        header.clear();
+        channel.read(header, position);
+        int length = header.getInt(0);
+        if (length < Integer.BYTES || length > size - position - Integer.BYTES) {
+          break;
+        }
+        batches++;
+        spilledFrames += header.getInt(Integer.BYTES);
+        position += Integer.BYTES + length;
+      }
+
+      if (position < size) {
+        logger.warn("Discarding incomplete batch at the end of segment {}", segmentPath(segment));
+        channel.truncate(position);
+      }
+    }
+    return batches;
+  }
+
+  private Path segmentPath(long segment) {
+    return directory.resolve(SEGMENT_PREFIX + segment + SEGMENT_EXTENSION);
+  }
+
+  private static void readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer) < 0) {
+        throw new EOFException("Unexpected end of segment");
+      }
+    }
+  }
+
+  private static void closeQuietly(FileChannel channel) {
+    if (channel != null) {
+      try {
+        channel.close();
+      } catch (IOException e) {
+        logger.warn("Error closing segment", e);
+      }
+    }
+  }
+}
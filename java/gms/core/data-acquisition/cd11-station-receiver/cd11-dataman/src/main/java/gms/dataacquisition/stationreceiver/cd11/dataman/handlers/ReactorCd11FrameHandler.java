@@ -11,6 +11,8 @@ import gms.dataacquisition.stationreceiver.cd11.common.FrameUtilities;
 import gms.dataacquisition.stationreceiver.cd11.common.enums.FrameType;
 import gms.dataacquisition.stationreceiver.cd11.common.frames.Cd11Acknack;
 import gms.dataacquisition.stationreceiver.cd11.common.frames.Cd11Alert;
+import gms.dataacquisition.stationreceiver.cd11.common.frames.Cd11ChannelTable;
+import gms.dataacquisition.stationreceiver.cd11.common.frames.Cd11DataFrameView;
 import gms.dataacquisition.stationreceiver.cd11.common.frames.Cd11Frame;
 import gms.dataacquisition.stationreceiver.cd11.common.frames.Cd11OptionExchange;
 import gms.dataacquisition.stationreceiver.cd11.common.frames.MalformedFrame;
@@ -18,11 +20,14 @@ import gms.dataacquisition.stationreceiver.cd11.common.reactor.Cd11CompositeFlux
 import gms.dataacquisition.stationreceiver.cd11.common.reactor.Cd11FluxHandler;
 import gms.dataacquisition.stationreceiver.cd11.common.reactor.netty.Cd11Connection;
 import gms.dataacquisition.stationreceiver.cd11.dataman.Cd11GapListUtility;
+import gms.dataacquisition.stationreceiver.cd11.dataman.Cd11StationMetrics;
 import gms.dataacquisition.stationreceiver.cd11.parser.Cd11RawStationDataFrameUtility;
 import gms.shared.frameworks.osd.coi.waveforms.RawStationDataFrame;
 import gms.shared.utilities.logging.StructuredLoggingWrapper;
 
+import io.netty.buffer.ByteBuf;
 import java.io.IOException;
+import java.time.DateTimeException;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Optional;
@@ -56,15 +61,21 @@ public class ReactorCd11FrameHandler implements
 
   //In the future we will want to make these values configurable
   private static final int GAP_EXPIRATION_IN_DAYS = -1; // Never expire.
+  // Gap changes are journaled as they happen; this is how often the journal is compacted
   private static final Duration STORE_GAP_STATE_INTERVAL = Duration.ofMinutes(5);
+  // How often journaled gap changes are written and forced to disk, bounding what a crash loses
+  private static final Duration FLUSH_GAP_JOURNAL_INTERVAL = Duration.ofSeconds(1);
   static final int ACKNACK_TIME_SECONDS = 55;
 
   private final String stationName;
-  private final DataFrameReceiverConfiguration receiverConfig;
   private final Cd11FrameFactory frameFactory;
   private final Many<RawStationDataFrame> rsdfSink;
   private final Many<MalformedFrame> malformedFrameSink;
   private final Cd11GapList cd11GapList;
+  private final Cd11ChannelTable<String> channelNames;
+  private final Cd11StationMetrics metrics;
+  private final boolean dropInvalidCrcFrames;
+  private final Cd11DataFrameView dataFrameView = new Cd11DataFrameView();
   private Disposable.Composite dataDisposables;
 
   private final AtomicReference<String> frameSet;
@@ -75,14 +86,18 @@ public class ReactorCd11FrameHandler implements
     Cd11FrameFactory frameFactory,
     Many<RawStationDataFrame> rsdfSink,
     Many<MalformedFrame> malformedFrameSink,
-    Cd11GapList cd11GapList) {
+    Cd11GapList cd11GapList,
+    boolean dropInvalidCrcFrames) {
     this.stationName = stationName;
-    this.receiverConfig = receiverConfig;
     this.frameFactory = frameFactory;
     this.rsdfSink = rsdfSink;
     this.malformedFrameSink = malformedFrameSink;
     this.cd11GapList = cd11GapList;
+    this.channelNames = Cd11RawStationDataFrameUtility
+      .createChannelNameTable(stationName, receiverConfig::getChannelName);
     this.frameSet = new AtomicReference<>(DEFAULT_FRAME_SET);
+    this.metrics = Cd11StationMetrics.create(stationName, cd11GapList::getGapCount);
+    this.dropInvalidCrcFrames = dropInvalidCrcFrames;
     logger.addValueArgument(STATION_NAME_KEY, stationName);
   }
 
@@ -90,20 +105,28 @@ public class ReactorCd11FrameHandler implements
     return Optional.ofNullable(cd11Connection);
   }
 
+  Cd11StationMetrics getMetrics() {
+    return metrics;
+  }
+
   // For testing purposes ONLY
   void setCd11Connection(Cd11Connection connection) {
     this.cd11Connection = connection;
   }
 
+  /**
+   * @param dropInvalidCrcFrames Whether DATA frames failing their CRC are dropped, rather than
+   * forwarded like any other
+   */
   public static ReactorCd11FrameHandler create(String stationName,
     DataFrameReceiverConfiguration receiverConfig, Many<RawStationDataFrame> rsdfSink,
-    Many<MalformedFrame> malformedFrameSink) {
+    Many<MalformedFrame> malformedFrameSink, boolean dropInvalidCrcFrames) {
 
     // create the frame factory
     Cd11FrameFactory cd11FrameFactory = Cd11FrameFactory.createDefault();
     Cd11GapList gapList = Cd11GapListUtility.loadGapState(stationName);
     return new ReactorCd11FrameHandler(stationName, receiverConfig, cd11FrameFactory,
-      rsdfSink, malformedFrameSink, gapList);
+      rsdfSink, malformedFrameSink, gapList, dropInvalidCrcFrames);
   }
 
   /**
@@ -117,10 +140,14 @@ public class ReactorCd11FrameHandler implements
   @Override
   public Mono<Void> apply(NettyInbound inbound, NettyOutbound outbound) {
     dataDisposables = Disposables.composite();
+    // Resolve the station's known channels against the station definition current as of this
+    // connection, before its first frame arrives
+    channelNames.refresh();
 
     getGapExpiration()
       .ifPresent(duration -> dataDisposables.add(removeExpiredGapsPeriodically(duration)));
     dataDisposables.add(persistGapsPeriodically(STORE_GAP_STATE_INTERVAL));
+    dataDisposables.add(flushGapsPeriodically(FLUSH_GAP_JOURNAL_INTERVAL));
 
     Empty<Void> completionSink = Sinks.empty();
 
@@ -129,8 +156,11 @@ public class ReactorCd11FrameHandler implements
     dataDisposables.add(sendAcknackPeriodically(cd11Connection));
     Cd11FluxHandler fluxHandler = assembleCompositeFluxHandler(cd11Connection);
 
-    cd11Connection.receive()
-      .timeout(HEARTBEAT_DURATION, handleTimeout())
+    // DATA frames are read in place, through a view of the received buffer; any other frame, or a
+    // DATA frame that cannot be read that way, is decoded
+    cd11Connection.parse(cd11Connection.receiveFrames()
+        .timeout(HEARTBEAT_DURATION, handleTimeout())
+        .filter(frame -> !handleDataInPlace(frame)))
       .groupBy(Cd11OrMalformedFrame::getKind)
       .map(gf ->
         Cd11OrMalformedFrame.Kind.CD11.equals(gf.key())
@@ -151,6 +181,7 @@ public class ReactorCd11FrameHandler implements
   <T> Mono<T> dispose() {
     return Mono.fromRunnable(() -> {
       dataDisposables.dispose();
+      tryFlush();
       getCd11Connection().ifPresent(Cd11Connection::close);
     });
   }
@@ -169,7 +200,8 @@ public class ReactorCd11FrameHandler implements
 
     return acknackFlux
       .map(frameFactory::wrap)
-      .flatMap(connection::send)
+      .flatMap(acknack -> connection.send(acknack)
+        .doOnSuccess(sent -> metrics.recordAcknackSent(System.currentTimeMillis())))
       .subscribe();
   }
 
@@ -200,10 +232,11 @@ public class ReactorCd11FrameHandler implements
   }
 
   /**
-   * Public shutdown method for resource cleanup from higher-level shutdown calls.
+   * Public shutdown method for resource cleanup from higher-level shutdown calls. The station's gap
+   * journal is closed once the connection is disposed.
    */
   public void shutdown() {
-    alert().then(dispose()).subscribe();
+    alert().then(dispose()).doFinally(signal -> tryClose()).subscribe();
   }
 
   private Disposable handleReset(Flux<Cd11Frame> resets) {
@@ -214,10 +247,7 @@ public class ReactorCd11FrameHandler implements
   }
 
   private <T> Mono<T> reset() {
-    return Mono.fromRunnable(() -> {
-      Cd11GapListUtility.clearGapState(stationName);
-      cd11GapList.resetGapsList();
-    });
+    return Mono.fromRunnable(cd11GapList::resetGapsList);
   }
 
   Disposable handleAlert(Flux<Cd11Frame> alerts) {
@@ -228,6 +258,7 @@ public class ReactorCd11FrameHandler implements
   }
 
   void handleAcknack(Cd11Frame acknack) {
+    metrics.recordAcknackReceived();
     Cd11Acknack casted = asPayloadType(acknack.getPayload(), FrameType.ACKNACK);
     //set framesetAcked in frame factory
     frameSet.compareAndSet(DEFAULT_FRAME_SET, casted.getFrameSetAcked());
@@ -259,11 +290,63 @@ public class ReactorCd11FrameHandler implements
   }
 
   void handleData(Cd11Frame dataFrame) {
-    logger.info("Received DATA frame");
-    cd11GapList.processSequenceNumber(dataFrame.getHeader().getSequenceNumber());
-    final RawStationDataFrame rsdf = Cd11RawStationDataFrameUtility
-      .parseAcquiredDataFrame(dataFrame, stationName, Instant.now(),
-        receiverConfig::getChannelName);
+    // A frame failing its CRC is counted, so a corrupting link shows up in the metrics, and is
+    // forwarded re-encoded from the parsed frame unless configured to be dropped. A dropped frame is
+    // not recorded in the gap list, leaving it to be requested again as a gap.
+    if (dataFrame.hasInvalidCrc()) {
+      metrics.recordCrcFailure();
+      if (dropInvalidCrcFrames) {
+        logger.warn("Dropped DATA frame {} with invalid CRC",
+          dataFrame.getHeader().getSequenceNumber());
+        return;
+      }
+      logger.warn("Received DATA frame {} with invalid CRC",
+        dataFrame.getHeader().getSequenceNumber());
+    }
+
+    final RawStationDataFrame rsdf;
+    final Instant receptionTime = Instant.now();
+    try {
+      cd11GapList.processSequenceNumber(dataFrame.getHeader().getSequenceNumber());
+      rsdf = Cd11RawStationDataFrameUtility
+        .parseAcquiredDataFrame(dataFrame, stationName, receptionTime, channelNames);
+    } finally {
+      dataFrame.releaseWireBytes();
+    }
+    publish(rsdf, receptionTime);
+  }
+
+  /**
+   * Handles a received DATA frame with a valid CRC in place, reading it through a view of the
+   * received buffer rather than decoding it, so that no channel subframe is copied out of the
+   * buffer. Any other frame, including a DATA frame the view cannot read, is left to be decoded.
+   *
+   * @param frame Buffer whose readable bytes hold exactly one received frame
+   * @return true if the frame was handled
+   */
+  boolean handleDataInPlace(ByteBuf frame) {
+    if (!Cd11DataFrameView.isDataFrame(frame) || !FrameUtilities.isValidCRC(frame)) {
+      return false;
+    }
+
+    final Instant receptionTime = Instant.now();
+    final RawStationDataFrame rsdf;
+    try {
+      rsdf = Cd11RawStationDataFrameUtility.parseAcquiredDataFrame(dataFrameView.wrap(frame),
+        stationName, receptionTime, channelNames);
+    } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeException e) {
+      logger.debug("Decoding DATA frame that could not be read in place", e);
+      return false;
+    }
+
+    cd11GapList.processSequenceNumber(dataFrameView.getSequenceNumber());
+    publish(rsdf, receptionTime);
+    return true;
+  }
+
+  private void publish(RawStationDataFrame rsdf, Instant receptionTime) {
+    metrics.recordDataFrame(rsdf.getRawPayload().length, receptionTime.toEpochMilli()
+      - rsdf.getMetadata().getPayloadStartTime().toEpochMilli());
 
     EmitResult result = rsdfSink.tryEmitNext(rsdf);
     if (result.isSuccess()) {
@@ -275,6 +358,7 @@ public class ReactorCd11FrameHandler implements
 
   void handleMalformed(MalformedFrame malformed) {
     logger.warn("Received Malformed Frame", malformed.getCause());
+    metrics.recordMalformedFrame();
 
     if (malformed.getStation().isEmpty()) {
       malformed = malformed.toBuilder().setStation(stationName).build();
@@ -304,9 +388,29 @@ public class ReactorCd11FrameHandler implements
     return Flux.interval(persistPeriod, persistPeriod).subscribe(i -> tryPersist());
   }
 
+  private Disposable flushGapsPeriodically(Duration flushPeriod) {
+    return Flux.interval(flushPeriod, flushPeriod).subscribe(i -> tryFlush());
+  }
+
+  void tryFlush() {
+    try {
+      cd11GapList.flushJournal();
+    } catch (IOException e) {
+      logger.warn("Could not flush gap journal for station {}", stationName, e);
+    }
+  }
+
+  void tryClose() {
+    try {
+      cd11GapList.closeJournal();
+    } catch (IOException e) {
+      logger.warn("Could not close gap journal for station {}", stationName, e);
+    }
+  }
+
   void tryPersist() {
     try {
-      Cd11GapListUtility.persistGapState(stationName, cd11GapList.getGapList());
+      cd11GapList.compactJournal();
     } catch (IOException e) {
       logger.warn("Could not persist gaps for station {}", stationName, e);
     }
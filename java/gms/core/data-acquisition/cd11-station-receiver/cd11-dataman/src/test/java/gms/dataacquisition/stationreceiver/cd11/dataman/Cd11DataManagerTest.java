@@ -14,9 +14,11 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.time.Duration;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.RecordMetadata;
@@ -100,6 +102,26 @@ class Cd11DataManagerTest {
 
   }
 
+  @Test
+  void testSplitBySize() throws IOException {
+    var rsdf = objectMapper.readValue(
+      Files.readAllBytes(Paths.get("src", "test", "resources", RSDF_RESOURCE)),
+      RawStationDataFrame.class);
+    int payloadBytes = rsdf.getRawPayload().length;
+    var batch = List.of(rsdf, rsdf, rsdf, rsdf, rsdf);
+
+    var batches = Cd11DataManager.splitBySize(batch, 2L * payloadBytes + 1);
+    Assertions.assertEquals(List.of(2, 2, 1),
+      batches.stream().map(List::size).collect(Collectors.toList()));
+
+    // Frames too large for any batch are published alone rather than dropped
+    batches = Cd11DataManager.splitBySize(batch, payloadBytes - 1L);
+    Assertions.assertEquals(5, batches.size());
+    Assertions.assertTrue(batches.stream().allMatch(split -> split.size() == 1));
+
+    Assertions.assertEquals(List.of(batch), Cd11DataManager.splitBySize(batch, Long.MAX_VALUE));
+  }
+
   private static class MockKafkaSender<U> implements KafkaSender<String, U> {
 
     private CountDownLatch countDownLatch;
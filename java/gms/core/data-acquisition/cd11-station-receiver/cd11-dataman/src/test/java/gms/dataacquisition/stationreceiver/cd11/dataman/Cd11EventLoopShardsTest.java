@@ -0,0 +1,80 @@
+package gms.dataacquisition.stationreceiver.cd11.dataman;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import org.junit.jupiter.api.Test;
+
+class Cd11EventLoopShardsTest {
+
+  @Test
+  void testStationsArePinnedByStableHash() {
+    Cd11EventLoopShards shards = Cd11EventLoopShards.create(4);
+    try {
+      Cd11EventLoopShard shard = shards.assign("LBTB");
+      assertEquals(Math.floorMod("LBTB".hashCode(), 4), shard.getIndex());
+      assertSame(shard, shards.assign("LBTB"));
+      // The known hash of the name, so the assignment cannot change between JVMs
+      assertEquals(2330212, "LBTB".hashCode());
+      assertEquals(0, Cd11EventLoopShards.shardIndex("LBTB", 4));
+    } finally {
+      shards.dispose();
+    }
+  }
+
+  @Test
+  void testZeroShardsIsOnePerProcessor() {
+    Cd11EventLoopShards shards = Cd11EventLoopShards.create(0);
+    try {
+      assertEquals(Runtime.getRuntime().availableProcessors(), shards.size());
+    } finally {
+      shards.dispose();
+    }
+  }
+
+  @Test
+  void testNegativeShardsThrows() {
+    assertThrows(IllegalArgumentException.class, () -> Cd11EventLoopShards.create(-1));
+  }
+
+  @Test
+  void testShardStatistics() throws JMException {
+    Cd11EventLoopShards shards = Cd11EventLoopShards.create(1);
+    try {
+      Cd11EventLoopShard shard = shards.assign("STA1");
+      shards.assign("STA2");
+      shard.connectionOpened();
+      shard.connectionOpened();
+      shard.connectionClosed();
+
+      assertArrayEquals(new String[]{"STA1", "STA2"}, shard.getStations());
+      assertEquals(1, shard.getActiveConnections());
+      assertEquals(2, shard.getConnectionsAccepted());
+      assertEquals(0, shard.getPendingTasks());
+
+      ObjectName name = new ObjectName(Cd11EventLoopShards.OBJECT_NAME_PREFIX + "0");
+      assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+      assertEquals(2, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "StationCount"));
+    } finally {
+      shards.dispose();
+    }
+  }
+
+  @Test
+  void testDisposeUnregistersShardStatistics() throws JMException {
+    Cd11EventLoopShards shards = Cd11EventLoopShards.create(2);
+    shards.dispose();
+
+    for (int i = 0; i < 2; i++) {
+      ObjectName name = new ObjectName(Cd11EventLoopShards.OBJECT_NAME_PREFIX + i);
+      assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package gms.dataacquisition.stationreceiver.cd11.dataman;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import org.junit.jupiter.api.Test;
+
+class Cd11StationMetricsTest {
+
+  @Test
+  void testRecordDataFrames() {
+    Cd11StationMetrics metrics = new Cd11StationMetrics(() -> 3, millis -> 0);
+    metrics.recordDataFrame(100, 10);
+    metrics.recordDataFrame(200, 1000);
+    metrics.recordDataFrame(300, -5);
+
+    assertEquals(3, metrics.getFramesReceived());
+    assertEquals(600, metrics.getBytesReceived());
+    assertEquals(1000, metrics.getLatencyMillisMax());
+    // Percentiles are reported to within a factor of two
+    assertEquals(15, metrics.getLatencyMillisP50());
+    assertEquals(1000, metrics.getLatencyMillisP99());
+    assertEquals(3, metrics.getGapCount());
+  }
+
+  @Test
+  void testAcknackCadence() {
+    Cd11StationMetrics metrics = new Cd11StationMetrics(() -> 0, millis -> 60_000 - millis);
+    assertEquals(-1, metrics.getMillisSinceLastAcknack());
+
+    metrics.recordAcknackSent(1_000);
+    assertEquals(0, metrics.getLastAcknackIntervalMillis());
+    metrics.recordAcknackSent(56_000);
+    metrics.recordAcknackReceived();
+
+    assertEquals(2, metrics.getAcknacksSent());
+    assertEquals(1, metrics.getAcknacksReceived());
+    assertEquals(55_000, metrics.getLastAcknackIntervalMillis());
+    assertEquals(4_000, metrics.getMillisSinceLastAcknack());
+  }
+
+  @Test
+  void testCreateRegistersMBean() throws JMException {
+    Cd11StationMetrics metrics = Cd11StationMetrics.create("TEST", () -> 0);
+    metrics.recordCrcFailure();
+    metrics.recordMalformedFrame();
+
+    ObjectName name = new ObjectName(Cd11StationMetrics.OBJECT_NAME_PREFIX + "TEST");
+    assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "CrcFailures"));
+
+    // Recreating the metrics of a station replaces those registered
+    Cd11StationMetrics.create("TEST", () -> 0);
+    assertEquals(0L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "CrcFailures"));
+  }
+}
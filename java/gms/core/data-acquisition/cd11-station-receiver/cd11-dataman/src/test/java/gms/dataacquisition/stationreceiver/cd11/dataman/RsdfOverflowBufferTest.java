@@ -0,0 +1,263 @@
+package gms.dataacquisition.stationreceiver.cd11.dataman;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import gms.shared.frameworks.osd.coi.waveforms.RawStationDataFrame;
+import gms.shared.frameworks.osd.coi.waveforms.RawStationDataFrame.AuthenticationStatus;
+import gms.shared.frameworks.osd.coi.waveforms.RawStationDataFrameMetadata;
+import gms.shared.frameworks.osd.coi.waveforms.RawStationDataFramePayloadFormat;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+class RsdfOverflowBufferTest {
+
+  private static final long SEGMENT_SIZE = 1024L * 1024;
+
+  @TempDir
+  Path directory;
+
+  private static List<RawStationDataFrame> batch(int size) {
+    return IntStream.range(0, size)
+        .mapToObj(i -> RawStationDataFrame.builder()
+            .setId(UUID.randomUUID())
+            .setMetadata(RawStationDataFrameMetadata.builder()
+                .setStationName("STA")
+                .setChannelNames(List.of("STA.STA.BHZ"))
+                .setPayloadFormat(RawStationDataFramePayloadFormat.CD11)
+                .setAuthenticationStatus(AuthenticationStatus.NOT_YET_AUTHENTICATED)
+                .setPayloadStartTime(Instant.EPOCH.plusSeconds(i))
+                .setPayloadEndTime(Instant.EPOCH.plusSeconds(i + 1L))
+                .setReceptionTime(Instant.EPOCH.plusSeconds(i + 2L))
+                .setWaveformSummaries(Map.of())
+                .build())
+            .setRawPayload(new byte[]{(byte) i, 1, 2, 3})
+            .build())
+        .collect(Collectors.toList());
+  }
+
+  private List<Path> segments() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.filter(path -> path.toString().endsWith(RsdfOverflowBuffer.SEGMENT_EXTENSION))
+          .collect(Collectors.toList());
+    }
+  }
+
+  @Test
+  void testBuffersInMemoryWithinCapacity() throws IOException {
+    RsdfOverflowBuffer buffer = RsdfOverflowBuffer.open(directory, 10, SEGMENT_SIZE);
+    List<List<RawStationDataFrame>> batches = List.of(batch(3), batch(3), batch(3));
+    Sinks.Many<List<RawStationDataFrame>> source = Sinks.many().unicast().onBackpressureBuffer();
+
+    StepVerifier.create(buffer.buffer(source.asFlux()), 0)
+        .then(() -> batches.forEach(source::tryEmitNext))
+        .then(() -> {
+          assertEquals(9, buffer.getDepth());
+          assertEquals(0, buffer.getSpilledDepth());
+        })
+        .thenRequest(3)
+        .expectNextSequence(batches)
+        .then(source::tryEmitComplete)
+        .verifyComplete();
+
+    assertEquals(0, buffer.getDepth());
+    assertTrue(segments().isEmpty());
+  }
+
+  @Test
+  void testSpillsAndDrainsInOrder() throws IOException {
+    RsdfOverflowBuffer buffer = RsdfOverflowBuffer.open(directory, 4, SEGMENT_SIZE);
+    List<List<RawStationDataFrame>> batches = List.of(batch(2), batch(2), batch(1), batch(3),
+        batch(1));
+    Sinks.Many<List<RawStationDataFrame>> source = Sinks.many().unicast().onBackpressureBuffer();
+
+    StepVerifier.create(buffer.buffer(source.asFlux()), 0)
+        .then(() -> batches.forEach(source::tryEmitNext))
+        .then(() -> {
+          // The third batch exceeds the capacity, so it and every later batch are spilled
+          assertEquals(9, buffer.getDepth());
+          assertEquals(5, buffer.getSpilledDepth());
+        })
+        .thenRequest(3)
+        .expectNextSequence(batches.subList(0, 3))
+        .then(() -> source.tryEmitNext(batches.get(0)))
+        .then(() -> assertEquals(6, buffer.getSpilledDepth()))
+        .thenRequest(3)
+        .expectNext(batches.get(3), batches.get(4), batches.get(0))
+        .then(() -> {
+          assertEquals(0, buffer.getDepth());
+          assertTrue(assertDoesNotThrowIo(this::segments).isEmpty());
+        })
+        .then(() -> source.tryEmitNext(batches.get(1)))
+        .then(() -> assertEquals(0, buffer.getSpilledDepth()))
+        .thenRequest(1)
+        .expectNext(batches.get(1))
+        .thenCancel()
+        .verify();
+  }
+
+  @Test
+  void testRollsAndDeletesSegments() throws IOException {
+    RsdfOverflowBuffer buffer = RsdfOverflowBuffer.open(directory, 1, 1);
+    List<List<RawStationDataFrame>> batches = List.of(batch(2), batch(2), batch(2));
+    Sinks.Many<List<RawStationDataFrame>> source = Sinks.many().unicast().onBackpressureBuffer();
+
+    StepVerifier.create(buffer.buffer(source.asFlux()), 0)
+        .then(() -> batches.forEach(source::tryEmitNext))
+        .then(() -> assertEquals(3, assertDoesNotThrowIo(this::segments).size()))
+        .thenRequest(1)
+        .expectNext(batches.get(0))
+        .thenRequest(1)
+        .expectNext(batches.get(1))
+        // A segment is deleted once reading moves past its end
+        .then(() -> assertEquals(2, assertDoesNotThrowIo(this::segments).size()))
+        .thenRequest(1)
+        .expectNext(batches.get(2))
+        .then(() -> assertTrue(assertDoesNotThrowIo(this::segments).isEmpty()))
+        .thenCancel()
+        .verify();
+  }
+
+  @Test
+  void testKeepsUnpublishedBatchesForNextBuffer() throws IOException {
+    List<List<RawStationDataFrame>> batches = List.of(batch(2), batch(2), batch(2), batch(2),
+        batch(2));
+    Sinks.Many<List<RawStationDataFrame>> source = Sinks.many().unicast().onBackpressureBuffer();
+
+    // Two batches in memory, three on disk of which one is published before completion
+    RsdfOverflowBuffer buffer = RsdfOverflowBuffer.open(directory, 4, SEGMENT_SIZE);
+    StepVerifier.create(buffer.buffer(source.asFlux()), 0)
+        .then(() -> batches.forEach(source::tryEmitNext))
+        .thenRequest(3)
+        .expectNextSequence(batches.subList(0, 3))
+        .then(() -> source.tryEmitNext(batches.get(0)))
+        .then(source::tryEmitComplete)
+        .verifyComplete();
+    assertTrue(Files.exists(directory.resolve(RsdfOverflowBuffer.CHECKPOINT_FILE)));
+
+    RsdfOverflowBuffer restored = RsdfOverflowBuffer.open(directory, 4, SEGMENT_SIZE);
+    assertEquals(6, restored.getDepth());
+    StepVerifier.create(restored.buffer(Flux.never()))
+        .expectNext(batches.get(3), batches.get(4), batches.get(0))
+        .thenCancel()
+        .verify();
+    assertFalse(Files.exists(directory.resolve(RsdfOverflowBuffer.CHECKPOINT_FILE)));
+    assertTrue(segments().isEmpty());
+  }
+
+  @Test
+  void testKeepsMemoryBatchesAheadOfSpilledBatches() throws IOException {
+    List<List<RawStationDataFrame>> batches = List.of(batch(3), batch(3), batch(3));
+    Sinks.Many<List<RawStationDataFrame>> source = Sinks.many().unicast().onBackpressureBuffer();
+
+    RsdfOverflowBuffer buffer = RsdfOverflowBuffer.open(directory, 4, SEGMENT_SIZE);
+    StepVerifier.create(buffer.buffer(source.asFlux()), 0)
+        .then(() -> batches.forEach(source::tryEmitNext))
+        .then(() -> assertEquals(6, buffer.getSpilledDepth()))
+        .then(source::tryEmitComplete)
+        .verifyComplete();
+
+    StepVerifier.create(RsdfOverflowBuffer.open(directory, 4, SEGMENT_SIZE)
+        .buffer(Flux.never()))
+        .expectNextSequence(batches)
+        .thenCancel()
+        .verify();
+  }
+
+  @Test
+  void testKeepsBatchThatFailedToSpillBehindSpilledBatches() throws IOException {
+    RsdfOverflowBuffer buffer = RsdfOverflowBuffer.open(directory, 2, 1);
+    List<List<RawStationDataFrame>> batches = List.of(batch(2), batch(2), batch(2), batch(1));
+    Sinks.Many<List<RawStationDataFrame>> source = Sinks.many().unicast().onBackpressureBuffer();
+
+    StepVerifier.create(buffer.buffer(source.asFlux()), 0)
+        .then(() -> source.tryEmitNext(batches.get(0)))
+        .then(() -> source.tryEmitNext(batches.get(1)))
+        // The next segment cannot be opened, so the third batch fails to spill
+        .then(() -> assertDoesNotThrowIo(() -> Files.createDirectory(
+            directory.resolve(RsdfOverflowBuffer.SEGMENT_PREFIX + 1
+                + RsdfOverflowBuffer.SEGMENT_EXTENSION))))
+        .then(() -> source.tryEmitNext(batches.get(2)))
+        .then(() -> source.tryEmitNext(batches.get(3)))
+        .then(() -> {
+          assertEquals(7, buffer.getDepth());
+          assertEquals(2, buffer.getSpilledDepth());
+        })
+        .thenRequest(4)
+        .expectNextSequence(batches)
+        .then(() -> assertEquals(0, buffer.getDepth()))
+        .thenCancel()
+        .verify();
+  }
+
+  @Test
+  void testKeepsBatchesAddedAfterCloseForNextBuffer() throws IOException {
+    List<List<RawStationDataFrame>> batches = List.of(batch(2), batch(3));
+    Sinks.Many<List<RawStationDataFrame>> source = Sinks.many().unicast().onBackpressureBuffer();
+
+    RsdfOverflowBuffer buffer = RsdfOverflowBuffer.open(directory, 4, SEGMENT_SIZE);
+    StepVerifier.create(buffer.buffer(source.asFlux()), 0)
+        .then(() -> source.tryEmitNext(batches.get(0)))
+        .then(buffer::close)
+        .then(() -> source.tryEmitNext(batches.get(1)))
+        .thenCancel()
+        .verify();
+
+    RsdfOverflowBuffer restored = RsdfOverflowBuffer.open(directory, 4, SEGMENT_SIZE);
+    assertEquals(5, restored.getDepth());
+    StepVerifier.create(restored.buffer(Flux.never()))
+        .expectNextSequence(batches)
+        .thenCancel()
+        .verify();
+  }
+
+  @Test
+  void testIncompleteBatchIsDiscarded() throws IOException {
+    List<List<RawStationDataFrame>> batches = List.of(batch(1), batch(1));
+    Sinks.Many<List<RawStationDataFrame>> source = Sinks.many().unicast().onBackpressureBuffer();
+
+    RsdfOverflowBuffer buffer = RsdfOverflowBuffer.open(directory, 1, SEGMENT_SIZE);
+    StepVerifier.create(buffer.buffer(source.asFlux()), 0)
+        .then(() -> batches.forEach(source::tryEmitNext))
+        .then(source::tryEmitComplete)
+        .verifyComplete();
+
+    Path segment = segments().get(0);
+    Files.write(segment, new byte[]{0, 0, 1}, StandardOpenOption.APPEND);
+
+    RsdfOverflowBuffer restored = RsdfOverflowBuffer.open(directory, 1, SEGMENT_SIZE);
+    assertEquals(2, restored.getDepth());
+    StepVerifier.create(restored.buffer(Flux.never()))
+        .expectNextSequence(batches)
+        .thenCancel()
+        .verify();
+  }
+
+  private interface IoSupplier<T> {
+
+    T get() throws IOException;
+  }
+
+  private static <T> T assertDoesNotThrowIo(IoSupplier<T> supplier) {
+    try {
+      return supplier.get();
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+  }
+}
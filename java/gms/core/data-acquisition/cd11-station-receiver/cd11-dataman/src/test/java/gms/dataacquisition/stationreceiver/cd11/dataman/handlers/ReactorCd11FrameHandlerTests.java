@@ -2,7 +2,10 @@ package gms.dataacquisition.stationreceiver.cd11.dataman.handlers;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.willReturn;
@@ -22,7 +25,6 @@ import gms.dataacquisition.stationreceiver.cd11.common.Cd11GapList;
 import gms.dataacquisition.stationreceiver.cd11.common.Cd11OrMalformedFrame;
 import gms.dataacquisition.stationreceiver.cd11.common.Cd11OrMalformedFrame.Kind;
 import gms.dataacquisition.stationreceiver.cd11.common.FrameUtilities;
-import gms.dataacquisition.stationreceiver.cd11.common.GapList;
 import gms.dataacquisition.stationreceiver.cd11.common.enums.FrameType;
 import gms.dataacquisition.stationreceiver.cd11.common.frames.Cd11Acknack;
 import gms.dataacquisition.stationreceiver.cd11.common.frames.Cd11Alert;
@@ -37,19 +39,23 @@ import gms.dataacquisition.stationreceiver.cd11.common.reactor.netty.Cd11Connect
 import gms.dataacquisition.stationreceiver.cd11.dataman.Cd11GapListUtility;
 import gms.shared.frameworks.osd.coi.datatransferobjects.CoiObjectMapperFactory;
 import gms.shared.frameworks.osd.coi.waveforms.RawStationDataFrame;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Arrays;
 import java.util.Optional;
 import java.util.stream.Stream;
-import mockit.MockUp;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -75,6 +81,9 @@ class ReactorCd11FrameHandlerTests {
 
   Cd11GapList gapList;
 
+  @TempDir
+  Path gapDirectory;
+
   @Mock
   DataFrameReceiverConfiguration receiverConfiguration;
 
@@ -103,11 +112,11 @@ class ReactorCd11FrameHandlerTests {
   void setUp() {
     rsdfSink = Sinks.many().unicast().onBackpressureError();
     malformedFrameSink = Sinks.many().unicast().onBackpressureError();
-    gapList = spy(new Cd11GapList());
+    gapList = spy(Cd11GapListUtility.loadGapState(gapDirectory, RSDF_STATION_NAME));
     testPublisher = TestPublisher.create();
 
     handler = spy(new ReactorCd11FrameHandler(RSDF_STATION_NAME, receiverConfiguration,
-        frameFactory, rsdfSink, malformedFrameSink, gapList));
+        frameFactory, rsdfSink, malformedFrameSink, gapList, false));
   }
 
   @Test
@@ -124,6 +133,7 @@ class ReactorCd11FrameHandlerTests {
 
     assertEquals(acknack.getFrameSetAcked(), handler.getFrameSet());
     verify(gapList).checkForReset(any());
+    assertEquals(1, handler.getMetrics().getAcknacksReceived());
   }
 
   @Test
@@ -203,6 +213,99 @@ class ReactorCd11FrameHandlerTests {
         .verifyComplete();
 
     verify(gapList).processSequenceNumber(cd11Frame.getHeader().getSequenceNumber());
+    assertEquals(1, handler.getMetrics().getFramesReceived());
+    assertEquals(inputRsdf.getRawPayload().length, handler.getMetrics().getBytesReceived());
+    assertEquals(0, handler.getMetrics().getCrcFailures());
+  }
+
+  @Test
+  void testHandleDataInPlace() throws IOException {
+    RawStationDataFrame inputRsdf = getRawStationDataFrame();
+    inputRsdf.getMetadata().getChannelNames().forEach(channel ->
+        willReturn(Optional.of(channel)).given(receiverConfiguration).getChannelName(channel));
+    ByteBuf frame = Unpooled.wrappedBuffer(inputRsdf.getRawPayload());
+    long sequenceNumber = Cd11FrameReader.readFrame(ByteBuffer.wrap(inputRsdf.getRawPayload()))
+        .cd11().getHeader().getSequenceNumber();
+
+    StepVerifier.create(rsdfSink.asFlux())
+        .then(() -> assertTrue(handler.handleDataInPlace(frame)))
+        .then(rsdfSink::tryEmitComplete)
+        .expectNextMatches(rsdf -> rsdf.hasSameStateAndRawPayload(
+            inputRsdf.toBuilder()
+                .setMetadata(inputRsdf.getMetadata().toBuilder()
+                    .setReceptionTime(rsdf.getMetadata().getReceptionTime())
+                    .build())
+                .build()))
+        .verifyComplete();
+
+    verify(gapList).processSequenceNumber(sequenceNumber);
+    assertEquals(1, handler.getMetrics().getFramesReceived());
+    assertEquals(0, frame.readerIndex());
+  }
+
+  @Test
+  void testHandleDataInPlaceLeavesOtherFramesToBeDecoded() throws IOException {
+    byte[] frameBytes = getRawStationDataFrame().getRawPayload();
+    frameBytes[frameBytes.length - 1] ^= 1;
+    ByteBuf alert = Unpooled.wrappedBuffer(frameFactory.wrap(Cd11Alert.create("alert")).toBytes());
+
+    assertFalse(handler.handleDataInPlace(Unpooled.wrappedBuffer(frameBytes)));
+    assertFalse(handler.handleDataInPlace(alert));
+    verify(gapList, never()).processSequenceNumber(anyLong());
+    assertEquals(0, handler.getMetrics().getFramesReceived());
+  }
+
+  @Test
+  void testHandleDataFrameForwardsWireBytes() throws IOException {
+    RawStationDataFrame inputRsdf = getRawStationDataFrame();
+    ByteBuf wireBytes = Unpooled.wrappedBuffer(inputRsdf.getRawPayload());
+    Cd11Frame cd11Frame = Cd11FrameReader.readFrame(wireBytes).cd11();
+    wireBytes.release();
+
+    StepVerifier.create(rsdfSink.asFlux())
+        .then(() -> handler.handleData(cd11Frame))
+        .then(rsdfSink::tryEmitComplete)
+        .expectNextMatches(rsdf -> Arrays.equals(inputRsdf.getRawPayload(), rsdf.getRawPayload()))
+        .verifyComplete();
+
+    // The frame's slice of the received bytes is released once they are forwarded
+    assertEquals(0, wireBytes.refCnt());
+  }
+
+  @Test
+  void testHandleDataFrameWithInvalidCrcForwarded() throws IOException {
+    byte[] frameBytes = getRawStationDataFrame().getRawPayload();
+    frameBytes[frameBytes.length - 1] ^= 1;
+    Cd11Frame cd11Frame = Cd11FrameReader.readFrame(Unpooled.wrappedBuffer(frameBytes)).cd11();
+
+    // Without wire bytes, the payload is re-encoded from the parsed frame
+    StepVerifier.create(rsdfSink.asFlux())
+        .then(() -> handler.handleData(cd11Frame))
+        .then(rsdfSink::tryEmitComplete)
+        .expectNextMatches(rsdf -> Arrays.equals(frameBytes, rsdf.getRawPayload()))
+        .verifyComplete();
+
+    verify(gapList).processSequenceNumber(cd11Frame.getHeader().getSequenceNumber());
+    assertEquals(1, handler.getMetrics().getFramesReceived());
+    assertEquals(1, handler.getMetrics().getCrcFailures());
+  }
+
+  @Test
+  void testHandleDataFrameWithInvalidCrcDroppedWhenConfigured() throws IOException {
+    byte[] frameBytes = getRawStationDataFrame().getRawPayload();
+    frameBytes[frameBytes.length - 1] ^= 1;
+    Cd11Frame cd11Frame = Cd11FrameReader.readFrame(Unpooled.wrappedBuffer(frameBytes)).cd11();
+    handler = new ReactorCd11FrameHandler(RSDF_STATION_NAME, receiverConfiguration, frameFactory,
+        rsdfSink, malformedFrameSink, gapList, true);
+
+    StepVerifier.create(rsdfSink.asFlux())
+        .then(() -> handler.handleData(cd11Frame))
+        .then(rsdfSink::tryEmitComplete)
+        .verifyComplete();
+
+    verify(gapList, never()).processSequenceNumber(anyLong());
+    assertEquals(0, handler.getMetrics().getFramesReceived());
+    assertEquals(1, handler.getMetrics().getCrcFailures());
   }
 
   private RawStationDataFrame getRawStationDataFrame() throws IOException {
@@ -282,12 +385,6 @@ class ReactorCd11FrameHandlerTests {
   @MethodSource("customResetBytesSource")
   void testHandleCustomResetFrame(byte[][] resetFrameBytes) {
 
-    new MockUp<Cd11GapListUtility>() {
-      @mockit.Mock
-      public void clearGapState(String stationName) {
-      }
-    };
-
     given(inbound.withConnection(any())).willReturn(inbound);
     given(inbound.receive()).willReturn(ByteBufFlux.fromInbound(testPublisher));
 
@@ -349,13 +446,7 @@ class ReactorCd11FrameHandlerTests {
   }
 
   @Test
-  void testPersistGapsPeriodically() {
-    new MockUp<Cd11GapListUtility>() {
-      @mockit.Mock
-      public void persistGapState(String stationName, GapList gapList) {
-      }
-    };
-
+  void testPersistGapsPeriodically() throws IOException {
     final Cd11Frame cd11AcknackFrame = frameFactory
         .wrap(Cd11Acknack.builder()
             .setFrameSetAcked("TEST:0")
@@ -382,10 +473,12 @@ class ReactorCd11FrameHandlerTests {
         .verifyComplete();
 
     verify(handler, times(2)).tryPersist();
+    verify(gapList, atLeastOnce()).flushJournal();
+    verify(gapList).closeJournal();
   }
 
   @Test
-  void testHeartbeatTimeout() {
+  void testHeartbeatTimeout() throws IOException {
     //Mock no inbound data
     given(inbound.withConnection(any())).willReturn(inbound);
     given(inbound.receive()).willReturn(ByteBufFlux.fromInbound(Flux.never()));
@@ -397,6 +490,10 @@ class ReactorCd11FrameHandlerTests {
         .thenAwait(ReactorCd11FrameHandler.HEARTBEAT_DURATION.plusSeconds(1))
         .expectComplete()
         .verify(Duration.ofSeconds(1));
+
+    // The connection is torn down, but the station's journal stays open for its next connection
+    verify(handler, atLeastOnce()).tryFlush();
+    verify(gapList, never()).closeJournal();
   }
 
   private static ArgumentMatcher<Cd11Frame> isType(FrameType type) {
@@ -7,7 +7,9 @@ import gms.dataacquisition.stationreceiver.cd11.common.FrameUtilities;
 import gms.dataacquisition.stationreceiver.cd11.common.enums.FrameType;
 import gms.dataacquisition.stationreceiver.cd11.common.frames.Cd11ChannelSubframe;
 import gms.dataacquisition.stationreceiver.cd11.common.frames.Cd11ChannelSubframeHeader;
+import gms.dataacquisition.stationreceiver.cd11.common.frames.Cd11ChannelTable;
 import gms.dataacquisition.stationreceiver.cd11.common.frames.Cd11Data;
+import gms.dataacquisition.stationreceiver.cd11.common.frames.Cd11DataFrameView;
 import gms.dataacquisition.stationreceiver.cd11.common.frames.Cd11Frame;
 import gms.shared.frameworks.osd.coi.waveforms.RawStationDataFrame;
 import gms.shared.frameworks.osd.coi.waveforms.RawStationDataFrame.AuthenticationStatus;
@@ -15,6 +17,7 @@ import gms.shared.frameworks.osd.coi.waveforms.RawStationDataFrameMetadata;
 import gms.shared.frameworks.osd.coi.waveforms.RawStationDataFramePayloadFormat;
 import gms.shared.frameworks.osd.coi.waveforms.WaveformSummary;
 import gms.shared.utilities.logging.StructuredLoggingWrapper;
+import java.nio.ByteBuffer;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
@@ -34,7 +37,9 @@ public class Cd11RawStationDataFrameUtility {
   }
 
   /**
-   * Parses frame metadata and wraps acquired Cd11Data as a COI RawStationDataFrame
+   * Parses frame metadata and wraps acquired Cd11Data as a COI RawStationDataFrame. Frames read off
+   * the wire with a valid CRC carry their original bytes as the payload; other frames are
+   * re-encoded.
    *
    * @param cd11DataFrame Input {@link Cd11Frame} to parse
    * @param stationIdentifier Identifier for the station. This info is not immediately available
@@ -46,52 +51,121 @@ public class Cd11RawStationDataFrameUtility {
   public static RawStationDataFrame parseAcquiredDataFrame(Cd11Frame cd11DataFrame,
       String stationIdentifier, Instant receptionTime,
       Function<String, Optional<String>> channelLookup) {
+    return parseAcquiredDataFrame(cd11DataFrame, stationIdentifier, receptionTime,
+        createChannelNameTable(stationIdentifier, channelLookup));
+  }
+
+  /**
+   * Parses frame metadata and wraps acquired Cd11Data as a COI RawStationDataFrame, resolving
+   * channel names through the station's channel table.
+   *
+   * @param cd11DataFrame Input {@link Cd11Frame} to parse
+   * @param stationIdentifier Identifier for the station. This info is not immediately available
+   * from the data frame itself and must be passed in.
+   * @param receptionTime Time the data frame was acquired
+   * @param channelNames Table of the station's channel names, see {@link
+   * #createChannelNameTable(String, Function)}
+   * @return The parsed Cd11Data wrapped as a coi RawStationDataFrame
+   */
+  public static RawStationDataFrame parseAcquiredDataFrame(Cd11Frame cd11DataFrame,
+      String stationIdentifier, Instant receptionTime, Cd11ChannelTable<String> channelNames) {
     checkNotNull(cd11DataFrame, "Cannot parse null dataframe");
     Cd11Data cd11Data = FrameUtilities.asPayloadType(cd11DataFrame.getPayload(), FrameType.DATA);
 
-    RawStationDataFrameMetadata.Builder rsdfMetadataBuilder = RawStationDataFrameMetadata.builder()
-        .setPayloadFormat(RawStationDataFramePayloadFormat.CD11)
-        .setStationName(stationIdentifier)
-        .setAuthenticationStatus(AuthenticationStatus.NOT_YET_AUTHENTICATED)
-        .setReceptionTime(receptionTime);
-
     Cd11ChannelSubframeHeader header = cd11Data.getChanSubframeHeader();
-    rsdfMetadataBuilder.setPayloadStartTime(header.nominalTime)
-        .setPayloadEndTime(header.nominalTime.plusMillis(header.frameTimeLength));
-
     final Map<String, WaveformSummary> waveformSummaries = new HashMap<>();
     for (Cd11ChannelSubframe subframe : cd11Data.getChannelSubframes()) {
-      String primaryChannelIdentifier = getPrimaryChannelIdentifier(stationIdentifier, subframe);
-      String secondaryChannelIdentifier = getSecondaryChannelIdentifier(stationIdentifier,
-          subframe);
-
-      channelLookup.apply(primaryChannelIdentifier)
-          .or(() -> channelLookup.apply(secondaryChannelIdentifier))
-          .ifPresentOrElse(channelName -> waveformSummaries.put(channelName,
-              WaveformSummary.from(channelName, subframe.timeStamp, subframe.endTime)),
-              () -> logMissingChannel(stationIdentifier, primaryChannelIdentifier,
-                  secondaryChannelIdentifier));
+      channelNames.resolve(subframe)
+          .ifPresent(channelName -> waveformSummaries.put(channelName,
+              WaveformSummary.from(channelName, subframe.timeStamp, subframe.endTime)));
     }
 
-    rsdfMetadataBuilder
-        .setChannelNames(waveformSummaries.keySet())
-        .setWaveformSummaries(waveformSummaries);
+    return RawStationDataFrame.builder().generatedId()
+        .setMetadata(buildMetadata(stationIdentifier, receptionTime, header.nominalTime,
+            header.frameTimeLength, waveformSummaries))
+        .setRawPayload(cd11DataFrame.getWireBytes()
+            .map(Cd11RawStationDataFrameUtility::toArray)
+            .orElseGet(cd11DataFrame::toBytes))
+        .build();
+  }
+
+  /**
+   * Parses frame metadata from a view of a received Data frame, and wraps the frame's bytes as a
+   * COI RawStationDataFrame. The frame is read in place, so no channel subframe is decoded; its
+   * bytes are copied once, as the payload.
+   *
+   * @param dataFrameView View of the received frame
+   * @param stationIdentifier Identifier for the station. This info is not immediately available
+   * from the data frame itself and must be passed in.
+   * @param receptionTime Time the data frame was acquired
+   * @param channelNames Table of the station's channel names, see {@link
+   * #createChannelNameTable(String, Function)}
+   * @return The parsed frame wrapped as a coi RawStationDataFrame
+   */
+  public static RawStationDataFrame parseAcquiredDataFrame(Cd11DataFrameView dataFrameView,
+      String stationIdentifier, Instant receptionTime, Cd11ChannelTable<String> channelNames) {
+    checkNotNull(dataFrameView, "Cannot parse null dataframe view");
+
+    final Map<String, WaveformSummary> waveformSummaries = new HashMap<>();
+    dataFrameView.forEachSubframe(subframe -> channelNames.resolve(subframe)
+        .ifPresent(channelName -> waveformSummaries.put(channelName,
+            WaveformSummary.from(channelName, subframe.getTimeStamp(), subframe.getEndTime()))));
 
     return RawStationDataFrame.builder().generatedId()
-        .setMetadata(rsdfMetadataBuilder.build())
-        .setRawPayload(cd11DataFrame.toBytes())
+        .setMetadata(buildMetadata(stationIdentifier, receptionTime,
+            dataFrameView.getNominalTime(), dataFrameView.getFrameTimeLength(),
+            waveformSummaries))
+        .setRawPayload(dataFrameView.toBytes())
         .build();
   }
 
-  private static String getPrimaryChannelIdentifier(String stationIdentifier,
-      Cd11ChannelSubframe subframe) {
-    return format("%s.%s.%s", stationIdentifier, subframe.siteName, subframe.channelName);
+  private static RawStationDataFrameMetadata buildMetadata(String stationIdentifier,
+      Instant receptionTime, Instant nominalTime, int frameTimeLength,
+      Map<String, WaveformSummary> waveformSummaries) {
+    return RawStationDataFrameMetadata.builder()
+        .setPayloadFormat(RawStationDataFramePayloadFormat.CD11)
+        .setStationName(stationIdentifier)
+        .setAuthenticationStatus(AuthenticationStatus.NOT_YET_AUTHENTICATED)
+        .setReceptionTime(receptionTime)
+        .setPayloadStartTime(nominalTime)
+        .setPayloadEndTime(nominalTime.plusMillis(frameTimeLength))
+        .setChannelNames(waveformSummaries.keySet())
+        .setWaveformSummaries(waveformSummaries)
+        .build();
   }
 
-  private static String getSecondaryChannelIdentifier(String stationIdentifier,
-      Cd11ChannelSubframe subframe) {
-    return format("%s.%s%s.%s", stationIdentifier, subframe.siteName, subframe.locationName,
-        subframe.channelName);
+  private static byte[] toArray(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    return bytes;
+  }
+
+  /**
+   * Creates the table resolving a station's channel subframes to channel names. A subframe is
+   * looked up by its primary identifier (station.site.channel), then by its secondary identifier
+   * (station.sitelocation.channel). Subframes without a channel name are logged when first seen.
+   *
+   * @param stationIdentifier Identifier for the station
+   * @param channelLookup Lookup function for retrieving a channel name given a subframe identifier
+   * @return The station's channel name table
+   */
+  public static Cd11ChannelTable<String> createChannelNameTable(String stationIdentifier,
+      Function<String, Optional<String>> channelLookup) {
+    checkNotNull(stationIdentifier, "Cannot create channel table for null station");
+    checkNotNull(channelLookup, "Cannot create channel table without a channel lookup");
+    return Cd11ChannelTable.create((siteName, channelName, locationName) -> {
+      String primaryChannelIdentifier = format("%s.%s.%s", stationIdentifier, siteName,
+          channelName);
+      String secondaryChannelIdentifier = format("%s.%s%s.%s", stationIdentifier, siteName,
+          locationName, channelName);
+
+      Optional<String> resolved = channelLookup.apply(primaryChannelIdentifier)
+          .or(() -> channelLookup.apply(secondaryChannelIdentifier));
+      if (resolved.isEmpty()) {
+        logMissingChannel(stationIdentifier, primaryChannelIdentifier, secondaryChannelIdentifier);
+      }
+      return resolved;
+    });
   }
 
   private static void logMissingChannel(String stationIdentifier, String primaryChannelIdentifier,
@@ -101,7 +175,7 @@ public class Cd11RawStationDataFrameUtility {
     logger.addValueArgument(SUBFRAME_SECONDARY_IDENTIFIER_KEY,
         secondaryChannelIdentifier);
     logger.warn(
-        "Channel name for subframe not found in lookup. Skipping channel subframe.");
+        "Channel name for subframe not found in lookup. Skipping subframes of this channel.");
     logger.removeArgument(STATION_NAME_KEY);
     logger.removeArgument(SUBFRAME_PRIMARY_IDENTIFIER_KEY);
     logger.removeArgument(SUBFRAME_SECONDARY_IDENTIFIER_KEY);
@@ -0,0 +1,350 @@
+package gms.utilities.waveformreader;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Objects;
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Decodes Canadian compressed waveform data held in a {@link ByteBuffer}. Rather than pulling the
+ * data through a bit stream one bit field at a time, it loads 64 bits of the data at once and
+ * extracts the bit fields from them with shifts, so a whole group of narrow samples is extracted
+ * from a single load.
+ * <p>
+ * The data is laid out as one 16 bit index block per block of 20 samples, each holding a length
+ * code bit and the 3 bit sample length codes of its 5 groups of 4 samples, then the first sample
+ * as a 32 bit integer, then the second differences of the samples as signed integers of the
+ * lengths given by the index blocks.
+ */
+public final class CanadianCompressedDecoder {
+
+  /*
+   * bit lengths for various sample codes
+   */
+  private static final int[][] BIT_LENGTHS_FOR_CODES = new int[][]
+      {{4, 6, 8, 10, 12, 14, 16, 18},
+          {4, 8, 12, 16, 20, 24, 28, 32}};
+
+  private static final int GROUPS_IN_BLOCK = 5;
+  private static final int SAMPLES_IN_GROUP = 4;
+  private static final int SAMPLES_IN_BLOCK = GROUPS_IN_BLOCK * SAMPLES_IN_GROUP;
+
+  private static final int INDEX_BLOCK_BYTES = Short.BYTES;
+  private static final int FIRST_SAMPLE_BYTES = Integer.BYTES;
+
+  // Bits of a 64 bit load that hold data once the bits of a partially consumed byte are shifted out
+  private static final int LOAD_BITS = Long.SIZE - (Byte.SIZE - 1);
+
+  private CanadianCompressedDecoder() {
+  }
+
+  /**
+   * Decodes samples from the data starting at the position of the given buffer, advancing its
+   * position past the data decoded. The byte order of the buffer is ignored.
+   *
+   * @param buffer Canadian compressed data
+   * @param numSamples Number of samples to decode
+   * @return the decoded samples
+   * @throws BufferUnderflowException if the buffer holds less data than the samples require
+   */
+  public static double[] decode(ByteBuffer buffer, int numSamples) {
+    double[] samples = decode(buffer, numSamples, 0, numSamples);
+    buffer.position(buffer.position() + compressedLength(buffer, numSamples));
+    return samples;
+  }
+
+  /**
+   * Decodes a window of the samples of the data starting at the position of the given buffer,
+   * without changing its position. The blocks of samples past the window are not decoded, and
+   * the blocks before it are decoded without being stored; to decode several windows of the same
+   * data, build a {@link CanadianCompressedIndex} once instead, which decodes only the blocks each
+   * window covers.
+   *
+   * @param buffer Canadian compressed data
+   * @param totalSamples Number of samples the data holds, which determines its layout
+   * @param offset Index of the first sample to decode
+   * @param count Number of samples to decode
+   * @return the decoded samples
+   * @throws BufferUnderflowException if the buffer holds less data than the window requires
+   */
+  public static double[] decode(ByteBuffer buffer, int totalSamples, int offset, int count) {
+    double[] samples = new double[count];
+    decode(buffer, totalSamples, new Destination(offset, count, samples, null, 0, 1.0));
+    return samples;
+  }
+
+  /**
+   * Decodes a window of the samples of the data starting at the position of the given buffer into
+   * the given array, as {@link #decode(ByteBuffer, int, int, int)} does, multiplying each sample by
+   * the calibration factor.
+   *
+   * @param destination array to write the samples to
+   * @param destinationOffset index in the destination of the first sample
+   * @param calibration factor to multiply each sample by
+   */
+  public static void decode(ByteBuffer buffer, int totalSamples, int offset, int count,
+      double[] destination, int destinationOffset, double calibration) {
+    Objects.checkFromIndexSize(destinationOffset, count, destination.length);
+    decode(buffer, totalSamples,
+        new Destination(offset, count, destination, null, destinationOffset, calibration));
+  }
+
+  /**
+   * Decodes a window of the samples of the data starting at the position of the given buffer into
+   * the given array, as {@link #decode(ByteBuffer, int, int, int)} does, multiplying each sample by
+   * the calibration factor before narrowing it.
+   *
+   * @param destination array to write the samples to
+   * @param destinationOffset index in the destination of the first sample
+   * @param calibration factor to multiply each sample by
+   */
+  public static void decode(ByteBuffer buffer, int totalSamples, int offset, int count,
+      float[] destination, int destinationOffset, double calibration) {
+    Objects.checkFromIndexSize(destinationOffset, count, destination.length);
+    decode(buffer, totalSamples,
+        new Destination(offset, count, null, destination, destinationOffset, calibration));
+  }
+
+  private static void decode(ByteBuffer buffer, int totalSamples, Destination destination) {
+    validateWindow(totalSamples, destination.first, destination.end - destination.first);
+
+    ByteBuffer data = bigEndian(buffer);
+    int start = data.position();
+    int limit = start + compressedLength(data, totalSamples, destination.end);
+    if (limit > data.limit()) {
+      throw new BufferUnderflowException();
+    }
+
+    Cursor cursor = Cursor.start(data, start, totalSamples);
+    while (cursor.sample < destination.end) {
+      decodeBlock(data, start, limit, totalSamples, cursor, destination);
+    }
+  }
+
+  static void validateWindow(int totalSamples, int offset, int count) {
+    Validate.isTrue(totalSamples >= 0, "Cannot decode a negative number of samples");
+    Validate.isTrue(offset >= 0 && count >= 0 && offset <= totalSamples - count,
+        "Window of %d samples at %d is outside the %d samples of the data", count, offset,
+        totalSamples);
+  }
+
+  static ByteBuffer bigEndian(ByteBuffer buffer) {
+    return buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+  }
+
+  /**
+   * Decodes the block at the cursor, writing those of its samples within the window of the
+   * destination to it, and advances the cursor to the next block.
+   *
+   * @param destination Destination of the decoded samples, or null to only advance the cursor
+   */
+  static void decodeBlock(ByteBuffer data, int start, int limit, int totalSamples, Cursor cursor,
+      Destination destination) {
+    int index = indexBlock(data, start, cursor.block);
+    int n = cursor.sample;
+    int end = Math.min(totalSamples, n + SAMPLES_IN_BLOCK);
+    long bitPosition = cursor.bitPosition;
+    int value = cursor.value;
+    double difference = cursor.difference;
+
+    for (int group = 0; group < GROUPS_IN_BLOCK && n < end; group++) {
+      int bits = groupBits(index, group);
+      int count = Math.min(SAMPLES_IN_GROUP, end - n);
+      boolean singleLoad = bits * count <= LOAD_BITS;
+      long word = singleLoad ? load(data, bitPosition, limit) : 0;
+
+      for (int k = 0; k < count; k++, n++) {
+        int secondDifference;
+        if (singleLoad) {
+          secondDifference = (int) (word >> (Long.SIZE - bits));
+          word <<= bits;
+        } else {
+          secondDifference = (int) (load(data, bitPosition + k * bits, limit)
+              >> (Long.SIZE - bits));
+        }
+
+        // Undo the second difference, then the first, in the order the samples were differenced
+        difference += secondDifference;
+        if (destination != null) {
+          destination.put(n, value);
+        }
+        value = (int) (value + difference);
+      }
+      bitPosition += bits * count;
+    }
+
+    cursor.block++;
+    cursor.sample = n;
+    cursor.bitPosition = bitPosition;
+    cursor.value = value;
+    cursor.difference = difference;
+  }
+
+  /**
+   * @return Number of bytes of index blocks preceding the data of the given number of samples
+   */
+  static int indexLength(int numSamples) {
+    return numBlocks(numSamples) * INDEX_BLOCK_BYTES;
+  }
+
+  /**
+   * Determines the number of bytes of data the given number of samples occupy from the index
+   * blocks starting at the position of the given buffer, which must hold at least
+   * {@link #indexLength(int)} bytes.
+   *
+   * @return Number of bytes of data, including the index blocks, the samples occupy
+   */
+  static int compressedLength(ByteBuffer buffer, int numSamples) {
+    return compressedLength(buffer, numSamples, numSamples);
+  }
+
+  /**
+   * @return Number of bytes of data, including the index blocks, the samples before the given end
+   * sample occupy in data holding the given total number of samples
+   */
+  static int compressedLength(ByteBuffer buffer, int totalSamples, int endSample) {
+    int numBlocks = numBlocks(totalSamples);
+    int start = buffer.position();
+    if (numBlocks * INDEX_BLOCK_BYTES > buffer.remaining()) {
+      throw new BufferUnderflowException();
+    }
+
+    long sampleBits = 0;
+    int remaining = endSample;
+    for (int block = 0; remaining > 0; block++) {
+      int index = indexBlock(buffer, start, block);
+      for (int group = 0; group < GROUPS_IN_BLOCK && remaining > 0; group++) {
+        int count = Math.min(SAMPLES_IN_GROUP, remaining);
+        sampleBits += (long) groupBits(index, group) * count;
+        remaining -= count;
+      }
+    }
+
+    return Math.toIntExact(numBlocks * INDEX_BLOCK_BYTES + FIRST_SAMPLE_BYTES
+        + (sampleBits + Byte.SIZE - 1) / Byte.SIZE);
+  }
+
+  static int numBlocks(int numSamples) {
+    return (numSamples + SAMPLES_IN_BLOCK - 1) / SAMPLES_IN_BLOCK;
+  }
+
+  /**
+   * @return Index of the block holding the given sample
+   */
+  static int blockOf(int sample) {
+    return sample / SAMPLES_IN_BLOCK;
+  }
+
+  private static int indexBlock(ByteBuffer buffer, int start, int block) {
+    int first = buffer.get(start + block * INDEX_BLOCK_BYTES) & 0xFF;
+    int second = buffer.get(start + block * INDEX_BLOCK_BYTES + 1) & 0xFF;
+    return first << Byte.SIZE | second;
+  }
+
+  /**
+   * @return Length of the samples of the given group of the given index block
+   */
+  private static int groupBits(int index, int group) {
+    int lengthCode = index >>> 15;
+    return BIT_LENGTHS_FOR_CODES[lengthCode][(index >>> (12 - 3 * group)) & 0x7];
+  }
+
+  /**
+   * Loads the 64 bits starting at the given bit position, left aligned. At least {@link
+   * #LOAD_BITS} of them are data; bits past the limit are zero.
+   */
+  private static long load(ByteBuffer buffer, long bitPosition, int limit) {
+    int index = (int) (bitPosition >>> 3);
+    long word;
+    if (index + Long.BYTES <= limit) {
+      word = buffer.getLong(index);
+    } else {
+      word = 0;
+      for (int i = index; i < limit; i++) {
+        word |= (buffer.get(i) & 0xFFL) << (Long.SIZE - Byte.SIZE * (i - index + 1));
+      }
+    }
+    return word << (bitPosition & 0x7);
+  }
+
+  /**
+   * Position within Canadian compressed data at the start of a block, along with the state of
+   * undoing the differencing of the samples there
+   */
+  static final class Cursor {
+
+    int block;
+    int sample;
+    long bitPosition;
+    // The sample at the cursor, and the first difference preceding it
+    int value;
+    double difference;
+
+    Cursor(int block, long bitPosition, int value, double difference) {
+      this.block = block;
+      this.sample = block * SAMPLES_IN_BLOCK;
+      this.bitPosition = bitPosition;
+      this.value = value;
+      this.difference = difference;
+    }
+
+    /**
+     * @return Cursor at the first block of the data starting at the given index
+     */
+    static Cursor start(ByteBuffer data, int start, int totalSamples) {
+      int firstSampleIndex = start + indexLength(totalSamples);
+      return new Cursor(0, (long) (firstSampleIndex + FIRST_SAMPLE_BYTES) * Byte.SIZE,
+          data.getInt(firstSampleIndex), 0);
+    }
+  }
+
+  /**
+   * Window of samples being decoded, and the array they are written to, calibrated
+   */
+  static final class Destination {
+
+    private final int first;
+    private final int end;
+    private final double[] doubles;
+    private final float[] floats;
+    private final int offset;
+    private final double calibration;
+
+    /**
+     * @param first Index of the first sample of the window
+     * @param count Number of samples in the window
+     * @param doubles Array to write the samples to, or null to write them to the floats
+     * @param floats Array to write the samples to if not the doubles
+     * @param offset Index in the array of the first sample
+     * @param calibration Factor to multiply each sample by
+     */
+    Destination(int first, int count, double[] doubles, float[] floats, int offset,
+        double calibration) {
+      this.first = first;
+      this.end = first + count;
+      this.doubles = doubles;
+      this.floats = floats;
+      this.offset = offset;
+      this.calibration = calibration;
+    }
+
+    int getFirst() {
+      return first;
+    }
+
+    int getEnd() {
+      return end;
+    }
+
+    void put(int sample, int value) {
+      if (sample >= first && sample < end) {
+        if (doubles != null) {
+          doubles[offset + sample - first] = value * calibration;
+        } else {
+          floats[offset + sample - first] = (float) (value * calibration);
+        }
+      }
+    }
+  }
+}
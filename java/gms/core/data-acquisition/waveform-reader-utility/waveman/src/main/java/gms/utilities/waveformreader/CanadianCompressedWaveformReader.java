@@ -1,175 +1,91 @@
 package gms.utilities.waveformreader;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 public class CanadianCompressedWaveformReader  implements WaveformReaderInterface {
 
-  private static final Logger logger = LoggerFactory
-      .getLogger(CanadianCompressedWaveformReader.class);
+  // What a byte past the end of the input reads as
+  private static final byte MISSING_BYTE = (byte) 0xFF;
 
   public double[] read(InputStream input, int numSamples, int skip) throws IOException {
-    // Extract the canadian compressed data
-    // TODO: (sgk 06/23/2021) should this really read skip + numSamples of data?
-    double[] data = CanadianCompression.read(input, skip + numSamples, false);
-
-    if (skip == 0) {
-      return data;
-    }
-
-    return Arrays.copyOfRange(data, skip, numSamples);
-
+    // The index blocks of Canadian compressed data lead its samples, so the layout of the data
+    // depends on how many samples it holds; it is taken to hold exactly those skipped and read
+    int totalSamples = skip + numSamples;
+    return CanadianCompressedDecoder.decode(readCompressed(input, totalSamples), totalSamples,
+        skip, numSamples);
   }
 
-  private static class CanadianCompression {
-
-    /*
-     * bit lengths for various sample codes
-     */
-    private static final byte[][] bitLengthsForCodes = new byte[][]
-        {{4, 6, 8, 10, 12, 14, 16, 18},
-            {4, 8, 12, 16, 20, 24, 28, 32}};
-
-    /*
-     * Number of groups of data samples in a data block
-     */
-    private static final int GROUPS_IN_BLOCK = 5;
-
-    /*
-     * Number of samples in a group
-     */
-    private static final int SAMPLES_IN_GROUP = 4;
-
-    /*
-     * Number of samples in a data block
-     */
-    private static final int SAMPLES_IN_BLOCK = GROUPS_IN_BLOCK * SAMPLES_IN_GROUP;
-
-    /**
-     * Read the compressed data stream, composed of N samples.
-     *
-     * @param inputStream Stream of compressed data to read from
-     * @param numSamples Number of samples to read from stream
-     * @return uncompressed integer samples
-     */
-    public static double[] read(InputStream inputStream, int numSamples, boolean interlace)
-        throws IOException {
-      BitInputStream bitInputStream = new BitInputStream(inputStream, 8192);
-
-      //  Determine the number of blocks
-      int numBlocks = (int) Math.ceil(numSamples / ((double) SAMPLES_IN_BLOCK));
-      double[] data = new double[numSamples];
-
-      if (interlace) {
-        readInterlaced(numSamples, bitInputStream, numBlocks, data);
-      } else {
-        readSequential(numSamples, bitInputStream, numBlocks, data);
-      }
-
-      return data;
-    }
-
-    private static void readSequential(int numSamples, BitInputStream bitInputStream, int numBlocks,
-        double[] data) throws IOException {
-      //  Read the index blocks
-      byte[][] bits = new byte[numBlocks][GROUPS_IN_BLOCK];
-      for (int i = 0; i < numBlocks; i++) {
-        readIndexBlock(bitInputStream, bits[i]);
-      }
-
-      //  Read the first sample
-      int first = bitInputStream.read(32, true);
-
-      //  Read the data blocks
-      int n = 0;
-      int i = 0;
-      while (i < numBlocks && n < numSamples) {
-        n = readDataBlock(bitInputStream, bits[i++], data, n);
-      }
-
-      //  undo the second difference
-      WaveformReaderUtil.integrate(data, 0, numSamples);
-
-      //  undo the first difference, shifting the samples
-      for (int k = 0; k < numSamples; k++) {
-        double save = data[k];
-        data[k] = first;
-        first += save;
-      }
+  @Override
+  public int read(ByteBuffer input, int numSamples, int skip, double[] destination, int offset,
+      double calibration) throws IOException {
+    try {
+      CanadianCompressedDecoder.decode(input, skip + numSamples, skip, numSamples, destination,
+          offset, calibration);
+      return numSamples;
+    } catch (BufferUnderflowException e) {
+      throw new EOFException("Canadian compressed data ended before its last sample");
     }
+  }
 
-    private static void readInterlaced(int numSamples, BitInputStream bitInputStream, int numBlocks,
-        double[] data) throws IOException {
-      boolean error = false;
-      byte[] blockBytes = new byte[GROUPS_IN_BLOCK];
-      int n = 0;
-
-      /*
-       * Read each of the blocks.
-       */
-      for (int i = 0; i < numBlocks && n < numSamples; i++) {
-        int startN = n;
-
-        //  Read the index block
-        readIndexBlock(bitInputStream, blockBytes);
-
-        //  Read the first sample
-        int firstSample = bitInputStream.read(32, true);
-        if (firstSample != data[n] && n > 0) {
-          error = true;
-        }
-        data[n++] = firstSample;
-
-        //  Read the differentiated samples
-        n = readDataBlock(bitInputStream, blockBytes, data, n);
-
-        //  Integrate the data twice
-        WaveformReaderUtil.integrate(data, startN + 1, n);
-        WaveformReaderUtil.integrate(data, startN, n);
-
-        // Back up to account for block overlap
-        n--;
-      }
-
-      if (error) {
-        logger.error("CanadianCompression.read:  Warning, error checking samples do not match.");
-      }
-    }
-
-    /**
-     * Read an index block from the provided input stream and store the number of bits in the
-     * provided array.
-     */
-    private static void readIndexBlock(BitInputStream bitInputStream, byte[] bits)
-        throws IOException {
-      int lengthCode = bitInputStream.read(1, false);
-      byte[] bitLengths = bitLengthsForCodes[lengthCode];
-
-      for (int i = 0; i < GROUPS_IN_BLOCK; i++) {
-        bits[i] = bitLengths[bitInputStream.read(3, false)];
-      }
+  @Override
+  public int read(ByteBuffer input, int numSamples, int skip, float[] destination, int offset,
+      double calibration) throws IOException {
+    try {
+      CanadianCompressedDecoder.decode(input, skip + numSamples, skip, numSamples, destination,
+          offset, calibration);
+      return numSamples;
+    } catch (BufferUnderflowException e) {
+      throw new EOFException("Canadian compressed data ended before its last sample");
     }
+  }
 
-    /**
-     * Read the data block from the provided input stream and return the number of samples read
-     */
-    private static int readDataBlock(BitInputStream bitInputStream, byte[] bits, double[] data,
-        int n) throws IOException {
-
-      for (int j = 0; j < GROUPS_IN_BLOCK; j++) {
-        int b = bits[j];
-
-        for (int k = 0; k < SAMPLES_IN_GROUP && n < data.length; k++, n++) {
-          data[n] = bitInputStream.read(b, true);
-        }
-      }
-
-      return n;
+  /**
+   * Reads samples from indexed data into part of an array, without changing the position of the
+   * buffer. Unlike the other reads, which decode the data from its first block and take it to hold
+   * just the samples skipped and read, this decodes from the block holding the first sample read,
+   * of data holding the number of samples it was indexed with.
+   *
+   * @param input Canadian compressed data, starting at the position of the buffer
+   * @param index Index of the data
+   * @param numSamples number of samples to read
+   * @param skip number of samples to skip
+   * @param destination array to write the samples to
+   * @param offset index in the destination of the first sample
+   * @param calibration factor to multiply each sample by
+   * @return number of samples read
+   * @throws EOFException if the buffer holds less data than was indexed
+   */
+  public int read(ByteBuffer input, CanadianCompressedIndex index, int numSamples, int skip,
+      double[] destination, int offset, double calibration) throws IOException {
+    try {
+      index.decode(input, skip, numSamples, destination, offset, calibration);
+      return numSamples;
+    } catch (BufferUnderflowException e) {
+      throw new EOFException("Canadian compressed data ended before its last sample");
     }
+  }
 
+  /**
+   * Reads exactly the compressed data of the given number of samples from the input stream, as
+   * determined by its index blocks. Data missing from the end of the stream reads as all ones
+   * bits, as it always has been.
+   */
+  private static ByteBuffer readCompressed(InputStream input, int numSamples) throws IOException {
+    int indexLength = CanadianCompressedDecoder.indexLength(numSamples);
+    byte[] index = readPadded(input, new byte[indexLength], 0);
+
+    int length = CanadianCompressedDecoder.compressedLength(ByteBuffer.wrap(index), numSamples);
+    return ByteBuffer.wrap(readPadded(input, Arrays.copyOf(index, length), indexLength));
+  }
 
+  private static byte[] readPadded(InputStream input, byte[] data, int offset) throws IOException {
+    int read = input.readNBytes(data, offset, data.length - offset);
+    Arrays.fill(data, offset + read, data.length, MISSING_BYTE);
+    return data;
   }
 }
@@ -0,0 +1,63 @@
+package gms.utilities.waveformreader;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Objects;
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Base of the readers of formats whose samples each take the same number of bytes, reading from
+ * buffers in place by computing where each sample starts.
+ */
+abstract class FixedWidthWaveformReader implements WaveformReaderInterface {
+
+  private final int sampleBytes;
+  private final ByteOrder byteOrder;
+
+  FixedWidthWaveformReader(int sampleBytes, ByteOrder byteOrder) {
+    this.sampleBytes = sampleBytes;
+    this.byteOrder = byteOrder;
+  }
+
+  /**
+   * @param buffer buffer in the byte order of the format
+   * @param index index in the buffer of the first byte of the sample
+   * @return the sample starting at the given index
+   */
+  abstract double sample(ByteBuffer buffer, int index);
+
+  @Override
+  public int read(ByteBuffer input, int numSamples, int skip, double[] destination, int offset,
+      double calibration) {
+    int count = count(input, numSamples, skip, destination.length, offset);
+    ByteBuffer data = input.duplicate().order(byteOrder);
+    int index = data.position() + skip * sampleBytes;
+    for (int i = 0; i < count; i++, index += sampleBytes) {
+      destination[offset + i] = sample(data, index) * calibration;
+    }
+    return count;
+  }
+
+  @Override
+  public int read(ByteBuffer input, int numSamples, int skip, float[] destination, int offset,
+      double calibration) {
+    int count = count(input, numSamples, skip, destination.length, offset);
+    ByteBuffer data = input.duplicate().order(byteOrder);
+    int index = data.position() + skip * sampleBytes;
+    for (int i = 0; i < count; i++, index += sampleBytes) {
+      destination[offset + i] = (float) (sample(data, index) * calibration);
+    }
+    return count;
+  }
+
+  /**
+   * @return Number of the samples to read that the buffer holds
+   */
+  private int count(ByteBuffer input, int numSamples, int skip, int destinationLength,
+      int offset) {
+    Validate.isTrue(skip >= 0, "Cannot skip a negative number of samples");
+    Objects.checkFromIndexSize(offset, numSamples, destinationLength);
+    long held = input.remaining() / sampleBytes - (long) skip;
+    return (int) Math.max(0, Math.min(numSamples, held));
+  }
+}
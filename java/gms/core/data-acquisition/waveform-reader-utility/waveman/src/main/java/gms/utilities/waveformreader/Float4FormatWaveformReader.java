@@ -5,16 +5,28 @@ import org.apache.commons.lang3.Validate;
 import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 /**
  * Code for reading waveform format 'f4', VAX single precision real (4 bytes).
  */
-public class Float4FormatWaveformReader implements WaveformReaderInterface {
+public class Float4FormatWaveformReader extends FixedWidthWaveformReader {
 
   private static final int VAX_SINGLE_BIAS = 0x81;
 
   private static final int IEEE_SINGLE_BIAS = 0x7f;
 
+  public Float4FormatWaveformReader() {
+    super(Float.BYTES, ByteOrder.BIG_ENDIAN);
+  }
+
+  @Override
+  double sample(ByteBuffer buffer, int index) {
+    return vax2float(buffer.getFloat(index));
+  }
+
+
   /**
    * Reads the Input Stream as an F4 waveform.
    *
@@ -3,14 +3,25 @@ package gms.utilities.waveformreader;
 import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class I4FormatWaveformReader implements WaveformReaderInterface{
+public class I4FormatWaveformReader extends FixedWidthWaveformReader {
 
     private static final Logger logger = LoggerFactory.getLogger(I4FormatWaveformReader.class);
 
+    public I4FormatWaveformReader() {
+        super(Integer.BYTES, ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Override
+    double sample(ByteBuffer buffer, int index) {
+        return buffer.getInt(index);
+    }
+
     /**
      * Reads the InputStream as an S4 waveform.
      *
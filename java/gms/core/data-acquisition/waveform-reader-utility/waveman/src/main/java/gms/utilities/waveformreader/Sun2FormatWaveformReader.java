@@ -3,12 +3,23 @@ package gms.utilities.waveformreader;
 import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import org.apache.commons.lang3.Validate;
 
 /**
  * Code for reading waveform format 's2', SUN integer (2 bytes).
  */
-public class Sun2FormatWaveformReader implements WaveformReaderInterface{
+public class Sun2FormatWaveformReader extends FixedWidthWaveformReader {
+
+  public Sun2FormatWaveformReader() {
+    super(Short.BYTES, ByteOrder.BIG_ENDIAN);
+  }
+
+  @Override
+  double sample(ByteBuffer buffer, int index) {
+    return buffer.getShort(index);
+  }
 
   /**
    * Reads the InputStream as an S3 waveform.
@@ -4,11 +4,24 @@ import org.apache.commons.lang3.Validate;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 /**
  * Code for reading waveform format 's3', SUN integer (3 bytes).
  */
-public class Sun3FormatWaveformReader implements WaveformReaderInterface {
+public class Sun3FormatWaveformReader extends FixedWidthWaveformReader {
+
+    public Sun3FormatWaveformReader() {
+        super(3, ByteOrder.BIG_ENDIAN);
+    }
+
+    @Override
+    double sample(ByteBuffer buffer, int index) {
+        // Sign extended from the most significant byte
+        return buffer.get(index) << 16 | (buffer.get(index + 1) & 0xFF) << 8
+                | buffer.get(index + 2) & 0xFF;
+    }
 
     /**
      * Reads the InputStream as an S3 waveform.
@@ -22,7 +35,7 @@ public class Sun3FormatWaveformReader implements WaveformReaderInterface {
     public double[] read(InputStream input, int numSamples, int skip) throws IOException {
         Validate.notNull(input);
 
-        long skipBytes = skip * 3 / Byte.SIZE;
+        long skipBytes = skip * 3L;
         skipBytes = Math.min(input.available(), skipBytes);
         long skippedBytes = input.skip(skipBytes);
         if(skipBytes != skippedBytes){
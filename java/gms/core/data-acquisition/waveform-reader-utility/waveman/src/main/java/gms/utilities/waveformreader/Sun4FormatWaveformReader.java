@@ -4,13 +4,24 @@ package gms.utilities.waveformreader;
 import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import org.apache.commons.lang3.Validate;
 
 /**
  * Code for reading waveform format 's4', SUN integer (4 bytes). Implements FunctionalInterface
  * WaveformReaderInterface.
  */
-public class Sun4FormatWaveformReader implements WaveformReaderInterface {
+public class Sun4FormatWaveformReader extends FixedWidthWaveformReader {
+
+    public Sun4FormatWaveformReader() {
+        super(Integer.BYTES, ByteOrder.BIG_ENDIAN);
+    }
+
+    @Override
+    double sample(ByteBuffer buffer, int index) {
+        return buffer.getInt(index);
+    }
 
     /**
      * Reads the InputStream as an S4 waveform.
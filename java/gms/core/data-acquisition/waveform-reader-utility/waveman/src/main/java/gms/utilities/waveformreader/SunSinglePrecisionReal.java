@@ -3,11 +3,22 @@ package gms.utilities.waveformreader;
 import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 /**
  * Code for reading waveform format 't4', SUN single precision real (4 bytes).
  */
-public class SunSinglePrecisionReal implements  WaveformReaderInterface {
+public class SunSinglePrecisionReal extends FixedWidthWaveformReader {
+
+  public SunSinglePrecisionReal() {
+    super(Float.BYTES, ByteOrder.BIG_ENDIAN);
+  }
+
+  @Override
+  double sample(ByteBuffer buffer, int index) {
+    return buffer.getFloat(index);
+  }
 
   /**
    * Reads the InputStream as an T4 waveform.
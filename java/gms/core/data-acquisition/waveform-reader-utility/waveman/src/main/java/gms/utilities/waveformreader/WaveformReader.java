@@ -2,6 +2,7 @@ package gms.utilities.waveformreader;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.Map;
 
 import org.slf4j.Logger;
@@ -67,6 +68,42 @@ public class WaveformReader {
     return reader.read(input, samplesToRead, skip);
   }
 
+  /**
+   * Calls the proper waveform reader to read samples from a buffer into part of an array, without
+   * changing the position of the buffer
+   *
+   * @param input data bytes, starting at the position of the buffer
+   * @param format the format code, e.g. 's4' or 'b#'.
+   * @param samplesToRead number of samples to read
+   * @param skip number of samples to skip
+   * @param destination array to write the samples to
+   * @param offset index in the destination of the first sample
+   * @param calibration factor to multiply each sample by
+   * @return number of samples read
+   */
+  public static int readSamples(ByteBuffer input, String format, int samplesToRead, int skip,
+    double[] destination, int offset, double calibration) throws IOException {
+    return readerFor(format).read(input, samplesToRead, skip, destination, offset, calibration);
+  }
+
+  /**
+   * Calls the proper waveform reader to read samples from a buffer into part of an array of
+   * floats, without changing the position of the buffer
+   *
+   * @param input data bytes, starting at the position of the buffer
+   * @param format the format code, e.g. 's4' or 'b#'.
+   * @param samplesToRead number of samples to read
+   * @param skip number of samples to skip
+   * @param destination array to write the samples to
+   * @param offset index in the destination of the first sample
+   * @param calibration factor to multiply each sample by
+   * @return number of samples read
+   */
+  public static int readSamples(ByteBuffer input, String format, int samplesToRead, int skip,
+    float[] destination, int offset, double calibration) throws IOException {
+    return readerFor(format).read(input, samplesToRead, skip, destination, offset, calibration);
+  }
+
   /**
    * Looks up a WaveformReader corresponding to the given format code (CSS 3.0).
    *
@@ -2,10 +2,16 @@ package gms.utilities.waveformreader;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Objects;
 
 /**
  * Functional interface for a WaveformReader; takes an InputStream, number of samples to skip, and
  * number of samples to read, returning a parsed int[] (digitized counts of a waveform).
+ * <p>
+ * Waveforms can also be read from a {@link ByteBuffer} straight into part of a caller-supplied
+ * array, calibrating the samples as they are written. Readers of formats that can be decoded in
+ * place override those methods; the others read the buffer as a stream.
  */
 @FunctionalInterface
 public interface WaveformReaderInterface {
@@ -20,4 +26,52 @@ public interface WaveformReaderInterface {
    * @throws IOException if I/O problems occur during reading from InputStream
    */
   double[] read(InputStream input, int numSamples, int skip) throws IOException;
+
+  /**
+   * Reads a waveform from the position of the given buffer, without changing its position, into
+   * the given array, multiplying each sample by the calibration factor.
+   *
+   * @param input the buffer to read from, e.g. a heap, direct or memory mapped buffer
+   * @param numSamples number of samples to read
+   * @param skip number of samples to skip
+   * @param destination array to write the samples to
+   * @param offset index in the destination of the first sample
+   * @param calibration factor to multiply each sample by
+   * @return number of samples read, fewer than numSamples if the buffer ends first
+   * @throws IOException if problems occur decoding the waveform
+   */
+  default int read(ByteBuffer input, int numSamples, int skip, double[] destination, int offset,
+      double calibration) throws IOException {
+    Objects.checkFromIndexSize(offset, numSamples, destination.length);
+    double[] samples = read(new ByteBufferInputStream(input), numSamples, skip);
+    int count = Math.min(numSamples, samples.length);
+    for (int i = 0; i < count; i++) {
+      destination[offset + i] = samples[i] * calibration;
+    }
+    return count;
+  }
+
+  /**
+   * Reads a waveform from the position of the given buffer, without changing its position, into
+   * the given array, multiplying each sample by the calibration factor before narrowing it.
+   *
+   * @param input the buffer to read from, e.g. a heap, direct or memory mapped buffer
+   * @param numSamples number of samples to read
+   * @param skip number of samples to skip
+   * @param destination array to write the samples to
+   * @param offset index in the destination of the first sample
+   * @param calibration factor to multiply each sample by
+   * @return number of samples read, fewer than numSamples if the buffer ends first
+   * @throws IOException if problems occur decoding the waveform
+   */
+  default int read(ByteBuffer input, int numSamples, int skip, float[] destination, int offset,
+      double calibration) throws IOException {
+    Objects.checkFromIndexSize(offset, numSamples, destination.length);
+    double[] samples = read(new ByteBufferInputStream(input), numSamples, skip);
+    int count = Math.min(numSamples, samples.length);
+    for (int i = 0; i < count; i++) {
+      destination[offset + i] = (float) (samples[i] * calibration);
+    }
+    return count;
+  }
 }
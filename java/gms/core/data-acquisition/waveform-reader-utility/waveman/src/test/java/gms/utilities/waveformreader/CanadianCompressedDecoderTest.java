@@ -0,0 +1,202 @@
+package gms.utilities.waveformreader;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class CanadianCompressedDecoderTest {
+
+  private static final String CC_FILE = "/css/WFS4/cc.w";
+
+  @Test
+  void testDecodeMatchesBitStreamDecodingOfRecordedData() throws IOException {
+    byte[] recorded = getClass().getResourceAsStream(CC_FILE).readAllBytes();
+
+    int numSamples = 0;
+    while (fits(recorded, numSamples + 1)) {
+      numSamples++;
+    }
+
+    for (int samples = 0; samples <= numSamples; samples++) {
+      assertArrayEquals(referenceDecode(recorded, samples),
+          CanadianCompressedDecoder.decode(ByteBuffer.wrap(recorded), samples),
+          "Decoding " + samples + " samples");
+    }
+  }
+
+  @Test
+  void testDecodeMatchesBitStreamDecodingOfArbitraryData() throws IOException {
+    // Any bytes are valid Canadian compressed data, exercising every sample length
+    Random random = new Random(1234);
+    for (int trial = 0; trial < 500; trial++) {
+      int numSamples = random.nextInt(200);
+      byte[] data = new byte[numSamples * Integer.BYTES * 2 + 16];
+      random.nextBytes(data);
+
+      assertArrayEquals(referenceDecode(data, numSamples),
+          CanadianCompressedDecoder.decode(ByteBuffer.wrap(data), numSamples),
+          "Decoding " + numSamples + " samples");
+    }
+  }
+
+  @Test
+  void testDecodeAdvancesBufferPositionPastDecodedData() throws IOException {
+    byte[] recorded = getClass().getResourceAsStream(CC_FILE).readAllBytes();
+    byte[] offset = new byte[recorded.length + 3];
+    System.arraycopy(recorded, 0, offset, 3, recorded.length);
+
+    ByteBuffer buffer = ByteBuffer.wrap(offset).order(ByteOrder.LITTLE_ENDIAN);
+    buffer.position(3);
+    assertArrayEquals(referenceDecode(recorded, 100),
+        CanadianCompressedDecoder.decode(buffer, 100));
+    assertEquals(3 + CanadianCompressedDecoder.compressedLength(ByteBuffer.wrap(recorded), 100),
+        buffer.position());
+  }
+
+  @Test
+  void testDecodeWindowsMatchFullDecoding() throws IOException {
+    Random random = new Random(5678);
+    for (int trial = 0; trial < 200; trial++) {
+      int totalSamples = 1 + random.nextInt(300);
+      byte[] data = new byte[totalSamples * Integer.BYTES * 2 + 16];
+      random.nextBytes(data);
+
+      double[] full = referenceDecode(data, totalSamples);
+      CanadianCompressedIndex index = CanadianCompressedIndex
+          .build(ByteBuffer.wrap(data), totalSamples);
+      for (int window = 0; window < 10; window++) {
+        int offset = random.nextInt(totalSamples + 1);
+        int count = random.nextInt(totalSamples - offset + 1);
+        double[] expected = Arrays.copyOfRange(full, offset, offset + count);
+
+        assertArrayEquals(expected, CanadianCompressedDecoder
+            .decode(ByteBuffer.wrap(data), totalSamples, offset, count));
+        assertArrayEquals(expected, index.decode(ByteBuffer.wrap(data), offset, count));
+      }
+    }
+  }
+
+  @Test
+  void testIndexOfRecordedDataAtAnotherPosition() throws IOException {
+    byte[] recorded = getClass().getResourceAsStream(CC_FILE).readAllBytes();
+    CanadianCompressedIndex index = CanadianCompressedIndex.build(ByteBuffer.wrap(recorded), 500);
+    assertEquals(500, index.getTotalSamples());
+    assertEquals(CanadianCompressedDecoder.compressedLength(ByteBuffer.wrap(recorded), 500),
+        index.getCompressedLength());
+
+    byte[] moved = new byte[recorded.length + 7];
+    System.arraycopy(recorded, 0, moved, 7, recorded.length);
+    ByteBuffer buffer = ByteBuffer.wrap(moved);
+    buffer.position(7);
+
+    assertArrayEquals(Arrays.copyOfRange(referenceDecode(recorded, 500), 437, 487),
+        index.decode(buffer, 437, 50));
+    assertEquals(7, buffer.position());
+  }
+
+  @Test
+  void testDecodeWindowOutsideData() {
+    ByteBuffer buffer = ByteBuffer.allocate(64);
+    assertThrows(IllegalArgumentException.class,
+        () -> CanadianCompressedDecoder.decode(buffer, 10, 5, 6));
+    assertThrows(IllegalArgumentException.class,
+        () -> CanadianCompressedDecoder.decode(buffer, 10, -1, 2));
+    assertThrows(IllegalArgumentException.class,
+        () -> CanadianCompressedIndex.build(buffer, 10).decode(buffer, 11, 0));
+  }
+
+  @Test
+  void testReaderSkipsSamples() throws Exception {
+    byte[] recorded = getClass().getResourceAsStream(CC_FILE).readAllBytes();
+
+    assertArrayEquals(Arrays.copyOfRange(referenceDecode(recorded, 13), 3, 13),
+        new CanadianCompressedWaveformReader()
+            .read(new ByteArrayInputStream(recorded), 10, 3));
+  }
+
+  @Test
+  void testReaderReadsIndexedWindow() throws Exception {
+    byte[] recorded = getClass().getResourceAsStream(CC_FILE).readAllBytes();
+    CanadianCompressedIndex index = CanadianCompressedIndex.build(ByteBuffer.wrap(recorded), 500);
+    double[] expected = Arrays.copyOfRange(referenceDecode(recorded, 500), 437, 487);
+
+    double[] destination = new double[52];
+    assertEquals(50, new CanadianCompressedWaveformReader()
+        .read(ByteBuffer.wrap(recorded), index, 50, 437, destination, 2, 0.5));
+    for (int i = 0; i < expected.length; i++) {
+      assertEquals(expected[i] * 0.5, destination[i + 2]);
+    }
+
+    ByteBuffer truncated = ByteBuffer.wrap(recorded, 0, index.getCompressedLength() - 1);
+    assertThrows(EOFException.class, () -> new CanadianCompressedWaveformReader()
+        .read(truncated, index, 50, 437, destination, 2, 0.5));
+  }
+
+  @Test
+  void testDecodeTruncatedData() throws IOException {
+    byte[] recorded = getClass().getResourceAsStream(CC_FILE).readAllBytes();
+    int length = CanadianCompressedDecoder.compressedLength(ByteBuffer.wrap(recorded), 100);
+
+    assertThrows(BufferUnderflowException.class, () -> CanadianCompressedDecoder
+        .decode(ByteBuffer.wrap(recorded, 0, length - 1), 100));
+    // The reader has always read data missing from the end of its input as all ones bits
+    byte[] truncated = Arrays.copyOf(recorded, length - 1);
+    assertArrayEquals(referenceDecode(truncated, 100), new CanadianCompressedWaveformReader()
+        .read(new ByteArrayInputStream(truncated), 100, 0));
+  }
+
+  private static boolean fits(byte[] data, int numSamples) {
+    return CanadianCompressedDecoder.indexLength(numSamples) <= data.length
+        && CanadianCompressedDecoder.compressedLength(ByteBuffer.wrap(data), numSamples)
+        <= data.length;
+  }
+
+  /**
+   * Decodes the data one bit field at a time through a {@link BitInputStream}
+   */
+  private static double[] referenceDecode(byte[] data, int numSamples) throws IOException {
+    int[][] bitLengthsForCodes = {{4, 6, 8, 10, 12, 14, 16, 18}, {4, 8, 12, 16, 20, 24, 28, 32}};
+    InputStream input = new ByteArrayInputStream(data);
+    BitInputStream bitInputStream = new BitInputStream(input, 8192);
+
+    int numBlocks = (int) Math.ceil(numSamples / 20.0);
+    int[][] bits = new int[numBlocks][5];
+    for (int i = 0; i < numBlocks; i++) {
+      int[] bitLengths = bitLengthsForCodes[bitInputStream.read(1, false)];
+      for (int j = 0; j < 5; j++) {
+        bits[i][j] = bitLengths[bitInputStream.read(3, false)];
+      }
+    }
+
+    int first = bitInputStream.read(32, true);
+
+    double[] samples = new double[numSamples];
+    int n = 0;
+    for (int i = 0; i < numBlocks; i++) {
+      for (int j = 0; j < 5; j++) {
+        for (int k = 0; k < 4 && n < numSamples; k++, n++) {
+          samples[n] = bitInputStream.read(bits[i][j], true);
+        }
+      }
+    }
+
+    WaveformReaderUtil.integrate(samples, 0, numSamples);
+    for (int k = 0; k < numSamples; k++) {
+      double save = samples[k];
+      samples[k] = first;
+      first += save;
+    }
+    return samples;
+  }
+}
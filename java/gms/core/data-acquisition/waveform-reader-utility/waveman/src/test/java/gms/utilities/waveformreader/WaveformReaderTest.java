@@ -1,14 +1,22 @@
 package gms.utilities.waveformreader;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
 import java.util.Optional;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -81,6 +89,58 @@ class WaveformReaderTest {
     }
   }
 
+  @ParameterizedTest
+  @MethodSource("readBufferArguments")
+  void readSamples_buffer(FormatCode formatCode, String file, int samplesToRead, int skip)
+      throws IOException {
+    byte[] bytes;
+    try (InputStream is = this.getClass().getResourceAsStream(file)) {
+      bytes = is.readAllBytes();
+    }
+    double[] expected = WaveformReader
+        .readSamples(new ByteArrayInputStream(bytes), formatCode.getCode(), samplesToRead, skip);
+
+    ByteBuffer heap = ByteBuffer.allocate(bytes.length + 3);
+    heap.position(3);
+    heap.put(bytes).position(3);
+    ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+    direct.put(bytes).flip();
+
+    for (ByteBuffer buffer : List.of(heap, direct)) {
+      int position = buffer.position();
+      double[] doubles = new double[samplesToRead + 2];
+      float[] floats = new float[samplesToRead + 2];
+
+      assertEquals(expected.length, WaveformReader.readSamples(buffer, formatCode.getCode(),
+          samplesToRead, skip, doubles, 1, 0.5));
+      assertEquals(expected.length, WaveformReader.readSamples(buffer, formatCode.getCode(),
+          samplesToRead, skip, floats, 1, 0.5));
+      assertEquals(position, buffer.position());
+      for (int i = 0; i < expected.length; i++) {
+        assertEquals(expected[i] * 0.5, doubles[i + 1]);
+        assertEquals((float) (expected[i] * 0.5), floats[i + 1]);
+      }
+    }
+  }
+
+  @Test
+  void readSamples_buffer_littleEndianIntegers() throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(4 * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN)
+        .putInt(7).putInt(-7).putInt(Integer.MAX_VALUE).putInt(Integer.MIN_VALUE).flip();
+    // The reader decides the byte order, not the buffer
+    buffer.order(ByteOrder.BIG_ENDIAN);
+
+    double[] samples = new double[3];
+    assertEquals(3, WaveformReader.readSamples(buffer, FormatCode.I4.getCode(), 3, 1, samples, 0,
+        2.0));
+    assertArrayEquals(new double[]{-14, 2.0 * Integer.MAX_VALUE, 2.0 * Integer.MIN_VALUE},
+        samples);
+
+    // Samples past the end of the buffer are not read
+    assertEquals(1, WaveformReader.readSamples(buffer, FormatCode.I4.getCode(), 3, 3, samples, 0,
+        1.0));
+  }
+
   @ParameterizedTest
   @MethodSource("readerForArguments")
   <T extends WaveformReaderInterface> void readerFor(FormatCode formatCode, T reader) {
@@ -137,6 +197,18 @@ class WaveformReaderTest {
     );
   }
 
+  private static Stream<Arguments> readBufferArguments() {
+    return Stream.of(
+        Arguments.arguments(FormatCode.S4, "/css/WFS4/I22FR.s4.w", 5, 3),
+        Arguments.arguments(FormatCode.S3, "/css/WFS4/I22FR.s3.w", 5, 3),
+        Arguments.arguments(FormatCode.S2, "/css/WFS4/S2Test.w", 5, 3),
+        Arguments.arguments(FormatCode.F4, "/css/WFS4/F4Test.w", 5, 3),
+        Arguments.arguments(FormatCode.T4, "/css/WFS4/t4.w", 100, 20),
+        Arguments.arguments(FormatCode.E1, "/css/WFS4/I22FR.e1.w", 100, 10),
+        Arguments.arguments(FormatCode.CC, "/css/WFS4/cc.w", 100, 37)
+    );
+  }
+
   private static Stream<Arguments> readSamplesArguments_mismatchedFormat() {
     return Stream.of(
         Arguments.arguments(FormatCode.F4, "/css/WFS4/I22FR.s3.w")
@@ -23,6 +23,7 @@ import gms.integration.util.StepUtils;
 import gms.shared.frameworks.osd.coi.datatransferobjects.CoiObjectMapperFactory;
 import gms.shared.frameworks.osd.coi.waveforms.RawStationDataFrame;
 import gms.shared.frameworks.test.utils.services.GmsServiceType;
+import gms.shared.utilities.kafka.serde.RawStationDataFrameDeserializer;
 import io.cucumber.core.internal.gherkin.deps.com.google.gson.JsonElement;
 import io.cucumber.java.After;
 import io.cucumber.java.en.And;
@@ -197,17 +198,17 @@ public class DatamanComponentTestSteps {
     Optional<Integer> portOpt = Optional
         .of(environment.deploymentCtxt().getServicePort(GmsServiceType.KAFKA_ONE));
 
-    List<String> kafkaMessages = environment.deploymentCtxt()
-        .receiveKafkaMessages(topicName, 1, timeoutSeconds * 1000);
-    logger.info("Kafka messages (size = " + kafkaMessages.size() + "):");
-    logger.info(kafkaMessages.toString());
+    // RSDFs are published in the binary format, so the message is read as bytes
+    Optional<byte[]> kafkaMessage = environment.deploymentCtxt()
+        .receiveKafkaMessageBytes(topicName, timeoutSeconds * 1000);
+    logger.info("Kafka message received: " + kafkaMessage.isPresent());
 
     // Create the Rsdf object from json resource file
     JsonElement rsdfEelement = StepUtils.parseJsonResource(kafkaRsdfResourceFile);
     RawStationDataFrame expectedRsdf = createRsdfObject(rsdfEelement);
 
     // Compare the rsdf objects
-    boolean rsdfmessagePassed = compareRsdfObjects(kafkaMessages, expectedRsdf);
+    boolean rsdfmessagePassed = compareRsdfObjects(kafkaMessage, expectedRsdf);
 
     assertTrue(rsdfmessagePassed, "Failed to receive the expected Rsdf messages");
   }
@@ -460,19 +461,17 @@ public class DatamanComponentTestSteps {
   }
 
   // Compare the Rsdf objects from the kafka queue and the expected message
-  private boolean compareRsdfObjects(List<String> kafkaMessages, RawStationDataFrame expectedRsdf) {
+  private boolean compareRsdfObjects(Optional<byte[]> kafkaMessage,
+      RawStationDataFrame expectedRsdf) {
 
-    // Create the JsonElement list from the kafka messages
-    List<JsonElement> jsonElementList = StepUtils.createJsonElementList(kafkaMessages);
-
-    // Ensure that JsonElement list only has one object
-    if (jsonElementList.size() != 1) {
+    // Ensure that a message was received
+    if (kafkaMessage.isEmpty()) {
       return false;
     }
 
-    // Create Kafka SOH Extract object from kafka messages
-    JsonElement jsonRsdf = jsonElementList.get(0);
-    RawStationDataFrame kafkaRsdf = createRsdfObject(jsonRsdf);
+    // Decode the Rsdf object from the kafka message, in either the binary or JSON format
+    RawStationDataFrame kafkaRsdf = new RawStationDataFrameDeserializer()
+        .deserialize(RSDF_TOPIC, kafkaMessage.get());
 
     // Compare the expected and kafka rsdf objects
 
@@ -2,9 +2,9 @@ package gms.shared.frameworks.osd.rsdf.consumer;
 
 import gms.shared.frameworks.common.annotations.Component;
 import gms.shared.frameworks.messaging.SimpleKafkaStorageConsumer;
-import gms.shared.frameworks.osd.coi.datatransferobjects.CoiDeserializer;
 import gms.shared.frameworks.osd.coi.waveforms.RawStationDataFrame;
 import gms.shared.frameworks.systemconfig.SystemConfig;
+import gms.shared.utilities.kafka.serde.RawStationDataFrameDeserializer;
 
 import java.util.Collection;
 
@@ -14,7 +14,7 @@ public class ReactiveRsdfStorageConsumer extends SimpleKafkaStorageConsumer<RawS
   public static void main(String[] args) {
     SystemConfig systemConfig = SystemConfig.create("osd-rsdf-kafka-consumer");
     var consumer = new ReactiveRsdfStorageConsumer();
-    consumer.initialize(systemConfig, new CoiDeserializer<>(RawStationDataFrame.class));
+    consumer.initialize(systemConfig, new RawStationDataFrameDeserializer());
     consumer.run();
   }
 
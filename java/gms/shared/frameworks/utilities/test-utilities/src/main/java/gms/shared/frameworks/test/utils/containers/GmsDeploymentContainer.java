@@ -434,6 +434,37 @@ public class GmsDeploymentContainer<SELF extends GmsDeploymentContainer<SELF>> e
     return Collections.emptyList();
   }
 
+  /**
+   * Receives the first message of a kafka topic with an optional timeout, as the bytes written by
+   * its producer, for messages in a binary format.
+   */
+  public Optional<byte[]> receiveKafkaMessageBytes(String topicName, int timeoutMs) {
+    var cmdResponse = sendServiceCommand(GmsServiceType.KAFKA_ONE,
+            List.of("kafka-console-consumer.sh", BOOT_STRAP_SERVER_ARGUMENT, KAFKA_BOOTSTRAP_SERVERS,
+                    KAFKA_TOPIC_ARGUMENT,
+                    topicName, FROM_BEGINNING_ARGUMENT, MAX_MESSAGES_ARGUMENT, "1",
+                    TIMEOUT_ARGUMENT, Integer.toString(timeoutMs)));
+    if (cmdResponse.isPresent()) {
+      var stdout = new ByteArrayOutputStream();
+      var stderr = new ByteArrayOutputStream();
+
+      try {
+        docker.execStartCmd(cmdResponse.get().getId())
+                .exec(new ExecStartResultCallback(stdout, stderr)).awaitCompletion(
+                KAFKA_TIMEOUT, TimeUnit.SECONDS);
+
+        // The console consumer writes the message as is, followed by a newline
+        byte[] output = stdout.toByteArray();
+        return output.length == 0 ? Optional.empty()
+                : Optional.of(Arrays.copyOf(output, output.length - 1));
+      } catch (InterruptedException e) {
+        logger.error(e.getMessage());
+        Thread.currentThread().interrupt();
+      }
+    }
+    return Optional.empty();
+  }
+
   /**
    * Retrieve the committed offset of messages that have been consumed
    *
@@ -0,0 +1,76 @@
+package gms.shared.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of non-negative long values, such as latencies in milliseconds, that can be recorded
+ * from any thread without locking or allocating. Values are counted in power-of-two buckets, so a
+ * percentile is reported as the upper bound of the bucket it falls in, i.e. to within a factor of
+ * two; the maximum is exact. Negative values are recorded as zero.
+ */
+public class Log2Histogram {
+    private static final int BUCKETS = Long.SIZE;
+
+    // Bucket 0 counts zeros, bucket b counts values in [2^(b-1), 2^b)
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long value) {
+        long recorded = Math.max(value, 0);
+        counts.incrementAndGet(bucket(recorded));
+        max.accumulateAndGet(recorded, Math::max);
+    }
+
+    /**
+     * @return The number of values recorded
+     */
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * @return The largest value recorded, or zero if none have been
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @param percentile Percentile to report, between 0 and 100
+     * @return Upper bound of the given percentile of the values recorded, or zero if none have been
+     */
+    public long getPercentile(double percentile) {
+        long[] snapshot = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            count += snapshot[i];
+        }
+        if (count == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    static int bucket(long value) {
+        return Long.SIZE - Long.numberOfLeadingZeros(value);
+    }
+
+    private static long upperBound(int bucket) {
+        return bucket == 0 ? 0 : (1L << bucket) - 1;
+    }
+}
@@ -9,4 +9,28 @@ public class MetricRegister {
     public static void register(CustomMetric customMetric, ObjectName name) throws JMException {
         mBeanServer.registerMBean(customMetric, name);
     }
+
+    /**
+     * Registers any standard MBean, replacing an MBean already registered under the same name
+     * @param mBean The MBean to register
+     * @param name The name to register the MBean under
+     * @throws JMException if the MBean could not be registered
+     */
+    public static void register(Object mBean, ObjectName name) throws JMException {
+        if (mBeanServer.isRegistered(name)) {
+            mBeanServer.unregisterMBean(name);
+        }
+        mBeanServer.registerMBean(mBean, name);
+    }
+
+    /**
+     * Unregisters the MBean registered under a name, if there is one
+     * @param name The name the MBean was registered under
+     * @throws JMException if the MBean could not be unregistered
+     */
+    public static void unregister(ObjectName name) throws JMException {
+        if (mBeanServer.isRegistered(name)) {
+            mBeanServer.unregisterMBean(name);
+        }
+    }
 }
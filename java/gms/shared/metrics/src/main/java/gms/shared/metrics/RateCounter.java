@@ -0,0 +1,63 @@
+package gms.shared.metrics;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Monotonic counter that can be incremented from any thread without locking or allocating, which
+ * also reports its rate of increase. The rate is measured over at least the given window, between
+ * the reads of {@link #getRatePerSecond()}, so it costs nothing on the counting path.
+ */
+public class RateCounter {
+    private final LongAdder count = new LongAdder();
+    private final long windowNanos;
+    private final LongSupplier nanoClock;
+
+    private long snapshotNanos;
+    private long snapshotCount;
+    private double ratePerSecond;
+
+    /**
+     * @param window The minimum period over which the rate is measured
+     */
+    public RateCounter(Duration window) {
+        this(window, System::nanoTime);
+    }
+
+    RateCounter(Duration window, LongSupplier nanoClock) {
+        this.windowNanos = window.toNanos();
+        this.nanoClock = nanoClock;
+        this.snapshotNanos = nanoClock.getAsLong();
+    }
+
+    public void increment() {
+        count.increment();
+    }
+
+    public void add(long value) {
+        count.add(value);
+    }
+
+    /**
+     * @return The total count
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return The rate of increase per second over the most recently completed window
+     */
+    public synchronized double getRatePerSecond() {
+        long now = nanoClock.getAsLong();
+        long elapsed = now - snapshotNanos;
+        if (elapsed >= windowNanos) {
+            long current = count.sum();
+            ratePerSecond = (current - snapshotCount) * 1e9 / elapsed;
+            snapshotNanos = now;
+            snapshotCount = current;
+        }
+        return ratePerSecond;
+    }
+}
@@ -0,0 +1,56 @@
+package gms.shared.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class Log2HistogramTest {
+
+    @Test
+    void testBucketBoundaries() {
+        assertEquals(0, Log2Histogram.bucket(0));
+        assertEquals(1, Log2Histogram.bucket(1));
+        assertEquals(2, Log2Histogram.bucket(2));
+        assertEquals(2, Log2Histogram.bucket(3));
+        assertEquals(3, Log2Histogram.bucket(4));
+        assertEquals(10, Log2Histogram.bucket(1023));
+        assertEquals(11, Log2Histogram.bucket(1024));
+        assertEquals(63, Log2Histogram.bucket(Long.MAX_VALUE));
+    }
+
+    @Test
+    void testEmptyHistogramReportsZero() {
+        Log2Histogram histogram = new Log2Histogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getPercentile(50));
+    }
+
+    @Test
+    void testPercentileReportsBucketUpperBound() {
+        Log2Histogram histogram = new Log2Histogram();
+        for (long value = 1; value <= 4; value++) {
+            histogram.record(value);
+        }
+
+        assertEquals(4, histogram.getCount());
+        assertEquals(1, histogram.getPercentile(25));
+        // 2 and 3 share the bucket [2, 4)
+        assertEquals(3, histogram.getPercentile(50));
+        assertEquals(3, histogram.getPercentile(75));
+        // The bucket [4, 8) is bounded by the exact maximum
+        assertEquals(4, histogram.getPercentile(100));
+        assertEquals(4, histogram.getMax());
+    }
+
+    @Test
+    void testNegativeRecordedAsZero() {
+        Log2Histogram histogram = new Log2Histogram();
+        histogram.record(-5);
+        histogram.record(1000);
+
+        assertEquals(2, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(50));
+        assertEquals(1000, histogram.getPercentile(100));
+    }
+}
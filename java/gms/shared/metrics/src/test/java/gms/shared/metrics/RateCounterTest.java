@@ -0,0 +1,50 @@
+package gms.shared.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class RateCounterTest {
+
+    private static final long SECOND_NANOS = Duration.ofSeconds(1).toNanos();
+
+    private final AtomicLong nanos = new AtomicLong(1000);
+    private final RateCounter counter = new RateCounter(Duration.ofSeconds(1), nanos::get);
+
+    @Test
+    void testRateMeasuredOverCompletedWindow() {
+        counter.add(50);
+        nanos.addAndGet(2 * SECOND_NANOS);
+
+        assertEquals(25.0, counter.getRatePerSecond());
+        assertEquals(50, counter.getCount());
+    }
+
+    @Test
+    void testRateKeptUntilWindowCompletes() {
+        counter.add(10);
+        nanos.addAndGet(SECOND_NANOS);
+        assertEquals(10.0, counter.getRatePerSecond());
+
+        // Counts within the next window are not reported until it completes
+        counter.add(30);
+        nanos.addAndGet(SECOND_NANOS / 2);
+        assertEquals(10.0, counter.getRatePerSecond());
+
+        nanos.addAndGet(SECOND_NANOS / 2);
+        assertEquals(30.0, counter.getRatePerSecond());
+    }
+
+    @Test
+    void testIdleWindowReportsZero() {
+        counter.increment();
+        nanos.addAndGet(SECOND_NANOS);
+        assertEquals(1.0, counter.getRatePerSecond());
+
+        nanos.addAndGet(SECOND_NANOS);
+        assertEquals(0.0, counter.getRatePerSecond());
+        assertEquals(1, counter.getCount());
+    }
+}
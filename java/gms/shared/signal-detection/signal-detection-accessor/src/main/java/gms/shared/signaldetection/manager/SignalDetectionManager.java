@@ -56,7 +56,8 @@ public class SignalDetectionManager implements SignalDetectionManagerInterface {
           .getEntityManagerFactory(STATION_DEFINITION_PERSISTENCE_UNIT,
             waveformSystemConfig.getValue(BridgedEntityManagerFactoryProvider.JDBC_URL_CONFIG_KEY),
             systemConfig),
-        ClientGenerator.createClient(StationDefinitionManagerInterface.class)),
+        ClientGenerator.createClient(StationDefinitionManagerInterface.class),
+        waveformSystemConfig),
       stationDefinitionAccessorFactory);
     SignalDetectionCacheFactory.setUpCache(systemConfig);
     var factory = SignalDetectionAccessorFactory.create(
@@ -1,7 +1,10 @@
 package gms.shared.utilities.kafka.reactor;
 
+import gms.shared.frameworks.osd.coi.waveforms.RawStationDataFrame;
 import gms.shared.frameworks.systemconfig.SystemConfig;
 import gms.shared.utilities.kafka.KafkaConfiguration;
+import gms.shared.utilities.kafka.serde.RawStationDataFrameSerializer;
+import gms.shared.utilities.kafka.serde.RawStationDataFrameSerializer.Format;
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
 import java.util.Collection;
@@ -24,6 +27,8 @@ import org.apache.kafka.clients.consumer.KafkaConsumer;
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.record.CompressionType;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
 import org.apache.kafka.common.serialization.Deserializer;
 import org.apache.kafka.common.serialization.Serializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
@@ -56,6 +61,9 @@ public class ReactorKafkaFactory {
   private static final String KAFKA_CONSUMER_HEARTBEAT_INTERVAL = "kafka-consumer-heartbeat-interval";
   private static final String BATCH_SIZE_IN_SECONDS = "application-batch-size-in-seconds";
 
+  // Upper bound of the records of one partition the batching RSDF sender packs into a request
+  private static final int RSDF_BATCH_SIZE_BYTES = 512 * 1024;
+
 
   /**
    * Constructor with kafkaConfiguration object
@@ -133,8 +141,69 @@ public class ReactorKafkaFactory {
     return KafkaSender.create(senderOptions(senderName, valueSerializer));
   }
 
+  /**
+   * Create a sender of {@link RawStationDataFrame}s in the compact binary format
+   *
+   * @param senderName
+   * @return KafkaSender using a {@link RawStationDataFrameSerializer}
+   */
+  public KafkaSender<String, RawStationDataFrame> createRsdfSender(String senderName) {
+    return createRsdfSender(senderName, Format.BINARY);
+  }
 
+  /**
+   * Create a sender of {@link RawStationDataFrame}s in the given format, e.g. {@link Format#JSON}
+   * while consumers of the topic cannot yet read the binary format
+   *
+   * @param senderName
+   * @param format
+   * @return KafkaSender using a {@link RawStationDataFrameSerializer}
+   */
+  public KafkaSender<String, RawStationDataFrame> createRsdfSender(String senderName,
+      Format format) {
+    return createSender(senderName, new RawStationDataFrameSerializer(format));
+  }
 
+  /**
+   * Create a sender of {@link RawStationDataFrame}s in the compact binary format, tuned for sending
+   * them in large batches, see {@link #createBatchingRsdfSender(String, Format, String, Duration)}
+   *
+   * @param senderName
+   * @param compressionType Kafka compression type of the batches, e.g. lz4 or zstd
+   * @param linger How long the producer waits for more records before sending a partial batch
+   * @return KafkaSender using a {@link RawStationDataFrameSerializer}
+   * @throws IllegalArgumentException if the compression type is not one Kafka supports
+   */
+  public KafkaSender<String, RawStationDataFrame> createBatchingRsdfSender(String senderName,
+      String compressionType, Duration linger) {
+    return createBatchingRsdfSender(senderName, Format.BINARY, compressionType, linger);
+  }
+
+  /**
+   * Create a sender of {@link RawStationDataFrame}s in the given format, tuned for sending
+   * them in large batches: the records of each partition are packed into produce requests of up to
+   * 512 KiB, compressed as a whole, after waiting up to the given linger for more records to arrive.
+   * The sender remains transactional and idempotent, so no acknowledged record is lost or
+   * duplicated by retries.
+   *
+   * @param senderName
+   * @param format Format of the records, e.g. {@link Format#JSON} while consumers of the topic
+   * cannot yet read the binary format
+   * @param compressionType Kafka compression type of the batches, e.g. lz4 or zstd
+   * @param linger How long the producer waits for more records before sending a partial batch
+   * @return KafkaSender using a {@link RawStationDataFrameSerializer}
+   * @throws IllegalArgumentException if the compression type is not one Kafka supports
+   */
+  public KafkaSender<String, RawStationDataFrame> createBatchingRsdfSender(String senderName,
+      Format format, String compressionType, Duration linger) {
+    var compression = CompressionType.forName(compressionType);
+    return KafkaSender.create(
+        senderOptions(senderName, new RawStationDataFrameSerializer(format))
+            .producerProperty(ProducerConfig.COMPRESSION_TYPE_CONFIG, compression.name)
+            .producerProperty(ProducerConfig.LINGER_MS_CONFIG, linger.toMillis())
+            .producerProperty(ProducerConfig.BATCH_SIZE_CONFIG, RSDF_BATCH_SIZE_BYTES)
+            .producerProperty(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true));
+  }
 
   /**
    * Build the Kafka Reactor SenderOptions
@@ -164,6 +233,10 @@ public class ReactorKafkaFactory {
    * @return ReceiverOptions
    */
   public ReceiverOptions<String, String> baseReceiverOptions() {
+    return ReceiverOptions.create(baseReceiverProperties());
+  }
+
+  private Map<String, Object> baseReceiverProperties() {
     Map<String, Object> props = new HashMap<>();
     props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaConfiguration.getBootstrapServers());
     props.put(ConsumerConfig.CLIENT_ID_CONFIG, kafkaConfiguration.getApplicationId());
@@ -177,7 +250,7 @@ public class ReactorKafkaFactory {
     props.put(ConsumerConfig.HEARTBEAT_INTERVAL_MS_CONFIG,
         kafkaConfiguration.getHeartbeatInterval());
 
-    return ReceiverOptions.create(props);
+    return props;
   }
 
   /**
@@ -186,7 +259,13 @@ public class ReactorKafkaFactory {
    * and the supplied topics
    */
   public ReceiverOptions<String, String> receiverOptions(Collection<String> topics) {
-    return baseReceiverOptions()
+    return receiverOptions(topics, new StringDeserializer());
+  }
+
+  private <T> ReceiverOptions<String, T> receiverOptions(Collection<String> topics,
+      Deserializer<T> valueDeserializer) {
+    return ReceiverOptions.<String, T>create(baseReceiverProperties())
+        .withValueDeserializer(valueDeserializer)
         .consumerProperty(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest")
         .commitBatchSize(10)
         .commitInterval(Duration.ofSeconds(15L))
@@ -204,6 +283,20 @@ public class ReactorKafkaFactory {
         Collections.singleton(kafkaConfiguration.getInputRsdfTopic())));
   }
 
+  /**
+   * Create a KafkaReceiver using the topic stored in the KafkaConfiguration field and the supplied
+   * value deserializer, e.g. a {@link ByteArrayDeserializer} so records can be decoded (and
+   * malformed records dropped) individually by the consumer
+   *
+   * @param valueDeserializer
+   * @param <T>
+   * @return KafkaReceiver using the supplied deserializer
+   */
+  public <T> KafkaReceiver<String, T> createReceiver(Deserializer<T> valueDeserializer) {
+    return KafkaReceiver.create(receiverOptions(
+        Collections.singleton(kafkaConfiguration.getInputRsdfTopic()), valueDeserializer));
+  }
+
   /**
    * Create KafkaReceiver object using system config values and a serializer of type T
    * Also uses the specified listeners
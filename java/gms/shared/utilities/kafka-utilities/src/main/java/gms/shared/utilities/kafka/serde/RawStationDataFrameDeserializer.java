@@ -0,0 +1,36 @@
+package gms.shared.utilities.kafka.serde;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import gms.shared.frameworks.osd.coi.datatransferobjects.CoiObjectMapperFactory;
+import gms.shared.frameworks.osd.coi.waveforms.RawStationDataFrame;
+import java.io.IOException;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+/**
+ * Kafka {@link Deserializer} for {@link RawStationDataFrame}s written by
+ * {@link RawStationDataFrameSerializer} in either of its formats. Binary records are recognized by
+ * their leading magic byte; anything else is read as JSON, so topics holding records from older
+ * producers, or producers not yet switched to the binary format, remain readable.
+ */
+public class RawStationDataFrameDeserializer implements Deserializer<RawStationDataFrame> {
+
+  private static final ObjectMapper objectMapper = CoiObjectMapperFactory.getJsonObjectMapper();
+
+  @Override
+  public RawStationDataFrame deserialize(String topic, byte[] data) {
+    if (data == null) {
+      return null;
+    }
+
+    if (data.length > 0 && data[0] == RsdfBinaryFormat.MAGIC) {
+      return RsdfBinaryFormat.read(data);
+    }
+
+    try {
+      return objectMapper.readValue(data, RawStationDataFrame.class);
+    } catch (IOException e) {
+      throw new SerializationException("Error when deserializing RawStationDataFrame from JSON", e);
+    }
+  }
+}
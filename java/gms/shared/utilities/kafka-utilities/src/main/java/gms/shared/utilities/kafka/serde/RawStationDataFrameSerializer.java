@@ -0,0 +1,72 @@
+package gms.shared.utilities.kafka.serde;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import gms.shared.frameworks.osd.coi.datatransferobjects.CoiObjectMapperFactory;
+import gms.shared.frameworks.osd.coi.waveforms.RawStationDataFrame;
+import java.util.Map;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Kafka {@link Serializer} for {@link RawStationDataFrame}s, writing either the compact binary
+ * format read by {@link RawStationDataFrameDeserializer} or the JSON written by earlier versions.
+ * <p>
+ * The binary format carries the raw payload as bytes rather than base64 text and the metadata in a
+ * fixed layout header, so records are considerably smaller and cheaper to read. As only
+ * {@link RawStationDataFrameDeserializer} can read it, producers of a topic should only write
+ * {@link Format#BINARY} once every consumer of the topic has been upgraded; until then they can be
+ * held at {@link Format#JSON}. Kafka only configures serializers it instantiates itself, so an
+ * instance passed to a producer is held there through the constructor, and a serializer named in
+ * the producer properties through the {@value #FORMAT_CONFIG} property.
+ */
+public class RawStationDataFrameSerializer implements Serializer<RawStationDataFrame> {
+
+  public static final String FORMAT_CONFIG = "rsdf.serializer.format";
+
+  private static final ObjectMapper objectMapper = CoiObjectMapperFactory.getJsonObjectMapper();
+
+  public enum Format {
+    BINARY,
+    JSON
+  }
+
+  private Format format;
+
+  public RawStationDataFrameSerializer() {
+    this(Format.BINARY);
+  }
+
+  public RawStationDataFrameSerializer(Format format) {
+    this.format = format;
+  }
+
+  @Override
+  public void configure(Map<String, ?> configs, boolean isKey) {
+    Object configuredFormat = configs.get(FORMAT_CONFIG);
+    if (configuredFormat != null) {
+      format = Format.valueOf(configuredFormat.toString().toUpperCase());
+    }
+  }
+
+  public Format getFormat() {
+    return format;
+  }
+
+  @Override
+  public byte[] serialize(String topic, RawStationDataFrame data) {
+    if (data == null) {
+      return null;
+    }
+
+    if (format == Format.BINARY) {
+      return RsdfBinaryFormat.write(data);
+    }
+
+    try {
+      return objectMapper.writeValueAsBytes(data);
+    } catch (JsonProcessingException e) {
+      throw new SerializationException("Error when serializing RawStationDataFrame to JSON", e);
+    }
+  }
+}
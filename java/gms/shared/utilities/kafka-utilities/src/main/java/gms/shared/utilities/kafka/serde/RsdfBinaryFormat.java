@@ -0,0 +1,209 @@
+package gms.shared.utilities.kafka.serde;
+
+import gms.shared.frameworks.osd.coi.waveforms.RawStationDataFrame;
+import gms.shared.frameworks.osd.coi.waveforms.RawStationDataFrame.AuthenticationStatus;
+import gms.shared.frameworks.osd.coi.waveforms.RawStationDataFrameMetadata;
+import gms.shared.frameworks.osd.coi.waveforms.RawStationDataFramePayloadFormat;
+import gms.shared.frameworks.osd.coi.waveforms.WaveformSummary;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.apache.kafka.common.errors.SerializationException;
+
+/**
+ * Binary encoding of {@link RawStationDataFrame}s for Kafka. All values are big-endian.
+ *
+ * <pre>
+ *   byte      magic (0xD5, never the first byte of a JSON document)
+ *   byte      version (1)
+ *   long x2   id (most, least significant bits)
+ *   string    station name
+ *   byte      payload format (ordinal)
+ *   byte      authentication status (ordinal)
+ *   instant   payload start time, payload end time, reception time
+ *   int       channel name count, followed by that many strings
+ *   int       waveform summary count, followed by that many summaries:
+ *               string key, byte 1 if the summary's channel name differs from the key followed
+ *               by that string (0 otherwise), instant start time, instant end time
+ *   int       raw payload length, followed by the raw payload bytes
+ *
+ *   string    short length, followed by that many UTF-8 bytes
+ *   instant   long epoch seconds, int nanoseconds
+ * </pre>
+ * <p>
+ * Enum ordinals are part of the format, so constants of {@link RawStationDataFramePayloadFormat}
+ * and {@link AuthenticationStatus} may only be appended. Any other change requires a new version.
+ */
+final class RsdfBinaryFormat {
+
+  static final byte MAGIC = (byte) 0xD5;
+  static final byte VERSION = 1;
+
+  private static final int INSTANT_LENGTH = Long.BYTES + Integer.BYTES;
+  private static final RawStationDataFramePayloadFormat[] PAYLOAD_FORMATS =
+      RawStationDataFramePayloadFormat.values();
+  private static final AuthenticationStatus[] AUTHENTICATION_STATUSES =
+      AuthenticationStatus.values();
+
+  private RsdfBinaryFormat() {
+  }
+
+  static byte[] write(RawStationDataFrame rsdf) {
+    RawStationDataFrameMetadata metadata = rsdf.getMetadata();
+    byte[] stationName = utf8(metadata.getStationName());
+    List<byte[]> channelNames = new ArrayList<>(metadata.getChannelNames().size());
+    int length = 2 + 2 * Long.BYTES + 2 + stationName.length + 2 + 3 * INSTANT_LENGTH
+        + Integer.BYTES;
+    for (String channelName : metadata.getChannelNames()) {
+      byte[] bytes = utf8(channelName);
+      channelNames.add(bytes);
+      length += 2 + bytes.length;
+    }
+
+    Map<String, WaveformSummary> summaries = metadata.getWaveformSummaries();
+    List<byte[]> summaryNames = new ArrayList<>(2 * summaries.size());
+    length += Integer.BYTES;
+    for (Map.Entry<String, WaveformSummary> entry : summaries.entrySet()) {
+      byte[] key = utf8(entry.getKey());
+      byte[] channelName = entry.getKey().equals(entry.getValue().getChannelName()) ? null
+          : utf8(entry.getValue().getChannelName());
+      summaryNames.add(key);
+      summaryNames.add(channelName);
+      length += 2 + key.length + 1 + (channelName == null ? 0 : 2 + channelName.length)
+          + 2 * INSTANT_LENGTH;
+    }
+
+    byte[] payload = rsdf.getRawPayload();
+    length += Integer.BYTES + payload.length;
+
+    ByteBuffer buffer = ByteBuffer.allocate(length)
+        .put(MAGIC)
+        .put(VERSION)
+        .putLong(rsdf.getId().getMostSignificantBits())
+        .putLong(rsdf.getId().getLeastSignificantBits());
+    putString(buffer, stationName);
+    buffer.put((byte) metadata.getPayloadFormat().ordinal())
+        .put((byte) metadata.getAuthenticationStatus().ordinal());
+    putInstant(buffer, metadata.getPayloadStartTime());
+    putInstant(buffer, metadata.getPayloadEndTime());
+    putInstant(buffer, metadata.getReceptionTime());
+
+    buffer.putInt(channelNames.size());
+    channelNames.forEach(channelName -> putString(buffer, channelName));
+
+    buffer.putInt(summaries.size());
+    int summaryIndex = 0;
+    for (WaveformSummary summary : summaries.values()) {
+      putString(buffer, summaryNames.get(summaryIndex++));
+      byte[] channelName = summaryNames.get(summaryIndex++);
+      if (channelName == null) {
+        buffer.put((byte) 0);
+      } else {
+        putString(buffer.put((byte) 1), channelName);
+      }
+      putInstant(buffer, summary.getStartTime());
+      putInstant(buffer, summary.getEndTime());
+    }
+
+    return buffer.putInt(payload.length)
+        .put(payload)
+        .array();
+  }
+
+  static RawStationDataFrame read(byte[] data) {
+    ByteBuffer buffer = ByteBuffer.wrap(data);
+    try {
+      if (buffer.get() != MAGIC) {
+        throw new SerializationException("Data is not a binary RawStationDataFrame");
+      }
+      byte version = buffer.get();
+      if (version != VERSION) {
+        throw new SerializationException(
+            "Unsupported binary RawStationDataFrame version " + version);
+      }
+
+      UUID id = new UUID(buffer.getLong(), buffer.getLong());
+      RawStationDataFrameMetadata.Builder metadata = RawStationDataFrameMetadata.builder()
+          .setStationName(getString(buffer))
+          .setPayloadFormat(PAYLOAD_FORMATS[buffer.get()])
+          .setAuthenticationStatus(AUTHENTICATION_STATUSES[buffer.get()])
+          .setPayloadStartTime(getInstant(buffer))
+          .setPayloadEndTime(getInstant(buffer))
+          .setReceptionTime(getInstant(buffer));
+
+      int channelCount = getCount(buffer);
+      List<String> channelNames = new ArrayList<>(channelCount);
+      for (int i = 0; i < channelCount; i++) {
+        channelNames.add(getString(buffer));
+      }
+
+      int summaryCount = getCount(buffer);
+      Map<String, WaveformSummary> summaries = new LinkedHashMap<>(2 * summaryCount);
+      for (int i = 0; i < summaryCount; i++) {
+        String key = getString(buffer);
+        String channelName = buffer.get() == 0 ? key : getString(buffer);
+        summaries.put(key,
+            WaveformSummary.from(channelName, getInstant(buffer), getInstant(buffer)));
+      }
+
+      byte[] payload = new byte[getCount(buffer)];
+      buffer.get(payload);
+
+      return RawStationDataFrame.builder()
+          .setId(id)
+          .setMetadata(metadata
+              .setChannelNames(channelNames)
+              .setWaveformSummaries(summaries)
+              .build())
+          .setRawPayload(payload)
+          .build();
+    } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException
+        | DateTimeException e) {
+      throw new SerializationException("Malformed binary RawStationDataFrame", e);
+    }
+  }
+
+  private static byte[] utf8(String value) {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    if (bytes.length > 0xFFFF) {
+      throw new SerializationException("String is too long to serialize: " + bytes.length
+          + " bytes");
+    }
+    return bytes;
+  }
+
+  private static void putString(ByteBuffer buffer, byte[] value) {
+    buffer.putShort((short) value.length).put(value);
+  }
+
+  private static String getString(ByteBuffer buffer) {
+    int length = Short.toUnsignedInt(buffer.getShort());
+    String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+        StandardCharsets.UTF_8);
+    buffer.position(buffer.position() + length);
+    return value;
+  }
+
+  private static int getCount(ByteBuffer buffer) {
+    int count = buffer.getInt();
+    if (count < 0 || count > buffer.remaining()) {
+      throw new SerializationException("Invalid element count " + count);
+    }
+    return count;
+  }
+
+  private static void putInstant(ByteBuffer buffer, Instant instant) {
+    buffer.putLong(instant.getEpochSecond()).putInt(instant.getNano());
+  }
+
+  private static Instant getInstant(ByteBuffer buffer) {
+    return Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+  }
+}
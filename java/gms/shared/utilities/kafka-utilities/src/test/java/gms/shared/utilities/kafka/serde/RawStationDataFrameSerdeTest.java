@@ -0,0 +1,125 @@
+package gms.shared.utilities.kafka.serde;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import gms.shared.frameworks.osd.coi.datatransferobjects.CoiSerializer;
+import gms.shared.frameworks.osd.coi.waveforms.RawStationDataFrame;
+import gms.shared.frameworks.osd.coi.waveforms.RawStationDataFrame.AuthenticationStatus;
+import gms.shared.frameworks.osd.coi.waveforms.RawStationDataFrameMetadata;
+import gms.shared.frameworks.osd.coi.waveforms.RawStationDataFramePayloadFormat;
+import gms.shared.frameworks.osd.coi.waveforms.WaveformSummary;
+import gms.shared.utilities.kafka.serde.RawStationDataFrameSerializer.Format;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+class RawStationDataFrameSerdeTest {
+
+  private static final String TOPIC = "soh.rsdf";
+  private static final Instant START = Instant.parse("2021-03-01T12:00:00.123456789Z");
+
+  private final RawStationDataFrameDeserializer deserializer =
+      new RawStationDataFrameDeserializer();
+
+  private static RawStationDataFrame rsdf() {
+    byte[] payload = new byte[4096];
+    new Random(7).nextBytes(payload);
+
+    return RawStationDataFrame.builder()
+        .setId(UUID.randomUUID())
+        .setMetadata(RawStationDataFrameMetadata.builder()
+            .setStationName("ÅSAR")
+            .setChannelNames(List.of("ASAR.AS01.SHZ", "ASAR.AS02.SHZ"))
+            .setPayloadFormat(RawStationDataFramePayloadFormat.CD11)
+            .setAuthenticationStatus(AuthenticationStatus.AUTHENTICATION_SUCCEEDED)
+            .setPayloadStartTime(START)
+            .setPayloadEndTime(START.plusSeconds(10))
+            .setReceptionTime(START.plusSeconds(12))
+            .setWaveformSummaries(Map.of(
+                "ASAR.AS01.SHZ",
+                WaveformSummary.from("ASAR.AS01.SHZ", START, START.plusSeconds(10)),
+                "ASAR.AS02.SHZ",
+                WaveformSummary.from("ASAR.AS02.SHZ/beam", START, START.plusSeconds(5))))
+            .build())
+        .setRawPayload(payload)
+        .build();
+  }
+
+  @Test
+  void testBinaryRoundTrip() {
+    RawStationDataFrame rsdf = rsdf();
+    RawStationDataFrameSerializer serializer = new RawStationDataFrameSerializer();
+    assertEquals(Format.BINARY, serializer.getFormat());
+
+    byte[] data = serializer.serialize(TOPIC, rsdf);
+    assertEquals(RsdfBinaryFormat.MAGIC, data[0]);
+
+    RawStationDataFrame deserialized = deserializer.deserialize(TOPIC, data);
+    assertEquals(rsdf, deserialized);
+    assertEquals(rsdf.getMetadata(), deserialized.getMetadata());
+    assertArrayEquals(rsdf.getRawPayload(), deserialized.getRawPayload());
+  }
+
+  @Test
+  void testBinaryIsSmallerThanJson() {
+    RawStationDataFrame rsdf = rsdf();
+    byte[] binary = new RawStationDataFrameSerializer(Format.BINARY).serialize(TOPIC, rsdf);
+    byte[] json = new RawStationDataFrameSerializer(Format.JSON).serialize(TOPIC, rsdf);
+    assertTrue(binary.length < json.length,
+        () -> String.format("binary: %d bytes, json: %d bytes", binary.length, json.length));
+  }
+
+  @Test
+  void testJsonIsReadable() {
+    RawStationDataFrame rsdf = rsdf();
+    assertEquals(rsdf, deserializer.deserialize(TOPIC,
+        new RawStationDataFrameSerializer(Format.JSON).serialize(TOPIC, rsdf)));
+    // As written by producers predating the binary format
+    assertEquals(rsdf, deserializer.deserialize(TOPIC,
+        new CoiSerializer<RawStationDataFrame>().serialize(TOPIC, rsdf)));
+  }
+
+  @Test
+  void testConfigureFormat() {
+    RawStationDataFrameSerializer serializer = new RawStationDataFrameSerializer();
+    serializer.configure(Map.of(), false);
+    assertEquals(Format.BINARY, serializer.getFormat());
+
+    serializer.configure(Map.of(RawStationDataFrameSerializer.FORMAT_CONFIG, "json"), false);
+    assertEquals(Format.JSON, serializer.getFormat());
+    assertEquals('{', serializer.serialize(TOPIC, rsdf())[0]);
+  }
+
+  @Test
+  void testNull() {
+    assertNull(new RawStationDataFrameSerializer().serialize(TOPIC, null));
+    assertNull(deserializer.deserialize(TOPIC, null));
+  }
+
+  @Test
+  void testMalformedData() {
+    byte[] data = new RawStationDataFrameSerializer().serialize(TOPIC, rsdf());
+
+    byte[] truncated = Arrays.copyOf(data, data.length - 1);
+    assertThrows(SerializationException.class, () -> deserializer.deserialize(TOPIC, truncated));
+
+    byte[] unknownVersion = data.clone();
+    unknownVersion[1] = RsdfBinaryFormat.VERSION + 1;
+    assertThrows(SerializationException.class,
+        () -> deserializer.deserialize(TOPIC, unknownVersion));
+
+    assertThrows(SerializationException.class,
+        () -> deserializer.deserialize(TOPIC, new byte[]{RsdfBinaryFormat.MAGIC}));
+    assertThrows(SerializationException.class,
+        () -> deserializer.deserialize(TOPIC, "not json".getBytes()));
+  }
+}
@@ -8,11 +8,14 @@ import gms.shared.frameworks.systemconfig.SystemConfig;
 import gms.shared.utilities.kafka.KafkaConfiguration;
 import gms.shared.utilities.kafka.reactor.KafkaTestFixture;
 import gms.shared.utilities.kafka.reactor.ReactorKafkaFactory;
+import gms.shared.utilities.kafka.serde.RawStationDataFrameSerializer.Format;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 import java.util.function.Consumer;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
 import org.apache.kafka.common.serialization.Deserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.junit.jupiter.api.Test;
@@ -61,6 +64,44 @@ class ReactorKafkaFactoryTest {
         () -> kafkaFactory.createReceiver());
   }
 
+  @Test
+  void testCreateRsdfSender() {
+
+    KafkaTestFixture.assignKafkaConfig(kafkaConfig);
+
+    ReactorKafkaFactory kafkaFactory = new ReactorKafkaFactory(kafkaConfig);
+    assertDoesNotThrow(
+        () -> kafkaFactory.createRsdfSender("test-id"));
+    assertDoesNotThrow(
+        () -> kafkaFactory.createRsdfSender("test-id", Format.JSON));
+  }
+
+  @Test
+  void testCreateBatchingRsdfSender() {
+
+    KafkaTestFixture.assignKafkaConfig(kafkaConfig);
+
+    ReactorKafkaFactory kafkaFactory = new ReactorKafkaFactory(kafkaConfig);
+    assertDoesNotThrow(
+        () -> kafkaFactory.createBatchingRsdfSender("test-id", "lz4", Duration.ofMillis(5)));
+    assertDoesNotThrow(
+        () -> kafkaFactory.createBatchingRsdfSender("test-id", "zstd", Duration.ZERO));
+    assertDoesNotThrow(() -> kafkaFactory
+        .createBatchingRsdfSender("test-id", Format.JSON, "lz4", Duration.ofMillis(5)));
+    assertThrows(IllegalArgumentException.class,
+        () -> kafkaFactory.createBatchingRsdfSender("test-id", "brotli", Duration.ZERO));
+  }
+
+  @Test
+  void createDeserializerReceiver() {
+
+    willReturn("test-topic").given(kafkaConfig).getInputRsdfTopic();
+
+    ReactorKafkaFactory kafkaFactory = new ReactorKafkaFactory(kafkaConfig);
+    assertDoesNotThrow(
+        () -> kafkaFactory.createReceiver(new ByteArrayDeserializer()));
+  }
+
   @Test
   void createBaseConfig() {
 
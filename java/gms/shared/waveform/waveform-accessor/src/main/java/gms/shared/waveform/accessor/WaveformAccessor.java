@@ -13,7 +13,9 @@ import gms.shared.waveform.api.WaveformRepositoryInterface;
 import gms.shared.waveform.coi.ChannelSegment;
 import gms.shared.waveform.coi.ChannelSegmentDescriptor;
 import gms.shared.waveform.coi.Waveform;
+import reactor.core.publisher.Flux;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Collection;
 import java.util.Set;
@@ -39,6 +41,7 @@ public class WaveformAccessor implements WaveformAccessorInterface {
   public static final String START_FUTURE_ERR = "Start Time cannot be in the future";
   public static final String END_FUTURE_ERR = "End Time cannot be in the future";
   public static final String NULL_FACETING_DEFINITION_MESSAGE = "Faceting definition cannot be null";
+  public static final String NULL_CHUNK_DURATION_MESSAGE = "Chunk duration cannot be null";
 
   private WaveformAccessor(
     WaveformRepositoryInterface waveformRepositoryImpl,
@@ -97,9 +100,9 @@ public class WaveformAccessor implements WaveformAccessorInterface {
       channels, startTime, endTime);
     WaveformFacetingUtility facetingUtil = WaveformFacetingUtility.create(this, stationDefinitionAccessorImpl);
 
-    return channelSegments.stream().map(channelSeg ->
-      (ChannelSegment<Waveform>) facetingUtil.populateFacets(channelSeg, facetingDefinition)
-    ).collect(Collectors.toList());
+    return channelSegments.stream()
+      .map(channelSeg -> populateFacets(facetingUtil, channelSeg, facetingDefinition))
+      .collect(Collectors.toList());
   }
 
   @Override
@@ -128,8 +131,74 @@ public class WaveformAccessor implements WaveformAccessorInterface {
       channelSegmentDescriptors);
     WaveformFacetingUtility facetingUtil = WaveformFacetingUtility.create(this, stationDefinitionAccessorImpl);
 
-    return channelSegments.stream().map(channelSeg ->
-      (ChannelSegment<Waveform>) facetingUtil.populateFacets(channelSeg, facetingDefinition)
-    ).collect(Collectors.toList());
+    return channelSegments.stream()
+      .map(channelSeg -> populateFacets(facetingUtil, channelSeg, facetingDefinition))
+      .collect(Collectors.toList());
+  }
+
+  @Override
+  public Flux<ChannelSegment<Waveform>> streamByChannelsAndTimeRange(
+    Set<Channel> channels, Instant startTime, Instant endTime, Duration chunkDuration) {
+
+    Preconditions.checkNotNull(channels, NULL_CHANNELS);
+    Preconditions.checkState(!channels.isEmpty(), EMPTY_CHANNELS_MESSAGE);
+    Preconditions.checkState(startTime.isBefore(endTime), START_END_TIME_ERR);
+    Preconditions.checkState(startTime.isBefore(Instant.now()), START_FUTURE_ERR);
+    Preconditions.checkState(endTime.isBefore(Instant.now()), END_FUTURE_ERR);
+    Preconditions.checkNotNull(chunkDuration, NULL_CHUNK_DURATION_MESSAGE);
+
+    return waveformRepositoryImpl.streamByChannelsAndTimeRange(channels, startTime, endTime, chunkDuration);
+  }
+
+  @Override
+  public Flux<ChannelSegment<Waveform>> streamByChannelsAndTimeRange(
+    Set<Channel> channels, Instant startTime, Instant endTime, Duration chunkDuration,
+    FacetingDefinition facetingDefinition) {
+
+    Preconditions.checkNotNull(facetingDefinition, NULL_FACETING_DEFINITION_MESSAGE);
+
+    Flux<ChannelSegment<Waveform>> channelSegments = streamByChannelsAndTimeRange(
+      channels, startTime, endTime, chunkDuration);
+    WaveformFacetingUtility facetingUtil = WaveformFacetingUtility.create(this, stationDefinitionAccessorImpl);
+
+    return channelSegments
+      .map(channelSeg -> populateFacets(facetingUtil, channelSeg, facetingDefinition));
+  }
+
+  @Override
+  public Flux<ChannelSegment<Waveform>> streamByChannelNamesAndSegmentDescriptor(
+    Collection<ChannelSegmentDescriptor> channelSegmentDescriptors, Duration chunkDuration) {
+
+    Preconditions.checkNotNull(channelSegmentDescriptors, NULL_CHANNEL_SEGMENT_DESCRIPTORS);
+    Preconditions.checkState(!channelSegmentDescriptors.isEmpty(), EMPTY_CHANNEL_SEGMENT_DESCRIPTORS_MESSAGE);
+    Preconditions.checkNotNull(chunkDuration, NULL_CHUNK_DURATION_MESSAGE);
+
+    logger.info("Streaming waveforms for {} channel segment descriptors", channelSegmentDescriptors.size());
+    return waveformRepositoryImpl.streamByChannelNamesAndSegmentDescriptor(channelSegmentDescriptors, chunkDuration);
+  }
+
+  @Override
+  public Flux<ChannelSegment<Waveform>> streamByChannelNamesAndSegmentDescriptor(
+    Collection<ChannelSegmentDescriptor> channelSegmentDescriptors, Duration chunkDuration,
+    FacetingDefinition facetingDefinition) {
+
+    Preconditions.checkNotNull(facetingDefinition, NULL_FACETING_DEFINITION_MESSAGE);
+
+    Flux<ChannelSegment<Waveform>> channelSegments = streamByChannelNamesAndSegmentDescriptor(
+      channelSegmentDescriptors, chunkDuration);
+    WaveformFacetingUtility facetingUtil = WaveformFacetingUtility.create(this, stationDefinitionAccessorImpl);
+
+    return channelSegments
+      .map(channelSeg -> populateFacets(facetingUtil, channelSeg, facetingDefinition));
+  }
+
+  /**
+   * Populates the facets of a channel segment, keeping its type. The faceting utility returns a
+   * segment of the same timeseries as the one it was given, but only as a wildcard type.
+   */
+  @SuppressWarnings("unchecked")
+  private static ChannelSegment<Waveform> populateFacets(WaveformFacetingUtility facetingUtil,
+    ChannelSegment<Waveform> channelSegment, FacetingDefinition facetingDefinition) {
+    return (ChannelSegment<Waveform>) facetingUtil.populateFacets(channelSegment, facetingDefinition);
   }
 }
@@ -5,6 +5,9 @@ import gms.shared.stationdefinition.coi.facets.FacetingDefinition;
 import gms.shared.waveform.coi.ChannelSegment;
 import gms.shared.waveform.coi.ChannelSegmentDescriptor;
 import gms.shared.waveform.coi.Waveform;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Collection;
 import java.util.Set;
@@ -42,4 +45,37 @@ public interface  WaveformAccessorInterface extends WaveformRepositoryInterface
   Collection<ChannelSegment<Waveform>> findByChannelNamesAndSegmentDescriptor(
       Collection<ChannelSegmentDescriptor> channelSegmentDescriptors,
       FacetingDefinition facetingDefinition);
+
+  /**
+   * Implements the same query as the streamByChannelsAndTimeRange operation described above,
+   * but uses the provided FacetingDefinition to determine how to populate the Channel object associated
+   * by each ChannelSegment<Waveform>.
+   *
+   * @param channels List of channels to return the list of ChannelSegments for.
+   * @param startTime beginning time of waveforms to query over
+   * @param endTime end time of waveforms to query over
+   * @param chunkDuration longest time interval of a ChannelSegment of the stream
+   * @param facetingDefinition used to determine how to populate the Channel object
+   *
+   * @return stream of {@link ChannelSegment}s for each Channel entity within each time chunk of the queried time
+   * interval
+   */
+  Flux<ChannelSegment<Waveform>> streamByChannelsAndTimeRange(
+      Set<Channel> channels, Instant startTime, Instant endTime, Duration chunkDuration,
+      FacetingDefinition facetingDefinition);
+
+  /**
+   * Implements the same query as the streamByChannelNamesAndSegmentDescriptor operation described above,
+   * but uses the provided FacetingDefinition to determine how to populate the Channel object associated
+   * by each ChannelSegment<Waveform>.
+   *
+   * @param channelSegmentDescriptors ChannelSegmentDescriptors to query ChannelSegments for
+   * @param chunkDuration longest time interval of a ChannelSegment of the stream
+   * @param facetingDefinition used to determine how to populate the Channel object
+   *
+   * @return stream of {@link ChannelSegment}s for each time chunk of each ChannelSegmentDescriptor
+   */
+  Flux<ChannelSegment<Waveform>> streamByChannelNamesAndSegmentDescriptor(
+      Collection<ChannelSegmentDescriptor> channelSegmentDescriptors, Duration chunkDuration,
+      FacetingDefinition facetingDefinition);
 }
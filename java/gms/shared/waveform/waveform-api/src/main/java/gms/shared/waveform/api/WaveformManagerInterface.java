@@ -8,6 +8,7 @@ import gms.shared.waveform.coi.ChannelSegment;
 import gms.shared.waveform.coi.Waveform;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.parameters.RequestBody;
+import reactor.core.publisher.Flux;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.POST;
@@ -65,4 +66,44 @@ public interface WaveformManagerInterface {
   Collection<ChannelSegment<Waveform>> findWaveformsByChannelSegmentDescriptors(
       @RequestBody(description = "Channel name and segment start, end, and creation times used to query ChannelSegment<Waveform>")
           ChannelSegmentDescriptorRequest channelSegmentDescriptorRequest);
+
+  /**
+   * Streams the same {@link ChannelSegment}s as findWaveformsByChannelsAndTimeRange, emitting one
+   * ChannelSegment per Channel version and per time chunk of the queried time interval as soon as
+   * its waveforms are read, rather than reading the whole interval before responding. Each
+   * ChannelSegment covers only its time chunk, so a Channel's waveforms may be split across
+   * several ChannelSegments.
+   *
+   * @param channelTimeRangeRequest List of channels to and time ranges to query over.
+   *
+   * @return stream of {@link ChannelSegment}s for each Channel entity within each time chunk of the
+   * queried time interval, in channel and then time order
+   */
+  @Path("/channel-segment/stream/channel-timerange")
+  @POST
+  @Consumes(ContentType.JSON_NAME)
+  @Produces(ContentType.JSON_STREAM_NAME)
+  @Operation(summary = "Streams ChannelSegment<Waveform> based on channel and time range, in time chunks")
+  Flux<ChannelSegment<Waveform>> streamWaveformsByChannelsAndTimeRange(
+      @RequestBody(description = "List of channels and time range used to query ChannelSegment<Waveform>")
+          ChannelTimeRangeRequest channelTimeRangeRequest);
+
+  /**
+   * Streams the same {@link ChannelSegment}s as findWaveformsByChannelSegmentDescriptors, emitting
+   * one ChannelSegment per ChannelSegmentDescriptor and per time chunk of its time interval as
+   * soon as its waveforms are read.
+   *
+   * @param channelSegmentDescriptorRequest ChannelName, time ranges, and creation time to query over.
+   *
+   * @return stream of {@link ChannelSegment}s for each time chunk of each ChannelSegmentDescriptor,
+   * in descriptor and then time order
+   */
+  @Path("/channel-segment/stream/channel-segment-descriptors")
+  @POST
+  @Consumes(ContentType.JSON_NAME)
+  @Produces(ContentType.JSON_STREAM_NAME)
+  @Operation(summary = "Streams ChannelSegment<Waveform> based on channel name and segment start, end, and creation times, in time chunks")
+  Flux<ChannelSegment<Waveform>> streamWaveformsByChannelSegmentDescriptors(
+      @RequestBody(description = "Channel name and segment start, end, and creation times used to query ChannelSegment<Waveform>")
+          ChannelSegmentDescriptorRequest channelSegmentDescriptorRequest);
 }
@@ -4,6 +4,9 @@ import gms.shared.stationdefinition.coi.channel.Channel;
 import gms.shared.waveform.coi.ChannelSegment;
 import gms.shared.waveform.coi.ChannelSegmentDescriptor;
 import gms.shared.waveform.coi.Waveform;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Collection;
 import java.util.Set;
@@ -49,5 +52,35 @@ public interface WaveformRepositoryInterface {
   Collection<ChannelSegment<Waveform>> findByChannelNamesAndSegmentDescriptor(
       Collection<ChannelSegmentDescriptor> channelSegmentDescriptors);
 
+  /**
+   * Streams the same {@link ChannelSegment}s as findByChannelsAndTimeRange, split into consecutive time chunks of
+   * at most the chunk duration. The waveform files and Channel versions are looked up once for the whole time
+   * interval, and the waveforms are then read one chunk at a time as the stream is consumed.
+   *
+   * @param channels List of channels to return the list of ChannelSegments for.
+   * @param startTime beginning time of waveforms to query over
+   * @param endTime end time of waveforms to query over
+   * @param chunkDuration longest time interval of a ChannelSegment of the stream
+   *
+   * @return stream of {@link ChannelSegment}s for each Channel entity within each time chunk of the queried time
+   * interval, in channel and then time order
+   */
+  Flux<ChannelSegment<Waveform>> streamByChannelsAndTimeRange(
+      Set<Channel> channels, Instant startTime, Instant endTime, Duration chunkDuration);
+
+  /**
+   * Streams the same {@link ChannelSegment}s as findByChannelNamesAndSegmentDescriptor, split into consecutive
+   * time chunks of at most the chunk duration. The waveform files and Channel versions are looked up once for each
+   * ChannelSegmentDescriptor, and the waveforms are then read one chunk at a time as the stream is consumed.
+   *
+   * @param channelSegmentDescriptors ChannelSegmentDescriptors to query ChannelSegments for
+   * @param chunkDuration longest time interval of a ChannelSegment of the stream
+   *
+   * @return stream of {@link ChannelSegment}s for each time chunk of each ChannelSegmentDescriptor, in descriptor
+   * and then time order
+   */
+  Flux<ChannelSegment<Waveform>> streamByChannelNamesAndSegmentDescriptor(
+      Collection<ChannelSegmentDescriptor> channelSegmentDescriptors, Duration chunkDuration);
+
 
 }
@@ -2,6 +2,7 @@ package gms.shared.waveform.repository;
 
 import com.google.common.collect.LinkedListMultimap;
 import com.google.common.collect.Multimap;
+import com.google.common.collect.Range;
 import gms.shared.stationdefinition.api.StationDefinitionManagerInterface;
 import gms.shared.stationdefinition.api.channel.util.ChannelsTimeFacetRequest;
 import gms.shared.stationdefinition.coi.channel.Channel;
@@ -15,22 +16,31 @@ import gms.shared.waveform.api.WaveformRepositoryInterface;
 import gms.shared.waveform.coi.ChannelSegment;
 import gms.shared.waveform.coi.ChannelSegmentDescriptor;
 import gms.shared.waveform.coi.Waveform;
+import gms.shared.waveform.converter.ChannelSegmentConversion;
 import gms.shared.waveform.converter.ChannelSegmentConverter;
 import org.apache.commons.lang3.Validate;
 import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static gms.shared.stationdefinition.facet.FacetingTypes.CHANNEL_TYPE;
@@ -77,13 +87,43 @@ public class BridgedWaveformRepository implements WaveformRepositoryInterface {
   public Collection<ChannelSegment<Waveform>> findByChannelsAndTimeRange(
     Set<Channel> channels, Instant startTime, Instant endTime) {
 
-    Instant transactionStart = Instant.now();
+    UUID transactionId = UUID.randomUUID();
+    List<ChannelSegmentConversion> conversions = findConversionsByChannelsAndTimeRange(channels, startTime, endTime,
+      transactionId);
+
+    //the wfdiscs of all channels are converted as a single request
+    Instant convertStart = Instant.now();
+    List<ChannelSegment<Waveform>> channelSegments = converter.convert(conversions);
+    Instant convertEnd = Instant.now();
+
+    logger.debug("Transaction {}: channel segment conversion took {} ms",
+      transactionId,
+      Duration.between(convertStart, convertEnd).toMillis());
+    return channelSegments;
+  }
+
+  @Override
+  public Flux<ChannelSegment<Waveform>> streamByChannelsAndTimeRange(
+    Set<Channel> channels, Instant startTime, Instant endTime, Duration chunkDuration) {
+
+    return streamChunks(
+      () -> findConversionsByChannelsAndTimeRange(channels, startTime, endTime, UUID.randomUUID()), chunkDuration);
+  }
+
+  /**
+   * Finds the wfdiscs of channels in a time range, and the versions of the channels they were recorded by
+   *
+   * @return the wfdiscs of each channel version to convert over the time range
+   */
+  private List<ChannelSegmentConversion> findConversionsByChannelsAndTimeRange(
+    Set<Channel> channels, Instant startTime, Instant endTime, UUID transactionId) {
+
+
     //load wfdisc associated with channels and timerange parameter list
     List<SiteChanKey> siteChanList = channels.stream()
       .map(siteChan -> StationDefinitionIdUtility.getCssKeyFromName(siteChan.getName()))
       .collect(Collectors.toList());
 
-    UUID transactionId = UUID.randomUUID();
     String channelNames = channels.stream()
       .map(Channel::getName)
       .collect(Collectors.joining(", "));
@@ -104,65 +144,58 @@ public class BridgedWaveformRepository implements WaveformRepositoryInterface {
           Channel::getName));
     Multimap<Channel, WfdiscDao> channelWfdiscDaoMultimap = LinkedListMultimap.create();
 
-    wfDiscDaos.stream()
-      //create a pair of wfdisc to ChannelsTimeFacetRequest
-      .map(wfdiscDao -> {
-        String staChanCode = StationDefinitionIdUtility.createStationChannelCode(
-          wfdiscDao.getStationCode(), wfdiscDao.getChannelCode());
-        return Pair.of(wfdiscDao, ChannelsTimeFacetRequest.builder().
-          setChannelNames(List.of(staChanCodeChannelMap.get(staChanCode)))
-          .setEffectiveTime(wfdiscDao.getTime())
-          .setFacetingDefinition(
-            FacetingDefinition.builder()
-              .setPopulated(true)
-              .setClassType(CHANNEL_TYPE.getValue())
-              .build())
-          .build());
-      })
-      .map(wfdiscDaoRequestPair -> {
-        //populates channelWfdiscDaoMultimap to be passed to converter...return value 'x' is not used
-        Instant channelStart = Instant.now();
-        List<Channel> channelList = stationDefinitionManager
-          .findChannels(wfdiscDaoRequestPair.getRight());
-        Instant channelEnd = Instant.now();
-        String wfdiscChannelNames = wfdiscDaoRequestPair.getValue().getChannelNames().stream()
-          .collect(Collectors.joining(", "));
-        logger.debug("Transaction {}: retrieving channel for {} took {} ms",
-          transactionId,
-          wfdiscChannelNames,
-          Duration.between(channelStart, channelEnd).toMillis());
+    //resolves the channel versions of all wfdiscs starting at the same time with a single lookup
+    Map<Instant, Map<String, List<WfdiscDao>>> wfdiscsByTimeAndChannelName = wfDiscDaos.stream()
+      .collect(Collectors.groupingBy(WfdiscDao::getTime, LinkedHashMap::new,
+        Collectors.groupingBy(wfdiscDao -> staChanCodeChannelMap.get(
+          StationDefinitionIdUtility.createStationChannelCode(wfdiscDao.getStationCode(), wfdiscDao.getChannelCode())),
+          LinkedHashMap::new, Collectors.toList())));
 
+    wfdiscsByTimeAndChannelName.forEach((effectiveTime, wfdiscsByChannelName) -> {
+      Map<String, List<Channel>> channelsByName = findChannelsByName(wfdiscsByChannelName.keySet(), effectiveTime,
+        transactionId);
+
+      wfdiscsByChannelName.forEach((channelName, wfdiscs) -> {
+        List<Channel> channelList = channelsByName.getOrDefault(channelName, List.of());
         if (channelList.isEmpty()) {
-          logger.info("No matching channels found for " + wfdiscDaoRequestPair.getRight());
-          return wfdiscDaoRequestPair;
+          logger.info("No matching channels found for {} at {}", channelName, effectiveTime);
+          return;
         }
         Channel received = channelList.get(0);
-        channelWfdiscDaoMultimap.put(Channel.createVersionReference(
-          received.getName(), received.getEffectiveAt().get()),
-          wfdiscDaoRequestPair.getLeft());
-        return wfdiscDaoRequestPair;
-      }).collect(Collectors.toList());
+        channelWfdiscDaoMultimap.putAll(Channel.createVersionReference(
+          received.getName(), received.getEffectiveAt().get()), wfdiscs);
+      });
+    });
 
-    Instant convertStart = Instant.now();
-    List<ChannelSegment<Waveform>> channelSegments = channelWfdiscDaoMultimap.keySet().stream()
-      .map(channel ->
-        converter.convert(channel,
-          new ArrayList<>(channelWfdiscDaoMultimap.get(channel)),
-          startTime,
-          endTime))
+    return channelWfdiscDaoMultimap.keySet().stream()
+      .map(channel -> ChannelSegmentConversion.create(channel,
+        new ArrayList<>(channelWfdiscDaoMultimap.get(channel)),
+        startTime,
+        endTime))
       .collect(Collectors.toList());
-    Instant convertEnd = Instant.now();
-
-    logger.debug("Transaction {}: channel segment conversion took {} ms",
-      transactionId,
-      Duration.between(convertStart, convertEnd).toMillis());
-    return channelSegments;
   }
 
   @Override
   public Collection<ChannelSegment<Waveform>> findByChannelNamesAndSegmentDescriptor(
     Collection<ChannelSegmentDescriptor> channelSegmentDescriptors) {
 
+    validateChannelSegmentDescriptors(channelSegmentDescriptors);
+
+    //the wfdiscs of all descriptors are converted as a single request
+    return converter.convert(findConversionsBySegmentDescriptors(channelSegmentDescriptors));
+  }
+
+  @Override
+  public Flux<ChannelSegment<Waveform>> streamByChannelNamesAndSegmentDescriptor(
+    Collection<ChannelSegmentDescriptor> channelSegmentDescriptors, Duration chunkDuration) {
+
+    validateChannelSegmentDescriptors(channelSegmentDescriptors);
+    return streamChunks(() -> findConversionsBySegmentDescriptors(channelSegmentDescriptors), chunkDuration);
+  }
+
+  private static void validateChannelSegmentDescriptors(
+    Collection<ChannelSegmentDescriptor> channelSegmentDescriptors) {
+
     channelSegmentDescriptors.forEach(csd -> {
       Validate.isTrue(csd.getStartTime().isBefore(csd.getEndTime()),
         "ChannelSegmentDescriptor startTime must be before the ChannelSegmentDescriptor endTime");
@@ -171,19 +204,32 @@ public class BridgedWaveformRepository implements WaveformRepositoryInterface {
       Validate.isTrue(csd.getChannel().getEffectiveAt().get().isBefore(csd.getEndTime()),
         "The Channel effectiveAt Date must be before the ChannelSegmentDescriptor endTime");
     });
+  }
+
+  /**
+   * Finds the channel versions of descriptors, and the wfdiscs of each as they existed at its creation time
+   *
+   * @return the wfdiscs of each descriptor with any, to convert over the time its channel version was effective
+   */
+  private List<ChannelSegmentConversion> findConversionsBySegmentDescriptors(
+    Collection<ChannelSegmentDescriptor> channelSegmentDescriptors) {
+
+    //resolves the channels of all descriptors with the same effective time with a single lookup
+    Map<Instant, List<String>> channelNamesByEffectiveTime = channelSegmentDescriptors.stream()
+      .map(ChannelSegmentDescriptor::getChannel)
+      .collect(Collectors.groupingBy(channel -> channel.getEffectiveAt().orElseThrow(), LinkedHashMap::new,
+        Collectors.mapping(Channel::getName, Collectors.collectingAndThen(Collectors.toCollection(LinkedHashSet::new),
+          ArrayList::new))));
+    UUID transactionId = UUID.randomUUID();
+    Map<Instant, Map<String, List<Channel>>> channelsByEffectiveTimeAndName = new HashMap<>();
+    channelNamesByEffectiveTime.forEach((effectiveTime, channelNames) ->
+      channelsByEffectiveTimeAndName.put(effectiveTime, findChannelsByName(channelNames, effectiveTime, transactionId)));
 
     return channelSegmentDescriptors.stream()
       .map(csd -> {
-        //make this a faceting request -- ChannelTimeFacetingRequest
-        ChannelsTimeFacetRequest request = ChannelsTimeFacetRequest.builder()
-          .setChannelNames(List.of(csd.getChannel().getName()))
-          .setEffectiveTime(csd.getChannel().getEffectiveAt().orElseThrow())
-          .setFacetingDefinition(FacetingDefinition.builder()
-            .setPopulated(true)
-            .setClassType(CHANNEL_TYPE.getValue())
-            .build())
-          .build();
-        List<Channel> channels = stationDefinitionManager.findChannels(request);
+        List<Channel> channels = channelsByEffectiveTimeAndName
+          .get(csd.getChannel().getEffectiveAt().orElseThrow())
+          .getOrDefault(csd.getChannel().getName(), List.of());
         if (channels.isEmpty()) {
           logger.info("Could not build channel segment for {} at {}: no Channel found",
             csd.getChannel().getName(),
@@ -217,13 +263,91 @@ public class BridgedWaveformRepository implements WaveformRepositoryInterface {
           .collect(Collectors.toList());
 
         if (wfdiscs.isEmpty()) {
-          return Optional.<ChannelSegment<Waveform>>empty();
+          return Optional.<ChannelSegmentConversion>empty();
         }
         var versionRef = Channel.createVersionReference(pair.getValue().getName(), pair.getValue().getEffectiveAt().get());
-        return Optional.ofNullable(converter.convert(versionRef, wfdiscs, dataStartTime, pair.getKey().getEndTime()));
+        return Optional.of(ChannelSegmentConversion.create(versionRef, wfdiscs, dataStartTime,
+          pair.getKey().getEndTime()));
       })
       .filter(Optional::isPresent)
       .map(Optional::get)
       .collect(Collectors.toList());
   }
+
+  /**
+   * Streams the ChannelSegments of conversions a chunk of time at a time. The conversions are found once, when the
+   * stream is subscribed to, and each chunk is then read off the subscribing thread while the one before it is sent,
+   * so that at most two chunks of a request are held at once.
+   */
+  private Flux<ChannelSegment<Waveform>> streamChunks(Supplier<List<ChannelSegmentConversion>> conversions,
+    Duration chunkDuration) {
+
+    Validate.isTrue(chunkDuration.compareTo(Duration.ZERO) > 0, "Chunk duration must be positive");
+    return Mono.fromSupplier(conversions)
+      .subscribeOn(Schedulers.boundedElastic())
+      .flatMapIterable(Function.identity())
+      .concatMapIterable(conversion -> timeChunks(conversion, chunkDuration))
+      .concatMap(chunk -> Mono.fromCallable(() -> converter.convert(List.of(chunk)))
+        .subscribeOn(Schedulers.boundedElastic()), 1)
+      .concatMapIterable(Function.identity(), 1);
+  }
+
+  /**
+   * Splits a conversion into consecutive chunks of its time range of at most the chunk duration, each ending a
+   * nanosecond before the next starts so that no sample falls in two chunks, and each with just the wfdiscs
+   * overlapping it. Chunks no wfdisc overlaps are left out.
+   */
+  static List<ChannelSegmentConversion> timeChunks(ChannelSegmentConversion conversion, Duration chunkDuration) {
+    List<ChannelSegmentConversion> chunks = new ArrayList<>();
+    Instant endTime = conversion.getEndTime();
+    Instant chunkStart = conversion.getStartTime();
+    Instant chunkEnd;
+    do {
+      Instant nextChunkStart = chunkStart.plus(chunkDuration);
+      chunkEnd = nextChunkStart.isBefore(endTime) ? nextChunkStart.minusNanos(1) : endTime;
+
+      Range<Instant> chunk = Range.closed(chunkStart, chunkEnd);
+      List<WfdiscDao> wfdiscs = conversion.getWfdiscs().stream()
+        .filter(wfdisc -> chunk.isConnected(Range.closed(wfdisc.getTime(), wfdisc.getEndTime())))
+        .collect(Collectors.toList());
+      if (!wfdiscs.isEmpty()) {
+        chunks.add(ChannelSegmentConversion.create(conversion.getChannel(), wfdiscs, chunkStart, chunkEnd));
+      }
+      chunkStart = nextChunkStart;
+    } while (chunkEnd.isBefore(endTime));
+    return chunks;
+  }
+
+  /**
+   * Retrieves the versions of channels effective at a time with a single station definition lookup
+   *
+   * @param channelNames names of the channels to retrieve
+   * @param effectiveTime time at which the versions are effective
+   * @param transactionId id of the transaction for logging
+   * @return the channels found, by name
+   */
+  private Map<String, List<Channel>> findChannelsByName(Collection<String> channelNames, Instant effectiveTime,
+    UUID transactionId) {
+
+    ChannelsTimeFacetRequest request = ChannelsTimeFacetRequest.builder()
+      .setChannelNames(channelNames)
+      .setEffectiveTime(effectiveTime)
+      .setFacetingDefinition(FacetingDefinition.builder()
+        .setPopulated(true)
+        .setClassType(CHANNEL_TYPE.getValue())
+        .build())
+      .build();
+
+    Instant channelStart = Instant.now();
+    List<Channel> channels = stationDefinitionManager.findChannels(request);
+    Instant channelEnd = Instant.now();
+    logger.debug("Transaction {}: retrieving {} channels at {} took {} ms",
+      transactionId,
+      channelNames.size(),
+      effectiveTime,
+      Duration.between(channelStart, channelEnd).toMillis());
+
+    return channels.stream()
+      .collect(Collectors.groupingBy(Channel::getName));
+  }
 }
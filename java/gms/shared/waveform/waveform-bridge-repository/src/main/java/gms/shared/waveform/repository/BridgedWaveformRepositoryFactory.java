@@ -1,5 +1,6 @@
 package gms.shared.waveform.repository;
 
+import gms.shared.frameworks.systemconfig.SystemConfig;
 import gms.shared.stationdefinition.api.StationDefinitionManagerInterface;
 import gms.shared.stationdefinition.database.connector.WfdiscDatabaseConnector;
 import gms.shared.waveform.converter.ChannelSegmentConvertImpl;
@@ -14,29 +15,35 @@ public class BridgedWaveformRepositoryFactory {
   private EntityManagerFactory emf;
   private BridgedWaveformRepository bridgedWaveformRepository;
   private StationDefinitionManagerInterface stationDefinitionManagerInterface;
+  private SystemConfig systemConfig;
 
   private BridgedWaveformRepositoryFactory(
       EntityManagerFactory emf,
-      StationDefinitionManagerInterface stationDefinitionManagerInterface){
+      StationDefinitionManagerInterface stationDefinitionManagerInterface,
+      SystemConfig systemConfig){
 
     this.emf = emf;
     this.stationDefinitionManagerInterface = stationDefinitionManagerInterface;
+    this.systemConfig = systemConfig;
   }
 
   public static BridgedWaveformRepositoryFactory create(EntityManagerFactory emf,
-      StationDefinitionManagerInterface stationDefinitionManagerInterface) {
+      StationDefinitionManagerInterface stationDefinitionManagerInterface,
+      SystemConfig systemConfig) {
     Validate.notNull(emf,
         "EntityManagerFactory must be provided");
     Validate.notNull(stationDefinitionManagerInterface,
         "StationDefinitionManagerInterface must be provided");
-    return new BridgedWaveformRepositoryFactory(emf, stationDefinitionManagerInterface);
+    Validate.notNull(systemConfig,
+        "SystemConfig must be provided");
+    return new BridgedWaveformRepositoryFactory(emf, stationDefinitionManagerInterface, systemConfig);
   }
   public BridgedWaveformRepository getBridgedWaveformRepositoryInstance() {
     if (bridgedWaveformRepository == null) {
       bridgedWaveformRepository = BridgedWaveformRepository.create(
           WfdiscDatabaseConnector.create(emf),
           stationDefinitionManagerInterface,
-          ChannelSegmentConvertImpl.create());
+          ChannelSegmentConvertImpl.create(systemConfig));
     }
     return bridgedWaveformRepository;
   }
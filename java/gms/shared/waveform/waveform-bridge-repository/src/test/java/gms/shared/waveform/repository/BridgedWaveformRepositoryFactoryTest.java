@@ -3,9 +3,12 @@ package gms.shared.waveform.repository;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.params.provider.Arguments.arguments;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
+import gms.shared.frameworks.systemconfig.SystemConfig;
 import gms.shared.stationdefinition.api.StationDefinitionManagerInterface;
 import java.util.stream.Stream;
+import gms.shared.waveform.converter.ChannelSegmentConvertImpl;
 import javax.persistence.EntityManagerFactory;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -27,39 +30,58 @@ class BridgedWaveformRepositoryFactoryTest {
   @Mock
   private StationDefinitionManagerInterface StationDefinitionManagerInterface;
 
+  @Mock
+  private SystemConfig systemConfig;
+
   @Test
   void create() {
-    assertNotNull(BridgedWaveformRepositoryFactory.create(emf, StationDefinitionManagerInterface));
+    assertNotNull(BridgedWaveformRepositoryFactory.create(emf, StationDefinitionManagerInterface, systemConfig));
   }
 
   @ParameterizedTest
   @MethodSource("getCreateArguments")
   void testCreateValidation(Class<? extends Exception> expectedException,
       EntityManagerFactory emf,
-      StationDefinitionManagerInterface sda) {
+      StationDefinitionManagerInterface sda,
+      SystemConfig systemConfig) {
     assertThrows(expectedException,
-        () -> BridgedWaveformRepositoryFactory.create(emf, sda));
+        () -> BridgedWaveformRepositoryFactory.create(emf, sda, systemConfig));
   }
   static Stream<Arguments> getCreateArguments() {
     return Stream.of(
-        arguments(NullPointerException.class, null, mock(StationDefinitionManagerInterface.class)),
-        arguments(NullPointerException.class, mock(EntityManagerFactory.class), null));
+        arguments(NullPointerException.class, null, mock(StationDefinitionManagerInterface.class),
+            mock(SystemConfig.class)),
+        arguments(NullPointerException.class, mock(EntityManagerFactory.class), null, mock(SystemConfig.class)),
+        arguments(NullPointerException.class, mock(EntityManagerFactory.class),
+            mock(StationDefinitionManagerInterface.class), null));
   }
 
   @Test
   void getBridgedWaveformRepositoryInstance() {
+    givenConverterConfig();
     BridgedWaveformRepositoryFactory factory =
-        BridgedWaveformRepositoryFactory.create(emf, StationDefinitionManagerInterface);
+        BridgedWaveformRepositoryFactory.create(emf, StationDefinitionManagerInterface, systemConfig);
 
     assertNotNull(factory.getBridgedWaveformRepositoryInstance());
   }
   @Test
   void getBridgedWaveformRepositoryInstance_alreadyInitialized() {
+    givenConverterConfig();
     BridgedWaveformRepositoryFactory factory =
-        BridgedWaveformRepositoryFactory.create(emf, StationDefinitionManagerInterface);
+        BridgedWaveformRepositoryFactory.create(emf, StationDefinitionManagerInterface, systemConfig);
 
     var instance = factory.getBridgedWaveformRepositoryInstance();
     var instance2 = factory.getBridgedWaveformRepositoryInstance();
     assertEquals(instance, instance2);
   }
+
+  private void givenConverterConfig() {
+    when(systemConfig.getValueAsInt(ChannelSegmentConvertImpl.MAPPED_FILE_LIMIT_CONFIG_KEY)).thenReturn(16);
+    when(systemConfig.getValueAsLong(ChannelSegmentConvertImpl.BLOCK_CACHE_BYTES_CONFIG_KEY)).thenReturn(1L << 24);
+    when(systemConfig.getValueAsLong(ChannelSegmentConvertImpl.BLOCK_CACHE_MAX_BLOCK_BYTES_CONFIG_KEY))
+        .thenReturn(1L << 20);
+    when(systemConfig.getValueAsLong(ChannelSegmentConvertImpl.COMPRESSED_INDEX_CACHE_BYTES_CONFIG_KEY))
+        .thenReturn(1L << 20);
+    when(systemConfig.getValueAsInt(ChannelSegmentConvertImpl.DECODE_THREADS_CONFIG_KEY)).thenReturn(4);
+  }
 }
@@ -18,6 +18,7 @@ import gms.shared.waveform.coi.ChannelSegment;
 import gms.shared.waveform.coi.ChannelSegmentDescriptor;
 import gms.shared.waveform.coi.Timeseries;
 import gms.shared.waveform.coi.Waveform;
+import gms.shared.waveform.converter.ChannelSegmentConversion;
 import gms.shared.waveform.converter.ChannelSegmentConvertImpl;
 import gms.shared.waveform.testfixture.WaveformRequestTestFixtures;
 import org.apache.commons.lang3.tuple.Pair;
@@ -27,14 +28,22 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -62,10 +71,14 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.params.provider.Arguments.arguments;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.ArgumentMatchers.refEq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
 class BridgedWaveformRepositoryTest {
@@ -160,11 +173,25 @@ class BridgedWaveformRepositoryTest {
         .findWfdiscsByNameAndTimeRange(
             any(Collection.class), eq(request.getStartTime()), eq(request.getEndTime()));
 
+    // channels effective at the same time are retrieved together
+    findChannelsByNameAndTimeArgs.stream()
+        .collect(Collectors.groupingBy(channelRequestPair -> channelRequestPair.getRight().getEffectiveTime(),
+            LinkedHashMap::new, Collectors.toList()))
+        .values()
+        .forEach(channelRequestPairs -> doReturn(channelRequestPairs.stream()
+            .map(Pair::getLeft)
+            .collect(Collectors.toList()))
+            .when(StationDefinitionManager)
+            .findChannels(channelRequestPairs.get(0).getRight().toBuilder()
+                .setChannelNames(channelRequestPairs.stream()
+                    .flatMap(channelRequestPair -> channelRequestPair.getRight().getChannelNames().stream())
+                    .collect(Collectors.toList()))
+                .build()));
+
+    Map<Channel, ChannelSegment<Waveform>> channelSegmentsByVersion = new HashMap<>();
     findChannelsByNameAndTimeArgs.stream().forEach(channelRequestPair -> {
       Channel channel = channelRequestPair.getLeft();
       assertNotNull(channel);
-          doReturn(List.of(channelRequestPair.getLeft())).when(StationDefinitionManager)
-              .findChannels(channelRequestPair.getRight());
 
           ChannelSegment<Waveform> channelSegment = ChannelSegment.<Waveform>builder()
             .setId(ChannelSegmentDescriptor.from(channelRequestPair.getLeft(),
@@ -177,10 +204,12 @@ class BridgedWaveformRepositoryTest {
                   .setTimeseries(List.of(randomSamples0To1(request.getStartTime(), request.getEndTime(), 40)))
                   .build())
             .build();
-          doReturn(channelSegment)
-            .when(channelSegmentConverter).convert(refEq(channel, "data"), any(), any(), any());
+          channelSegmentsByVersion.put(
+            Channel.createVersionReference(channel.getName(), channel.getEffectiveAt().orElseThrow()), channelSegment);
         }
     );
+    doAnswer(invocation -> convertedChannelSegments(invocation.getArgument(0), channelSegmentsByVersion::get))
+      .when(channelSegmentConverter).convert(anyList());
 
     Collection<ChannelSegment<Waveform>> channelSegResult =
         repo.findByChannelsAndTimeRange(request.getChannels(), request.getStartTime(),
@@ -195,6 +224,177 @@ class BridgedWaveformRepositoryTest {
     });
   }
 
+  @Test
+  void findByChannelsAndTimeRangeRetrievesChannelsOncePerTime() {
+    ChannelTimeRangeRequest request = WaveformRequestTestFixtures.channelTimeRangeRequest2Channels;
+    BridgedWaveformRepository repo = BridgedWaveformRepository
+        .create(wfdiscDatabaseConnector, StationDefinitionManager, channelSegmentConverter);
+
+    doReturn(List.of(WFDISC_TEST_DAO_1, WFDISC_TEST_DAO_3, WFDISC_TEST_DAO_4)).when(wfdiscDatabaseConnector)
+        .findWfdiscsByNameAndTimeRange(
+            any(Collection.class), eq(request.getStartTime()), eq(request.getEndTime()));
+    doReturn(List.of(WAVEFORM_CHANNEL, WAVEFORM_CHANNEL_2)).when(StationDefinitionManager)
+        .findChannels(channelsTimeFacetRequest.toBuilder()
+            .setChannelNames(List.of(WAVEFORM_CHANNEL.getName(), WAVEFORM_CHANNEL_2.getName()))
+            .build());
+    doReturn(List.of(WAVEFORM_CHANNEL_LATER_ON_DATE)).when(StationDefinitionManager)
+        .findChannels(channelsTimeFacetRequest3);
+
+    repo.findByChannelsAndTimeRange(request.getChannels(), request.getStartTime(), request.getEndTime());
+
+    verify(StationDefinitionManager, times(2)).findChannels(any());
+
+    // the wfdiscs of all channels are converted together
+    ArgumentCaptor<List<ChannelSegmentConversion>> conversions = ArgumentCaptor.forClass(List.class);
+    verify(channelSegmentConverter).convert(conversions.capture());
+    assertEquals(List.of(
+        conversion(WAVEFORM_CHANNEL, WFDISC_TEST_DAO_1, request),
+        conversion(WAVEFORM_CHANNEL_2, WFDISC_TEST_DAO_3, request),
+        conversion(WAVEFORM_CHANNEL_LATER_ON_DATE, WFDISC_TEST_DAO_4, request)),
+        conversions.getValue());
+  }
+
+  @Test
+  void timeChunksSplitsConversionIntoChunksOverlappingItsWfdiscs() {
+    Instant start = Instant.EPOCH;
+    WfdiscDao firstWfdisc = wfdisc(start.minus(10, ChronoUnit.MINUTES), start.plus(90, ChronoUnit.MINUTES));
+    WfdiscDao secondWfdisc = wfdisc(start.plus(150, ChronoUnit.MINUTES), start.plus(170, ChronoUnit.MINUTES));
+    ChannelSegmentConversion conversion = ChannelSegmentConversion.create(WAVEFORM_CHANNEL,
+        List.of(firstWfdisc, secondWfdisc), start, start.plus(4, ChronoUnit.HOURS));
+
+    // the fourth hour has no wfdiscs, so has no chunk
+    assertEquals(List.of(
+        ChannelSegmentConversion.create(WAVEFORM_CHANNEL, List.of(firstWfdisc),
+            start, start.plus(1, ChronoUnit.HOURS).minusNanos(1)),
+        ChannelSegmentConversion.create(WAVEFORM_CHANNEL, List.of(firstWfdisc),
+            start.plus(1, ChronoUnit.HOURS), start.plus(2, ChronoUnit.HOURS).minusNanos(1)),
+        ChannelSegmentConversion.create(WAVEFORM_CHANNEL, List.of(secondWfdisc),
+            start.plus(2, ChronoUnit.HOURS), start.plus(3, ChronoUnit.HOURS).minusNanos(1))),
+        BridgedWaveformRepository.timeChunks(conversion, Duration.ofHours(1)));
+  }
+
+  @Test
+  void streamByChannelsAndTimeRangeFindsWfdiscsOnceAndConvertsEachChunk() {
+    Set<Channel> channels = WaveformRequestTestFixtures.channelTimeRangeRequest.getChannels();
+    Instant startTime = WFDISC_TEST_DAO_1.getTime();
+    Instant endTime = startTime.plus(10, ChronoUnit.MINUTES);
+    BridgedWaveformRepository repo = BridgedWaveformRepository
+        .create(wfdiscDatabaseConnector, StationDefinitionManager, channelSegmentConverter);
+
+    doReturn(List.of(WFDISC_TEST_DAO_1)).when(wfdiscDatabaseConnector)
+        .findWfdiscsByNameAndTimeRange(any(Collection.class), eq(startTime), eq(endTime));
+    doReturn(List.of(WAVEFORM_CHANNEL)).when(StationDefinitionManager).findChannels(channelsTimeFacetRequest);
+    ChannelSegment<Waveform> channelSegment = channelSegment(WAVEFORM_CHANNEL, startTime, endTime);
+    doReturn(List.of(channelSegment)).when(channelSegmentConverter).convert(anyList());
+
+    List<ChannelSegment<Waveform>> channelSegments = repo.streamByChannelsAndTimeRange(
+        channels, startTime, endTime, Duration.ofMinutes(4)).collectList().block();
+
+    assertEquals(List.of(channelSegment, channelSegment, channelSegment), channelSegments);
+    verify(wfdiscDatabaseConnector).findWfdiscsByNameAndTimeRange(any(Collection.class), eq(startTime), eq(endTime));
+    verify(StationDefinitionManager).findChannels(any());
+
+    Channel versionReference = Channel.createVersionReference(WAVEFORM_CHANNEL.getName(),
+        WAVEFORM_CHANNEL.getEffectiveAt().orElseThrow());
+    InOrder inOrder = inOrder(channelSegmentConverter);
+    inOrder.verify(channelSegmentConverter).convert(List.of(ChannelSegmentConversion.create(versionReference,
+        List.of(WFDISC_TEST_DAO_1), startTime, startTime.plus(4, ChronoUnit.MINUTES).minusNanos(1))));
+    inOrder.verify(channelSegmentConverter).convert(List.of(ChannelSegmentConversion.create(versionReference,
+        List.of(WFDISC_TEST_DAO_1), startTime.plus(4, ChronoUnit.MINUTES),
+        startTime.plus(8, ChronoUnit.MINUTES).minusNanos(1))));
+    inOrder.verify(channelSegmentConverter).convert(List.of(ChannelSegmentConversion.create(versionReference,
+        List.of(WFDISC_TEST_DAO_1), startTime.plus(8, ChronoUnit.MINUTES), endTime)));
+    inOrder.verifyNoMoreInteractions();
+  }
+
+  @Test
+  void streamByChannelNamesAndSegmentDescriptorFindsWfdiscsOnceAndConvertsEachChunk() {
+    BridgedWaveformRepository repo = BridgedWaveformRepository
+        .create(wfdiscDatabaseConnector, StationDefinitionManager, channelSegmentConverter);
+    Instant startTime = channelSegmentDescriptor.getStartTime();
+    Instant endTime = channelSegmentDescriptor.getEndTime();
+
+    doReturn(List.of(WAVEFORM_CHANNEL_EARLY_ON_DATE)).when(StationDefinitionManager)
+        .findChannels(ChannelsTimeFacetRequest.builder()
+            .setChannelNames(List.of(WAVEFORM_CHANNEL.getName()))
+            .setEffectiveTime(WAVEFORM_CHANNEL.getEffectiveAt().orElseThrow())
+            .setFacetingDefinition(FacetingDefinition.builder()
+                .setPopulated(true)
+                .setClassType(CHANNEL_TYPE.getValue())
+                .build())
+            .build());
+
+    WfdiscDao wfdisc = wfdisc(startTime.minus(1, ChronoUnit.HOURS), endTime.plus(1, ChronoUnit.HOURS));
+    doReturn(List.of(wfdisc)).when(wfdiscDatabaseConnector).findWfdiscsByNameTimeRangeAndCreationTime(
+        List.of(StationDefinitionIdUtility.getCssKey(WAVEFORM_CHANNEL_EARLY_ON_DATE)),
+        startTime, endTime, channelSegmentDescriptor.getCreationTime());
+    ChannelSegment<Waveform> channelSegment = channelSegment(WAVEFORM_CHANNEL_EARLY_ON_DATE, startTime, endTime);
+    doReturn(List.of(channelSegment)).when(channelSegmentConverter).convert(anyList());
+
+    Duration chunkDuration = Duration.between(startTime, endTime).dividedBy(2);
+    List<ChannelSegment<Waveform>> channelSegments = repo.streamByChannelNamesAndSegmentDescriptor(
+        List.of(channelSegmentDescriptor), chunkDuration).collectList().block();
+
+    assertEquals(List.of(channelSegment, channelSegment), channelSegments);
+    verify(wfdiscDatabaseConnector).findWfdiscsByNameTimeRangeAndCreationTime(any(), any(), any(), any());
+    verify(StationDefinitionManager).findChannels(any());
+
+    Channel versionReference = Channel.createVersionReference(WAVEFORM_CHANNEL_EARLY_ON_DATE.getName(),
+        WAVEFORM_CHANNEL_EARLY_ON_DATE.getEffectiveAt().orElseThrow());
+    Instant secondChunkStart = startTime.plus(chunkDuration);
+    InOrder inOrder = inOrder(channelSegmentConverter);
+    inOrder.verify(channelSegmentConverter).convert(List.of(ChannelSegmentConversion.create(versionReference,
+        List.of(wfdisc), startTime, secondChunkStart.minusNanos(1))));
+    inOrder.verify(channelSegmentConverter).convert(List.of(ChannelSegmentConversion.create(versionReference,
+        List.of(wfdisc), secondChunkStart, endTime)));
+    inOrder.verifyNoMoreInteractions();
+  }
+
+  @Test
+  void streamByChannelNamesAndSegmentDescriptorValidatesEagerly() {
+    BridgedWaveformRepository repo = BridgedWaveformRepository
+        .create(wfdiscDatabaseConnector, StationDefinitionManager, channelSegmentConverter);
+    List<ChannelSegmentDescriptor> descriptors = List.of(ChannelSegmentDescriptor.from(
+        Channel.builder().setName("EntityRefOnly").build(), Instant.now(), Instant.now(), Instant.now()));
+    Duration chunkDuration = Duration.ofHours(1);
+
+    assertThrows(IllegalArgumentException.class,
+        () -> repo.streamByChannelNamesAndSegmentDescriptor(descriptors, chunkDuration));
+  }
+
+  private static WfdiscDao wfdisc(Instant time, Instant endTime) {
+    WfdiscDao wfdisc = new WfdiscDao();
+    wfdisc.setTime(time);
+    wfdisc.setEndTime(endTime);
+    return wfdisc;
+  }
+
+  private static ChannelSegment<Waveform> channelSegment(Channel channel, Instant startTime, Instant endTime) {
+    return ChannelSegment.<Waveform>builder()
+        .setId(ChannelSegmentDescriptor.from(channel, startTime, endTime, Instant.EPOCH))
+        .setData(ChannelSegment.Data.<Waveform>builder()
+            .setUnits(Units.MICROPASCALS)
+            .setTimeseriesType(Timeseries.Type.WAVEFORM)
+            .setTimeseries(List.of(randomSamples0To1(startTime, endTime, 40)))
+            .build())
+        .build();
+  }
+
+  private static ChannelSegmentConversion conversion(Channel channel, WfdiscDao wfdisc,
+      ChannelTimeRangeRequest request) {
+    return ChannelSegmentConversion.create(
+        Channel.createVersionReference(channel.getName(), channel.getEffectiveAt().orElseThrow()),
+        List.of(wfdisc), request.getStartTime(), request.getEndTime());
+  }
+
+  private static List<ChannelSegment<Waveform>> convertedChannelSegments(List<ChannelSegmentConversion> conversions,
+      Function<Channel, ChannelSegment<Waveform>> channelSegmentByVersion) {
+    return conversions.stream()
+        .map(conversion -> channelSegmentByVersion.apply(conversion.getChannel()))
+        .filter(Objects::nonNull)
+        .collect(Collectors.toList());
+  }
+
   @ParameterizedTest
   @MethodSource("getFindByChannelSegmentDescriptorArguments")
   void findByChannelSegmentDescriptor(ChannelSegmentDescriptorRequest csdRequest,
@@ -223,6 +423,7 @@ class BridgedWaveformRepositoryTest {
             .findChannels(request.getLeft())
         ).collect(Collectors.toList());
 
+    Map<ChannelSegmentConversion, ChannelSegment<Waveform>> channelSegmentsByConversion = new HashMap<>();
     channelEndTimePairToWfdiscResponseList.cellSet().forEach(tableCell -> {
       Channel channel = tableCell.getRowKey();
       Triple<Instant, Instant, Instant> startEndTimes = tableCell.getColumnKey();
@@ -246,11 +447,16 @@ class BridgedWaveformRepositoryTest {
                 .build())
           .build();
 
-        doReturn(result).when(channelSegmentConverter)
-          .convert(Channel.createVersionReference(channel.getName(), channel.getEffectiveAt().get()),
-              tableCell.getValue(), startEndTimes.getLeft(), startEndTimes.getMiddle());
+        channelSegmentsByConversion.put(ChannelSegmentConversion.create(
+            Channel.createVersionReference(channel.getName(), channel.getEffectiveAt().get()),
+            tableCell.getValue(), startEndTimes.getLeft(), startEndTimes.getMiddle()), result);
       }
     });
+    doAnswer(invocation -> invocation.<List<ChannelSegmentConversion>>getArgument(0).stream()
+        .map(channelSegmentsByConversion::get)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toList()))
+        .when(channelSegmentConverter).convert(anyList());
 
     Collection<ChannelSegment<Waveform>> channelSegResult =
         repo.findByChannelNamesAndSegmentDescriptor(
@@ -0,0 +1,27 @@
+package gms.shared.waveform.coi;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.nio.DoubleBuffer;
+
+/**
+ * Serializes the remaining values of an array-backed {@link DoubleBuffer} as an array of numbers,
+ * written straight from the backing array.
+ */
+class DoubleBufferSerializer extends StdSerializer<DoubleBuffer> {
+
+  private static final long serialVersionUID = 1L;
+
+  DoubleBufferSerializer() {
+    super(DoubleBuffer.class);
+  }
+
+  @Override
+  public void serialize(DoubleBuffer value, JsonGenerator gen, SerializerProvider provider)
+    throws IOException {
+    gen.writeArray(value.array(), value.arrayOffset() + value.position(), value.remaining());
+  }
+}
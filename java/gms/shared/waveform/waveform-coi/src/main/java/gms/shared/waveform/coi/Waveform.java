@@ -3,11 +3,13 @@ package gms.shared.waveform.coi;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.google.auto.value.AutoValue;
 import com.google.common.base.Preconditions;
 import org.apache.commons.lang3.Validate;
 import org.apache.commons.lang3.tuple.Triple;
 
+import java.nio.DoubleBuffer;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Arrays;
@@ -15,6 +17,10 @@ import java.util.Objects;
 
 /**
  * Data class that represents a Waveform which is more generally known as a timeseries.
+ * <p>
+ * A Waveform may be a window over part of a larger sample array that it shares with other
+ * Waveforms, so that trimming and windowing do not copy samples. Equality, hashing and
+ * serialization only consider the samples within the window.
  */
 @AutoValue
 public abstract class Waveform extends Timeseries {
@@ -33,7 +39,31 @@ public abstract class Waveform extends Timeseries {
     Objects.requireNonNull(values, "Cannot create waveform with null values");
     Preconditions.checkArgument(values.length > 0,
       "Cannot create waveform with empty values array");
-    return new AutoValue_Waveform(Type.WAVEFORM, startTime, sampleRateHz, values);
+    return new AutoValue_Waveform(Type.WAVEFORM, startTime, sampleRateHz, values, 0, values.length);
+  }
+
+  /**
+   * Creates a waveform over a window of a sample array, without copying the samples. The array is
+   * shared with the waveform and must not be modified afterwards.
+   *
+   * @param startTime the time of the first sample in the window
+   * @param sampleRateHz the sample rate
+   * @param values the array containing the samples
+   * @param offset index in the array of the first sample in the window
+   * @param sampleCount number of samples in the window
+   * @return a waveform of the samples in the window
+   */
+  public static Waveform create(Instant startTime, double sampleRateHz, double[] values, int offset,
+    int sampleCount) {
+    Objects.requireNonNull(startTime);
+    Preconditions.checkArgument(sampleRateHz > 0.0,
+      "Cannot create Waveform with negative sample rate");
+    Objects.requireNonNull(values, "Cannot create waveform with null values");
+    Preconditions.checkArgument(sampleCount > 0,
+      "Cannot create waveform with empty values array");
+    Preconditions.checkPositionIndexes(offset, offset + sampleCount, values.length);
+    return new AutoValue_Waveform(Type.WAVEFORM, startTime, sampleRateHz, values, offset,
+      sampleCount);
   }
 
   /**
@@ -48,18 +78,56 @@ public abstract class Waveform extends Timeseries {
   @Override
   public abstract double getSampleRateHz();
 
+  /**
+   * The array containing the samples of this Waveform, possibly along with others.
+   */
+  abstract double[] getSampleArray();
+
+  /**
+   * The index in the sample array of the first sample of this Waveform.
+   */
+  abstract int getSampleOffset();
+
   /**
    * The number of samples in this waveform.
    */
   @Override
   public int getSampleCount() {
-    return getSamples().length;
+    return getWindowLength();
   }
 
+  abstract int getWindowLength();
+
   /**
-   * The data points of this Waveform.
+   * The data points of this Waveform. The samples of a Waveform that is a window over part of a
+   * larger array are copied; use {@link #getSampleBuffer()} to read them without copying.
    */
-  public abstract double[] getSamples();
+  @JsonIgnore
+  public double[] getSamples() {
+    double[] samples = getSampleArray();
+    if (getSampleOffset() == 0 && getWindowLength() == samples.length) {
+      return samples;
+    }
+    return Arrays.copyOfRange(samples, getSampleOffset(), getSampleOffset() + getWindowLength());
+  }
+
+  /**
+   * A read-only view of the data points of this Waveform, which does not copy them.
+   */
+  @JsonIgnore
+  public DoubleBuffer getSampleBuffer() {
+    return getSampleWindow().asReadOnlyBuffer();
+  }
+
+  /**
+   * The data points of this Waveform as serialized, written straight from the window of the
+   * sample array.
+   */
+  @JsonProperty("samples")
+  @JsonSerialize(using = DoubleBufferSerializer.class)
+  DoubleBuffer getSampleWindow() {
+    return DoubleBuffer.wrap(getSampleArray(), getSampleOffset(), getWindowLength()).slice();
+  }
 
   /**
    * Gets the first value
@@ -68,7 +136,7 @@ public abstract class Waveform extends Timeseries {
    */
   @JsonIgnore
   public double getFirstSample() {
-    return getSamples()[0];
+    return getSampleArray()[getSampleOffset()];
   }
 
   /**
@@ -78,7 +146,7 @@ public abstract class Waveform extends Timeseries {
    */
   @JsonIgnore
   public double getLastSample() {
-    return getSamples()[getSampleCount() - 1];
+    return getSampleArray()[getSampleOffset() + getSampleCount() - 1];
   }
 
   /**
@@ -140,11 +208,9 @@ public abstract class Waveform extends Timeseries {
       .computeIndicesAndSampleCount(start, end);
     final Instant newStart = computeSampleTime(newIndicesAndSampleCount.getLeft());
 
-    // copy values into new array; adding one to upper index because Arrays.copyOfRange is end-exclusive
-    // but the upper index is to be included.
-    final double[] newValues = Arrays.copyOfRange(this.getSamples(),
-      newIndicesAndSampleCount.getLeft(), newIndicesAndSampleCount.getMiddle() + 1);
-    return Waveform.create(newStart, getSampleRateHz(), newValues);
+    // share the sample array rather than copying the windowed values out of it
+    return Waveform.create(newStart, getSampleRateHz(), getSampleArray(),
+      getSampleOffset() + newIndicesAndSampleCount.getLeft(), newIndicesAndSampleCount.getRight());
   }
 
   /**
@@ -187,4 +253,41 @@ public abstract class Waveform extends Timeseries {
       (getStartTime().equals(end) || getStartTime().isBefore(end));
   }
 
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Waveform)) {
+      return false;
+    }
+    Waveform that = (Waveform) o;
+    return getType().equals(that.getType())
+      && getStartTime().equals(that.getStartTime())
+      && Double.doubleToLongBits(getSampleRateHz()) == Double.doubleToLongBits(that.getSampleRateHz())
+      && Arrays.equals(
+        getSampleArray(), getSampleOffset(), getSampleOffset() + getWindowLength(),
+        that.getSampleArray(), that.getSampleOffset(), that.getSampleOffset() + that.getWindowLength());
+  }
+
+  @Override
+  public int hashCode() {
+    int samplesHash = 1;
+    for (int i = getSampleOffset(); i < getSampleOffset() + getWindowLength(); i++) {
+      long bits = Double.doubleToLongBits(getSampleArray()[i]);
+      samplesHash = 31 * samplesHash + (int) (bits ^ (bits >>> 32));
+    }
+    return Objects.hash(getType(), getStartTime(), getSampleRateHz(), samplesHash);
+  }
+
+  @Override
+  public String toString() {
+    return "Waveform{"
+      + "type=" + getType() + ", "
+      + "startTime=" + getStartTime() + ", "
+      + "sampleRateHz=" + getSampleRateHz() + ", "
+      + "samples=" + Arrays.toString(getSamples())
+      + "}";
+  }
+
 }
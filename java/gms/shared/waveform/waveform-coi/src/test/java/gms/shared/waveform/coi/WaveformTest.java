@@ -1,12 +1,16 @@
 package gms.shared.waveform.coi;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.Range;
+import gms.shared.utilities.javautilities.objectmapper.ObjectMapperFactory;
 import gms.shared.waveform.testfixture.WaveformTestFixtures;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
@@ -17,6 +21,7 @@ import static gms.shared.waveform.testfixture.WaveformTestFixtures.WAVEFORM_1;
 import static gms.shared.waveform.testfixture.WaveformTestFixtures.randomSamples0To1;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.params.provider.Arguments.arguments;
@@ -178,6 +183,55 @@ class WaveformTest {
     assertArrayEquals(expectedValues, trimmed.getSamples());
   }
 
+  @Test
+  void testWindowOfWindow() {
+    Waveform waveform = WaveformTestFixtures.epochStart100RandomSamples(2);
+    Waveform outer = waveform.window(Instant.EPOCH.plusSeconds(2), Instant.EPOCH.plusSeconds(10));
+    Waveform inner = outer.window(Instant.EPOCH.plusSeconds(3), Instant.EPOCH.plusSeconds(4));
+
+    assertArrayEquals(Arrays.copyOfRange(waveform.getSamples(), 6, 9), inner.getSamples());
+    assertEquals(waveform.getSamples()[6], inner.getFirstSample());
+    assertEquals(waveform.getSamples()[8], inner.getLastSample());
+    assertEquals(3, inner.getSampleBuffer().remaining());
+  }
+
+  @Test
+  void testWindowEqualsCopy() {
+    Waveform waveform = WaveformTestFixtures.epochStart100RandomSamples(2);
+    Waveform windowed = waveform.window(Instant.EPOCH.plusSeconds(2), Instant.EPOCH.plusSeconds(4));
+    Waveform copy = Waveform.create(windowed.getStartTime(), windowed.getSampleRateHz(),
+      windowed.getSamples());
+
+    assertEquals(copy, windowed);
+    assertEquals(windowed, copy);
+    assertEquals(copy.hashCode(), windowed.hashCode());
+    assertEquals(copy.toString(), windowed.toString());
+  }
+
+  @Test
+  void testWindowSerialization() throws IOException {
+    Waveform waveform = WaveformTestFixtures.epochStart100RandomSamples(2);
+    Waveform windowed = waveform.window(Instant.EPOCH.plusSeconds(2), Instant.EPOCH.plusSeconds(4));
+
+    ObjectMapper mapper = ObjectMapperFactory.getJsonObjectMapper();
+    JsonNode json = mapper.valueToTree(windowed);
+    assertEquals(5, json.get("samples").size());
+    assertFalse(json.has("sampleBuffer"));
+
+    Waveform deserialized = mapper.readValue(mapper.writeValueAsString(windowed), Waveform.class);
+    assertEquals(windowed, deserialized);
+    assertArrayEquals(windowed.getSamples(), deserialized.getSamples());
+  }
+
+  @Test
+  void testCreateWindowValidation() {
+    double[] values = new double[4];
+    assertThrows(IndexOutOfBoundsException.class,
+      () -> Waveform.create(startTime, sampleRate, values, 2, 3));
+    assertThrows(IllegalArgumentException.class,
+      () -> Waveform.create(startTime, sampleRate, values, 2, 0));
+  }
+
   @Test
   void testGetSampleCount() {
     assertEquals(5, WAVEFORM_1.getSampleCount());
@@ -0,0 +1,92 @@
+package gms.shared.waveform.converter;
+
+import com.google.common.base.Preconditions;
+import gms.utilities.waveformreader.CanadianCompressedIndex;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Size-bounded cache of the indexes of Canadian compressed wfdisc blocks, evicted least recently
+ * used first, so that a window of a block too large to cache decoded is decoded from the block
+ * holding its first sample, with the block indexed by a single pass the first time it is read
+ * rather than decoded from its start on every read. Indexes are keyed like the decoded blocks,
+ * by the file version and offset of the block, so a rewritten file is indexed again.
+ */
+final class CanadianCompressedIndexCache {
+
+  private final long maxBytes;
+  private final Map<WaveformBlockCache.Key, CanadianCompressedIndex> indexes =
+    new LinkedHashMap<>(16, 0.75f, true);
+  private long cachedBytes;
+
+  private CanadianCompressedIndexCache(long maxBytes) {
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * @param maxBytes Most bytes of indexes to hold
+   * @return An empty cache
+   */
+  static CanadianCompressedIndexCache create(long maxBytes) {
+    Preconditions.checkArgument(maxBytes > 0, "Canadian compressed index cache size must be positive");
+    return new CanadianCompressedIndexCache(maxBytes);
+  }
+
+  /**
+   * Provides the index of a block, building and caching it if it is not cached. An index is built
+   * outside the lock of the cache, so that building one does not hold up reads of others.
+   *
+   * @param key Key of the block
+   * @param builder Builds the index of the block
+   * @return The index of the block
+   */
+  CanadianCompressedIndex get(WaveformBlockCache.Key key, Supplier<CanadianCompressedIndex> builder) {
+    synchronized (indexes) {
+      CanadianCompressedIndex index = indexes.get(key);
+      if (index != null) {
+        return index;
+      }
+    }
+
+    CanadianCompressedIndex index = builder.get();
+    if (index.getSizeBytes() > maxBytes) {
+      return index;
+    }
+
+    synchronized (indexes) {
+      CanadianCompressedIndex previous = indexes.put(key, index);
+      if (previous != null) {
+        cachedBytes -= previous.getSizeBytes();
+      }
+      cachedBytes += index.getSizeBytes();
+
+      Iterator<CanadianCompressedIndex> eldest = indexes.values().iterator();
+      while (cachedBytes > maxBytes) {
+        cachedBytes -= eldest.next().getSizeBytes();
+        eldest.remove();
+      }
+    }
+    return index;
+  }
+
+  /**
+   * @return Number of indexes currently cached
+   */
+  int size() {
+    synchronized (indexes) {
+      return indexes.size();
+    }
+  }
+
+  /**
+   * @return Number of bytes of indexes currently cached
+   */
+  long getCachedBytes() {
+    synchronized (indexes) {
+      return cachedBytes;
+    }
+  }
+}
@@ -0,0 +1,34 @@
+package gms.shared.waveform.converter;
+
+import com.google.auto.value.AutoValue;
+import gms.shared.stationdefinition.coi.channel.Channel;
+import gms.shared.stationdefinition.dao.css.WfdiscDao;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The wfdiscs of a channel to convert into a {@link gms.shared.waveform.coi.ChannelSegment} over a
+ * time range
+ */
+@AutoValue
+public abstract class ChannelSegmentConversion {
+
+  public abstract Channel getChannel();
+
+  public abstract List<WfdiscDao> getWfdiscs();
+
+  public abstract Instant getStartTime();
+
+  public abstract Instant getEndTime();
+
+  public static ChannelSegmentConversion create(Channel channel, List<WfdiscDao> wfdiscs, Instant startTime,
+    Instant endTime) {
+    Objects.requireNonNull(channel);
+    Objects.requireNonNull(wfdiscs);
+    Objects.requireNonNull(startTime);
+    Objects.requireNonNull(endTime);
+    return new AutoValue_ChannelSegmentConversion(channel, List.copyOf(wfdiscs), startTime, endTime);
+  }
+}
@@ -2,25 +2,33 @@ package gms.shared.waveform.converter;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Range;
+import gms.shared.frameworks.systemconfig.SystemConfig;
 import gms.shared.stationdefinition.coi.channel.Channel;
 import gms.shared.stationdefinition.coi.channel.ChannelTypes;
 import gms.shared.stationdefinition.coi.channel.ChannelTypesParser;
 import gms.shared.stationdefinition.coi.utils.Units;
 import gms.shared.stationdefinition.dao.css.SiteChanKey;
 import gms.shared.stationdefinition.dao.css.WfdiscDao;
-import gms.shared.stationdefinition.dao.css.enums.DataType;
 import gms.shared.stationdefinition.repository.util.StationDefinitionIdUtility;
 import gms.shared.waveform.coi.ChannelSegment;
 import gms.shared.waveform.coi.Waveform;
 import gms.shared.waveform.coi.util.TimeseriesUtility;
+import gms.utilities.waveformreader.CanadianCompressedIndex;
+import gms.utilities.waveformreader.CanadianCompressedWaveformReader;
 import gms.utilities.waveformreader.WaveformReader;
+import gms.utilities.waveformreader.WaveformReaderInterface;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.EOFException;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
@@ -29,24 +37,59 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 public class ChannelSegmentConvertImpl implements ChannelSegmentConverter {
 
-  private ChannelSegmentConvertImpl() {
+  private final MappedWaveformFilePool mappedFiles;
+  private final WaveformBlockCache blockCache;
+  private final CanadianCompressedIndexCache compressedIndexes;
+  private final WaveformDecodeScheduler decodeScheduler;
+
+  private ChannelSegmentConvertImpl(MappedWaveformFilePool mappedFiles, WaveformBlockCache blockCache,
+    CanadianCompressedIndexCache compressedIndexes, WaveformDecodeScheduler decodeScheduler) {
+    this.mappedFiles = mappedFiles;
+    this.blockCache = blockCache;
+    this.compressedIndexes = compressedIndexes;
+    this.decodeScheduler = decodeScheduler;
   }
 
   /**
    * creates and validates a new {@link ChannelSegmentConvertImpl}
    *
+   * @param systemConfig the configuration of the mapped file pool, caches and decode workers
    * @return a {@link ChannelSegmentConvertImpl}
    */
-  public static ChannelSegmentConvertImpl create() {
-    return new ChannelSegmentConvertImpl();
+  public static ChannelSegmentConvertImpl create(SystemConfig systemConfig) {
+    Objects.requireNonNull(systemConfig);
+    int decodeThreads = systemConfig.getValueAsInt(DECODE_THREADS_CONFIG_KEY);
+    if (decodeThreads == 0) {
+      decodeThreads = Runtime.getRuntime().availableProcessors();
+    }
+
+    return new ChannelSegmentConvertImpl(
+      MappedWaveformFilePool.create(systemConfig.getValueAsInt(MAPPED_FILE_LIMIT_CONFIG_KEY)),
+      WaveformBlockCache.create(systemConfig.getValueAsLong(BLOCK_CACHE_BYTES_CONFIG_KEY),
+        systemConfig.getValueAsLong(BLOCK_CACHE_MAX_BLOCK_BYTES_CONFIG_KEY)),
+      CanadianCompressedIndexCache.create(systemConfig.getValueAsLong(COMPRESSED_INDEX_CACHE_BYTES_CONFIG_KEY)),
+      WaveformDecodeScheduler.create(decodeThreads, Math.max(1, decodeThreads / REQUEST_DECODE_SHARE)));
   }
 
   private static final Logger logger = LoggerFactory.getLogger(ChannelSegmentConvertImpl.class);
   private static final double NANO_SECOND_PER_SECOND = 1_000_000_000L;
+  // Most .w files kept mapped between reads, shared by all requests
+  public static final String MAPPED_FILE_LIMIT_CONFIG_KEY = "mapped-file-limit";
+  // Most bytes of decoded samples kept off-heap for repeated requests
+  public static final String BLOCK_CACHE_BYTES_CONFIG_KEY = "block-cache-bytes";
+  // Most bytes of a single block decoded whole and cached; larger blocks are decoded over the requested window only
+  public static final String BLOCK_CACHE_MAX_BLOCK_BYTES_CONFIG_KEY = "block-cache-max-block-bytes";
+  // Most bytes of indexes of Canadian compressed blocks too large to cache decoded
+  public static final String COMPRESSED_INDEX_CACHE_BYTES_CONFIG_KEY = "compressed-index-cache-bytes";
+  // Threads decoding wfdiscs, shared by all requests, or 0 for one per available processor
+  public static final String DECODE_THREADS_CONFIG_KEY = "decode-threads";
+  // A request decodes on at most one in this many of the decode threads, leaving the rest to other requests
+  private static final int REQUEST_DECODE_SHARE = 4;
 
   /**
    * Converts a Channel a list of WfdiscDao and File pairs into a {@link ChannelSegment<Waveform>}
@@ -66,22 +109,67 @@ public class ChannelSegmentConvertImpl implements ChannelSegmentConverter {
       return null;
     }
 
-    List<Waveform> waveformList = wfdiscDaos.stream()
-      .map(wfdiscDao -> {
+    List<ChannelSegment<Waveform>> channelSegments = convert(
+      List.of(ChannelSegmentConversion.create(channel, wfdiscDaos, startTime, endTime)));
+    return channelSegments.isEmpty() ? null : channelSegments.get(0);
+  }
+
+  @Override
+  public List<ChannelSegment<Waveform>> convert(List<ChannelSegmentConversion> conversions) {
+
+    Objects.requireNonNull(conversions);
+
+    // Each wfdisc of every conversion is read and decoded independently on the decode workers
+    List<Supplier<List<Waveform>>> reads = new ArrayList<>();
+    conversions.forEach(conversion -> conversion.getWfdiscs()
+      .forEach(wfdiscDao -> reads.add(() -> readWaveforms(conversion, wfdiscDao))));
+    List<List<Waveform>> waveformsByWfdisc = decodeScheduler.map(reads, Supplier::get);
+
+    List<ChannelSegment<Waveform>> channelSegments = new ArrayList<>();
+    int nextWfdisc = 0;
+    for (ChannelSegmentConversion conversion : conversions) {
+      int wfdiscCount = conversion.getWfdiscs().size();
+      createChannelSegment(conversion, waveformsByWfdisc.subList(nextWfdisc, nextWfdisc + wfdiscCount))
+        .ifPresent(channelSegments::add);
+      nextWfdisc += wfdiscCount;
+    }
+    return channelSegments;
+  }
+
+  /**
+   * Reads the waveforms of a wfdisc of a conversion, or none if the wfdisc is not of the conversion's channel
+   */
+  private List<Waveform> readWaveforms(ChannelSegmentConversion conversion, WfdiscDao wfdiscDao) {
+    File file = new File(wfdiscDao.getDir() + File.separator + wfdiscDao.getDfile());
+
+    if (!checkWfdicMatchesFileAndChannel(wfdiscDao, conversion.getChannel())) {
+      logger.warn("Wfdisc dao with station code {}, channel code {}, and start time {} "
+          + "does not match with channel provided", wfdiscDao.getStationCode(),
+        wfdiscDao.getChannelCode(), wfdiscDao.getTime());
+      return List.of();
+    }
+
+    // Extract the wfdisc metadata
+    return readWaveforms(conversion.getChannel(), wfdiscDao, file, conversion.getStartTime(),
+      conversion.getEndTime());
+  }
 
-        File file = new File(wfdiscDao.getDir() + File.separator + wfdiscDao.getDfile());
+  /**
+   * Assembles the waveforms read from the wfdiscs of a conversion into a ChannelSegment, trimmed to its time range
+   *
+   * @return the ChannelSegment, or empty if no waveforms were read in the time range
+   */
+  private static Optional<ChannelSegment<Waveform>> createChannelSegment(ChannelSegmentConversion conversion,
+    List<List<Waveform>> waveformsByWfdisc) {
 
-        if (!checkWfdicMatchesFileAndChannel(wfdiscDao, channel)) {
-          logger.warn("Wfdisc dao with station code {}, channel code {}, and start time {} "
-              + "does not match with channel provided", wfdiscDao.getStationCode(),
-            wfdiscDao.getChannelCode(), wfdiscDao.getTime());
-          return List.<Waveform>of();
-        }
+    Instant startTime = conversion.getStartTime();
+    Instant endTime = conversion.getEndTime();
+    if (waveformsByWfdisc.isEmpty()) {
+      logger.warn("List of wfdiscs and files is empty, returning no ChannelSegment");
+      return Optional.empty();
+    }
 
-        // Extract the wfdisc metadata
-        return readWaveforms(channel, wfdiscDao, file, startTime, endTime);
-      })
-      .filter(list -> !list.isEmpty())
+    List<Waveform> waveformList = waveformsByWfdisc.stream()
       .flatMap(List::stream)
       .filter(waveform -> Range.closed(startTime, endTime)
           .isConnected(Range.closed(waveform.getStartTime(), waveform.getEndTime())))
@@ -89,9 +177,10 @@ public class ChannelSegmentConvertImpl implements ChannelSegmentConverter {
       .collect(Collectors.toList());
 
     if (waveformList.isEmpty()) {
-      return null;
+      return Optional.empty();
     }
 
+    Channel channel = conversion.getChannel();
     SiteChanKey siteChanKey = StationDefinitionIdUtility.getCssKey(channel);
     Optional<ChannelTypes> channelTypesOptional = ChannelTypesParser
       .parseChannelTypes(siteChanKey.getChannelCode());
@@ -102,7 +191,7 @@ public class ChannelSegmentConvertImpl implements ChannelSegmentConverter {
     Units units = Units.determineUnits(channelTypes.getDataType());
     Collections.sort(waveformList);
     final Range<Instant> timeRange = TimeseriesUtility.computeSpan(waveformList);
-    return ChannelSegment.from(channel, units, waveformList, timeRange.lowerEndpoint());
+    return Optional.of(ChannelSegment.from(channel, units, waveformList, timeRange.lowerEndpoint()));
   }
 
   /**
@@ -117,9 +206,7 @@ public class ChannelSegmentConvertImpl implements ChannelSegmentConverter {
     Instant wfdiscStartTime = wfdiscDao.getTime();
     Instant wfdiscEndTime = wfdiscDao.getEndTime();
     double sampRateSeconds = wfdiscDao.getSamprate();
-    DataType dataType = wfdiscDao.getDataType();
     int nsamp = wfdiscDao.getNsamp();
-    long foff = wfdiscDao.getFoff();
 
     Instant waveformStart = Instant.now();
     Instant readingStartTime = startTime.isBefore(wfdiscStartTime) ? wfdiscStartTime : startTime;
@@ -132,15 +219,10 @@ public class ChannelSegmentConvertImpl implements ChannelSegmentConverter {
     long skipNanos = !startTime.isAfter(wfdiscStartTime) ? 0 : Duration.between(wfdiscStartTime, startTime).toNanos();
     long currentSkip = (long) ((skipNanos / NANO_SECOND_PER_SECOND) * sampRateSeconds);
     List<Waveform> waveforms = new ArrayList<>();
-    try (InputStream inputStream = new FileInputStream(file)) {
+    try {
       logger.info("Reading waveform for {}", channel.getName());
       logger.info("Start: {}, End: {}, skip: {}, num samples: {}", wfdiscStartTime, wfdiscEndTime, currentSkip, nsamp);
-      double[] data = WaveformReader.readSamples(inputStream, dataType.toString(), (int) actualSamplesToRead, foff, (int) currentSkip);
-      double calibration = wfdiscDao.getCalib();
-      for (int i = 0; i < data.length; i++) {
-        data[i]*= calibration;
-      }
-
+      double[] data = readSamples(file.toPath(), wfdiscDao, (int) currentSkip, (int) actualSamplesToRead);
       waveforms.add(Waveform.create(readingStartTime, sampRateSeconds, data));
     } catch (IOException e) {
       logger.warn("Unable to create waveform due to IOException: ", e);
@@ -152,6 +234,91 @@ public class ChannelSegmentConvertImpl implements ChannelSegmentConverter {
     return waveforms;
   }
 
+  /**
+   * Reads calibrated samples of a wfdisc block, from the block cache if the block is cached, and
+   * otherwise from the .w file, decoding and caching the whole block if the cache admits it and
+   * just the samples to read if not, from an index of the block if it is Canadian compressed. A block cut short by the end of a file still being written is
+   * cached as far as it goes, under the size the file had when it was read.
+   *
+   * @return the samples read, padded with zeros to the number to read, or no samples if none could be read
+   */
+  private double[] readSamples(Path file, WfdiscDao wfdiscDao, int skip, int samplesToRead) throws IOException {
+    String format = wfdiscDao.getDataType().toString();
+    int nsamp = wfdiscDao.getNsamp();
+    BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+    WaveformBlockCache.Key key = new WaveformBlockCache.Key(file, attributes.size(),
+      attributes.lastModifiedTime().toMillis(), wfdiscDao.getFoff(), nsamp, format, wfdiscDao.getCalib());
+
+    DoubleBuffer block = blockCache.get(key);
+    if (block == null) {
+      if (!blockCache.admits(nsamp)) {
+        double[] data = new double[samplesToRead];
+        int samplesRead = readMappedWindow(file, key, skip, data);
+        return samplesRead == 0 ? new double[]{} : data;
+      }
+
+      double[] samples = new double[nsamp];
+      int samplesRead = readMapped(file, attributes.size(), wfdiscDao.getFoff(), format, 0, samples,
+        wfdiscDao.getCalib());
+      blockCache.put(key, samplesRead == nsamp ? samples : Arrays.copyOf(samples, samplesRead));
+      block = DoubleBuffer.wrap(samples, 0, samplesRead);
+    }
+
+    int available = Math.min(samplesToRead, block.remaining() - skip);
+    if (available <= 0) {
+      return new double[]{};
+    }
+    double[] data = new double[samplesToRead];
+    block.position(skip);
+    block.get(data, 0, available);
+    return data;
+  }
+
+  /**
+   * Reads calibrated samples from the shared mapping of a .w file into an array. A file still
+   * being written may be shorter than the samples to read, which are then read as far as it goes.
+   *
+   * @return the number of samples read
+   */
+  private int readMapped(Path file, long fileSize, long foff, String format, int skip, double[] data,
+    double calibration) throws IOException {
+    try {
+      return WaveformReader.readSamples(mappedFiles.read(file, fileSize, foff), format, data.length, skip, data, 0,
+        calibration);
+    } catch (EOFException e) {
+      return 0;
+    }
+  }
+
+  /**
+   * Reads a window of calibrated samples of a block from the shared mapping of its .w file. A Canadian compressed
+   * block is decoded from the block of 20 samples holding the first sample of the window, found from an index of the
+   * block built the first time a window of it is read, rather than from its start.
+   *
+   * @return the number of samples read
+   */
+  private int readMappedWindow(Path file, WaveformBlockCache.Key key, int skip, double[] data) throws IOException {
+    WaveformReaderInterface reader = WaveformReader.readerFor(key.getDataType());
+    if (!(reader instanceof CanadianCompressedWaveformReader)) {
+      return readMapped(file, key.getFileSize(), key.getFoff(), key.getDataType(), skip, data, key.getCalib());
+    }
+
+    int samplesToRead = Math.min(data.length, key.getNsamp() - skip);
+    if (samplesToRead <= 0) {
+      return 0;
+    }
+    ByteBuffer input = mappedFiles.read(file, key.getFileSize(), key.getFoff());
+    try {
+      CanadianCompressedIndex index = compressedIndexes.get(key,
+        () -> CanadianCompressedIndex.build(input, key.getNsamp()));
+      return ((CanadianCompressedWaveformReader) reader).read(input, index, samplesToRead, skip, data, 0,
+        key.getCalib());
+    } catch (BufferUnderflowException | EOFException e) {
+      // The file is still being written and does not yet hold the whole block
+      return 0;
+    }
+  }
+
   private boolean checkWfdicMatchesFileAndChannel(WfdiscDao wfdisc, Channel channel) {
 
     SiteChanKey siteChanKey = StationDefinitionIdUtility.getCssKeyFromName(channel.getName());
@@ -19,4 +19,14 @@ public interface ChannelSegmentConverter {
    */
   ChannelSegment<Waveform> convert(Channel channel, List<WfdiscDao> wfDiscDaos, Instant startTime, Instant endTime);
 
+  /**
+   * Converts the wfdiscs of several channels into ChannelSegments as a single request, reading and decoding the
+   * wfdiscs of all of them within the share of the decode workers given to a request
+   *
+   * @param conversions The wfdiscs of each channel and the time range to convert them over
+   * @return a {@link ChannelSegment} for each conversion with waveforms in its time range, in the order of the
+   * conversions
+   */
+  List<ChannelSegment<Waveform>> convert(List<ChannelSegmentConversion> conversions);
+
 }
\ No newline at end of file
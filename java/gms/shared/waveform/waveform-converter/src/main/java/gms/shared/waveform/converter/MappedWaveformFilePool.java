@@ -0,0 +1,95 @@
+package gms.shared.waveform.converter;
+
+import com.google.common.base.Preconditions;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded pool of read-only memory mappings of .w files, keyed by path and evicted least recently
+ * used first, so that reading the many wfdisc rows stored in the same few files maps each file
+ * once rather than opening and seeking it for every row. A file is closed as soon as it is mapped;
+ * an evicted mapping is released once no reader still holds a view of it. A mapping covers the
+ * file as it was when mapped, so a file is mapped again only once its size has changed.
+ */
+final class MappedWaveformFilePool {
+
+  private final Map<Path, MappedByteBuffer> mappings;
+
+  private MappedWaveformFilePool(int maxMappedFiles) {
+    this.mappings = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Path, MappedByteBuffer> eldest) {
+        return size() > maxMappedFiles;
+      }
+    };
+  }
+
+  /**
+   * @param maxMappedFiles Most files kept mapped at once
+   * @return An empty pool
+   */
+  static MappedWaveformFilePool create(int maxMappedFiles) {
+    Preconditions.checkArgument(maxMappedFiles > 0, "Must keep at least one file mapped");
+    return new MappedWaveformFilePool(maxMappedFiles);
+  }
+
+  /**
+   * Provides the data of a .w file from the given byte offset on, from a shared mapping of the
+   * file, mapping the file again if its size differs from that of its mapping. Files too large to
+   * map whole have just the region from the offset on mapped, without being pooled.
+   *
+   * @param file Path of the .w file
+   * @param size Current size of the file in bytes
+   * @param foff Byte offset in the file of the data
+   * @return A read-only buffer of the data, positioned at the offset
+   * @throws IOException if the file could not be mapped or is shorter than the offset
+   */
+  ByteBuffer read(Path file, long size, long foff) throws IOException {
+    if (foff > size) {
+      throw new IOException("Number of bytes of file less than foff.");
+    }
+
+    MappedByteBuffer mapping;
+    synchronized (mappings) {
+      mapping = mappings.get(file);
+    }
+
+    if (mapping == null || mapping.capacity() != size) {
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+        long mappedSize = channel.size();
+        if (foff > mappedSize) {
+          throw new IOException("Number of bytes of file less than foff.");
+        }
+
+        if (mappedSize > Integer.MAX_VALUE) {
+          return channel.map(FileChannel.MapMode.READ_ONLY, foff,
+            Math.min(mappedSize - foff, Integer.MAX_VALUE));
+        }
+
+        mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, mappedSize);
+      }
+
+      synchronized (mappings) {
+        mappings.put(file, mapping);
+      }
+    }
+
+    return mapping.duplicate().position((int) foff);
+  }
+
+  /**
+   * @return Number of files currently mapped
+   */
+  int size() {
+    synchronized (mappings) {
+      return mappings.size();
+    }
+  }
+}
@@ -0,0 +1,248 @@
+package gms.shared.waveform.converter;
+
+import com.google.common.base.Preconditions;
+import gms.shared.metrics.MetricRegister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Size-bounded cache of the decoded, calibrated samples of whole wfdisc blocks, held off-heap and
+ * evicted least recently used first, so that repeated and overlapping requests for the same data
+ * are served without reading or decoding the .w file again. Blocks larger than the block size limit
+ * are not cached, so that a single block cannot flush the rest and a request for a small window of
+ * a large block does not decode all of it. Hits, misses and size are exported over JMX as
+ * {@value #OBJECT_NAME}.
+ */
+public class WaveformBlockCache implements WaveformBlockCacheMBean {
+
+  private static final Logger logger = LoggerFactory.getLogger(WaveformBlockCache.class);
+
+  static final String OBJECT_NAME = "waveform_block_cache:type=Cache";
+
+  private final long maxBytes;
+  private final long maxBlockBytes;
+  private final Map<Key, DoubleBuffer> blocks = new LinkedHashMap<>(16, 0.75f, true);
+  private long cachedBytes;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  WaveformBlockCache(long maxBytes, long maxBlockBytes) {
+    Preconditions.checkArgument(maxBytes > 0, "Waveform block cache size must be positive");
+    Preconditions.checkArgument(maxBlockBytes > 0 && maxBlockBytes <= maxBytes,
+      "Waveform block size limit must be positive and at most the cache size");
+    this.maxBytes = maxBytes;
+    this.maxBlockBytes = maxBlockBytes;
+  }
+
+  /**
+   * Creates an empty cache and registers its metrics over JMX, replacing any already registered.
+   * Failure to register is logged, leaving the metrics unexported.
+   *
+   * @param maxBytes Most bytes of samples to hold
+   * @param maxBlockBytes Most bytes of samples of a single cached block
+   * @return An empty cache
+   */
+  public static WaveformBlockCache create(long maxBytes, long maxBlockBytes) {
+    var cache = new WaveformBlockCache(maxBytes, maxBlockBytes);
+    try {
+      MetricRegister.register(cache, new ObjectName(OBJECT_NAME));
+    } catch (JMException e) {
+      logger.warn("Waveform block cache metrics failed to register and will not be exported", e);
+    }
+    return cache;
+  }
+
+  /**
+   * @param samples Number of samples in a block
+   * @return Whether a block of that many samples would be cached
+   */
+  boolean admits(int samples) {
+    return (long) samples * Double.BYTES <= maxBlockBytes;
+  }
+
+  /**
+   * Looks up the samples of a block, counting a hit or a miss
+   *
+   * @param key Key of the block
+   * @return A read-only view of the samples of the block, or null if it is not cached
+   */
+  DoubleBuffer get(Key key) {
+    DoubleBuffer block;
+    synchronized (blocks) {
+      block = blocks.get(key);
+    }
+
+    if (block == null) {
+      misses.increment();
+      return null;
+    }
+    hits.increment();
+    return block.asReadOnlyBuffer();
+  }
+
+  /**
+   * Copies the samples of a block off-heap into the cache, evicting the least recently used
+   * blocks to make room for it. Blocks the cache does not {@link #admits(int) admit} are ignored.
+   *
+   * @param key Key of the block
+   * @param samples All the decoded, calibrated samples of the block
+   */
+  void put(Key key, double[] samples) {
+    if (!admits(samples.length)) {
+      return;
+    }
+
+    DoubleBuffer block = ByteBuffer.allocateDirect(samples.length * Double.BYTES)
+      .order(ByteOrder.nativeOrder())
+      .asDoubleBuffer()
+      .put(samples)
+      .flip();
+
+    synchronized (blocks) {
+      if (blocks.putIfAbsent(key, block) != null) {
+        return;
+      }
+      cachedBytes += bytes(block);
+
+      Iterator<DoubleBuffer> eldest = blocks.values().iterator();
+      while (cachedBytes > maxBytes) {
+        cachedBytes -= bytes(eldest.next());
+        eldest.remove();
+        evictions.increment();
+      }
+    }
+  }
+
+  private static long bytes(DoubleBuffer block) {
+    return (long) block.capacity() * Double.BYTES;
+  }
+
+  @Override
+  public long getHits() {
+    return hits.sum();
+  }
+
+  @Override
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  @Override
+  public double getHitRatio() {
+    long hitCount = hits.sum();
+    long total = hitCount + misses.sum();
+    return total == 0 ? 0 : (double) hitCount / total;
+  }
+
+  @Override
+  public long getEvictions() {
+    return evictions.sum();
+  }
+
+  @Override
+  public long getCachedBlocks() {
+    synchronized (blocks) {
+      return blocks.size();
+    }
+  }
+
+  @Override
+  public long getCachedBytes() {
+    synchronized (blocks) {
+      return cachedBytes;
+    }
+  }
+
+  @Override
+  public long getMaxBytes() {
+    return maxBytes;
+  }
+
+  @Override
+  public long getMaxBlockBytes() {
+    return maxBlockBytes;
+  }
+
+  /**
+   * Identifies the decoded samples of a wfdisc block by everything that determines them, including
+   * the size and modification time of the .w file, so that a block of a file that has since been
+   * written to is not served
+   */
+  static final class Key {
+
+    private final Path file;
+    private final long fileSize;
+    private final long lastModifiedMillis;
+    private final long foff;
+    private final int nsamp;
+    private final String dataType;
+    private final double calib;
+
+    Key(Path file, long fileSize, long lastModifiedMillis, long foff, int nsamp, String dataType, double calib) {
+      this.file = file;
+      this.fileSize = fileSize;
+      this.lastModifiedMillis = lastModifiedMillis;
+      this.foff = foff;
+      this.nsamp = nsamp;
+      this.dataType = dataType;
+      this.calib = calib;
+    }
+
+    long getFileSize() {
+      return fileSize;
+    }
+
+    long getFoff() {
+      return foff;
+    }
+
+    int getNsamp() {
+      return nsamp;
+    }
+
+    String getDataType() {
+      return dataType;
+    }
+
+    double getCalib() {
+      return calib;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key key = (Key) o;
+      return fileSize == key.fileSize
+        && lastModifiedMillis == key.lastModifiedMillis
+        && foff == key.foff
+        && nsamp == key.nsamp
+        && Double.compare(calib, key.calib) == 0
+        && file.equals(key.file)
+        && dataType.equals(key.dataType);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(file, fileSize, lastModifiedMillis, foff, nsamp, dataType, calib);
+    }
+  }
+}
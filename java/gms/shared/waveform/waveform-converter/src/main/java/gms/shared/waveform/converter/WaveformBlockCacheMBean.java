@@ -0,0 +1,23 @@
+package gms.shared.waveform.converter;
+
+/**
+ * JMX view of the hits, misses and size of a {@link WaveformBlockCache}.
+ */
+public interface WaveformBlockCacheMBean {
+
+  long getHits();
+
+  long getMisses();
+
+  double getHitRatio();
+
+  long getEvictions();
+
+  long getCachedBlocks();
+
+  long getCachedBytes();
+
+  long getMaxBytes();
+
+  long getMaxBlockBytes();
+}
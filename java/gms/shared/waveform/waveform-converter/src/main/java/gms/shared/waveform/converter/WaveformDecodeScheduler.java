@@ -0,0 +1,101 @@
+package gms.shared.waveform.converter;
+
+import com.google.common.base.Preconditions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Runs the independent reads and decodes of a request on a worker pool shared by all requests.
+ * Each request has at most its concurrency budget of tasks queued or running at once, so a request
+ * spanning many wfdiscs takes its turn in the pool's queue with the others rather than filling
+ * it, while still using as many workers as its budget allows when the pool is idle.
+ */
+final class WaveformDecodeScheduler {
+
+  private final ExecutorService workers;
+  private final int requestConcurrency;
+
+  private WaveformDecodeScheduler(ExecutorService workers, int requestConcurrency) {
+    this.workers = workers;
+    this.requestConcurrency = requestConcurrency;
+  }
+
+  /**
+   * @param workerThreads Number of threads in the shared worker pool
+   * @param requestConcurrency Most tasks of a single request queued or running at once
+   * @return A scheduler with its own pool of daemon worker threads
+   */
+  static WaveformDecodeScheduler create(int workerThreads, int requestConcurrency) {
+    Preconditions.checkArgument(workerThreads > 0, "Must have at least one worker thread");
+    Preconditions.checkArgument(requestConcurrency > 0, "Request concurrency must be positive");
+
+    var threadCount = new AtomicInteger();
+    ExecutorService workers = Executors.newFixedThreadPool(workerThreads, runnable -> {
+      var thread = new Thread(runnable, "waveform-decode-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    return new WaveformDecodeScheduler(workers, requestConcurrency);
+  }
+
+  /**
+   * Applies a task to each input on the worker pool, waiting for all of them to complete. A single
+   * input is run on the calling thread.
+   *
+   * @param inputs Inputs of the tasks
+   * @param task Task to apply to each input
+   * @return The results of the tasks, in the order of their inputs
+   * @throws RuntimeException thrown by any task, once the remaining tasks have been cancelled
+   */
+  <T, R> List<R> map(List<T> inputs, Function<T, R> task) {
+    if (inputs.size() <= 1) {
+      List<R> results = new ArrayList<>(inputs.size());
+      inputs.forEach(input -> results.add(task.apply(input)));
+      return results;
+    }
+
+    CompletionService<Void> completions = new ExecutorCompletionService<>(workers);
+    List<Future<Void>> submitted = new ArrayList<>(inputs.size());
+    Object[] results = new Object[inputs.size()];
+    try {
+      for (int i = 0; i < inputs.size(); i++) {
+        if (i >= requestConcurrency) {
+          completions.take().get();
+        }
+        int index = i;
+        submitted.add(completions.submit(() -> {
+          results[index] = task.apply(inputs.get(index));
+          return null;
+        }));
+      }
+      for (int i = Math.min(requestConcurrency, inputs.size()); i > 0; i--) {
+        completions.take().get();
+      }
+    } catch (InterruptedException e) {
+      submitted.forEach(future -> future.cancel(true));
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while decoding waveforms", e);
+    } catch (ExecutionException e) {
+      submitted.forEach(future -> future.cancel(true));
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException("Error decoding waveforms", e.getCause());
+    }
+
+    // Completion of each task happens-before its result is taken, so all results are visible
+    @SuppressWarnings("unchecked")
+    List<R> ordered = (List<R>) Arrays.asList(results);
+    return ordered;
+  }
+}
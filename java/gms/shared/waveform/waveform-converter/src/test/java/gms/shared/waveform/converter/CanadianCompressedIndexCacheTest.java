@@ -0,0 +1,87 @@
+package gms.shared.waveform.converter;
+
+import gms.utilities.waveformreader.CanadianCompressedIndex;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CanadianCompressedIndexCacheTest {
+
+  private static final Path FILE = Path.of("/data/ARCES.w");
+
+  private final AtomicInteger builds = new AtomicInteger();
+
+  @Test
+  void testCreateNonPositiveSizeThrows() {
+    assertThrows(IllegalArgumentException.class, () -> CanadianCompressedIndexCache.create(0));
+  }
+
+  @Test
+  void testIndexBuiltOnce() {
+    CanadianCompressedIndexCache cache = CanadianCompressedIndexCache.create(1024);
+
+    CanadianCompressedIndex index = cache.get(key(0, 1000), builder(40));
+    assertSame(index, cache.get(key(0, 1000), builder(40)));
+    assertEquals(1, builds.get());
+    assertEquals(40, cache.getCachedBytes());
+  }
+
+  @Test
+  void testKeyIncludesFileModificationTime() {
+    CanadianCompressedIndexCache cache = CanadianCompressedIndexCache.create(1024);
+
+    CanadianCompressedIndex index = cache.get(key(0, 1000), builder(20));
+    assertNotSame(index, cache.get(key(0, 2000), builder(20)));
+    assertEquals(2, builds.get());
+  }
+
+  @Test
+  void testLeastRecentlyUsedEvicted() {
+    CanadianCompressedIndexCache cache = CanadianCompressedIndexCache.create(40);
+
+    CanadianCompressedIndex a = cache.get(key(0, 1000), builder(20));
+    cache.get(key(100, 1000), builder(20));
+    cache.get(key(0, 1000), builder(20));
+    cache.get(key(200, 1000), builder(20));
+    assertEquals(2, cache.size());
+    assertEquals(40, cache.getCachedBytes());
+    assertEquals(3, builds.get());
+
+    // The index at 100 was evicted, and the one at 0 kept
+    assertSame(a, cache.get(key(0, 1000), builder(20)));
+    cache.get(key(100, 1000), builder(20));
+    assertEquals(4, builds.get());
+  }
+
+  @Test
+  void testIndexLargerThanCacheNotCached() {
+    CanadianCompressedIndexCache cache = CanadianCompressedIndexCache.create(20);
+
+    cache.get(key(0, 1000), builder(40));
+    assertEquals(0, cache.size());
+    assertEquals(0, cache.getCachedBytes());
+  }
+
+  private static WaveformBlockCache.Key key(long foff, long lastModifiedMillis) {
+    return new WaveformBlockCache.Key(FILE, 4096, lastModifiedMillis, foff, 40, "cc", 1.0);
+  }
+
+  /**
+   * @return Builder of the index of zeroed data holding the given number of samples, 20 bytes per
+   * block of 20 samples
+   */
+  private Supplier<CanadianCompressedIndex> builder(int numSamples) {
+    return () -> {
+      builds.incrementAndGet();
+      return CanadianCompressedIndex.build(ByteBuffer.allocate(numSamples * 4 + 16), numSamples);
+    };
+  }
+}
@@ -2,6 +2,7 @@ package gms.shared.waveform.converter;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import gms.shared.frameworks.systemconfig.SystemConfig;
 import gms.shared.stationdefinition.coi.channel.Channel;
 import gms.shared.stationdefinition.dao.css.StationChannelTimeKey;
 import gms.shared.stationdefinition.dao.css.WfdiscDao;
@@ -27,6 +28,8 @@ import java.util.stream.Collectors;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 class ChannelSegmentConverterTest {
 
@@ -47,7 +50,15 @@ class ChannelSegmentConverterTest {
 
   @BeforeEach
   void setUp() {
-    channelSegmentConverter = ChannelSegmentConvertImpl.create();
+    SystemConfig systemConfig = mock(SystemConfig.class);
+    when(systemConfig.getValueAsInt(ChannelSegmentConvertImpl.MAPPED_FILE_LIMIT_CONFIG_KEY)).thenReturn(16);
+    when(systemConfig.getValueAsLong(ChannelSegmentConvertImpl.BLOCK_CACHE_BYTES_CONFIG_KEY)).thenReturn(1L << 24);
+    when(systemConfig.getValueAsLong(ChannelSegmentConvertImpl.BLOCK_CACHE_MAX_BLOCK_BYTES_CONFIG_KEY))
+      .thenReturn(1L << 20);
+    when(systemConfig.getValueAsLong(ChannelSegmentConvertImpl.COMPRESSED_INDEX_CACHE_BYTES_CONFIG_KEY))
+      .thenReturn(1L << 20);
+    when(systemConfig.getValueAsInt(ChannelSegmentConvertImpl.DECODE_THREADS_CONFIG_KEY)).thenReturn(4);
+    channelSegmentConverter = ChannelSegmentConvertImpl.create(systemConfig);
   }
 
   @Test
@@ -0,0 +1,99 @@
+package gms.shared.waveform.converter;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MappedWaveformFilePoolTest {
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void testCreateNonPositiveSizeThrows() {
+    assertThrows(IllegalArgumentException.class, () -> MappedWaveformFilePool.create(0));
+  }
+
+  @Test
+  void testReadPositionedAtOffset() throws IOException {
+    Path file = write("a.w", new byte[]{1, 2, 3, 4});
+    MappedWaveformFilePool pool = MappedWaveformFilePool.create(2);
+
+    ByteBuffer first = read(pool, file, 1);
+    ByteBuffer second = read(pool, file, 3);
+    assertEquals(2, first.get());
+    assertEquals(4, second.get());
+    // Both reads share the one mapping
+    assertEquals(1, pool.size());
+  }
+
+  @Test
+  void testLeastRecentlyUsedEvicted() throws IOException {
+    Path a = write("a.w", new byte[]{1});
+    Path b = write("b.w", new byte[]{2});
+    Path c = write("c.w", new byte[]{3});
+    MappedWaveformFilePool pool = MappedWaveformFilePool.create(2);
+
+    read(pool, a, 0);
+    read(pool, b, 0);
+    read(pool, a, 0);
+    read(pool, c, 0);
+    assertEquals(2, pool.size());
+
+    // b was evicted, so deleting it makes it unreadable while a is still mapped
+    Files.delete(b);
+    Files.delete(a);
+    assertEquals(1, pool.read(a, 1, 0).get());
+    assertThrows(IOException.class, () -> pool.read(b, 1, 0));
+  }
+
+  @Test
+  void testOffsetPastEndThrows() throws IOException {
+    Path file = write("a.w", new byte[]{1, 2});
+    MappedWaveformFilePool pool = MappedWaveformFilePool.create(1);
+
+    assertThrows(IOException.class, () -> read(pool, file, 3));
+  }
+
+  @Test
+  void testGrownFileRemapped() throws IOException {
+    Path file = write("a.w", new byte[]{1, 2});
+    MappedWaveformFilePool pool = MappedWaveformFilePool.create(1);
+    ByteBuffer before = read(pool, file, 0);
+    assertEquals(2, before.remaining());
+
+    Files.write(file, new byte[]{3, 4}, StandardOpenOption.APPEND);
+    assertEquals(3, read(pool, file, 2).get());
+    assertEquals(4, read(pool, file, 0).remaining());
+    // Views of the old mapping are unaffected
+    assertEquals(2, before.remaining());
+  }
+
+  @Test
+  void testMappingReusedWhileSizeUnchanged() throws IOException {
+    Path file = write("a.w", new byte[]{1, 2});
+    MappedWaveformFilePool pool = MappedWaveformFilePool.create(1);
+    read(pool, file, 0);
+
+    // A read of the file at the size it was mapped at is served from the mapping
+    Files.write(file, new byte[]{3, 4}, StandardOpenOption.APPEND);
+    assertEquals(2, pool.read(file, 2, 0).remaining());
+    assertThrows(IOException.class, () -> pool.read(file, 2, 3));
+  }
+
+  private static ByteBuffer read(MappedWaveformFilePool pool, Path file, long foff) throws IOException {
+    return pool.read(file, Files.size(file), foff);
+  }
+
+  private Path write(String name, byte[] bytes) throws IOException {
+    return Files.write(tempDir.resolve(name), bytes);
+  }
+}
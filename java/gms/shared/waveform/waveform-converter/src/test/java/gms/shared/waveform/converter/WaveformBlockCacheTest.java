@@ -0,0 +1,92 @@
+package gms.shared.waveform.converter;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.DoubleBuffer;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WaveformBlockCacheTest {
+
+  private static final Path FILE = Path.of("/data/ARCES.w");
+
+  @Test
+  void testCreateValidation() {
+    assertThrows(IllegalArgumentException.class, () -> new WaveformBlockCache(0, 0));
+    assertThrows(IllegalArgumentException.class, () -> new WaveformBlockCache(128, 0));
+    assertThrows(IllegalArgumentException.class, () -> new WaveformBlockCache(128, 256));
+  }
+
+  @Test
+  void testHitsAndMissesCounted() {
+    WaveformBlockCache cache = new WaveformBlockCache(1024, 256);
+    assertNull(cache.get(key(0, 4)));
+
+    cache.put(key(0, 4), new double[]{1, 2, 3, 4});
+    DoubleBuffer block = cache.get(new WaveformBlockCache.Key(FILE, 64, 1000, 0, 4, "s4", 1.5));
+    assertEquals(4, block.remaining());
+    assertEquals(3, block.get(2));
+    assertTrue(block.isReadOnly());
+
+    assertEquals(1, cache.getHits());
+    assertEquals(1, cache.getMisses());
+    assertEquals(0.5, cache.getHitRatio());
+    assertEquals(32, cache.getCachedBytes());
+  }
+
+  @Test
+  void testKeyIncludesCalibration() {
+    WaveformBlockCache cache = new WaveformBlockCache(1024, 256);
+    cache.put(key(0, 4), new double[]{1, 2, 3, 4});
+
+    assertNull(cache.get(new WaveformBlockCache.Key(FILE, 64, 1000, 0, 4, "s4", 2.0)));
+  }
+
+  @Test
+  void testKeyIncludesFileSizeAndModificationTime() {
+    WaveformBlockCache cache = new WaveformBlockCache(1024, 256);
+    cache.put(key(0, 4), new double[]{1, 2, 3, 4});
+
+    assertNull(cache.get(new WaveformBlockCache.Key(FILE, 96, 1000, 0, 4, "s4", 1.5)));
+    assertNull(cache.get(new WaveformBlockCache.Key(FILE, 64, 2000, 0, 4, "s4", 1.5)));
+  }
+
+  @Test
+  void testLeastRecentlyUsedEvicted() {
+    // Room for four blocks of four samples
+    WaveformBlockCache cache = new WaveformBlockCache(128, 32);
+    cache.put(key(0, 4), new double[4]);
+    cache.put(key(16, 4), new double[4]);
+    cache.put(key(32, 4), new double[4]);
+    cache.put(key(48, 4), new double[4]);
+    cache.get(key(0, 4));
+    cache.put(key(64, 4), new double[4]);
+    cache.put(key(80, 4), new double[4]);
+
+    assertEquals(2, cache.getEvictions());
+    assertEquals(4, cache.getCachedBlocks());
+    assertEquals(128, cache.getCachedBytes());
+    assertNull(cache.get(key(16, 4)));
+    assertNull(cache.get(key(32, 4)));
+    assertEquals(4, cache.get(key(0, 4)).remaining());
+  }
+
+  @Test
+  void testLargeBlocksNotCached() {
+    WaveformBlockCache cache = new WaveformBlockCache(128, 32);
+    assertTrue(cache.admits(4));
+    assertFalse(cache.admits(5));
+
+    cache.put(key(0, 5), new double[5]);
+    assertEquals(0, cache.getCachedBlocks());
+  }
+
+  private static WaveformBlockCache.Key key(long foff, int nsamp) {
+    return new WaveformBlockCache.Key(FILE, 64, 1000, foff, nsamp, "s4", 1.5);
+  }
+}
@@ -0,0 +1,72 @@
+package gms.shared.waveform.converter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WaveformDecodeSchedulerTest {
+
+  @Test
+  void testCreateValidation() {
+    assertThrows(IllegalArgumentException.class, () -> WaveformDecodeScheduler.create(0, 1));
+    assertThrows(IllegalArgumentException.class, () -> WaveformDecodeScheduler.create(1, 0));
+  }
+
+  @Test
+  void testResultsInInputOrder() {
+    WaveformDecodeScheduler scheduler = WaveformDecodeScheduler.create(4, 4);
+    List<Integer> inputs = IntStream.range(0, 100).boxed().collect(Collectors.toList());
+
+    // Later inputs finish first
+    List<Integer> results = scheduler.map(inputs, input -> {
+      sleep(100 - input);
+      return input * 2;
+    });
+
+    assertEquals(inputs.stream().map(input -> input * 2).collect(Collectors.toList()), results);
+  }
+
+  @Test
+  void testRequestConcurrencyBounded() {
+    WaveformDecodeScheduler scheduler = WaveformDecodeScheduler.create(8, 2);
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+
+    scheduler.map(IntStream.range(0, 20).boxed().collect(Collectors.toList()), input -> {
+      maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+      sleep(5);
+      running.decrementAndGet();
+      return input;
+    });
+
+    assertTrue(maxRunning.get() <= 2);
+  }
+
+  @Test
+  void testTaskExceptionRethrown() {
+    WaveformDecodeScheduler scheduler = WaveformDecodeScheduler.create(2, 2);
+
+    List<Integer> inputs = List.of(1, 2, 3);
+    assertThrows(IllegalArgumentException.class, () -> scheduler.map(inputs, input -> {
+      if (input == 2) {
+        throw new IllegalArgumentException("bad block");
+      }
+      return input;
+    }));
+  }
+
+  private static void sleep(int millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -19,8 +19,10 @@ import gms.shared.waveform.coi.ChannelSegment;
 import gms.shared.waveform.coi.Waveform;
 import gms.shared.waveform.repository.BridgedWaveformRepositoryFactory;
 import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
 
 import javax.persistence.EntityManagerFactory;
+import java.time.Duration;
 import java.util.Collection;
 
 public class WaveformManager implements WaveformManagerInterface {
@@ -34,6 +36,9 @@ public class WaveformManager implements WaveformManagerInterface {
   private static final TimingLogger<Collection<ChannelSegment<Waveform>>> timingLogger =
     TimingLogger.create(logger);
 
+  // Time interval of waveforms read and sent at a time by the streaming operations
+  private static final Duration STREAM_CHUNK_DURATION = Duration.ofHours(1);
+
   protected WaveformManager(WaveformAccessorInterface waveformAccessorImpl) {
     this.waveformAccessorImpl = waveformAccessorImpl;
   }
@@ -55,7 +60,8 @@ public class WaveformManager implements WaveformManagerInterface {
       .create(context.getSystemConfig(),
         BridgedWaveformRepositoryFactory.create(
           emf,
-          ClientGenerator.createClient(StationDefinitionManagerInterface.class)),
+          ClientGenerator.createClient(StationDefinitionManagerInterface.class),
+          context.getSystemConfig()),
         StationDefinitionAccessorFactory.create(StationDefinitionDatabaseConnectorFactory.create(emf))
       );
 
@@ -101,4 +107,30 @@ public class WaveformManager implements WaveformManagerInterface {
         channelSegmentDescriptorRequest.getChannelSegmentDescriptors()));
 
   }
+
+  @Override
+  public Flux<ChannelSegment<Waveform>> streamWaveformsByChannelsAndTimeRange(
+    ChannelTimeRangeRequest channelTimeRangeRequest) {
+
+    if (channelTimeRangeRequest.getFacetingDefinition().isPresent()) {
+      return waveformAccessorImpl.streamByChannelsAndTimeRange(channelTimeRangeRequest.getChannels(),
+        channelTimeRangeRequest.getStartTime(), channelTimeRangeRequest.getEndTime(), STREAM_CHUNK_DURATION,
+        channelTimeRangeRequest.getFacetingDefinition().get());
+    }
+    return waveformAccessorImpl.streamByChannelsAndTimeRange(channelTimeRangeRequest.getChannels(),
+      channelTimeRangeRequest.getStartTime(), channelTimeRangeRequest.getEndTime(), STREAM_CHUNK_DURATION);
+  }
+
+  @Override
+  public Flux<ChannelSegment<Waveform>> streamWaveformsByChannelSegmentDescriptors(
+    ChannelSegmentDescriptorRequest channelSegmentDescriptorRequest) {
+
+    if (channelSegmentDescriptorRequest.getFacetingDefinition().isPresent()) {
+      return waveformAccessorImpl.streamByChannelNamesAndSegmentDescriptor(
+        channelSegmentDescriptorRequest.getChannelSegmentDescriptors(), STREAM_CHUNK_DURATION,
+        channelSegmentDescriptorRequest.getFacetingDefinition().get());
+    }
+    return waveformAccessorImpl.streamByChannelNamesAndSegmentDescriptor(
+      channelSegmentDescriptorRequest.getChannelSegmentDescriptors(), STREAM_CHUNK_DURATION);
+  }
 }
@@ -1,9 +1,22 @@
 import gms.shared.frameworks.configuration.repository.client.ConfigurationConsumerUtility;
 import gms.shared.frameworks.control.ControlContext;
 import gms.shared.frameworks.systemconfig.SystemConfig;
+import gms.shared.stationdefinition.coi.channel.Channel;
 import gms.shared.utilities.bridge.database.BridgedEntityManagerFactoryProvider;
+import gms.shared.waveform.api.WaveformAccessorInterface;
+import gms.shared.waveform.api.util.ChannelSegmentDescriptorRequest;
+import gms.shared.waveform.api.util.ChannelTimeRangeRequest;
+import gms.shared.waveform.coi.ChannelSegment;
+import gms.shared.waveform.coi.ChannelSegmentDescriptor;
+import gms.shared.waveform.coi.Waveform;
 import gms.shared.waveform.manager.service.WaveformManager;
 import javax.persistence.EntityManagerFactory;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
 
 
 import org.junit.jupiter.api.Test;
@@ -12,6 +25,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.ArgumentMatchers.any;
 
@@ -37,4 +51,59 @@ class WaveformManagerTest {
     assertEquals(entityManagerFactory, entityManagerFactoryReceived);
   }
 
+  @Test
+  @SuppressWarnings("unchecked")
+  void streamWaveformsByChannelsAndTimeRangeStreamsHourChunks() {
+    WaveformAccessorInterface accessor = mock(WaveformAccessorInterface.class);
+    WaveformManager manager = new WaveformManager(accessor) {
+    };
+
+    Channel channel = Channel.createEntityReference("ARCES.ARA0.SHZ");
+    Instant startTime = Instant.parse("2021-10-01T00:00:00Z");
+    Instant endTime = startTime.plusSeconds(9000);
+    ChannelSegment<Waveform> first = mock(ChannelSegment.class);
+    ChannelSegment<Waveform> second = mock(ChannelSegment.class);
+
+    when(accessor.streamByChannelsAndTimeRange(Set.of(channel), startTime, endTime, Duration.ofHours(1)))
+      .thenReturn(Flux.just(first, second));
+
+    List<ChannelSegment<Waveform>> streamed = manager.streamWaveformsByChannelsAndTimeRange(
+      ChannelTimeRangeRequest.builder()
+        .setChannels(Set.of(channel))
+        .setStartTime(startTime)
+        .setEndTime(endTime)
+        .build())
+      .collectList()
+      .block();
+
+    assertEquals(List.of(first, second), streamed);
+    verify(accessor).streamByChannelsAndTimeRange(Set.of(channel), startTime, endTime, Duration.ofHours(1));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void streamWaveformsByChannelSegmentDescriptorsStreamsHourChunks() {
+    WaveformAccessorInterface accessor = mock(WaveformAccessorInterface.class);
+    WaveformManager manager = new WaveformManager(accessor) {
+    };
+
+    Instant startTime = Instant.parse("2021-10-01T00:00:00Z");
+    ChannelSegmentDescriptor descriptor = ChannelSegmentDescriptor.from(
+      Channel.createVersionReference("ARCES.ARA0.SHZ", startTime), startTime, startTime.plusSeconds(9000),
+      startTime);
+    ChannelSegment<Waveform> first = mock(ChannelSegment.class);
+
+    when(accessor.streamByChannelNamesAndSegmentDescriptor(List.of(descriptor), Duration.ofHours(1)))
+      .thenReturn(Flux.just(first));
+
+    List<ChannelSegment<Waveform>> streamed = manager.streamWaveformsByChannelSegmentDescriptors(
+      ChannelSegmentDescriptorRequest.builder()
+        .setChannelSegmentDescriptors(List.of(descriptor))
+        .build())
+      .collectList()
+      .block();
+
+    assertEquals(List.of(first), streamed);
+  }
+
 }